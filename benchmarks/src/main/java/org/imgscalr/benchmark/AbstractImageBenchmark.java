@@ -0,0 +1,74 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base class for all imgscalr benchmarks, responsible for creating the source
+ * image every benchmark operates on.
+ * <p/>
+ * Every benchmark is parameterized by the width of the source image (the
+ * height is always 3/4 of the width, like most camera output) and by the
+ * {@link SourceType} of the image. Subclasses add the parameters specific to
+ * the operation they measure.
+ * <p/>
+ * All benchmarks report throughput in operations per second; run them with
+ * {@link BenchmarkMain} (the default entry point of the benchmark JAR) to also
+ * get the bytes allocated per operation (<code>gc.alloc.rate.norm</code>).
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g", "-Djava.awt.headless=true" })
+public abstract class AbstractImageBenchmark {
+	@Param({ "640", "1920", "4000" })
+	public int sourceWidth;
+
+	@Param
+	public SourceType sourceType;
+
+	protected BufferedImage src;
+
+	@Setup(Level.Trial)
+	public void createSource() {
+		src = sourceType.create(sourceWidth, (sourceWidth * 3) / 4);
+	}
+
+	@TearDown(Level.Trial)
+	public void flushSource() {
+		src.flush();
+	}
+}
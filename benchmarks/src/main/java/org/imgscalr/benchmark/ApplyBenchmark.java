@@ -0,0 +1,55 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+
+import org.imgscalr.Scalr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link Scalr#apply(BufferedImage, BufferedImageOp...)} with the
+ * pre-defined {@link Scalr#OP_ANTIALIAS} and {@link Scalr#OP_GRAYSCALE} ops,
+ * alone and combined.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+public class ApplyBenchmark extends AbstractImageBenchmark {
+	public static enum Ops {
+		ANTIALIAS(Scalr.OP_ANTIALIAS), GRAYSCALE(Scalr.OP_GRAYSCALE), ANTIALIAS_GRAYSCALE(
+				Scalr.OP_ANTIALIAS, Scalr.OP_GRAYSCALE);
+
+		final BufferedImageOp[] ops;
+
+		private Ops(BufferedImageOp... ops) {
+			this.ops = ops;
+		}
+	}
+
+	@Param
+	public Ops ops;
+
+	@Benchmark
+	public BufferedImage apply() {
+		return Scalr.apply(src, ops.ops);
+	}
+}
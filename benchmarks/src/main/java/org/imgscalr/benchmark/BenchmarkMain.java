@@ -0,0 +1,46 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark JAR.
+ * <p/>
+ * Accepts every standard JMH command line option (e.g. a benchmark regex,
+ * <code>-p method=QUALITY</code>, <code>-rf json</code>) and always attaches
+ * the JMH {@link GCProfiler} so every result reports the bytes allocated per
+ * operation (<code>gc.alloc.rate.norm</code>) next to the ops/sec score.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class BenchmarkMain {
+	public static void main(String[] args) throws CommandLineOptionException,
+			RunnerException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,58 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr.benchmark;
+
+import java.awt.image.BufferedImage;
+
+import org.imgscalr.Scalr;
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link Scalr#resize(BufferedImage, Method, Mode, int, int, java.awt.image.BufferedImageOp...)}
+ * for every {@link Method} and {@link Mode} combination.
+ * <p/>
+ * Because the <code>method</code> and <code>mode</code> parameters list no
+ * explicit values, JMH runs every constant of the enums; new scaling methods
+ * are picked up automatically.
+ * <p/>
+ * The target sizes cover a thumbnail, a typical web size and an up-scale
+ * from the smallest source. Use <code>-p</code> on the command line to narrow
+ * the (large) parameter space down when comparing specific cases.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+public class ResizeBenchmark extends AbstractImageBenchmark {
+	@Param
+	public Method method;
+
+	@Param
+	public Mode mode;
+
+	@Param({ "150", "800" })
+	public int targetSize;
+
+	@Benchmark
+	public BufferedImage resize() {
+		return Scalr.resize(src, method, mode, targetSize, targetSize);
+	}
+}
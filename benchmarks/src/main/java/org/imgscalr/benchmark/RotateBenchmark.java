@@ -0,0 +1,43 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr.benchmark;
+
+import java.awt.image.BufferedImage;
+
+import org.imgscalr.Scalr;
+import org.imgscalr.Scalr.Rotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link Scalr#rotate(BufferedImage, Rotation, java.awt.image.BufferedImageOp...)}
+ * for every {@link Rotation}.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+@State(Scope.Benchmark)
+public class RotateBenchmark extends AbstractImageBenchmark {
+	@Param
+	public Rotation rotation;
+
+	@Benchmark
+	public BufferedImage rotate() {
+		return Scalr.rotate(src, rotation);
+	}
+}
@@ -0,0 +1,164 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr.benchmark;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The different kinds of source {@link BufferedImage}s the benchmarks are run
+ * against.
+ * <p/>
+ * The types were picked to match what callers actually hand to imgscalr in
+ * production: the two "optimal" types imgscalr works in internally, plus the
+ * types {@link ImageIO} hands back when decoding JPEGs, PNGs and GIFs. The
+ * <code>JPEG_3BYTE_BGR</code> and <code>PNG_4BYTE_ABGR</code> sources are
+ * created by round-tripping the generated image through the matching
+ * {@link ImageIO} codec so the resulting raster layout is exactly what a real
+ * decode produces.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public enum SourceType {
+	INT_RGB {
+		@Override
+		BufferedImage create(int width, int height) {
+			return paint(new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_RGB));
+		}
+	},
+	INT_ARGB {
+		@Override
+		BufferedImage create(int width, int height) {
+			return paint(new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB));
+		}
+	},
+	JPEG_3BYTE_BGR {
+		@Override
+		BufferedImage create(int width, int height) {
+			return decode(INT_RGB.create(width, height), "jpg",
+					BufferedImage.TYPE_3BYTE_BGR);
+		}
+	},
+	PNG_4BYTE_ABGR {
+		@Override
+		BufferedImage create(int width, int height) {
+			return decode(INT_ARGB.create(width, height), "png",
+					BufferedImage.TYPE_4BYTE_ABGR);
+		}
+	},
+	BYTE_GRAY {
+		@Override
+		BufferedImage create(int width, int height) {
+			return paint(new BufferedImage(width, height,
+					BufferedImage.TYPE_BYTE_GRAY));
+		}
+	},
+	BYTE_INDEXED {
+		@Override
+		BufferedImage create(int width, int height) {
+			return paint(new BufferedImage(width, height,
+					BufferedImage.TYPE_BYTE_INDEXED));
+		}
+	};
+
+	/**
+	 * Used to create a new source image of this type with the given
+	 * dimensions. The content is generated deterministically so every run of
+	 * the benchmark scales exactly the same pixels.
+	 */
+	abstract BufferedImage create(int width, int height);
+
+	/**
+	 * Fills the image with photo-like content: smooth gradients, hard edges,
+	 * thin diagonal lines (which show aliasing problems) and some noise so the
+	 * image doesn't compress down to nothing.
+	 */
+	static BufferedImage paint(BufferedImage image) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		Random random = new Random(42);
+		Graphics2D g = image.createGraphics();
+
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setPaint(new GradientPaint(0, 0, new Color(20, 60, 140), width,
+				height, new Color(250, 200, 80)));
+		g.fillRect(0, 0, width, height);
+
+		for (int i = 0; i < 64; i++) {
+			g.setColor(new Color(random.nextInt(256), random.nextInt(256),
+					random.nextInt(256), 96 + random.nextInt(160)));
+			g.fillOval(random.nextInt(width), random.nextInt(height),
+					1 + random.nextInt(width / 4 + 1),
+					1 + random.nextInt(height / 4 + 1));
+		}
+
+		g.setColor(Color.BLACK);
+
+		for (int x = -height; x < width; x += 12)
+			g.drawLine(x, 0, x + height, height);
+
+		g.dispose();
+
+		// Sprinkle in some noise.
+		for (int i = 0, count = (width * height) / 50; i < count; i++)
+			image.setRGB(random.nextInt(width), random.nextInt(height),
+					random.nextInt());
+
+		return image;
+	}
+
+	/**
+	 * Round-trips the given image through the {@link ImageIO} codec for
+	 * <code>formatName</code> and verifies the decoded image came back in the
+	 * expected type.
+	 */
+	static BufferedImage decode(BufferedImage image, String formatName,
+			int expectedType) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+			if (!ImageIO.write(image, formatName, out))
+				throw new IllegalStateException("No ImageIO writer for ["
+						+ formatName + "]");
+
+			BufferedImage result = ImageIO.read(new ByteArrayInputStream(out
+					.toByteArray()));
+
+			if (result.getType() != expectedType)
+				throw new IllegalStateException("Decoding [" + formatName
+						+ "] produced image type [" + result.getType()
+						+ "], expected [" + expectedType + "]");
+
+			return result;
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to round-trip image as ["
+					+ formatName + "]", e);
+		}
+	}
+}
@@ -18,15 +18,28 @@ package org.imgscalr;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
+import java.awt.image.DataBuffer;
 import java.awt.image.ImagingOpException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.imgscalr.Scalr.Method;
 import org.imgscalr.Scalr.Mode;
@@ -122,6 +135,35 @@ import org.imgscalr.Scalr.Rotation;
  * this class for your deployment, but nothing can replacement writing a small
  * Java class that scales a handful of images in a number of different ways and
  * testing that directly on your deployment hardware.
+ * <h3>Back-Pressure</h3>
+ * By default the queue of the internal {@link ExecutorService} is unbounded,
+ * and every queued operation holds a reference to its source
+ * {@link BufferedImage}. On a host that can receive bursts of work, set
+ * {@link #QUEUE_CAPACITY} to bound the queue and choose a
+ * {@link RejectionPolicy} (see {@link #REJECTION_POLICY}) to decide whether
+ * producers block, run the operation themselves or fail fast once it is full.
+ * {@link #getQueueDepth()}, {@link #getActiveCount()},
+ * {@link #getAverageWaitNanos()} and {@link #getRejectedCount()} can be
+ * monitored to start shedding load before memory runs out, and
+ * {@link #getBudgetWaitCount()} tells how often the memory budget (see
+ * {@link #setMemoryBudget(long)}) held submissions back.
+ * <h3>Cancellation and Timeouts</h3>
+ * The operations of this class stop cooperatively: between incremental
+ * scaling steps (see {@link Method#QUALITY}), between the ops applied by
+ * {@link Scalr#apply(BufferedImage, BufferedImageOp...)}, between the bands
+ * of parallel work (see {@link Scalr#getParallelThreshold()}) and between
+ * the strips read by {@link ScalrIO} (in a task run by
+ * {@link #execute(Callable)}), an operation stops with a
+ * {@link CancellationException} once the thread running it has been
+ * interrupted (e.g. by <code>Future.cancel(true)</code>) or it has run past
+ * the timeout of its {@link Submitter} (see
+ * {@link Submitter#withTimeout(long, TimeUnit)}). An abandoned request
+ * therefore stops using the CPU within one such step instead of finishing a
+ * multi-second {@link Method#ULTRA_QUALITY} scale nobody will read.
+ * <p/>
+ * Only work started through this class (or {@link CompletableScalr}) is
+ * stopped this way; calling {@link Scalr} directly never observes the
+ * interrupt flag of the calling thread.
  * <h3>Resource Overhead</h3>
  * The {@link ExecutorService} utilized by this class won't be initialized until
  * one of the operation methods are called, at which point the
@@ -214,6 +256,281 @@ public class AsyncScalr {
 					+ THREAD_COUNT + ", but THREAD_COUNT must be > 0.");
 	}
 
+	/**
+	 * System property name used to set the maximum number of operations the
+	 * default underlying {@link ExecutorService} will hold in its queue waiting
+	 * for a free thread.
+	 * <p/>
+	 * Value is "<code>imgscalr.async.queueCapacity</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String QUEUE_CAPACITY_PROPERTY_NAME = "imgscalr.async.queueCapacity";
+
+	/**
+	 * Maximum number of operations the internal {@link ExecutorService} will
+	 * queue up waiting for a free thread. Once the queue is full, further
+	 * submissions are handled according to the {@link #REJECTION_POLICY}.
+	 * <p/>
+	 * Every queued operation pins its source {@link BufferedImage} in the JVM
+	 * Heap, so on a busy host a bounded queue is the simplest way to keep a
+	 * burst of requests from exhausting memory.
+	 * <p/>
+	 * This value can be changed by setting the
+	 * <code>imgscalr.async.queueCapacity</code> system property (see
+	 * {@link #QUEUE_CAPACITY_PROPERTY_NAME}) to a valid integer value &gt; 0.
+	 * <p/>
+	 * Default value is {@link Integer#MAX_VALUE} (effectively unbounded).
+	 * 
+	 * @since 4.3
+	 */
+	public static final int QUEUE_CAPACITY = Integer.getInteger(
+			QUEUE_CAPACITY_PROPERTY_NAME, Integer.MAX_VALUE);
+
+	/**
+	 * System property name used to set the {@link RejectionPolicy} the default
+	 * underlying {@link ExecutorService} applies when its queue is full.
+	 * <p/>
+	 * Value is "<code>imgscalr.async.rejectionPolicy</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String REJECTION_POLICY_PROPERTY_NAME = "imgscalr.async.rejectionPolicy";
+
+	/**
+	 * The {@link RejectionPolicy} applied when an operation is submitted while
+	 * the queue of the internal {@link ExecutorService} is full.
+	 * <p/>
+	 * This value can be changed by setting the
+	 * <code>imgscalr.async.rejectionPolicy</code> system property (see
+	 * {@link #REJECTION_POLICY_PROPERTY_NAME}) to the name of one of the
+	 * {@link RejectionPolicy} constants (e.g. <code>CALLER_RUNS</code>).
+	 * <p/>
+	 * Default value is {@link RejectionPolicy#BLOCK}.
+	 * 
+	 * @since 4.3
+	 */
+	public static final RejectionPolicy REJECTION_POLICY;
+
+	/**
+	 * Initializer used to verify the QUEUE_CAPACITY and REJECTION_POLICY system
+	 * properties.
+	 */
+	static {
+		if (QUEUE_CAPACITY < 1)
+			throw new RuntimeException("System property '"
+					+ QUEUE_CAPACITY_PROPERTY_NAME + "' set QUEUE_CAPACITY to "
+					+ QUEUE_CAPACITY + ", but QUEUE_CAPACITY must be > 0.");
+
+		String policy = System.getProperty(REJECTION_POLICY_PROPERTY_NAME,
+				RejectionPolicy.BLOCK.name());
+
+		try {
+			REJECTION_POLICY = RejectionPolicy.valueOf(policy.trim()
+					.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new RuntimeException("System property '"
+					+ REJECTION_POLICY_PROPERTY_NAME + "' set to [" + policy
+					+ "], but must be one of BLOCK, CALLER_RUNS or FAIL_FAST.");
+		}
+	}
+
+	/**
+	 * System property name used to set the initial memory budget (see
+	 * {@link #setMemoryBudget(long)}).
+	 * <p/>
+	 * Value is "<code>imgscalr.async.memoryBudget</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String MEMORY_BUDGET_PROPERTY_NAME = "imgscalr.async.memoryBudget";
+
+	/**
+	 * Used to define what happens to an operation submitted while the queue of
+	 * the internal {@link ExecutorService} is full.
+	 * 
+	 * @author Riyad Kalla (software@thebuzzmedia.com)
+	 * @since 4.3
+	 */
+	public static enum RejectionPolicy {
+		/**
+		 * Used to indicate that the submitting thread should block until the
+		 * queue has room for the operation.
+		 * <p/>
+		 * This throttles producers to the speed of the scaling threads, but
+		 * must not be used when operations are submitted from the scaling
+		 * threads themselves, as a full queue would then never drain.
+		 */
+		BLOCK,
+		/**
+		 * Used to indicate that the submitting thread should perform the
+		 * operation itself.
+		 * <p/>
+		 * The returned {@link Future} is already complete when the method
+		 * returns, which naturally slows the producer down.
+		 */
+		CALLER_RUNS,
+		/**
+		 * Used to indicate that the submission should fail immediately with a
+		 * {@link RejectedExecutionException}, letting the caller shed the load
+		 * (e.g. by answering with an HTTP 503).
+		 */
+		FAIL_FAST;
+	}
+
+	/**
+	 * Used to define the priority classes operations are scheduled by (see
+	 * {@link Submitter}).
+	 * <p/>
+	 * Priorities are strict: queued operations of a priority only start once
+	 * no operation of a higher priority is waiting.
+	 * 
+	 * @author Riyad Kalla (software@thebuzzmedia.com)
+	 * @since 4.3
+	 */
+	public static enum Priority {
+		/**
+		 * Used to indicate latency-sensitive operations a user is waiting
+		 * for, such as the preview of an upload. These start as soon as a
+		 * thread frees up, regardless of any queued {@link #NORMAL} or
+		 * {@link #BATCH} work.
+		 */
+		INTERACTIVE,
+		/**
+		 * Used to indicate regular operations; the default.
+		 */
+		NORMAL,
+		/**
+		 * Used to indicate bulk operations, such as re-generating the
+		 * thumbnails of an entire image library, that only use the threads
+		 * left over by the other priorities.
+		 */
+		BATCH;
+	}
+
+	/**
+	 * Number of submissions that found the queue full and number of
+	 * submissions that did not fit within the memory budget.
+	 */
+	private static final AtomicLong rejectedCount = new AtomicLong();
+	private static final AtomicLong budgetWaitCount = new AtomicLong();
+
+	/**
+	 * Number of operations that have started executing and the total
+	 * nanoseconds they spent waiting in the queue before doing so.
+	 */
+	private static final AtomicLong startedCount = new AtomicLong();
+	private static final AtomicLong totalWaitNanos = new AtomicLong();
+	private static final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * Maximum number of bytes of image data the admitted operations may
+	 * allocate at the same time, and the estimated bytes of the operations
+	 * admitted so far (guarded by <code>budgetLock</code>).
+	 */
+	private static volatile long memoryBudget = Long.getLong(
+			MEMORY_BUDGET_PROPERTY_NAME, Long.MAX_VALUE);
+	private static long bytesInFlight;
+	private static final Object budgetLock = new Object();
+
+	/**
+	 * Initializer used to verify the memory budget system property.
+	 */
+	static {
+		if (memoryBudget < 1)
+			throw new RuntimeException("System property '"
+					+ MEMORY_BUDGET_PROPERTY_NAME + "' set the memory budget to "
+					+ memoryBudget + ", but the memory budget must be > 0.");
+	}
+
+	/**
+	 * System property name used to switch the default underlying
+	 * {@link ExecutorService} to virtual threads.
+	 * <p/>
+	 * Value is "<code>imgscalr.async.virtualThreads</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String VIRTUAL_THREADS_PROPERTY_NAME = "imgscalr.async.virtualThreads";
+
+	/**
+	 * Flag used to indicate if {@link #createService()} creates a service
+	 * running every operation on its own virtual thread (see
+	 * {@link #createVirtualService()}) instead of a fixed pool of
+	 * {@link #THREAD_COUNT} platform threads.
+	 * <p/>
+	 * In this mode the number of operations in flight is no longer bounded by
+	 * the number of threads; the CPU-bound scaling work of every operation
+	 * runs under one of the {@link #CPU_PERMITS} instead (see
+	 * {@link #compute(Callable)}), and {@link #setMemoryBudget(long)} is the
+	 * way to bound memory. Combine it with {@link #execute(Callable)} to run
+	 * the blocking decoding and encoding around the scaling on virtual
+	 * threads as well.
+	 * <p/>
+	 * This value can be changed by setting the
+	 * <code>imgscalr.async.virtualThreads</code> system property (see
+	 * {@link #VIRTUAL_THREADS_PROPERTY_NAME}) to <code>true</code>.
+	 * <p/>
+	 * Default value is <code>false</code>.
+	 * 
+	 * @since 4.3
+	 */
+	public static final boolean VIRTUAL_THREADS = Boolean
+			.getBoolean(VIRTUAL_THREADS_PROPERTY_NAME);
+
+	/**
+	 * System property name used to set the number of operations that may
+	 * perform CPU-bound work at the same time (see {@link #CPU_PERMITS}).
+	 * <p/>
+	 * Value is "<code>imgscalr.async.cpuPermits</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String CPU_PERMITS_PROPERTY_NAME = "imgscalr.async.cpuPermits";
+
+	/**
+	 * Number of callers of {@link #compute(Callable)} that may perform
+	 * CPU-bound work at the same time; in {@link #VIRTUAL_THREADS} mode this
+	 * bounds the number of simultaneous scale operations.
+	 * <p/>
+	 * This value can be changed by setting the
+	 * <code>imgscalr.async.cpuPermits</code> system property (see
+	 * {@link #CPU_PERMITS_PROPERTY_NAME}) to a valid integer value &gt; 0.
+	 * <p/>
+	 * Default value is the number of available processors.
+	 * 
+	 * @since 4.3
+	 */
+	public static final int CPU_PERMITS = Integer.getInteger(
+			CPU_PERMITS_PROPERTY_NAME, Runtime.getRuntime()
+					.availableProcessors());
+
+	/**
+	 * Initializer used to verify the CPU_PERMITS system property.
+	 */
+	static {
+		if (CPU_PERMITS < 1)
+			throw new RuntimeException("System property '"
+					+ CPU_PERMITS_PROPERTY_NAME + "' set CPU_PERMITS to "
+					+ CPU_PERMITS + ", but CPU_PERMITS must be > 0.");
+	}
+
+	/**
+	 * Permits held by the callers of {@link #compute(Callable)}.
+	 */
+	private static final Semaphore cpuPermits = new Semaphore(CPU_PERMITS);
+
+	/**
+	 * The weights of the submitter keys.
+	 */
+	private static final Map<String, Integer> weights = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * The submitter of the operations of this class itself.
+	 */
+	protected static final Submitter DEFAULT_SUBMITTER = new Submitter(
+			Priority.NORMAL, null);
+
 	protected static ExecutorService service;
 
 	/**
@@ -241,211 +558,441 @@ public class AsyncScalr {
 	}
 
 	/**
-	 * @see Scalr#apply(BufferedImage, BufferedImageOp...)
+	 * Used to get the number of operations currently waiting in the queue of
+	 * the internal {@link ExecutorService} for a free thread.
+	 * <p/>
+	 * Together with {@link #getActiveCount()} and
+	 * {@link #getAverageWaitNanos()} this can be used to shed load (e.g.
+	 * refuse new uploads) before the queued images exhaust the JVM Heap.
+	 * 
+	 * @return the number of queued operations or <code>0</code> if the service
+	 *         has not been created yet or is not a {@link ThreadPoolExecutor}.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> apply(final BufferedImage src,
-			final BufferedImageOp... ops) throws IllegalArgumentException,
-			ImagingOpException {
-		checkService();
+	public static int getQueueDepth() {
+		ExecutorService s = service;
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.apply(src, ops);
-			}
-		});
+		return (s instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) s)
+				.getQueue().size() : 0);
 	}
 
 	/**
-	 * @see Scalr#crop(BufferedImage, int, int, BufferedImageOp...)
+	 * Used to get the approximate number of threads of the internal
+	 * {@link ExecutorService} that are currently executing an operation.
+	 * 
+	 * @return the number of active threads or <code>0</code> if the service
+	 *         has not been created yet or is not a {@link ThreadPoolExecutor}.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> crop(final BufferedImage src,
-			final int width, final int height, final BufferedImageOp... ops)
-			throws IllegalArgumentException, ImagingOpException {
-		checkService();
+	public static int getActiveCount() {
+		ExecutorService s = service;
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.crop(src, width, height, ops);
-			}
-		});
+		return (s instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) s)
+				.getActiveCount() : 0);
 	}
 
 	/**
-	 * @see Scalr#crop(BufferedImage, int, int, int, int, BufferedImageOp...)
+	 * Used to get the number of submissions that found the queue full and
+	 * were handled according to the {@link RejectionPolicy} (blocked, run by
+	 * the caller or rejected).
+	 * 
+	 * @return the number of submissions that found the queue full.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> crop(final BufferedImage src,
-			final int x, final int y, final int width, final int height,
-			final BufferedImageOp... ops) throws IllegalArgumentException,
-			ImagingOpException {
-		checkService();
-
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.crop(src, x, y, width, height, ops);
-			}
-		});
+	public static long getRejectedCount() {
+		return rejectedCount.get();
 	}
 
 	/**
-	 * @see Scalr#pad(BufferedImage, int, BufferedImageOp...)
+	 * Used to get the number of submissions that did not fit within the
+	 * memory budget (see {@link #setMemoryBudget(long)}) and had to wait for
+	 * admitted operations to finish or, with
+	 * {@link RejectionPolicy#FAIL_FAST}, were rejected. Each submission is
+	 * counted once, however long it waits.
+	 * 
+	 * @return the number of submissions held back by the memory budget.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> pad(final BufferedImage src,
-			final int padding, final BufferedImageOp... ops)
-			throws IllegalArgumentException, ImagingOpException {
-		checkService();
-
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.pad(src, padding, ops);
-			}
-		});
+	public static long getBudgetWaitCount() {
+		return budgetWaitCount.get();
 	}
 
 	/**
-	 * @see Scalr#pad(BufferedImage, int, Color, BufferedImageOp...)
+	 * Used to get the average time operations spent waiting in the queue
+	 * before a thread started executing them.
+	 * 
+	 * @return the average queue wait time in nanoseconds, or <code>0</code> if
+	 *         no operation has started yet.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> pad(final BufferedImage src,
-			final int padding, final Color color, final BufferedImageOp... ops)
-			throws IllegalArgumentException, ImagingOpException {
-		checkService();
+	public static long getAverageWaitNanos() {
+		long started = startedCount.get();
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.pad(src, padding, color, ops);
-			}
-		});
+		return (started == 0 ? 0 : totalWaitNanos.get() / started);
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, int, BufferedImageOp...)
+	 * Used to get the longest time any operation spent waiting in the queue
+	 * before a thread started executing it.
+	 * 
+	 * @return the maximum queue wait time in nanoseconds.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final int targetSize, final BufferedImageOp... ops)
-			throws IllegalArgumentException, ImagingOpException {
-		checkService();
-
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, targetSize, ops);
-			}
-		});
+	public static long getMaxWaitNanos() {
+		return maxWaitNanos.get();
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)
+	 * Used to reset the rejection and queue wait statistics returned by
+	 * {@link #getRejectedCount()}, {@link #getBudgetWaitCount()},
+	 * {@link #getAverageWaitNanos()} and {@link #getMaxWaitNanos()}.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final Method scalingMethod, final int targetSize,
-			final BufferedImageOp... ops) throws IllegalArgumentException,
-			ImagingOpException {
-		checkService();
-
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, scalingMethod, targetSize, ops);
-			}
-		});
+	public static void resetStatistics() {
+		rejectedCount.set(0);
+		budgetWaitCount.set(0);
+		startedCount.set(0);
+		totalWaitNanos.set(0);
+		maxWaitNanos.set(0);
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, Mode, int, BufferedImageOp...)
+	 * Used to get the maximum number of bytes of image data that the
+	 * operations admitted by this class may hold at the same time.
+	 * 
+	 * @return the memory budget in bytes; {@link Long#MAX_VALUE} (the default)
+	 *         when admission is unlimited.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final Mode resizeMode, final int targetSize,
-			final BufferedImageOp... ops) throws IllegalArgumentException,
-			ImagingOpException {
-		checkService();
-
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, resizeMode, targetSize, ops);
-			}
-		});
+	public static long getMemoryBudget() {
+		return memoryBudget;
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, Method, Mode, int, BufferedImageOp...)
+	 * Used to set the maximum number of bytes of image data that the
+	 * operations admitted by this class may hold at the same time.
+	 * <p/>
+	 * Counting queued operations is a poor limit for images: a single 40
+	 * megapixel resize costs as much memory as a thousand avatar thumbnails.
+	 * Instead every operation's peak memory is estimated when it is submitted
+	 * from the source image, the target dimensions and the scaling
+	 * {@link Method} (including the interim images of incremental scaling,
+	 * see {@link #estimateResizeBytes(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}),
+	 * and the operation is only admitted while the estimates of all admitted,
+	 * unfinished operations stay within this budget.
+	 * <p/>
+	 * An operation that does not fit waits until enough memory is released
+	 * or, with {@link RejectionPolicy#FAIL_FAST}, is rejected with a
+	 * {@link RejectedExecutionException}. An operation larger than the whole
+	 * budget is admitted once nothing else is in flight, so it can never
+	 * wait forever.
+	 * <p/>
+	 * The initial value can be set with the
+	 * <code>imgscalr.async.memoryBudget</code> system property (see
+	 * {@link #MEMORY_BUDGET_PROPERTY_NAME}).
+	 * 
+	 * @param bytes
+	 *            The budget in bytes or {@link Long#MAX_VALUE} to admit every
+	 *            operation.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>bytes</code> is &lt; 1.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final Method scalingMethod, final Mode resizeMode,
-			final int targetSize, final BufferedImageOp... ops)
-			throws IllegalArgumentException, ImagingOpException {
-		checkService();
+	public static void setMemoryBudget(long bytes)
+			throws IllegalArgumentException {
+		if (bytes < 1)
+			throw new IllegalArgumentException("bytes [" + bytes
+					+ "] must be > 0");
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, scalingMethod, resizeMode, targetSize,
-						ops);
-			}
-		});
+		synchronized (budgetLock) {
+			memoryBudget = bytes;
+			budgetLock.notifyAll();
+		}
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, int, int, BufferedImageOp...)
+	 * Used to get the estimated bytes of image data held by the operations
+	 * that have been admitted but have not finished yet.
+	 * 
+	 * @return the estimated bytes in flight.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final int targetWidth, final int targetHeight,
-			final BufferedImageOp... ops) throws IllegalArgumentException,
-			ImagingOpException {
-		checkService();
-
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, targetWidth, targetHeight, ops);
-			}
-		});
+	public static long getBytesInFlight() {
+		synchronized (budgetLock) {
+			return bytesInFlight;
+		}
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, Method, int, int, BufferedImageOp...)
+	 * Used to set the share of the threads a submitter key receives relative
+	 * to the other keys of the same {@link Priority} while they all have
+	 * operations queued; a key of weight 2 gets twice the share of a key of
+	 * weight 1.
+	 * 
+	 * @param key
+	 *            The key of the submitter or <code>null</code> for the
+	 *            default key.
+	 * @param weight
+	 *            The weight of the key.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>weight</code> is &lt; 1.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final Method scalingMethod, final int targetWidth,
-			final int targetHeight, final BufferedImageOp... ops) {
-		checkService();
+	public static void setWeight(String key, int weight)
+			throws IllegalArgumentException {
+		if (weight < 1)
+			throw new IllegalArgumentException("weight [" + weight
+					+ "] must be > 0");
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, scalingMethod, targetWidth,
-						targetHeight, ops);
-			}
-		});
+		weights.put(key == null ? "" : key, weight);
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, Mode, int, int, BufferedImageOp...)
+	 * Used to get the weight of a submitter key.
+	 * 
+	 * @param key
+	 *            The key of the submitter or <code>null</code> for the
+	 *            default key.
+	 * 
+	 * @return the weight set with {@link #setWeight(String, int)} or
+	 *         <code>1</code>.
+	 * 
+	 * @since 4.3
 	 */
-	public static Future<BufferedImage> resize(final BufferedImage src,
-			final Mode resizeMode, final int targetWidth,
-			final int targetHeight, final BufferedImageOp... ops)
-			throws IllegalArgumentException, ImagingOpException {
-		checkService();
+	public static int getWeight(String key) {
+		Integer weight = weights.get(key == null ? "" : key);
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, resizeMode, targetWidth, targetHeight,
-						ops);
-			}
-		});
+		return (weight == null ? 1 : weight);
 	}
 
 	/**
-	 * @see Scalr#resize(BufferedImage, Method, Mode, int, int,
-	 *      BufferedImageOp...)
-	 */
+	 * Used to perform the given CPU-bound work while holding one of the
+	 * {@link #CPU_PERMITS}, waiting for one to become available first.
+	 * <p/>
+	 * In {@link #VIRTUAL_THREADS} mode every operation of this class scales
+	 * under a permit, so no matter how many operations are in flight no more
+	 * than {@link #CPU_PERMITS} of them compete for the CPU. Tasks passed to
+	 * {@link #execute(Callable)} should wrap any CPU-heavy work of their own
+	 * the same way, leaving their blocking I/O outside:
+	 * 
+	 * <pre>
+	 * AsyncScalr.execute(new Callable&lt;Void&gt;() {
+	 * 	public Void call() throws Exception {
+	 * 		final BufferedImage src = ImageIO.read(upload);
+	 * 		BufferedImage thumbnail = AsyncScalr.compute(new Callable&lt;BufferedImage&gt;() {
+	 * 			public BufferedImage call() {
+	 * 				return Scalr.resize(src, 150);
+	 * 			}
+	 * 		});
+	 * 
+	 * 		ImageIO.write(thumbnail, &quot;jpg&quot;, response);
+	 * 		return null;
+	 * 	}
+	 * });
+	 * </pre>
+	 * 
+	 * @param work
+	 *            The CPU-bound work.
+	 * 
+	 * @return the result of <code>work</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>work</code> is <code>null</code>.
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting for a
+	 *             permit.
+	 * @throws Exception
+	 *             if <code>work</code> throws an exception.
+	 * 
+	 * @since 4.3
+	 */
+	public static <T> T compute(Callable<T> work)
+			throws IllegalArgumentException, Exception {
+		if (work == null)
+			throw new IllegalArgumentException("work cannot be null");
+
+		cpuPermits.acquire();
+
+		try {
+			return work.call();
+		} finally {
+			cpuPermits.release();
+		}
+	}
+
+	/**
+	 * Used to run an arbitrary task, such as decoding an upload, scaling it
+	 * and encoding the result, on the underlying <code>service</code>.
+	 * <p/>
+	 * Unlike the image operations of this class, the task is neither admitted
+	 * against the memory budget nor limited by the {@link #CPU_PERMITS}: it
+	 * is expected to spend most of its time blocked on I/O, which in
+	 * {@link #VIRTUAL_THREADS} mode costs no platform thread, and to use
+	 * {@link #compute(Callable)} for its CPU-bound parts. The image
+	 * operations it performs stop once it is cancelled with
+	 * <code>Future.cancel(true)</code>.
+	 * 
+	 * @param task
+	 *            The task to run.
+	 * 
+	 * @return the {@link Future} of the task's result.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>task</code> is <code>null</code>.
+	 * 
+	 * @since 4.3
+	 */
+	public static <T> Future<T> execute(final Callable<T> task)
+			throws IllegalArgumentException {
+		if (task == null)
+			throw new IllegalArgumentException("task cannot be null");
+
+		checkService();
+
+		return service.submit(new Callable<T>() {
+			public T call() throws Exception {
+				return Checkpoint.call(null, task);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#apply(BufferedImage, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> apply(final BufferedImage src,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return DEFAULT_SUBMITTER.apply(src, ops);
+	}
+
+	/**
+	 * @see Scalr#crop(BufferedImage, int, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> crop(final BufferedImage src,
+			final int width, final int height, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return DEFAULT_SUBMITTER.crop(src, width, height, ops);
+	}
+
+	/**
+	 * @see Scalr#crop(BufferedImage, int, int, int, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> crop(final BufferedImage src,
+			final int x, final int y, final int width, final int height,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return DEFAULT_SUBMITTER.crop(src, x, y, width, height, ops);
+	}
+
+	/**
+	 * @see Scalr#pad(BufferedImage, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> pad(final BufferedImage src,
+			final int padding, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return DEFAULT_SUBMITTER.pad(src, padding, ops);
+	}
+
+	/**
+	 * @see Scalr#pad(BufferedImage, int, Color, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> pad(final BufferedImage src,
+			final int padding, final Color color, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return DEFAULT_SUBMITTER.pad(src, padding, color, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
+			final int targetSize, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return DEFAULT_SUBMITTER.resize(src, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
+			final Method scalingMethod, final int targetSize,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return DEFAULT_SUBMITTER.resize(src, scalingMethod, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Mode, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
+			final Mode resizeMode, final int targetSize,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return DEFAULT_SUBMITTER.resize(src, resizeMode, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, Mode, int, BufferedImageOp...)
+	 */
 	public static Future<BufferedImage> resize(final BufferedImage src,
 			final Method scalingMethod, final Mode resizeMode,
+			final int targetSize, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return DEFAULT_SUBMITTER.resize(src, scalingMethod, resizeMode, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, int, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
 			final int targetWidth, final int targetHeight,
 			final BufferedImageOp... ops) throws IllegalArgumentException,
 			ImagingOpException {
-		checkService();
+		return DEFAULT_SUBMITTER.resize(src, targetWidth, targetHeight, ops);
+	}
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.resize(src, scalingMethod, resizeMode,
-						targetWidth, targetHeight, ops);
-			}
-		});
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, int, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
+			final Method scalingMethod, final int targetWidth,
+			final int targetHeight, final BufferedImageOp... ops) {
+		return DEFAULT_SUBMITTER.resize(src, scalingMethod, targetWidth, targetHeight, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Mode, int, int, BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
+			final Mode resizeMode, final int targetWidth,
+			final int targetHeight, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return DEFAULT_SUBMITTER.resize(src, resizeMode, targetWidth, targetHeight, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, Mode, int, int,
+	 *      BufferedImageOp...)
+	 */
+	public static Future<BufferedImage> resize(final BufferedImage src,
+			final Method scalingMethod, final Mode resizeMode,
+			final int targetWidth, final int targetHeight,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return DEFAULT_SUBMITTER.resize(src, scalingMethod, resizeMode, targetWidth, targetHeight, ops);
 	}
 
 	/**
@@ -454,25 +1001,471 @@ public class AsyncScalr {
 	public static Future<BufferedImage> rotate(final BufferedImage src,
 			final Rotation rotation, final BufferedImageOp... ops)
 			throws IllegalArgumentException, ImagingOpException {
-		checkService();
+		return DEFAULT_SUBMITTER.rotate(src, rotation, ops);
+	}
+
+	/**
+	 * Used to estimate the peak bytes of image data held while an operation
+	 * producing a <code>width</code>x<code>height</code> result from
+	 * <code>src</code> executes: the source itself (which is pinned until the
+	 * operation runs), the result and, if any <code>ops</code> are given, the
+	 * image they render into.
+	 * 
+	 * @param src
+	 *            The source image.
+	 * @param width
+	 *            The width of the result.
+	 * @param height
+	 *            The height of the result.
+	 * @param ops
+	 *            The optional ops applied to the result.
+	 * 
+	 * @return the estimated bytes or <code>0</code> for invalid arguments,
+	 *         which the operation itself rejects.
+	 * 
+	 * @since 4.3
+	 */
+	protected static long estimateBytes(BufferedImage src, int width,
+			int height, BufferedImageOp... ops) {
+		if (src == null || width < 1 || height < 1)
+			return 0;
+
+		return imageBytes(src) + pixelBytes(width, height)
+				* (ops != null && ops.length > 0 ? 2 : 1);
+	}
+
+	/**
+	 * Used to estimate the peak bytes of image data held while
+	 * {@link Scalr#pad(BufferedImage, int, BufferedImageOp...)} executes.
+	 * 
+	 * @see #estimateBytes(BufferedImage, int, int, BufferedImageOp...)
+	 * @since 4.3
+	 */
+	protected static long estimatePadBytes(BufferedImage src, int padding,
+			BufferedImageOp... ops) {
+		if (src == null || padding < 1)
+			return 0;
+
+		return estimateBytes(src, src.getWidth() + padding * 2,
+				src.getHeight() + padding * 2, ops);
+	}
+
+	/**
+	 * Used to estimate the peak bytes of image data held while
+	 * {@link Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}
+	 * executes.
+	 * <p/>
+	 * The target dimensions and, for {@link Method#AUTOMATIC}, the scaling
+	 * method are determined exactly like the resize operation does. On top of
+	 * {@link #estimateBytes(BufferedImage, int, int, BufferedImageOp...)} this
+	 * accounts for the converted copy of a byte-interleaved source, the two
+	 * largest interim images of an incremental {@link Method#QUALITY} or
+	 * {@link Method#ULTRA_QUALITY} down-scale and the intermediate pass of
+	 * the resampling methods.
+	 * 
+	 * @return the estimated bytes or <code>0</code> for invalid arguments,
+	 *         which the operation itself rejects.
+	 * 
+	 * @since 4.3
+	 */
+	protected static long estimateResizeBytes(BufferedImage src,
+			Method scalingMethod, Mode resizeMode, int targetWidth,
+			int targetHeight, BufferedImageOp... ops) {
+		if (src == null || scalingMethod == null || resizeMode == null
+				|| targetWidth < 0 || targetHeight < 0)
+			return 0;
+
+		int width = src.getWidth();
+		int height = src.getHeight();
+		int[] dimensions = Scalr.determineTargetDimensions(width, height,
+				resizeMode, targetWidth, targetHeight);
+
+		// The source is returned as-is.
+		if (dimensions == null)
+			return imageBytes(src);
+
+		targetWidth = dimensions[0];
+		targetHeight = dimensions[1];
+
+		if (targetWidth < 1 || targetHeight < 1)
+			return 0;
+
+		if (scalingMethod == Method.AUTOMATIC)
+			scalingMethod = Scalr.determineScalingMethod(targetWidth,
+					targetHeight, (float) height / (float) width);
+
+		boolean down = (targetWidth <= width && targetHeight <= height);
+		boolean sampled = (scalingMethod == Method.SPEED || scalingMethod == Method.BALANCED);
+		long bytes = estimateBytes(src, targetWidth, targetHeight, ops);
+
+		if (Converter.isSupported(src) && !(sampled && down))
+			bytes += pixelBytes(width, height);
+
+		if (scalingMethod == Method.QUALITY
+				|| scalingMethod == Method.ULTRA_QUALITY) {
+			if (down) {
+				/*
+				 * Mirror the steps of Scalr.scaleImageIncrementally: the
+				 * first two are the largest of the interim images it
+				 * ping-pongs between, the last one renders the result.
+				 */
+				int fraction = (scalingMethod == Method.ULTRA_QUALITY ? 7 : 2);
+
+				for (int i = 0; i < 2; i++) {
+					if (width > targetWidth)
+						width = Math.max(targetWidth, width - width / fraction);
+					if (height > targetHeight)
+						height = Math.max(targetHeight, height - height
+								/ fraction);
 
-		return service.submit(new Callable<BufferedImage>() {
-			public BufferedImage call() throws Exception {
-				return Scalr.rotate(src, rotation, ops);
+					if (width == targetWidth && height == targetHeight)
+						break;
+
+					bytes += pixelBytes(width, height);
+				}
 			}
-		});
+		} else if (!sampled)
+			bytes += pixelBytes(targetWidth, height);
+
+		return bytes;
+	}
+
+	/**
+	 * Used to get the bytes backing the pixels of the given image.
+	 */
+	private static long imageBytes(BufferedImage image) {
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+
+		return (long) buffer.getSize() * buffer.getNumBanks()
+				* DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+	}
+
+	/**
+	 * Used to get the bytes of a packed-int image of the given dimensions.
+	 */
+	private static long pixelBytes(int width, int height) {
+		return (long) width * (long) height * 4;
+	}
+
+	/**
+	 * Used to submit the given image operation to the underlying
+	 * <code>service</code>.
+	 * <p/>
+	 * While a Java Flight Recorder recording is running every task is
+	 * reported as an <code>org.imgscalr.AsyncTask</code> event, whose duration
+	 * is the execution time of the task and whose queue time is how long it
+	 * waited in the <code>service</code> before starting.
+	 * <p/>
+	 * The queue wait time of every task is also accumulated into the
+	 * statistics returned by {@link #getAverageWaitNanos()} and
+	 * {@link #getMaxWaitNanos()}.
+	 * <p/>
+	 * The task stops with a {@link CancellationException} once it is
+	 * interrupted or has run past the timeout of its {@link Submitter},
+	 * including the time spent queued; a task whose timeout passed while it
+	 * was queued fails without doing any work.
+	 * 
+	 * @param operation
+	 *            The name of the operation (e.g. <code>"resize"</code>).
+	 * @param task
+	 *            The task performing the operation.
+	 * 
+	 * @return the {@link Future} of the task's result.
+	 * 
+	 * @since 4.3
+	 */
+	protected static Future<BufferedImage> submit(final String operation,
+			final Callable<BufferedImage> task) {
+		return submit(operation, 0, task);
+	}
+
+	/**
+	 * Used to submit the given image operation to the underlying
+	 * <code>service</code> once its estimated memory fits within the memory
+	 * budget (see {@link #setMemoryBudget(long)}).
+	 * <p/>
+	 * Depending on the {@link RejectionPolicy} of the <code>service</code>
+	 * this method either blocks until enough admitted operations have
+	 * finished or throws a {@link RejectedExecutionException}. The estimate
+	 * is returned to the budget as soon as the operation finishes.
+	 * 
+	 * @param operation
+	 *            The name of the operation (e.g. <code>"resize"</code>).
+	 * @param bytes
+	 *            The estimated peak bytes of image data the operation holds.
+	 * @param task
+	 *            The task performing the operation.
+	 * 
+	 * @return the {@link Future} of the task's result.
+	 * 
+	 * @throws RejectedExecutionException
+	 *             if the operation could not be admitted or queued.
+	 * 
+	 * @since 4.3
+	 */
+	protected static Future<BufferedImage> submit(final String operation,
+			final long bytes, final Callable<BufferedImage> task)
+			throws RejectedExecutionException {
+		return submit(service, operation, bytes, task);
+	}
+
+	/**
+	 * Used to submit the given image operation to the given
+	 * {@link Executor} instead of the underlying <code>service</code>; the
+	 * operation is admitted against the memory budget and reported in the
+	 * queue wait statistics and Java Flight Recorder events just the same.
+	 * 
+	 * @param executor
+	 *            The executor that runs the operation.
+	 * @param operation
+	 *            The name of the operation (e.g. <code>"resize"</code>).
+	 * @param bytes
+	 *            The estimated peak bytes of image data the operation holds.
+	 * @param task
+	 *            The task performing the operation.
+	 * 
+	 * @return the {@link Task} of the operation.
+	 * 
+	 * @throws RejectedExecutionException
+	 *             if the operation could not be admitted or queued.
+	 * 
+	 * @since 4.3
+	 */
+	protected static Task submit(Executor executor, String operation,
+			long bytes, Callable<BufferedImage> task)
+			throws RejectedExecutionException {
+		return submit(executor, DEFAULT_SUBMITTER, operation, bytes, task);
+	}
+
+	/**
+	 * Used to submit the given image operation to the given
+	 * {@link Executor} with the {@link Priority} and key of the given
+	 * {@link Submitter}.
+	 * 
+	 * @param executor
+	 *            The executor that runs the operation.
+	 * @param submitter
+	 *            The submitter of the operation, whose timeout starts now.
+	 * @param operation
+	 *            The name of the operation (e.g. <code>"resize"</code>).
+	 * @param bytes
+	 *            The estimated peak bytes of image data the operation holds.
+	 * @param task
+	 *            The task performing the operation.
+	 * 
+	 * @return the {@link Task} of the operation.
+	 * 
+	 * @throws RejectedExecutionException
+	 *             if the operation could not be admitted or queued.
+	 * 
+	 * @see #submit(Executor, String, long, Callable)
+	 * @since 4.3
+	 */
+	protected static Task submit(Executor executor, Submitter submitter,
+			final String operation, final long bytes,
+			final Callable<BufferedImage> task)
+			throws RejectedExecutionException {
+		final long submitted = Flight.now();
+		final long queued = System.nanoTime();
+		final Long deadline = (submitter.timeout == null ? null : queued
+				+ submitter.timeout);
+
+		admit(bytes);
+
+		Task future = new Task(submitter.priority, submitter.key, bytes,
+				new Callable<BufferedImage>() {
+					public BufferedImage call() throws Exception {
+						Object event = Flight.beginTask(submitted);
+						long wait = System.nanoTime() - queued;
+
+						startedCount.incrementAndGet();
+						totalWaitNanos.addAndGet(wait);
+
+						for (;;) {
+							long max = maxWaitNanos.get();
+
+							if (wait <= max
+									|| maxWaitNanos.compareAndSet(max, wait))
+								break;
+						}
+
+						try {
+							if (VIRTUAL_THREADS)
+								return compute(new Callable<BufferedImage>() {
+									public BufferedImage call()
+											throws Exception {
+										return Checkpoint.call(deadline, task);
+									}
+								});
+
+							return Checkpoint.call(deadline, task);
+						} finally {
+							Flight.endTask(event, operation);
+						}
+					}
+				});
+
+		try {
+			executor.execute(future);
+		} catch (RuntimeException e) {
+			// Never queued, so Task.done() will not release the estimate.
+			release(bytes);
+			throw e;
+		}
+
+		return future;
+	}
+
+	/**
+	 * Used to reserve <code>bytes</code> of the memory budget, waiting (or
+	 * failing fast, depending on the {@link RejectionPolicy} of the
+	 * <code>service</code>) until they fit.
+	 */
+	private static void admit(long bytes) throws RejectedExecutionException {
+		if (bytes <= 0)
+			return;
+
+		synchronized (budgetLock) {
+			/*
+			 * Anything fits while nothing else is in flight, otherwise an
+			 * operation bigger than the whole budget would wait forever.
+			 */
+			boolean fits = (bytesInFlight == 0 || bytes <= memoryBudget
+					- bytesInFlight);
+
+			// Count every submission that has to wait (or fails) once.
+			if (!fits)
+				budgetWaitCount.incrementAndGet();
+
+			while (bytesInFlight > 0 && bytes > memoryBudget - bytesInFlight) {
+				if (getRejectionPolicy() == RejectionPolicy.FAIL_FAST)
+					throw new RejectedExecutionException("Operation of ["
+							+ bytes + "] bytes exceeds the memory budget ["
+							+ bytesInFlight + " of " + memoryBudget
+							+ " bytes in flight]");
+
+				try {
+					budgetLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RejectedExecutionException(
+							"Interrupted while waiting for memory budget", e);
+				}
+			}
+
+			bytesInFlight += bytes;
+		}
+	}
+
+	/**
+	 * Used to return <code>bytes</code> reserved by {@link #admit(long)} to
+	 * the memory budget.
+	 */
+	private static void release(long bytes) {
+		if (bytes <= 0)
+			return;
+
+		synchronized (budgetLock) {
+			bytesInFlight -= bytes;
+			budgetLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Used to get the {@link RejectionPolicy} of the current
+	 * <code>service</code>; {@link #REJECTION_POLICY} if it was not created
+	 * by {@link #createService(ThreadFactory, int, RejectionPolicy)}.
+	 */
+	private static RejectionPolicy getRejectionPolicy() {
+		ExecutorService s = service;
+
+		if (s instanceof ThreadPoolExecutor) {
+			RejectedExecutionHandler handler = ((ThreadPoolExecutor) s)
+					.getRejectedExecutionHandler();
+
+			if (handler instanceof RejectionHandler)
+				return ((RejectionHandler) handler).policy;
+		}
+
+		return REJECTION_POLICY;
 	}
 
 	protected static ExecutorService createService() {
+		if (VIRTUAL_THREADS)
+			return createVirtualService();
+
 		return createService(new DefaultThreadFactory());
 	}
 
+	/**
+	 * Used to create an {@link ExecutorService} that runs every task on a new
+	 * virtual thread.
+	 * <p/>
+	 * Virtual threads are looked up reflectively so this class still runs on
+	 * JVMs without them; there, a cached pool of {@link ServerThreadFactory}
+	 * threads is used instead (one platform thread per concurrently running
+	 * task).
+	 * <p/>
+	 * As the returned service is not a {@link ThreadPoolExecutor}, it does not
+	 * queue operations (see {@link #QUEUE_CAPACITY}); bound the operations in
+	 * flight with {@link #setMemoryBudget(long)} instead.
+	 * 
+	 * @return the new {@link ExecutorService}.
+	 * 
+	 * @since 4.3
+	 */
+	protected static ExecutorService createVirtualService() {
+		try {
+			return (ExecutorService) Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			/*
+			 * Either the method does not exist (before Java 21) or virtual
+			 * threads are a disabled preview feature (Java 19 and 20).
+			 */
+			return Executors.newCachedThreadPool(new ServerThreadFactory());
+		}
+	}
+
 	protected static ExecutorService createService(ThreadFactory factory)
 			throws IllegalArgumentException {
+		return createService(factory, QUEUE_CAPACITY, REJECTION_POLICY);
+	}
+
+	/**
+	 * Used to create a fixed-size {@link ThreadPoolExecutor} of
+	 * {@link #THREAD_COUNT} threads whose queue holds at most
+	 * <code>capacity</code> operations, applying the given
+	 * {@link RejectionPolicy} once it is full.
+	 * 
+	 * @param factory
+	 *            The factory used to create the threads.
+	 * @param capacity
+	 *            The maximum number of queued operations.
+	 * @param policy
+	 *            What to do with operations submitted while the queue is full.
+	 * 
+	 * @return the new {@link ExecutorService}.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>factory</code> or <code>policy</code> is
+	 *             <code>null</code> or if <code>capacity</code> is &lt; 1.
+	 * 
+	 * @since 4.3
+	 */
+	protected static ExecutorService createService(ThreadFactory factory,
+			int capacity, RejectionPolicy policy)
+			throws IllegalArgumentException {
 		if (factory == null)
 			throw new IllegalArgumentException("factory cannot be null");
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity [" + capacity
+					+ "] must be > 0");
+		if (policy == null)
+			throw new IllegalArgumentException("policy cannot be null");
 
-		return Executors.newFixedThreadPool(THREAD_COUNT, factory);
+		return new Service(THREAD_COUNT, new FairQueue(capacity), factory,
+				new RejectionHandler(policy));
 	}
 
 	/**
@@ -499,6 +1492,546 @@ public class AsyncScalr {
 		}
 	}
 
+	/**
+	 * Handle used to submit operations with a given {@link Priority} and
+	 * submitter key (e.g. the tenant or the job id). It provides the same
+	 * operations as {@link AsyncScalr}, whose own methods submit
+	 * {@link Priority#NORMAL} operations under the default key.
+	 * <p/>
+	 * The default service takes queued operations by priority and, within a
+	 * priority, shares the threads fairly between the keys in proportion to
+	 * their weights (see {@link AsyncScalr#setWeight(String, int)}), so an
+	 * interactive preview is never stuck behind a bulk job of 50,000 images
+	 * and one tenant's backfill cannot starve the others. Fairness is measured
+	 * in the estimated image data of the operations rather than their number.
+	 * <p/>
+	 * Only queued operations are reordered; admission against the memory
+	 * budget (see {@link AsyncScalr#setMemoryBudget(long)}) happens before an
+	 * operation is queued and is first come, first served. A service without
+	 * a queue (see {@link AsyncScalr#createVirtualService()}) or a custom
+	 * {@link ExecutorService} ignores the priority and key.
+	 * <p/>
+	 * Submitters are immutable and carry the attributes to the operations
+	 * explicitly, so nothing is left behind on the submitting thread; keep one
+	 * per tenant or create one per request, optionally with a timeout (see
+	 * {@link #withTimeout(long, TimeUnit)}):
+	 * 
+	 * <pre>
+	 * Submitter preview = new Submitter(Priority.INTERACTIVE, tenant)
+	 * 		.withTimeout(2, TimeUnit.SECONDS);
+	 * Future&lt;BufferedImage&gt; thumbnail = preview.resize(upload, 150);
+	 * </pre>
+	 * 
+	 * @author Riyad Kalla (software@thebuzzmedia.com)
+	 * @since 4.3
+	 */
+	public static class Submitter {
+		protected final Priority priority;
+		protected final String key;
+		protected final Long timeout;
+
+		/**
+		 * Used to create a submitter of operations of the given priority and
+		 * key.
+		 * 
+		 * @param priority
+		 *            The priority of the operations.
+		 * @param key
+		 *            The key of the submitter or <code>null</code> for the
+		 *            default key.
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if <code>priority</code> is <code>null</code>.
+		 */
+		public Submitter(Priority priority, String key)
+				throws IllegalArgumentException {
+			this(priority, key, null);
+		}
+
+		/**
+		 * Used to create a submitter of operations of the given priority and
+		 * key that must finish within <code>timeout</code> nanoseconds of
+		 * being submitted, or <code>null</code> for no timeout.
+		 */
+		protected Submitter(Priority priority, String key, Long timeout)
+				throws IllegalArgumentException {
+			if (priority == null)
+				throw new IllegalArgumentException("priority cannot be null");
+
+			this.priority = priority;
+			this.key = key;
+			this.timeout = timeout;
+		}
+
+		public Priority getPriority() {
+			return priority;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * Used to get a submitter of the same priority and key whose
+		 * operations must finish within the given time of being submitted.
+		 * <p/>
+		 * The timeout covers the time an operation spends waiting for memory
+		 * budget and queued as well as the time it runs: an operation whose
+		 * timeout passes before it starts fails without doing any work and a
+		 * running one stops within one step (see the cancellation section of
+		 * {@link AsyncScalr}). Either way its {@link Future} fails with an
+		 * {@link ExecutionException} caused by a
+		 * {@link CancellationException}.
+		 * 
+		 * @param timeout
+		 *            The time the operations must finish within.
+		 * @param unit
+		 *            The unit of <code>timeout</code>.
+		 * 
+		 * @return the new submitter.
+		 * 
+		 * @throws IllegalArgumentException
+		 *             if <code>timeout</code> is &lt; 0 or <code>unit</code>
+		 *             is <code>null</code>.
+		 */
+		public Submitter withTimeout(long timeout, TimeUnit unit)
+				throws IllegalArgumentException {
+			if (timeout < 0)
+				throw new IllegalArgumentException("timeout [" + timeout
+						+ "] must be >= 0");
+			if (unit == null)
+				throw new IllegalArgumentException("unit cannot be null");
+
+			return new Submitter(priority, key, unit.toNanos(timeout));
+		}
+
+		/**
+		 * @see Scalr#apply(BufferedImage, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> apply(final BufferedImage src,
+				final BufferedImageOp... ops) throws IllegalArgumentException,
+				ImagingOpException {
+			checkService();
+
+			long bytes = (src == null ? 0 : estimateBytes(src,
+					src.getWidth(), src.getHeight(), ops));
+
+			return submit("apply", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.apply(src, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#crop(BufferedImage, int, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> crop(final BufferedImage src,
+				final int width, final int height, final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = estimateBytes(src, width, height, ops);
+
+			return submit("crop", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.crop(src, width, height, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#crop(BufferedImage, int, int, int, int,
+		 *      BufferedImageOp...)
+		 */
+		public Future<BufferedImage> crop(final BufferedImage src,
+				final int x, final int y, final int width, final int height,
+				final BufferedImageOp... ops) throws IllegalArgumentException,
+				ImagingOpException {
+			checkService();
+
+			long bytes = estimateBytes(src, width, height, ops);
+
+			return submit("crop", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.crop(src, x, y, width, height, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#pad(BufferedImage, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> pad(final BufferedImage src,
+				final int padding, final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = estimatePadBytes(src, padding, ops);
+
+			return submit("pad", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.pad(src, padding, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#pad(BufferedImage, int, Color, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> pad(final BufferedImage src,
+				final int padding, final Color color,
+				final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = estimatePadBytes(src, padding, ops);
+
+			return submit("pad", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.pad(src, padding, color, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final int targetSize, final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, Method.AUTOMATIC,
+					Mode.AUTOMATIC, targetSize, targetSize, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, targetSize, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final Method scalingMethod, final int targetSize,
+				final BufferedImageOp... ops) throws IllegalArgumentException,
+				ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, scalingMethod,
+					Mode.AUTOMATIC, targetSize, targetSize, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, scalingMethod, targetSize, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, Mode, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final Mode resizeMode, final int targetSize,
+				final BufferedImageOp... ops) throws IllegalArgumentException,
+				ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, Method.AUTOMATIC,
+					resizeMode, targetSize, targetSize, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, resizeMode, targetSize, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, Method, Mode, int,
+		 *      BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final Method scalingMethod, final Mode resizeMode,
+				final int targetSize, final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, scalingMethod,
+					resizeMode, targetSize, targetSize, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, scalingMethod, resizeMode,
+							targetSize, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, int, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final int targetWidth, final int targetHeight,
+				final BufferedImageOp... ops) throws IllegalArgumentException,
+				ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, Method.AUTOMATIC,
+					Mode.AUTOMATIC, targetWidth, targetHeight, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, targetWidth, targetHeight, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, Method, int, int,
+		 *      BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final Method scalingMethod, final int targetWidth,
+				final int targetHeight, final BufferedImageOp... ops) {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, scalingMethod,
+					Mode.AUTOMATIC, targetWidth, targetHeight, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, scalingMethod, targetWidth,
+							targetHeight, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, Mode, int, int, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final Mode resizeMode, final int targetWidth,
+				final int targetHeight, final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, Method.AUTOMATIC,
+					resizeMode, targetWidth, targetHeight, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, resizeMode, targetWidth,
+							targetHeight, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#resize(BufferedImage, Method, Mode, int, int,
+		 *      BufferedImageOp...)
+		 */
+		public Future<BufferedImage> resize(final BufferedImage src,
+				final Method scalingMethod, final Mode resizeMode,
+				final int targetWidth, final int targetHeight,
+				final BufferedImageOp... ops) throws IllegalArgumentException,
+				ImagingOpException {
+			checkService();
+
+			long bytes = estimateResizeBytes(src, scalingMethod,
+					resizeMode, targetWidth, targetHeight, ops);
+
+			return submit("resize", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.resize(src, scalingMethod, resizeMode,
+							targetWidth, targetHeight, ops);
+				}
+			});
+		}
+
+		/**
+		 * @see Scalr#rotate(BufferedImage, Rotation, BufferedImageOp...)
+		 */
+		public Future<BufferedImage> rotate(final BufferedImage src,
+				final Rotation rotation, final BufferedImageOp... ops)
+				throws IllegalArgumentException, ImagingOpException {
+			checkService();
+
+			long bytes = (src == null ? 0 : estimateBytes(src,
+					src.getWidth(), src.getHeight(), ops));
+
+			return submit("rotate", bytes, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					return Scalr.rotate(src, rotation, ops);
+				}
+			});
+		}
+
+		/**
+		 * Used to submit the given image operation to the underlying
+		 * <code>service</code> with the attributes of this submitter.
+		 * 
+		 * @see AsyncScalr#submit(Executor, Submitter, String, long, Callable)
+		 */
+		protected Future<BufferedImage> submit(String operation, long bytes,
+				Callable<BufferedImage> task) throws RejectedExecutionException {
+			return AsyncScalr.submit(service, this, operation, bytes, task);
+		}
+	}
+
+	/**
+	 * {@link FutureTask} of an image operation carrying the attributes the
+	 * {@link Priority} and fair scheduling of the default service is based
+	 * on, and returning its memory estimate to the budget once it completes,
+	 * fails or is cancelled (even while still queued).
+	 * 
+	 * @author Riyad Kalla (software@thebuzzmedia.com)
+	 * @since 4.3
+	 */
+	protected static class Task extends FutureTask<BufferedImage> implements
+			FairQueue.Scheduled {
+		protected final Priority priority;
+		protected final String key;
+		protected final long bytes;
+
+		private volatile Runnable listener;
+
+		protected Task(Priority priority, String key, long bytes,
+				Callable<BufferedImage> callable) {
+			super(callable);
+
+			this.priority = priority;
+			this.key = key;
+			this.bytes = bytes;
+		}
+
+		public Priority getPriority() {
+			return priority;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public long getCost() {
+			return bytes;
+		}
+
+		/**
+		 * Used to run <code>listener</code> once the task is done, however it
+		 * ends: completed, failed (also before the operation started, e.g. on
+		 * an expired deadline) or cancelled. If the task is already done the
+		 * listener is run right away.
+		 * <p/>
+		 * The listener can be run twice when the task completes while it is
+		 * being set, so it must be idempotent.
+		 * 
+		 * @param listener
+		 *            The listener to run.
+		 */
+		protected void whenDone(Runnable listener) {
+			this.listener = listener;
+
+			if (isDone())
+				listener.run();
+		}
+
+		@Override
+		protected void done() {
+			release(bytes);
+
+			Runnable l = listener;
+
+			if (l != null)
+				l.run();
+		}
+	}
+
+	/**
+	 * {@link ThreadPoolExecutor} created by
+	 * {@link #createService(ThreadFactory, int, RejectionPolicy)} that
+	 * cancels the operations {@link #shutdownNow()} drains from its queue.
+	 * Those never run, so cancelling them is what returns their memory
+	 * estimates to the budget (see {@link Task}).
+	 * 
+	 * @author Riyad Kalla (software@thebuzzmedia.com)
+	 * @since 4.3
+	 */
+	protected static class Service extends ThreadPoolExecutor {
+		protected Service(int threads, BlockingQueue<Runnable> queue,
+				ThreadFactory factory, RejectedExecutionHandler handler) {
+			super(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, factory,
+					handler);
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			List<Runnable> drained = super.shutdownNow();
+
+			for (Runnable r : drained)
+				if (r instanceof Future)
+					((Future<?>) r).cancel(false);
+
+			return drained;
+		}
+	}
+
+	/**
+	 * {@link RejectedExecutionHandler} invoked by the internal
+	 * {@link ThreadPoolExecutor} when its queue is full; counts the rejection
+	 * and then applies the configured {@link RejectionPolicy}.
+	 * 
+	 * @author Riyad Kalla (software@thebuzzmedia.com)
+	 * @since 4.3
+	 */
+	protected static class RejectionHandler implements
+			RejectedExecutionHandler {
+		protected final RejectionPolicy policy;
+
+		protected RejectionHandler(RejectionPolicy policy) {
+			this.policy = policy;
+		}
+
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			if (executor.isShutdown())
+				throw new RejectedExecutionException(
+						"AsyncScalr service has been shut down");
+
+			rejectedCount.incrementAndGet();
+
+			switch (policy) {
+			case BLOCK:
+				try {
+					executor.getQueue().put(r);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RejectedExecutionException(
+							"Interrupted while waiting for queue space", e);
+				}
+
+				/*
+				 * If the service was shut down while we were waiting, nothing
+				 * will ever take the task off the queue again.
+				 */
+				if (executor.isShutdown() && executor.getQueue().remove(r))
+					throw new RejectedExecutionException(
+							"AsyncScalr service has been shut down");
+				break;
+
+			case CALLER_RUNS:
+				r.run();
+				break;
+
+			default:
+				throw new RejectedExecutionException("AsyncScalr queue is full ["
+						+ executor.getQueue().size() + " queued operations]");
+			}
+		}
+	}
+
 	/**
 	 * Default {@link ThreadFactory} used by the internal
 	 * {@link ExecutorService} to creates execution {@link Thread}s for image
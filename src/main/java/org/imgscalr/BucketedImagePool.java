@@ -0,0 +1,237 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Default {@link ImagePool} implementation that recycles the
+ * <code>int[]</code> pixel buffers behind {@link BufferedImage#TYPE_INT_RGB},
+ * {@link BufferedImage#TYPE_INT_ARGB} and
+ * {@link BufferedImage#TYPE_INT_ARGB_PRE} images.
+ * <p/>
+ * Released buffers are kept in size buckets (one per power of two of their
+ * length). Since the pixel layout of all three types is one <code>int</code>
+ * per pixel, any buffer big enough can back an image of any of the types and
+ * any dimensions; each acquired image is simply a new, light-weight
+ * {@link BufferedImage} wrapped around a recycled buffer. This is what makes
+ * the pool useful for incremental scaling, where no two steps have the same
+ * dimensions.
+ * <p/>
+ * To keep memory waste bounded, a request for <code>n</code> pixels is only
+ * served from the bucket <code>n</code> falls into or the next larger one, so
+ * an interim image is never backed by more than 4x the memory it needs.
+ * <h3>Eviction</h3>
+ * The pool never holds on to more than <code>maxBytes</code> of buffers. When
+ * releasing a buffer would exceed that cap, the least recently released
+ * buffers are dropped (left for the GC) until it fits; a buffer bigger than
+ * the cap on its own is never retained.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class BucketedImagePool implements ImagePool {
+	private static final DirectColorModel RGB = (DirectColorModel) new BufferedImage(
+			1, 1, BufferedImage.TYPE_INT_RGB).getColorModel();
+	private static final DirectColorModel ARGB = (DirectColorModel) new BufferedImage(
+			1, 1, BufferedImage.TYPE_INT_ARGB).getColorModel();
+	private static final DirectColorModel ARGB_PRE = (DirectColorModel) new BufferedImage(
+			1, 1, BufferedImage.TYPE_INT_ARGB_PRE).getColorModel();
+
+	protected final long maxBytes;
+
+	/**
+	 * Released buffers by bucket; bucket <code>i</code> holds buffers with a
+	 * length in <code>[2^i, 2^(i+1))</code>.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected final ArrayDeque<int[]>[] buckets = new ArrayDeque[32];
+
+	/**
+	 * Every retained buffer, least recently released first. Arrays use
+	 * identity for equality, so this doubles as an O(1) index.
+	 */
+	protected final LinkedHashSet<int[]> retained = new LinkedHashSet<int[]>();
+
+	protected long retainedBytes;
+	protected long hitCount;
+	protected long missCount;
+
+	/**
+	 * Creates a new pool that will retain at most <code>maxBytes</code> of
+	 * released buffers.
+	 * 
+	 * @param maxBytes
+	 *            The memory cap of the pool in bytes.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>maxBytes</code> is &lt; 0.
+	 */
+	public BucketedImagePool(long maxBytes) throws IllegalArgumentException {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes [" + maxBytes
+					+ "] must be >= 0");
+
+		this.maxBytes = maxBytes;
+
+		for (int i = 0; i < buckets.length; i++)
+			buckets[i] = new ArrayDeque<int[]>();
+	}
+
+	public BufferedImage acquire(int width, int height, int type)
+			throws IllegalArgumentException {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("width [" + width
+					+ "] and height [" + height + "] must be > 0");
+
+		DirectColorModel model = colorModel(type);
+		int pixels = width * height;
+		int[] data = take(pixels);
+
+		if (data == null)
+			data = new int[pixels];
+		else
+			Arrays.fill(data, 0, pixels, 0);
+
+		WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(
+				data, pixels), width, height, width, model.getMasks(), null);
+
+		return new BufferedImage(model, raster, model.isAlphaPremultiplied(),
+				null);
+	}
+
+	public void release(BufferedImage image) {
+		if (image == null || !Rasters.isPackedInt(image))
+			return;
+
+		int[] data = Rasters.data(image);
+		long bytes = (long) data.length * 4;
+
+		if (bytes > maxBytes)
+			return;
+
+		synchronized (this) {
+			if (!retained.add(data))
+				return;
+
+			buckets[bucket(data.length)].addLast(data);
+			retainedBytes += bytes;
+
+			// Evict the least recently released buffers until we fit.
+			for (Iterator<int[]> i = retained.iterator(); retainedBytes > maxBytes;) {
+				int[] evicted = i.next();
+
+				i.remove();
+				buckets[bucket(evicted.length)].remove(evicted);
+				retainedBytes -= (long) evicted.length * 4;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of bytes worth of buffers currently retained.
+	 */
+	public synchronized long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	/**
+	 * @return the number of acquisitions served from a recycled buffer.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of acquisitions that required a new allocation.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Drops every retained buffer.
+	 */
+	public synchronized void clear() {
+		for (ArrayDeque<int[]> bucket : buckets)
+			bucket.clear();
+
+		retained.clear();
+		retainedBytes = 0;
+	}
+
+	/**
+	 * Used to remove a retained buffer of at least <code>pixels</code> length
+	 * from the pool, preferring the bucket <code>pixels</code> falls into.
+	 * 
+	 * @return the buffer or <code>null</code> if none fit.
+	 */
+	protected synchronized int[] take(int pixels) {
+		int index = bucket(pixels);
+		int[] data = null;
+
+		for (Iterator<int[]> i = buckets[index].iterator(); i.hasNext();) {
+			int[] candidate = i.next();
+
+			if (candidate.length >= pixels) {
+				i.remove();
+				data = candidate;
+				break;
+			}
+		}
+
+		if (data == null && index + 1 < buckets.length)
+			data = buckets[index + 1].pollLast();
+
+		if (data == null) {
+			missCount++;
+			return null;
+		}
+
+		retained.remove(data);
+		retainedBytes -= (long) data.length * 4;
+		hitCount++;
+
+		return data;
+	}
+
+	protected static int bucket(int length) {
+		return 31 - Integer.numberOfLeadingZeros(length);
+	}
+
+	protected static DirectColorModel colorModel(int type)
+			throws IllegalArgumentException {
+		switch (type) {
+		case BufferedImage.TYPE_INT_RGB:
+			return RGB;
+		case BufferedImage.TYPE_INT_ARGB:
+			return ARGB;
+		case BufferedImage.TYPE_INT_ARGB_PRE:
+			return ARGB_PRE;
+		default:
+			throw new IllegalArgumentException("type [" + type
+					+ "] is not a packed-int image type");
+		}
+	}
+}
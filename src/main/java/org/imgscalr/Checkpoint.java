@@ -0,0 +1,148 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class used to implement cooperative cancellation of image operations run
+ * by {@link AsyncScalr}.
+ * <p/>
+ * Long-running loops (incremental scaling steps, ops applied by
+ * {@link Scalr#apply}, parallel bands and {@link ScalrIO} strips) call
+ * {@link #check()} between units of work. While the thread runs an
+ * {@link AsyncScalr} task (see {@link #call(Long, Callable)}) this throws a
+ * {@link CancellationException} once the task has been interrupted or its
+ * deadline has passed; everywhere else it does nothing, so a plain
+ * synchronous call never fails on an interrupt it did not ask to observe.
+ * Work running on the threads of the parallel pool checks the task through
+ * a <code>Checkpoint</code> captured with {@link #current()}.
+ * <p/>
+ * The task's <code>Checkpoint</code> is handed to the checks through a
+ * {@link ThreadLocal}, as threading it through every operation is not
+ * practical, but only for as long as the task runs:
+ * {@link #call(Long, Callable)} always restores the previous value, so
+ * nothing outlives the task on a pooled thread.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Checkpoint {
+	/**
+	 * <code>Checkpoint</code> of work that is not an {@link AsyncScalr} task
+	 * and therefore never stops.
+	 */
+	private static final Checkpoint NONE = new Checkpoint(null, null);
+
+	/**
+	 * The <code>Checkpoint</code> of the task the current thread is running.
+	 */
+	private static final ThreadLocal<Checkpoint> CURRENT = new ThreadLocal<Checkpoint>();
+
+	private final Thread thread;
+	private final Long deadline;
+
+	private Checkpoint(Thread thread, Long deadline) {
+		this.thread = thread;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Used to capture the <code>Checkpoint</code> of the current thread, so
+	 * work running on other threads on its behalf can {@link #poll()} it.
+	 */
+	static Checkpoint current() {
+		Checkpoint checkpoint = CURRENT.get();
+
+		return (checkpoint == null ? NONE : checkpoint);
+	}
+
+	/**
+	 * Used to run the given task on the current thread so that its
+	 * operations stop once the thread is interrupted or the deadline has
+	 * passed; the task fails right away if either is already the case.
+	 * 
+	 * @param deadline
+	 *            The {@link System#nanoTime()} the task must finish by or
+	 *            <code>null</code> if it has no deadline.
+	 * @param task
+	 *            The task to run.
+	 * 
+	 * @return the result of <code>task</code>.
+	 * 
+	 * @throws CancellationException
+	 *             if the task is stopped.
+	 * @throws Exception
+	 *             if <code>task</code> throws an exception.
+	 */
+	static <T> T call(Long deadline, Callable<T> task) throws Exception {
+		Checkpoint previous = CURRENT.get();
+		Checkpoint checkpoint = new Checkpoint(Thread.currentThread(),
+				deadline);
+
+		CURRENT.set(checkpoint);
+
+		try {
+			checkpoint.poll();
+			return task.call();
+		} finally {
+			// The caller may itself be a task (e.g. CALLER_RUNS).
+			if (previous == null)
+				CURRENT.remove();
+			else
+				CURRENT.set(previous);
+		}
+	}
+
+	/**
+	 * Used to stop the task running on the current thread if the thread has
+	 * been interrupted or the task's deadline has passed.
+	 * 
+	 * @throws CancellationException
+	 *             if the task must stop.
+	 */
+	static void check() throws CancellationException {
+		current().poll();
+	}
+
+	/**
+	 * Used to stop work done on behalf of the captured task if its thread has
+	 * been interrupted or its deadline has passed.
+	 * 
+	 * @throws CancellationException
+	 *             if the work must stop.
+	 */
+	void poll() throws CancellationException {
+		if (thread == null)
+			return;
+
+		// Leave the flag set so the caller can still see the interrupt.
+		if (thread.isInterrupted())
+			throw new CancellationException("Image operation interrupted");
+
+		if (deadline != null) {
+			long overdue = System.nanoTime() - deadline;
+
+			if (overdue >= 0)
+				throw new CancellationException(
+						"Image operation exceeded its deadline by "
+								+ TimeUnit.NANOSECONDS.toMillis(overdue)
+								+ " ms");
+		}
+	}
+}
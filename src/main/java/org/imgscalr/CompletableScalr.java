@@ -0,0 +1,637 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+
+/**
+ * Class used to provide {@link CompletableFuture}-returning versions of all the
+ * methods defined in {@link Scalr}, so image operations can be composed with
+ * other asynchronous work without blocking a thread on {@link Future#get()}.
+ * <p/>
+ * Every operation comes in two flavors: one that runs on the
+ * {@link ExecutorService} of {@link AsyncScalr} (see
+ * {@link AsyncScalr#getService()}) and one that takes the {@link Executor} to
+ * run on as its first argument. Either way the operation is admitted against
+ * the memory budget of {@link AsyncScalr} (see
+ * {@link AsyncScalr#setMemoryBudget(long)}) and counted in its queue
+ * statistics. Pipelines can also be run with the priority and key of an
+ * {@link AsyncScalr.Submitter} (see
+ * {@link #run(Executor, AsyncScalr.Submitter, Pipeline, BufferedImage)}).
+ * <p/>
+ * Operations that fail, or cannot be admitted or queued, complete the returned
+ * future exceptionally instead of throwing. Cancelling a returned future
+ * before the operation has started skips the operation and returns its memory
+ * estimate to the budget right away.
+ * <h3>Chaining</h3>
+ * {@link #then(CompletableFuture, Pipeline)} runs a {@link Pipeline} on the
+ * result of a previous stage (e.g. an image being decoded) as soon as it is
+ * available, and {@link #run(Pipeline, BufferedImage)} runs one on an image
+ * that is already in memory. A resize, crop and pad chain:
+ * 
+ * <pre>
+ * CompletableFuture&lt;BufferedImage&gt; avatar = CompletableScalr.then(decoded,
+ * 		new Pipeline().resize(Method.SPEED, Mode.FIT_TO_WIDTH, 256, 256)
+ * 				.crop(0, 0, 256, 256).pad(4, Color.WHITE));
+ * </pre>
+ * 
+ * renders the whole chain as a single task on the executor once
+ * <code>decoded</code> completes; no thread waits in between. Individual
+ * operations compose the same way with
+ * {@link CompletableFuture#thenCompose(Function)}.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class CompletableScalr {
+	/**
+	 * @see Scalr#apply(BufferedImage, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> apply(
+			final BufferedImage src, final BufferedImageOp... ops) {
+		return apply(getExecutor(), src, ops);
+	}
+
+	/**
+	 * @see Scalr#apply(BufferedImage, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> apply(Executor executor,
+			final BufferedImage src, final BufferedImageOp... ops) {
+		long bytes = (src == null ? 0 : AsyncScalr.estimateBytes(
+				src, src.getWidth(), src.getHeight(), ops));
+
+		return supply(executor, "apply", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.apply(src, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#crop(BufferedImage, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> crop(final BufferedImage src,
+			final int width, final int height, final BufferedImageOp... ops) {
+		return crop(getExecutor(), src, width, height, ops);
+	}
+
+	/**
+	 * @see Scalr#crop(BufferedImage, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> crop(Executor executor,
+			final BufferedImage src, final int width, final int height,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateBytes(src, width, height, ops);
+
+		return supply(executor, "crop", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.crop(src, width, height, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#crop(BufferedImage, int, int, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> crop(final BufferedImage src,
+			final int x, final int y, final int width, final int height,
+			final BufferedImageOp... ops) {
+		return crop(getExecutor(), src, x, y, width, height, ops);
+	}
+
+	/**
+	 * @see Scalr#crop(BufferedImage, int, int, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> crop(Executor executor,
+			final BufferedImage src, final int x, final int y, final int width,
+			final int height, final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateBytes(src, width, height, ops);
+
+		return supply(executor, "crop", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.crop(src, x, y, width, height, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#pad(BufferedImage, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> pad(final BufferedImage src,
+			final int padding, final BufferedImageOp... ops) {
+		return pad(getExecutor(), src, padding, ops);
+	}
+
+	/**
+	 * @see Scalr#pad(BufferedImage, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> pad(Executor executor,
+			final BufferedImage src, final int padding,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimatePadBytes(src, padding, ops);
+
+		return supply(executor, "pad", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.pad(src, padding, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#pad(BufferedImage, int, Color, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> pad(final BufferedImage src,
+			final int padding, final Color color,
+			final BufferedImageOp... ops) {
+		return pad(getExecutor(), src, padding, color, ops);
+	}
+
+	/**
+	 * @see Scalr#pad(BufferedImage, int, Color, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> pad(Executor executor,
+			final BufferedImage src, final int padding, final Color color,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimatePadBytes(src, padding, ops);
+
+		return supply(executor, "pad", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.pad(src, padding, color, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final int targetSize,
+			final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final int targetSize,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				Method.AUTOMATIC, Mode.AUTOMATIC, targetSize, targetSize, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, targetSize, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final Method scalingMethod,
+			final int targetSize, final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, scalingMethod, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final Method scalingMethod,
+			final int targetSize, final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				scalingMethod, Mode.AUTOMATIC, targetSize, targetSize, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, scalingMethod, targetSize, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Mode, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final Mode resizeMode,
+			final int targetSize, final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, resizeMode, targetSize, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Mode, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final Mode resizeMode,
+			final int targetSize, final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				Method.AUTOMATIC, resizeMode, targetSize, targetSize, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, resizeMode, targetSize, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, Mode, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final Method scalingMethod,
+			final Mode resizeMode, final int targetSize,
+			final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, scalingMethod, resizeMode, targetSize,
+				ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, Mode, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final Method scalingMethod,
+			final Mode resizeMode, final int targetSize,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				scalingMethod, resizeMode, targetSize, targetSize, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, scalingMethod, resizeMode, targetSize,
+						ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final int targetWidth,
+			final int targetHeight, final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, targetWidth, targetHeight, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final int targetWidth,
+			final int targetHeight, final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				Method.AUTOMATIC, Mode.AUTOMATIC, targetWidth, targetHeight,
+				ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, targetWidth, targetHeight, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final Method scalingMethod,
+			final int targetWidth, final int targetHeight,
+			final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, scalingMethod, targetWidth,
+				targetHeight, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final Method scalingMethod,
+			final int targetWidth, final int targetHeight,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				scalingMethod, Mode.AUTOMATIC, targetWidth, targetHeight, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, scalingMethod, targetWidth,
+						targetHeight, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Mode, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final Mode resizeMode,
+			final int targetWidth, final int targetHeight,
+			final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, resizeMode, targetWidth, targetHeight,
+				ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Mode, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final Mode resizeMode,
+			final int targetWidth, final int targetHeight,
+			final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				Method.AUTOMATIC, resizeMode, targetWidth, targetHeight, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, resizeMode, targetWidth, targetHeight,
+						ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(
+			final BufferedImage src, final Method scalingMethod,
+			final Mode resizeMode, final int targetWidth,
+			final int targetHeight, final BufferedImageOp... ops) {
+		return resize(getExecutor(), src, scalingMethod, resizeMode,
+				targetWidth, targetHeight, ops);
+	}
+
+	/**
+	 * @see Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> resize(Executor executor,
+			final BufferedImage src, final Method scalingMethod,
+			final Mode resizeMode, final int targetWidth,
+			final int targetHeight, final BufferedImageOp... ops) {
+		long bytes = AsyncScalr.estimateResizeBytes(src,
+				scalingMethod, resizeMode, targetWidth, targetHeight, ops);
+
+		return supply(executor, "resize", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.resize(src, scalingMethod, resizeMode, targetWidth,
+						targetHeight, ops);
+			}
+		});
+	}
+
+	/**
+	 * @see Scalr#rotate(BufferedImage, Rotation, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> rotate(
+			final BufferedImage src, final Rotation rotation,
+			final BufferedImageOp... ops) {
+		return rotate(getExecutor(), src, rotation, ops);
+	}
+
+	/**
+	 * @see Scalr#rotate(BufferedImage, Rotation, BufferedImageOp...)
+	 */
+	public static CompletableFuture<BufferedImage> rotate(Executor executor,
+			final BufferedImage src, final Rotation rotation,
+			final BufferedImageOp... ops) {
+		long bytes = (src == null ? 0 : AsyncScalr.estimateBytes(
+				src, src.getWidth(), src.getHeight(), ops));
+
+		return supply(executor, "rotate", bytes, new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				return Scalr.rotate(src, rotation, ops);
+			}
+		});
+	}
+
+	/**
+	 * Used to run the given {@link Pipeline} on <code>src</code> on the
+	 * {@link ExecutorService} of {@link AsyncScalr}.
+	 * 
+	 * @see Pipeline#run(BufferedImage)
+	 */
+	public static CompletableFuture<BufferedImage> run(Pipeline pipeline,
+			BufferedImage src) {
+		return run(getExecutor(), pipeline, src);
+	}
+
+	/**
+	 * Used to run the given {@link Pipeline} on <code>src</code> on the given
+	 * {@link Executor}.
+	 * <p/>
+	 * The memory estimate used for admission assumes a result the size of
+	 * <code>src</code>.
+	 * 
+	 * @see Pipeline#run(BufferedImage)
+	 */
+	public static CompletableFuture<BufferedImage> run(Executor executor,
+			Pipeline pipeline, BufferedImage src) {
+		return run(executor, AsyncScalr.DEFAULT_SUBMITTER, pipeline, src);
+	}
+
+	/**
+	 * Used to run the given {@link Pipeline} on <code>src</code> on the given
+	 * {@link Executor} with the {@link AsyncScalr.Priority} and key of the
+	 * given {@link AsyncScalr.Submitter}.
+	 * 
+	 * @see #run(Executor, Pipeline, BufferedImage)
+	 * @since 4.3
+	 */
+	public static CompletableFuture<BufferedImage> run(Executor executor,
+			AsyncScalr.Submitter submitter, final Pipeline pipeline,
+			final BufferedImage src) {
+		long bytes = (src == null ? 0 : AsyncScalr.estimateBytes(src,
+				src.getWidth(), src.getHeight()));
+
+		return supply(executor, submitter, "pipeline", bytes,
+				new Callable<BufferedImage>() {
+					public BufferedImage call() throws Exception {
+						if (pipeline == null)
+							throw new IllegalArgumentException(
+									"pipeline cannot be null");
+
+						return pipeline.run(src);
+					}
+				});
+	}
+
+	/**
+	 * Used to run the given {@link Pipeline} on the result of
+	 * <code>future</code>, on the {@link ExecutorService} of
+	 * {@link AsyncScalr}, as soon as it completes.
+	 * 
+	 * @see #then(CompletableFuture, Pipeline, Executor)
+	 */
+	public static CompletableFuture<BufferedImage> then(
+			CompletableFuture<BufferedImage> future, Pipeline pipeline) {
+		return then(future, pipeline, null);
+	}
+
+	/**
+	 * Used to run the given {@link Pipeline} on the result of
+	 * <code>future</code>, on the given {@link Executor}, as soon as it
+	 * completes; the returned future fails if <code>future</code> does.
+	 * <p/>
+	 * The pipeline is submitted by the thread that completes
+	 * <code>future</code>. If that can be one of the threads of
+	 * {@link AsyncScalr} itself, do not combine a bounded queue or memory
+	 * budget with {@link AsyncScalr.RejectionPolicy#BLOCK}: the thread would
+	 * wait for room that only it can make.
+	 * 
+	 * @param future
+	 *            The stage producing the image to process.
+	 * @param pipeline
+	 *            The operations to run on the image.
+	 * @param executor
+	 *            The executor to run the pipeline on or <code>null</code> to
+	 *            use the {@link ExecutorService} of {@link AsyncScalr}.
+	 * 
+	 * @return a future completed with the result of the pipeline.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>future</code> or <code>pipeline</code> is
+	 *             <code>null</code>.
+	 */
+	public static CompletableFuture<BufferedImage> then(
+			CompletableFuture<BufferedImage> future, final Pipeline pipeline,
+			final Executor executor) throws IllegalArgumentException {
+		if (future == null)
+			throw new IllegalArgumentException("future cannot be null");
+		if (pipeline == null)
+			throw new IllegalArgumentException("pipeline cannot be null");
+
+		return future
+				.thenCompose(new Function<BufferedImage, CompletableFuture<BufferedImage>>() {
+					public CompletableFuture<BufferedImage> apply(
+							BufferedImage src) {
+						return run(executor == null ? getExecutor()
+								: executor, pipeline, src);
+					}
+				});
+	}
+
+	/**
+	 * Used to get the {@link ExecutorService} of {@link AsyncScalr}, creating
+	 * it if necessary.
+	 */
+	protected static Executor getExecutor() {
+		AsyncScalr.checkService();
+		return AsyncScalr.getService();
+	}
+
+	/**
+	 * Used to run the given task on <code>executor</code> through
+	 * {@link AsyncScalr#submit(Executor, String, long, Callable)}.
+	 * 
+	 * @see #supply(Executor, AsyncScalr.Submitter, String, long, Callable)
+	 */
+	protected static CompletableFuture<BufferedImage> supply(
+			Executor executor, String operation, long bytes,
+			Callable<BufferedImage> task) throws IllegalArgumentException {
+		return supply(executor, AsyncScalr.DEFAULT_SUBMITTER, operation,
+				bytes, task);
+	}
+
+	/**
+	 * Used to run the given task on <code>executor</code> through
+	 * {@link AsyncScalr#submit(Executor, AsyncScalr.Submitter, String, long, Callable)},
+	 * so it is admitted against the memory budget, and to expose its outcome
+	 * as a {@link CompletableFuture}.
+	 * 
+	 * @param executor
+	 *            The executor that runs the task.
+	 * @param submitter
+	 *            The submitter of the task.
+	 * @param operation
+	 *            The name of the operation (e.g. <code>"resize"</code>).
+	 * @param bytes
+	 *            The estimated peak bytes of image data the task holds.
+	 * @param task
+	 *            The task performing the operation.
+	 * 
+	 * @return a future completed with the result of the task.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>executor</code> or <code>submitter</code> is
+	 *             <code>null</code>.
+	 */
+	protected static CompletableFuture<BufferedImage> supply(
+			Executor executor, AsyncScalr.Submitter submitter,
+			String operation, long bytes, final Callable<BufferedImage> task)
+			throws IllegalArgumentException {
+		if (executor == null)
+			throw new IllegalArgumentException("executor cannot be null");
+		if (submitter == null)
+			throw new IllegalArgumentException("submitter cannot be null");
+
+		final CompletableFuture<BufferedImage> result = new CompletableFuture<BufferedImage>();
+
+		try {
+			final AsyncScalr.Task future = AsyncScalr.submit(executor,
+					submitter, operation, bytes, task);
+
+			/*
+			 * Complete from the task's own outcome, which also covers it
+			 * failing before the operation starts (e.g. a timeout expiring
+			 * in the queue) and being cancelled by a shutdownNow().
+			 */
+			future.whenDone(new Runnable() {
+				public void run() {
+					if (future.isCancelled()) {
+						result.cancel(false);
+						return;
+					}
+
+					try {
+						result.complete(future.get());
+					} catch (ExecutionException e) {
+						result.completeExceptionally(e.getCause());
+					} catch (InterruptedException e) {
+						// Not possible, the task is done.
+						Thread.currentThread().interrupt();
+						result.completeExceptionally(e);
+					}
+				}
+			});
+
+			// Skip the task (and release its memory) if cancelled early.
+			result.whenComplete(new BiConsumer<BufferedImage, Throwable>() {
+				public void accept(BufferedImage image, Throwable t) {
+					if (result.isCancelled())
+						future.cancel(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+
+		return result;
+	}
+}
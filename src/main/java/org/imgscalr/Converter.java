@@ -0,0 +1,217 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Converts the byte-interleaved image types <code>ImageIO</code> decodes most
+ * images to ({@link BufferedImage#TYPE_3BYTE_BGR} for JPEGs and opaque PNGs,
+ * {@link BufferedImage#TYPE_4BYTE_ABGR} for translucent PNGs and
+ * {@link BufferedImage#TYPE_BYTE_GRAY} for grayscale images) into
+ * {@link BufferedImage#TYPE_INT_RGB} or {@link BufferedImage#TYPE_INT_ARGB}
+ * images by reading the <code>byte[]</code> pixel data and writing the
+ * <code>int[]</code> pixel data directly.
+ * <p/>
+ * Rendering these types with Java2D can fall back onto generic (slow)
+ * software loops; the conversion here is a single tight loop per row. Images
+ * at or above {@link Scalr#getParallelThreshold()} pixels are converted in
+ * bands of rows in parallel on {@link Scalr#getParallelPool()}.
+ * <p/>
+ * The result is identical to rendering the image with Java2D:
+ * {@link BufferedImage#TYPE_BYTE_GRAY} samples are copied to all three color
+ * channels and {@link BufferedImage#TYPE_4BYTE_ABGR} pixels (which are not
+ * premultiplied) are copied as-is.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Converter {
+	/**
+	 * The minimum number of rows converted by one parallel task.
+	 */
+	static final int MIN_BAND_HEIGHT = 64;
+
+	private Converter() {
+		// no-op, static helpers only
+	}
+
+	/**
+	 * Used to determine if the given image can be converted by
+	 * {@link #convert(BufferedImage)}.
+	 * 
+	 * @return <code>true</code> if the image is of type
+	 *         {@link BufferedImage#TYPE_3BYTE_BGR},
+	 *         {@link BufferedImage#TYPE_4BYTE_ABGR} or
+	 *         {@link BufferedImage#TYPE_BYTE_GRAY} and is backed by
+	 *         pixel-interleaved <code>byte</code> data.
+	 */
+	static boolean isSupported(BufferedImage image) {
+		int type = image.getType();
+
+		if (type != BufferedImage.TYPE_3BYTE_BGR
+				&& type != BufferedImage.TYPE_4BYTE_ABGR
+				&& type != BufferedImage.TYPE_BYTE_GRAY)
+			return false;
+
+		WritableRaster raster = image.getRaster();
+
+		return (raster.getSampleModel() instanceof PixelInterleavedSampleModel
+				&& raster.getDataBuffer() instanceof DataBufferByte && raster
+				.getDataBuffer().getNumBanks() == 1);
+	}
+
+	/**
+	 * Used to convert the given image (see
+	 * {@link #isSupported(BufferedImage)}) into a new
+	 * {@link BufferedImage#TYPE_INT_ARGB} image if it has an alpha channel or
+	 * a new {@link BufferedImage#TYPE_INT_RGB} image otherwise.
+	 */
+	static BufferedImage convert(BufferedImage src) {
+		int width = src.getWidth();
+		int height = src.getHeight();
+		WritableRaster raster = src.getRaster();
+		PixelInterleavedSampleModel model = (PixelInterleavedSampleModel) raster
+				.getSampleModel();
+		int pixelStride = model.getPixelStride();
+		int inStride = model.getScanlineStride();
+
+		// Index of the first byte of the top-left pixel (sub-image aware).
+		int inOffset = raster.getDataBuffer().getOffset()
+				- (raster.getSampleModelTranslateY() * inStride)
+				- (raster.getSampleModelTranslateX() * pixelStride);
+
+		BufferedImage result = new BufferedImage(width, height,
+				(src.getType() == BufferedImage.TYPE_4BYTE_ABGR ? BufferedImage.TYPE_INT_ARGB
+						: BufferedImage.TYPE_INT_RGB));
+		Rows rows = new Rows(((DataBufferByte) raster.getDataBuffer())
+				.getData(), inOffset, inStride, pixelStride,
+				model.getBandOffsets(), width, Rasters.data(result),
+				Rasters.offset(result), Rasters.stride(result), 0, height);
+
+		if ((long) width * (long) height >= Scalr.getParallelThreshold())
+			Scalr.getParallelPool().invoke(rows);
+		else
+			rows.convert();
+
+		return result;
+	}
+
+	/**
+	 * {@link RecursiveAction} that converts the rows <code>[from, to)</code>,
+	 * splitting the range in half until it is no taller than
+	 * {@link #MIN_BAND_HEIGHT} rows when executed on a pool.
+	 */
+	static final class Rows extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final byte[] in;
+		private final int inOffset;
+		private final int inStride;
+		private final int pixelStride;
+		private final int[] bandOffsets;
+		private final int width;
+		private final int[] out;
+		private final int outOffset;
+		private final int outStride;
+		private final int from;
+		private final int to;
+
+		Rows(byte[] in, int inOffset, int inStride, int pixelStride,
+				int[] bandOffsets, int width, int[] out, int outOffset,
+				int outStride, int from, int to) {
+			this.in = in;
+			this.inOffset = inOffset;
+			this.inStride = inStride;
+			this.pixelStride = pixelStride;
+			this.bandOffsets = bandOffsets;
+			this.width = width;
+			this.out = out;
+			this.outOffset = outOffset;
+			this.outStride = outStride;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= MIN_BAND_HEIGHT * 2)
+				convert();
+			else {
+				int middle = (from + to) >>> 1;
+
+				invokeAll(new Rows(in, inOffset, inStride, pixelStride,
+						bandOffsets, width, out, outOffset, outStride, from,
+						middle), new Rows(in, inOffset, inStride, pixelStride,
+						bandOffsets, width, out, outOffset, outStride, middle,
+						to));
+			}
+		}
+
+		/**
+		 * Used to convert the rows <code>[from, to)</code> on the calling
+		 * thread.
+		 */
+		void convert() {
+			int i = inOffset + (from * inStride);
+			int o = outOffset + (from * outStride);
+
+			switch (bandOffsets.length) {
+			case 1:
+				int k = bandOffsets[0];
+
+				for (int y = from; y < to; y++, i += inStride, o += outStride)
+					for (int x = 0, p = i + k; x < width; x++, p += pixelStride) {
+						int gray = in[p] & 0xFF;
+
+						out[o + x] = 0xFF000000 | (gray << 16) | (gray << 8)
+								| gray;
+					}
+				break;
+
+			case 3:
+				int r3 = bandOffsets[0];
+				int g3 = bandOffsets[1];
+				int b3 = bandOffsets[2];
+
+				for (int y = from; y < to; y++, i += inStride, o += outStride)
+					for (int x = 0, p = i; x < width; x++, p += pixelStride)
+						out[o + x] = 0xFF000000 | ((in[p + r3] & 0xFF) << 16)
+								| ((in[p + g3] & 0xFF) << 8)
+								| (in[p + b3] & 0xFF);
+				break;
+
+			case 4:
+				int r4 = bandOffsets[0];
+				int g4 = bandOffsets[1];
+				int b4 = bandOffsets[2];
+				int a4 = bandOffsets[3];
+
+				for (int y = from; y < to; y++, i += inStride, o += outStride)
+					for (int x = 0, p = i; x < width; x++, p += pixelStride)
+						out[o + x] = ((in[p + a4] & 0xFF) << 24)
+								| ((in[p + r4] & 0xFF) << 16)
+								| ((in[p + g4] & 0xFF) << 8)
+								| (in[p + b4] & 0xFF);
+				break;
+			}
+		}
+	}
+}
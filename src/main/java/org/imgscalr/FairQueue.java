@@ -0,0 +1,419 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.imgscalr.AsyncScalr.Priority;
+
+/**
+ * Bounded {@link BlockingQueue} used by the {@link AsyncScalr} service that
+ * hands out tasks by {@link Priority} and, within a priority, fairly across
+ * the keys of their submitters.
+ * <p/>
+ * Priorities are strict: a task is only taken from a lane when every higher
+ * lane is empty, so an interactive request waits for at most the tasks that
+ * are already running, no matter how much batch work is queued. Within a lane
+ * every key gets its own FIFO and the keys are served by deficit round-robin:
+ * each turn a key is credited {@link #QUANTUM} bytes times its weight (see
+ * {@link AsyncScalr#setWeight(String, int)}) and may run tasks until their
+ * estimated bytes exceed its credit. Keys therefore share the threads in
+ * proportion to their weights, measured in image data rather than in task
+ * counts, so a tenant submitting huge images cannot crowd out one submitting
+ * thumbnails.
+ * <p/>
+ * Tasks that are not {@link Scheduled} go into the {@link Priority#NORMAL}
+ * lane under the default key.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+class FairQueue extends AbstractQueue<Runnable> implements
+		BlockingQueue<Runnable> {
+	/**
+	 * Bytes a key of weight 1 is credited every round (a 1 megapixel image).
+	 */
+	static final long QUANTUM = 4 * 1024 * 1024;
+
+	/**
+	 * Implemented by tasks that carry their scheduling attributes.
+	 */
+	interface Scheduled {
+		Priority getPriority();
+
+		String getKey();
+
+		long getCost();
+	}
+
+	/**
+	 * The queued tasks of one key.
+	 */
+	private static class Flow {
+		final String key;
+		final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+		long deficit;
+
+		Flow(String key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * The flows of one priority; <code>active</code> holds the flows with
+	 * queued tasks in round-robin order.
+	 */
+	private static class Lane {
+		final Map<String, Flow> flows = new HashMap<String, Flow>();
+		final ArrayDeque<Flow> active = new ArrayDeque<Flow>();
+	}
+
+	private final int capacity;
+	private final Lane[] lanes;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private int count;
+
+	FairQueue(int capacity) {
+		this.capacity = capacity;
+
+		lanes = new Lane[Priority.values().length];
+
+		for (int i = 0; i < lanes.length; i++)
+			lanes[i] = new Lane();
+	}
+
+	public boolean offer(Runnable r) {
+		if (r == null)
+			throw new NullPointerException();
+
+		lock.lock();
+
+		try {
+			if (count == capacity)
+				return false;
+
+			enqueue(r);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean offer(Runnable r, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		if (r == null)
+			throw new NullPointerException();
+
+		long nanos = unit.toNanos(timeout);
+
+		lock.lockInterruptibly();
+
+		try {
+			while (count == capacity) {
+				if (nanos <= 0)
+					return false;
+
+				nanos = notFull.awaitNanos(nanos);
+			}
+
+			enqueue(r);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void put(Runnable r) throws InterruptedException {
+		if (r == null)
+			throw new NullPointerException();
+
+		lock.lockInterruptibly();
+
+		try {
+			while (count == capacity)
+				notFull.await();
+
+			enqueue(r);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public Runnable poll() {
+		lock.lock();
+
+		try {
+			return (count == 0 ? null : dequeue());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public Runnable poll(long timeout, TimeUnit unit)
+			throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+
+		lock.lockInterruptibly();
+
+		try {
+			while (count == 0) {
+				if (nanos <= 0)
+					return null;
+
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+
+			return dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public Runnable take() throws InterruptedException {
+		lock.lockInterruptibly();
+
+		try {
+			while (count == 0)
+				notEmpty.await();
+
+			return dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the oldest task of the first flow of the highest non-empty
+	 * lane; not necessarily the task {@link #poll()} returns next, as that
+	 * depends on the flow's credit.
+	 */
+	public Runnable peek() {
+		lock.lock();
+
+		try {
+			for (Lane lane : lanes)
+				if (!lane.active.isEmpty())
+					return lane.active.peekFirst().tasks.peekFirst();
+
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (o == null)
+			return false;
+
+		lock.lock();
+
+		try {
+			for (Lane lane : lanes) {
+				for (Iterator<Flow> flows = lane.active.iterator(); flows
+						.hasNext();) {
+					Flow flow = flows.next();
+
+					if (flow.tasks.remove(o)) {
+						if (flow.tasks.isEmpty()) {
+							flows.remove();
+							lane.flows.remove(flow.key);
+						}
+
+						count--;
+						notFull.signal();
+						return true;
+					}
+				}
+			}
+
+			return false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+
+		try {
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int remainingCapacity() {
+		lock.lock();
+
+		try {
+			return capacity - count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int drainTo(Collection<? super Runnable> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	public int drainTo(Collection<? super Runnable> c, int maxElements) {
+		if (c == null)
+			throw new NullPointerException();
+		if (c == this)
+			throw new IllegalArgumentException();
+
+		lock.lock();
+
+		try {
+			int n = 0;
+
+			for (; n < maxElements && count > 0; n++)
+				c.add(dequeue());
+
+			return n;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns an iterator over a snapshot of the queued tasks (in priority
+	 * order); {@link Iterator#remove()} removes the task from this queue.
+	 */
+	@Override
+	public Iterator<Runnable> iterator() {
+		final List<Runnable> snapshot = new ArrayList<Runnable>();
+
+		lock.lock();
+
+		try {
+			for (Lane lane : lanes)
+				for (Flow flow : lane.active)
+					snapshot.addAll(flow.tasks);
+		} finally {
+			lock.unlock();
+		}
+
+		final Iterator<Runnable> iterator = snapshot.iterator();
+
+		return new Iterator<Runnable>() {
+			private Runnable last;
+
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			public Runnable next() {
+				return (last = iterator.next());
+			}
+
+			public void remove() {
+				if (last == null)
+					throw new IllegalStateException();
+
+				FairQueue.this.remove(last);
+				last = null;
+			}
+		};
+	}
+
+	/**
+	 * Adds <code>r</code> to the flow of its key in the lane of its priority.
+	 * Must be called holding the lock with room in the queue.
+	 */
+	private void enqueue(Runnable r) {
+		Priority priority = Priority.NORMAL;
+		String key = null;
+
+		if (r instanceof Scheduled) {
+			priority = ((Scheduled) r).getPriority();
+			key = ((Scheduled) r).getKey();
+		}
+
+		Lane lane = lanes[priority.ordinal()];
+		Flow flow = lane.flows.get(key);
+
+		if (flow == null) {
+			flow = new Flow(key);
+			lane.flows.put(key, flow);
+			lane.active.addLast(flow);
+		}
+
+		flow.tasks.addLast(r);
+		count++;
+		notEmpty.signal();
+	}
+
+	/**
+	 * Removes the next task by priority and deficit round-robin. Must be
+	 * called holding the lock with at least one task queued.
+	 */
+	private Runnable dequeue() {
+		Lane lane = null;
+
+		for (int i = 0; lane == null; i++)
+			if (!lanes[i].active.isEmpty())
+				lane = lanes[i];
+
+		for (;;) {
+			Flow flow = lane.active.peekFirst();
+			long cost = cost(flow.tasks.peekFirst());
+
+			if (flow.deficit >= cost) {
+				Runnable r = flow.tasks.pollFirst();
+
+				flow.deficit -= cost;
+
+				// An idle flow does not keep its credit.
+				if (flow.tasks.isEmpty()) {
+					lane.active.pollFirst();
+					lane.flows.remove(flow.key);
+				}
+
+				count--;
+				notFull.signal();
+				return r;
+			}
+
+			/*
+			 * Credit the flow for this round and move it to the back; a task
+			 * bigger than the quantum runs once its flow has saved up enough.
+			 */
+			flow.deficit += QUANTUM * AsyncScalr.getWeight(flow.key);
+			lane.active.addLast(lane.active.pollFirst());
+		}
+	}
+
+	private static long cost(Runnable r) {
+		return (r instanceof Scheduled ? Math.max(1,
+				((Scheduled) r).getCost()) : 1);
+	}
+}
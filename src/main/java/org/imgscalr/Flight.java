@@ -0,0 +1,175 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.ScalrEvent.Operation;
+
+/**
+ * Emits Java Flight Recorder (JFR) events for imgscalr's operations so they
+ * show up as named, timed events (with their dimensions and scaling method)
+ * in a recording instead of anonymous <code>drawImage</code> frames.
+ * <p/>
+ * This class does not reference any <code>jdk.jfr</code> type itself; the
+ * event classes live in {@link FlightEvents}, which is only loaded if the
+ * running JVM ships the <code>jdk.jfr</code> module (JDK 11+, 8u262+). On
+ * other JVMs every method here is a no-op.
+ * <p/>
+ * While no recording is running every <code>begin</code> method returns
+ * <code>null</code> after reading a single volatile flag, and every
+ * <code>end</code> method returns immediately when handed <code>null</code>,
+ * so the instrumentation costs nothing measurable when recording is off.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Flight {
+	/**
+	 * <code>true</code> if the JVM supports JFR and the events were
+	 * registered.
+	 */
+	static final boolean AVAILABLE;
+
+	/**
+	 * Whether at least one flight recording is running; maintained by a
+	 * listener registered with the flight recorder.
+	 */
+	private static volatile boolean recording;
+
+	static {
+		boolean available = false;
+
+		try {
+			Class.forName("jdk.jfr.FlightRecorderListener");
+			FlightEvents.register();
+			available = true;
+		} catch (Throwable t) {
+			// No (usable) JFR in this JVM, events stay disabled.
+		}
+
+		AVAILABLE = available;
+	}
+
+	private Flight() {
+		// no-op, static helpers only
+	}
+
+	/**
+	 * @return <code>true</code> if a flight recording is running.
+	 */
+	static boolean isRecording() {
+		return recording;
+	}
+
+	static void setRecording(boolean recording) {
+		Flight.recording = recording;
+	}
+
+	/**
+	 * Used to start timing the given operation.
+	 * 
+	 * @return the event to pass to
+	 *         {@link #end(Object, int, int, BufferedImage, Method)} or
+	 *         <code>null</code> if the event is not being recorded.
+	 */
+	static Object begin(Operation operation) {
+		return (recording ? FlightEvents.begin(operation) : null);
+	}
+
+	/**
+	 * Used to complete and commit an event started with
+	 * {@link #begin(Operation)}.
+	 */
+	static void end(Object event, int srcWidth, int srcHeight,
+			BufferedImage result, Method method) {
+		if (event != null)
+			FlightEvents.end(event, srcWidth, srcHeight, result, method);
+	}
+
+	/**
+	 * Used to start timing one step of an incremental scale.
+	 * 
+	 * @return the event to pass to
+	 *         {@link #endStep(Object, int, int, int, int, int)} or
+	 *         <code>null</code> if the event is not being recorded.
+	 */
+	static Object beginStep() {
+		return (recording ? FlightEvents.beginStep() : null);
+	}
+
+	/**
+	 * Used to complete and commit an event started with {@link #beginStep()}.
+	 */
+	static void endStep(Object event, int step, int fromWidth, int fromHeight,
+			int toWidth, int toHeight) {
+		if (event != null)
+			FlightEvents.endStep(event, step, fromWidth, fromHeight, toWidth,
+					toHeight);
+	}
+
+	/**
+	 * Used to start timing the application of a single
+	 * {@link BufferedImageOp}.
+	 * 
+	 * @return the event to pass to
+	 *         {@link #endOp(Object, BufferedImageOp, BufferedImage, BufferedImage)}
+	 *         or <code>null</code> if the event is not being recorded.
+	 */
+	static Object beginOp() {
+		return (recording ? FlightEvents.beginOp() : null);
+	}
+
+	/**
+	 * Used to complete and commit an event started with {@link #beginOp()}.
+	 */
+	static void endOp(Object event, BufferedImageOp op, BufferedImage src,
+			BufferedImage result) {
+		if (event != null)
+			FlightEvents.endOp(event, op, src, result);
+	}
+
+	/**
+	 * @return the current time to pass to {@link #beginTask(long)} if a
+	 *         recording is running, otherwise <code>0</code>.
+	 */
+	static long now() {
+		return (recording ? System.nanoTime() : 0);
+	}
+
+	/**
+	 * Used to start timing the execution of an {@link AsyncScalr} task that
+	 * was submitted at <code>submitted</code> (see {@link #now()}); the time
+	 * in between is recorded as the task's queue time.
+	 * 
+	 * @return the event to pass to {@link #endTask(Object, String)} or
+	 *         <code>null</code> if the event is not being recorded.
+	 */
+	static Object beginTask(long submitted) {
+		return (recording ? FlightEvents.beginTask(submitted) : null);
+	}
+
+	/**
+	 * Used to complete and commit an event started with
+	 * {@link #beginTask(long)}.
+	 */
+	static void endTask(Object event, String operation) {
+		if (event != null)
+			FlightEvents.endTask(event, operation);
+	}
+}
@@ -0,0 +1,282 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.ScalrEvent.Operation;
+
+/**
+ * The JFR event types emitted through {@link Flight}. Only loaded (by
+ * {@link Flight}) when the <code>jdk.jfr</code> module is present.
+ * <p/>
+ * Every event is in the "imgscalr" category and named
+ * <code>org.imgscalr.&lt;Type&gt;</code> so they can be enabled, disabled or
+ * given thresholds in a <code>.jfc</code> configuration like any JDK event.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class FlightEvents {
+	private FlightEvents() {
+		// no-op, static helpers only
+	}
+
+	/**
+	 * Used to keep {@link Flight#isRecording()} in sync with the state of the
+	 * flight recorder.
+	 */
+	static void register() {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			public void recorderInitialized(FlightRecorder recorder) {
+				update(recorder);
+			}
+
+			public void recordingStateChanged(Recording recording) {
+				update(FlightRecorder.getFlightRecorder());
+			}
+		});
+	}
+
+	private static void update(FlightRecorder recorder) {
+		boolean running = false;
+
+		for (Recording recording : recorder.getRecordings())
+			if (recording.getState() == RecordingState.RUNNING)
+				running = true;
+
+		Flight.setRecording(running);
+	}
+
+	static Object begin(Operation operation) {
+		ImageEvent event;
+
+		switch (operation) {
+		case RESIZE:
+			event = new ResizeEvent();
+			break;
+		case CROP:
+			event = new CropEvent();
+			break;
+		case PAD:
+			event = new PadEvent();
+			break;
+		case ROTATE:
+			event = new RotateEvent();
+			break;
+		default:
+			event = new ApplyEvent();
+			break;
+		}
+
+		if (!event.isEnabled())
+			return null;
+
+		event.begin();
+		return event;
+	}
+
+	static void end(Object object, int srcWidth, int srcHeight,
+			BufferedImage result, Method method) {
+		ImageEvent event = (ImageEvent) object;
+
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.srcWidth = srcWidth;
+			event.srcHeight = srcHeight;
+			event.resultWidth = result.getWidth();
+			event.resultHeight = result.getHeight();
+
+			if (event instanceof ResizeEvent && method != null)
+				((ResizeEvent) event).method = method.name();
+
+			event.commit();
+		}
+	}
+
+	static Object beginStep() {
+		StepEvent event = new StepEvent();
+
+		if (!event.isEnabled())
+			return null;
+
+		event.begin();
+		return event;
+	}
+
+	static void endStep(Object object, int step, int fromWidth,
+			int fromHeight, int toWidth, int toHeight) {
+		StepEvent event = (StepEvent) object;
+
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.step = step;
+			event.srcWidth = fromWidth;
+			event.srcHeight = fromHeight;
+			event.resultWidth = toWidth;
+			event.resultHeight = toHeight;
+			event.commit();
+		}
+	}
+
+	static Object beginOp() {
+		OpEvent event = new OpEvent();
+
+		if (!event.isEnabled())
+			return null;
+
+		event.begin();
+		return event;
+	}
+
+	static void endOp(Object object, BufferedImageOp op, BufferedImage src,
+			BufferedImage result) {
+		OpEvent event = (OpEvent) object;
+
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.op = op.getClass().getName();
+			event.srcWidth = src.getWidth();
+			event.srcHeight = src.getHeight();
+			event.resultWidth = result.getWidth();
+			event.resultHeight = result.getHeight();
+			event.commit();
+		}
+	}
+
+	static Object beginTask(long submitted) {
+		TaskEvent event = new TaskEvent();
+
+		if (!event.isEnabled())
+			return null;
+
+		// A task submitted before recording started has no queue time.
+		if (submitted != 0)
+			event.queueTime = System.nanoTime() - submitted;
+
+		event.begin();
+		return event;
+	}
+
+	static void endTask(Object object, String operation) {
+		TaskEvent event = (TaskEvent) object;
+
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.commit();
+		}
+	}
+
+	@Category("imgscalr")
+	@StackTrace(false)
+	static abstract class ImageEvent extends Event {
+		@Label("Source Width")
+		int srcWidth;
+
+		@Label("Source Height")
+		int srcHeight;
+
+		@Label("Result Width")
+		int resultWidth;
+
+		@Label("Result Height")
+		int resultHeight;
+	}
+
+	@Name("org.imgscalr.Resize")
+	@Label("Resize")
+	@Description("Scalr.resize")
+	static final class ResizeEvent extends ImageEvent {
+		@Label("Method")
+		@Description("The scaling method used (AUTOMATIC resolved)")
+		String method;
+	}
+
+	@Name("org.imgscalr.IncrementalStep")
+	@Label("Incremental Scaling Step")
+	@Description("One step of a QUALITY or ULTRA_QUALITY down-scale")
+	static final class StepEvent extends ImageEvent {
+		@Label("Step")
+		int step;
+	}
+
+	@Name("org.imgscalr.Crop")
+	@Label("Crop")
+	@Description("Scalr.crop")
+	static final class CropEvent extends ImageEvent {
+	}
+
+	@Name("org.imgscalr.Pad")
+	@Label("Pad")
+	@Description("Scalr.pad")
+	static final class PadEvent extends ImageEvent {
+	}
+
+	@Name("org.imgscalr.Rotate")
+	@Label("Rotate")
+	@Description("Scalr.rotate")
+	static final class RotateEvent extends ImageEvent {
+	}
+
+	@Name("org.imgscalr.Apply")
+	@Label("Apply")
+	@Description("Scalr.apply, all of its ops")
+	static final class ApplyEvent extends ImageEvent {
+	}
+
+	@Name("org.imgscalr.ApplyOp")
+	@Label("Apply Op")
+	@Description("A single BufferedImageOp applied by Scalr.apply")
+	static final class OpEvent extends ImageEvent {
+		@Label("Op")
+		@Description("Class name of the BufferedImageOp")
+		String op;
+	}
+
+	@Name("org.imgscalr.AsyncTask")
+	@Label("Async Task")
+	@Description("Execution of an AsyncScalr task; the duration is the execution time")
+	@Category("imgscalr")
+	@StackTrace(false)
+	static final class TaskEvent extends Event {
+		@Label("Operation")
+		String operation;
+
+		@Label("Queue Time")
+		@Description("Time between submitting the task and it starting to execute")
+		@Timespan(Timespan.NANOSECONDS)
+		long queueTime;
+	}
+}
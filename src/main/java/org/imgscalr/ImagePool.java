@@ -0,0 +1,76 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A source of the temporary (interim) images imgscalr renders into while
+ * processing an image, e.g. every step of an incremental scale or the result
+ * of every op but the last when applying multiple {@link java.awt.image.BufferedImageOp}s.
+ * <p/>
+ * Without a pool every interim image is a brand new allocation that is thrown
+ * away (and flushed) a moment later; with large images under load that shows
+ * up as heavy young-generation churn and, in G1, humongous allocations.
+ * Setting a pool with {@link Scalr#setImagePool(ImagePool)} lets those
+ * buffers be recycled instead.
+ * <p/>
+ * Images returned to the caller of a {@link Scalr} operation are never taken
+ * from the pool, so the caller never ends up holding a pooled buffer.
+ * <h3>Implementation Requirements</h3>
+ * <ul>
+ * <li>Implementations must be thread-safe; {@link Scalr} operations running
+ * on different threads share the same pool.</li>
+ * <li>{@link #acquire(int, int, int)} must return an image indistinguishable
+ * from <code>new BufferedImage(width, height, type)</code>: the exact size and
+ * type requested with every pixel cleared to <code>0</code>.</li>
+ * <li>{@link #release(BufferedImage)} may ignore any image it doesn't want to
+ * keep.</li>
+ * </ul>
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ * @see BucketedImagePool
+ */
+public interface ImagePool {
+	/**
+	 * Used to get an image to render interim results into.
+	 * 
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @param type
+	 *            The type of the image, one of
+	 *            {@link BufferedImage#TYPE_INT_RGB},
+	 *            {@link BufferedImage#TYPE_INT_ARGB} or
+	 *            {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+	 * 
+	 * @return an image of the given size and type with all pixels cleared to
+	 *         <code>0</code>.
+	 */
+	public BufferedImage acquire(int width, int height, int type);
+
+	/**
+	 * Used to hand an image back to the pool once imgscalr is done with it.
+	 * The image (and any view of its pixel data) is never touched by the
+	 * caller again after this call.
+	 * 
+	 * @param image
+	 *            The image being released.
+	 */
+	public void release(BufferedImage image);
+}
@@ -0,0 +1,407 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImagingOpException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+
+/**
+ * A lazily built image pyramid (mipmap) of a source image, used to resize
+ * the same image to many different sizes without starting every resize over
+ * from the full-resolution source (e.g. a CMS rendering hero images in
+ * whatever size a page asks for).
+ * <p/>
+ * Level <code>0</code> is the source image itself and every following level
+ * is half the size of the one before it (rounded up), down to
+ * <code>1x1</code>. A level is only created the first time a resize needs it,
+ * with a single {@link Method#QUALITY} step from the nearest larger level
+ * that is available; it is exactly the step an incremental
+ * {@link Method#QUALITY} scale of the source would have taken anyway.
+ * <p/>
+ * Every resize starts from the smallest level that is still at least as
+ * large as the target in both dimensions (see
+ * {@link #selectLevel(int, int)}), so a thumbnail of a large image only
+ * touches a fraction of its pixels. Results are never one of the retained
+ * levels, callers are free to modify them.
+ * <h3>Eviction</h3>
+ * The pyramid never holds on to more than <code>maxBytes</code> of levels
+ * (the source is not counted). When building a level would exceed that cap,
+ * the least recently used levels are dropped until it fits; a level bigger
+ * than the cap on its own is never retained. A dropped level is simply
+ * built again, from the nearest larger level, the next time it is needed.
+ * <p/>
+ * This class is thread-safe; levels are built while holding the pyramid's
+ * lock, the resizes themselves run concurrently.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class ImagePyramid {
+	protected final BufferedImage src;
+	protected final long maxBytes;
+
+	/**
+	 * The dimensions of every level; <code>[level][0]</code> is the width and
+	 * <code>[level][1]</code> the height.
+	 */
+	protected final int[][] dimensions;
+
+	/**
+	 * The retained levels by index, <code>null</code> for levels that were
+	 * not built (or were evicted). Index <code>0</code> is always the source.
+	 */
+	protected final BufferedImage[] levels;
+
+	/**
+	 * The index of every retained level (but the source), least recently used
+	 * first.
+	 */
+	protected final LinkedHashSet<Integer> retained = new LinkedHashSet<Integer>();
+
+	protected long retainedBytes;
+	protected long hitCount;
+	protected long missCount;
+
+	/**
+	 * Creates a new pyramid of the given source image without a memory cap.
+	 * 
+	 * @param src
+	 *            The source image.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>.
+	 */
+	public ImagePyramid(BufferedImage src) throws IllegalArgumentException {
+		this(src, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a new pyramid of the given source image that will retain at
+	 * most <code>maxBytes</code> of levels.
+	 * 
+	 * @param src
+	 *            The source image. It must not be modified while the pyramid
+	 *            is in use.
+	 * @param maxBytes
+	 *            The memory cap of the pyramid in bytes.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>maxBytes</code> is &lt; 0.
+	 */
+	public ImagePyramid(BufferedImage src, long maxBytes)
+			throws IllegalArgumentException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes [" + maxBytes
+					+ "] must be >= 0");
+
+		this.src = src;
+		this.maxBytes = maxBytes;
+
+		// Halve (rounding up, like a QUALITY step) until we reach 1x1.
+		int width = src.getWidth();
+		int height = src.getHeight();
+		int count = 1;
+
+		for (int w = width, h = height; w > 1 || h > 1; count++) {
+			w -= w / 2;
+			h -= h / 2;
+		}
+
+		dimensions = new int[count][];
+		levels = new BufferedImage[count];
+
+		for (int i = 0; i < count; i++) {
+			dimensions[i] = new int[] { width, height };
+			width -= width / 2;
+			height -= height / 2;
+		}
+
+		levels[0] = src;
+	}
+
+	/**
+	 * Resize the source image to a width and height no bigger than
+	 * <code>targetSize</code>, exactly like
+	 * {@link Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)}
+	 * but starting from the smallest suitable level of the pyramid.
+	 * 
+	 * @param scalingMethod
+	 *            The method used for scaling the image; preferring speed to
+	 *            quality or a balance of both.
+	 * @param targetSize
+	 *            The target width and height (square) that you wish the image
+	 *            to fit within.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that can be applied to the final result
+	 *            before returning the image.
+	 * 
+	 * @return a new image (or the source if no scaling was needed and no
+	 *         <code>ops</code> were given) scaled to the target size.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>scalingMethod</code> is <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>targetSize</code> is &lt; 0.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 */
+	public BufferedImage resize(Method scalingMethod, int targetSize,
+			BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return resize(scalingMethod, Mode.AUTOMATIC, targetSize, targetSize,
+				ops);
+	}
+
+	/**
+	 * Resize the source image to the given width and height, exactly like
+	 * {@link Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}
+	 * but starting from the smallest level of the pyramid that is at least as
+	 * large as the target dimensions.
+	 * 
+	 * @param scalingMethod
+	 *            The method used for scaling the image; preferring speed to
+	 *            quality or a balance of both.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for the image.
+	 * @param targetWidth
+	 *            The target width that you wish the image to have.
+	 * @param targetHeight
+	 *            The target height that you wish the image to have.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that can be applied to the final result
+	 *            before returning the image.
+	 * 
+	 * @return a new image (or the source if no scaling was needed and no
+	 *         <code>ops</code> were given) scaled to the target dimensions.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>scalingMethod</code> or <code>resizeMode</code> is
+	 *             <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>targetWidth</code> or <code>targetHeight</code> is
+	 *             &lt; 0.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 */
+	public BufferedImage resize(Method scalingMethod, Mode resizeMode,
+			int targetWidth, int targetHeight, BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		if (targetWidth < 0)
+			throw new IllegalArgumentException("targetWidth must be >= 0");
+		if (targetHeight < 0)
+			throw new IllegalArgumentException("targetHeight must be >= 0");
+		if (scalingMethod == null)
+			throw new IllegalArgumentException(
+					"scalingMethod cannot be null. A good default value is Method.AUTOMATIC.");
+		if (resizeMode == null)
+			throw new IllegalArgumentException(
+					"resizeMode cannot be null. A good default value is Mode.AUTOMATIC.");
+
+		/*
+		 * The target dimensions are determined against the source, the
+		 * levels' proportions are rounded and could be off by a pixel.
+		 */
+		int[] target = Scalr.determineTargetDimensions(src.getWidth(),
+				src.getHeight(), resizeMode, targetWidth, targetHeight);
+
+		// Nothing to scale, the source is handed back like Scalr does.
+		if (target == null)
+			return Scalr.resize(src, scalingMethod, resizeMode, targetWidth,
+					targetHeight, ops);
+
+		/*
+		 * AUTOMATIC picks the method from the target size, which doesn't
+		 * change by starting from a level; pick it against the source.
+		 */
+		if (scalingMethod == Method.AUTOMATIC)
+			scalingMethod = Scalr.determineScalingMethod(target[0], target[1],
+					(float) src.getHeight() / (float) src.getWidth());
+
+		int index = selectLevel(target[0], target[1]);
+		BufferedImage level = getLevel(index);
+		BufferedImage result = Scalr.resize(level, scalingMethod,
+				Mode.FIT_EXACT, target[0], target[1], ops);
+
+		/*
+		 * A QUALITY resize to exactly the size of the level returns the level
+		 * itself; it is shared by every resize, so never hand it out.
+		 */
+		if (result == level && index > 0)
+			result = Scalr.copy(result);
+
+		return result;
+	}
+
+	/**
+	 * @return the source image (level <code>0</code>).
+	 */
+	public BufferedImage getSource() {
+		return src;
+	}
+
+	/**
+	 * @return the number of levels of the pyramid, including the source.
+	 */
+	public int getLevelCount() {
+		return levels.length;
+	}
+
+	/**
+	 * @return the number of bytes worth of levels currently retained.
+	 */
+	public synchronized long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	/**
+	 * @return the number of resizes that started from a retained level.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of resizes that had to build their level first.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Drops every retained level.
+	 */
+	public synchronized void clear() {
+		for (int i = 1; i < levels.length; i++)
+			levels[i] = null;
+
+		retained.clear();
+		retainedBytes = 0;
+	}
+
+	/**
+	 * Used to determine the level a resize to the given dimensions starts
+	 * from: the smallest level at least as large as the target in both
+	 * dimensions, <code>0</code> (the source) when scaling up.
+	 * 
+	 * @param targetWidth
+	 *            The target width.
+	 * @param targetHeight
+	 *            The target height.
+	 * 
+	 * @return the index of the level.
+	 */
+	protected int selectLevel(int targetWidth, int targetHeight) {
+		int level = 0;
+
+		while (level + 1 < dimensions.length
+				&& dimensions[level + 1][0] >= targetWidth
+				&& dimensions[level + 1][1] >= targetHeight)
+			level++;
+
+		return level;
+	}
+
+	/**
+	 * Used to get the image of the given level, building it (and any missing
+	 * level between it and the nearest larger retained level) first if
+	 * necessary.
+	 * <p/>
+	 * The returned image is shared by every resize of the pyramid and must
+	 * never be modified or handed out to the caller.
+	 * 
+	 * @param level
+	 *            The index of the level.
+	 * 
+	 * @return the image of the level.
+	 */
+	protected synchronized BufferedImage getLevel(int level) {
+		BufferedImage image = levels[level];
+
+		if (image != null) {
+			hitCount++;
+			touch(level);
+
+			return image;
+		}
+
+		missCount++;
+
+		int nearest = level;
+
+		while (levels[nearest] == null)
+			nearest--;
+
+		image = levels[nearest];
+
+		if (nearest > 0)
+			touch(nearest);
+
+		// Each level is a single QUALITY step from the one before it.
+		for (int i = nearest + 1; i <= level; i++) {
+			image = Scalr.resize(image, Method.QUALITY, Mode.FIT_EXACT,
+					dimensions[i][0], dimensions[i][1]);
+			retain(i, image);
+		}
+
+		return image;
+	}
+
+	/**
+	 * Used to mark a retained level as the most recently used one.
+	 */
+	protected void touch(int level) {
+		Integer key = Integer.valueOf(level);
+
+		if (retained.remove(key))
+			retained.add(key);
+	}
+
+	/**
+	 * Used to retain a newly built level, evicting the least recently used
+	 * levels until the pyramid fits its cap again.
+	 */
+	protected void retain(int level, BufferedImage image) {
+		long bytes = Recorder.bytes(image);
+
+		if (bytes > maxBytes)
+			return;
+
+		levels[level] = image;
+		retained.add(Integer.valueOf(level));
+		retainedBytes += bytes;
+
+		for (Iterator<Integer> i = retained.iterator(); retainedBytes > maxBytes;) {
+			int evicted = i.next().intValue();
+
+			i.remove();
+			retainedBytes -= Recorder.bytes(levels[evicted]);
+			levels[evicted] = null;
+		}
+	}
+}
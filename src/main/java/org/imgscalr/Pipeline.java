@@ -0,0 +1,635 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImagingOpException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+
+/**
+ * Class used to describe a chain of operations (crop, resize, rotate/flip, pad
+ * and {@link BufferedImageOp}s) that is planned as a whole and then executed
+ * with as few intermediate images as possible.
+ * <p/>
+ * Calling {@link Scalr#resize(BufferedImage, int, BufferedImageOp...)},
+ * {@link Scalr#crop(BufferedImage, int, int, int, int, BufferedImageOp...)},
+ * {@link Scalr#pad(BufferedImage, int, Color, BufferedImageOp...)} and
+ * {@link Scalr#rotate(BufferedImage, Rotation, BufferedImageOp...)} one after
+ * another creates a full-size {@link BufferedImage} for every call. A
+ * <code>Pipeline</code> records the same calls and, when {@link #run} is
+ * called, merges consecutive geometric operations into a single
+ * {@link AffineTransform} that is rendered in one pass into one destination
+ * image:
+ * <ul>
+ * <li>Crops only move the transform's origin and shrink the destination.</li>
+ * <li>Rotations and flips are quadrant rotations/mirrors of the transform.</li>
+ * <li>Padding moves the origin and grows the destination; the border is
+ * filled in the same pass.</li>
+ * <li>Resizes that {@link Scalr} performs as a single Java2D scale (any
+ * {@link Method#SPEED} or {@link Method#BALANCED} resize and any scale-up) are
+ * merged into the transform, rendered with the best interpolation requested
+ * by any of them.</li>
+ * </ul>
+ * Some operations cannot be expressed as a transform and act as barriers: the
+ * geometry planned so far is rendered and the operation is run on the result.
+ * These are down-scales with {@link Method#QUALITY},
+ * {@link Method#ULTRA_QUALITY} or the resampling methods (which scale
+ * incrementally or with their own convolution), resizes after a pad (the
+ * border would have to be resampled with the image) and
+ * {@link BufferedImageOp}s, which are run on the rendered result (all
+ * consecutive ops in a single {@link Scalr#apply} call). A leading crop is
+ * never copied; the operation that follows it reads straight from a view of
+ * the source image.
+ * <p/>
+ * A typical avatar pipeline:
+ * 
+ * <pre>
+ * Pipeline avatar = new Pipeline().crop(x, y, size, size)
+ * 		.resize(Method.SPEED, Mode.FIT_EXACT, 128, 128)
+ * 		.pad(4, Color.WHITE).apply(Scalr.OP_ANTIALIAS);
+ * 
+ * BufferedImage result = avatar.run(src);
+ * </pre>
+ * 
+ * renders the crop, scale and pad into one image and then applies the op.
+ * <h3>Thread Safety</h3>
+ * A <code>Pipeline</code> is not thread-safe while it is being built; once
+ * built, {@link #run(BufferedImage)} can be called concurrently from any
+ * number of threads (all planning state is local to the call).
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class Pipeline {
+	private final List<Step> steps = new ArrayList<Step>();
+
+	/**
+	 * Adds a crop of the image (as it is at this point in the pipeline) to
+	 * the given rectangle.
+	 * 
+	 * @param x
+	 *            The x-coordinate of the top-left corner of the crop.
+	 * @param y
+	 *            The y-coordinate of the top-left corner of the crop.
+	 * @param width
+	 *            The width of the crop.
+	 * @param height
+	 *            The height of the crop.
+	 * 
+	 * @return this pipeline.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if any of the values are &lt; 0. Whether the crop fits the
+	 *             image is checked by {@link #run(BufferedImage)}.
+	 */
+	public Pipeline crop(int x, int y, int width, int height)
+			throws IllegalArgumentException {
+		if (x < 0 || y < 0 || width < 0 || height < 0)
+			throw new IllegalArgumentException("Invalid crop bounds: x [" + x
+					+ "], y [" + y + "], width [" + width + "] and height ["
+					+ height + "] must all be >= 0");
+
+		steps.add(new Crop(x, y, width, height));
+		return this;
+	}
+
+	/**
+	 * Adds a resize of the image to the given width and height, honoring the
+	 * image's proportions as described by the given {@link Mode} (see
+	 * {@link Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}
+	 * ).
+	 * 
+	 * @param scalingMethod
+	 *            The method used for scaling the image.
+	 * @param resizeMode
+	 *            Used to indicate how the final target size is calculated.
+	 * @param targetWidth
+	 *            The target width of the image.
+	 * @param targetHeight
+	 *            The target height of the image.
+	 * 
+	 * @return this pipeline.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>scalingMethod</code> or <code>resizeMode</code> is
+	 *             <code>null</code> or if <code>targetWidth</code> or
+	 *             <code>targetHeight</code> is &lt; 0.
+	 */
+	public Pipeline resize(Method scalingMethod, Mode resizeMode,
+			int targetWidth, int targetHeight) throws IllegalArgumentException {
+		if (targetWidth < 0)
+			throw new IllegalArgumentException("targetWidth must be >= 0");
+		if (targetHeight < 0)
+			throw new IllegalArgumentException("targetHeight must be >= 0");
+		if (scalingMethod == null)
+			throw new IllegalArgumentException(
+					"scalingMethod cannot be null. A good default value is Method.AUTOMATIC.");
+		if (resizeMode == null)
+			throw new IllegalArgumentException(
+					"resizeMode cannot be null. A good default value is Mode.AUTOMATIC.");
+
+		steps.add(new Resize(scalingMethod, resizeMode, targetWidth,
+				targetHeight));
+		return this;
+	}
+
+	/**
+	 * Adds a rotation or flip of the image.
+	 * 
+	 * @param rotation
+	 *            The rotation to apply.
+	 * 
+	 * @return this pipeline.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>rotation</code> is <code>null</code>.
+	 */
+	public Pipeline rotate(Rotation rotation) throws IllegalArgumentException {
+		if (rotation == null)
+			throw new IllegalArgumentException("rotation cannot be null");
+
+		steps.add(new Rotate(rotation));
+		return this;
+	}
+
+	/**
+	 * Adds a border of <code>padding</code> pixels in the given color around
+	 * the image.
+	 * 
+	 * @param padding
+	 *            The number of pixels of padding to add to each side.
+	 * @param color
+	 *            The color of the padding.
+	 * 
+	 * @return this pipeline.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>padding</code> is &lt; <code>1</code> or if
+	 *             <code>color</code> is <code>null</code>.
+	 */
+	public Pipeline pad(int padding, Color color)
+			throws IllegalArgumentException {
+		if (padding < 1)
+			throw new IllegalArgumentException("padding [" + padding
+					+ "] must be > 0");
+		if (color == null)
+			throw new IllegalArgumentException("color cannot be null");
+
+		steps.add(new Pad(padding, color));
+		return this;
+	}
+
+	/**
+	 * Adds the given {@link BufferedImageOp}s, applied to the image in order.
+	 * 
+	 * @param ops
+	 *            <code>1</code> or more ops to apply to the image.
+	 * 
+	 * @return this pipeline.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>ops</code> is <code>null</code> or empty.
+	 */
+	public Pipeline apply(BufferedImageOp... ops)
+			throws IllegalArgumentException {
+		if (ops == null || ops.length == 0)
+			throw new IllegalArgumentException("ops cannot be null or empty");
+
+		// Consecutive ops are run with a single apply.
+		Step last = (steps.isEmpty() ? null : steps.get(steps.size() - 1));
+
+		if (last instanceof Apply) {
+			BufferedImageOp[] previous = ((Apply) last).ops;
+			BufferedImageOp[] merged = new BufferedImageOp[previous.length
+					+ ops.length];
+
+			System.arraycopy(previous, 0, merged, 0, previous.length);
+			System.arraycopy(ops, 0, merged, previous.length, ops.length);
+			steps.set(steps.size() - 1, new Apply(merged));
+		} else
+			steps.add(new Apply(ops.clone()));
+
+		return this;
+	}
+
+	/**
+	 * Used to run the pipeline on the given image.
+	 * 
+	 * @param src
+	 *            The image to process; it is never modified.
+	 * 
+	 * @return a new image containing the result of all of the pipeline's
+	 *         operations.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code> or if a crop does
+	 *             not fit inside the image it is applied to.
+	 * @throws ImagingOpException
+	 *             if one of the {@link BufferedImageOp}s fails to apply.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
+	 */
+	public BufferedImage run(BufferedImage src)
+			throws IllegalArgumentException, ImagingOpException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+
+		Stage stage = new Stage(src);
+
+		for (Step step : steps)
+			step.plan(stage);
+
+		return stage.result();
+	}
+
+	/**
+	 * The geometry planned so far: <code>image</code> rendered through
+	 * <code>transform</code> into a <code>width</code>x<code>height</code>
+	 * destination (only inside of <code>clip</code>, the area the image still
+	 * covers after any crops), surrounded by the padding borders in
+	 * <code>frames</code>.
+	 */
+	static final class Stage {
+		BufferedImage image;
+
+		/**
+		 * The interim image backing <code>image</code> (which may be a view of
+		 * it), released once it is no longer needed; <code>null</code> when
+		 * <code>image</code> is (a view of) the caller's source image.
+		 */
+		BufferedImage owned;
+
+		AffineTransform transform = new AffineTransform();
+		int width;
+		int height;
+		Object interpolation;
+		Rectangle clip;
+		List<Frame> frames = new ArrayList<Frame>();
+
+		Stage(BufferedImage src) {
+			image = src;
+			width = src.getWidth();
+			height = src.getHeight();
+			clip = new Rectangle(0, 0, width, height);
+		}
+
+		/**
+		 * Used to apply <code>tx</code> on top of the planned transform,
+		 * moving all the padding borders along with it.
+		 */
+		void transform(AffineTransform tx, int newWidth, int newHeight) {
+			Rectangle bounds = new Rectangle(0, 0, newWidth, newHeight);
+
+			transform.preConcatenate(tx);
+			clip = tx.createTransformedShape(clip).getBounds().intersection(
+					bounds);
+
+			// Borders (partially) cropped away must stay cropped away.
+			for (Frame frame : frames) {
+				frame.outer = tx.createTransformedShape(frame.outer)
+						.getBounds().intersection(bounds);
+				frame.inner = tx.createTransformedShape(frame.inner)
+						.getBounds().intersection(frame.outer);
+			}
+
+			width = newWidth;
+			height = newHeight;
+		}
+
+		/**
+		 * Used to render the planned geometry (if any) and make the result the
+		 * new, untransformed, image of this stage.
+		 * 
+		 * @return the rendered image.
+		 */
+		BufferedImage render() {
+			if (transform.isIdentity() && frames.isEmpty()
+					&& width == image.getWidth() && height == image.getHeight())
+				return image;
+
+			/*
+			 * A plain crop is just a view of the image, there is nothing to
+			 * render (and nothing to allocate).
+			 */
+			if (frames.isEmpty()
+					&& (transform.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+				int x = (int) -transform.getTranslateX();
+				int y = (int) -transform.getTranslateY();
+
+				if (x == -transform.getTranslateX()
+						&& y == -transform.getTranslateY()) {
+					image = image.getSubimage(x, y, width, height);
+					transform = new AffineTransform();
+					interpolation = null;
+					clip = new Rectangle(0, 0, width, height);
+
+					return image;
+				}
+			}
+
+			boolean alpha = (image.getTransparency() != BufferedImage.OPAQUE);
+
+			for (Frame frame : frames)
+				alpha |= (frame.color.getAlpha() != 255);
+
+			BufferedImage result = new BufferedImage(width, height,
+					(alpha ? BufferedImage.TYPE_INT_ARGB
+							: BufferedImage.TYPE_INT_RGB));
+			Graphics2D g = result.createGraphics();
+
+			// Draw the padding borders (they never overlap).
+			for (Frame frame : frames) {
+				Rectangle o = frame.outer;
+				Rectangle i = frame.inner;
+
+				if (o.isEmpty())
+					continue;
+
+				g.setColor(frame.color);
+
+				if (i.isEmpty()) {
+					g.fillRect(o.x, o.y, o.width, o.height);
+					continue;
+				}
+
+				g.fillRect(o.x, o.y, o.width, i.y - o.y);
+				g.fillRect(o.x, i.y + i.height, o.width, o.y + o.height
+						- (i.y + i.height));
+				g.fillRect(o.x, i.y, i.x - o.x, i.height);
+				g.fillRect(i.x + i.width, i.y, o.x + o.width - (i.x + i.width),
+						i.height);
+			}
+
+			if (interpolation != null)
+				g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+						interpolation);
+
+			g.clip(clip);
+			g.drawImage(image, transform, null);
+			g.dispose();
+
+			replace(result);
+
+			return result;
+		}
+
+		/**
+		 * Used to replace the image of this stage with a new interim image,
+		 * releasing the previous one (if it was ours).
+		 */
+		void replace(BufferedImage result) {
+			// Some operations hand back their source when there is no work.
+			if (result != image) {
+				if (owned != null && owned != result)
+					Scalr.releaseInterimImage(owned);
+
+				image = result;
+				owned = result;
+			}
+
+			transform = new AffineTransform();
+			interpolation = null;
+			frames.clear();
+			width = result.getWidth();
+			height = result.getHeight();
+			clip = new Rectangle(0, 0, width, height);
+		}
+
+		/**
+		 * @return the rendered result of the stage as an image that does not
+		 *         share its pixels with the source image or any other image.
+		 */
+		BufferedImage result() {
+			BufferedImage result = render();
+
+			if (result != owned) {
+				result = Scalr.copyToOptimalImage(result);
+
+				if (owned != null)
+					Scalr.releaseInterimImage(owned);
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * A padding border: the area inside <code>outer</code> but outside of
+	 * <code>inner</code>.
+	 */
+	static final class Frame {
+		Rectangle outer;
+		Rectangle inner;
+		final Color color;
+
+		Frame(Rectangle outer, Rectangle inner, Color color) {
+			this.outer = outer;
+			this.inner = inner;
+			this.color = color;
+		}
+	}
+
+	static abstract class Step {
+		/**
+		 * Used to add this operation to the stage, either by merging it into
+		 * the planned geometry or by rendering the stage and running the
+		 * operation on the result.
+		 */
+		abstract void plan(Stage stage);
+	}
+
+	static final class Crop extends Step {
+		final int x;
+		final int y;
+		final int width;
+		final int height;
+
+		Crop(int x, int y, int width, int height) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		void plan(Stage stage) {
+			if ((x + width) > stage.width)
+				throw new IllegalArgumentException(
+						"Invalid crop bounds: x + width [" + (x + width)
+								+ "] must be <= src.getWidth() [" + stage.width
+								+ "]");
+			if ((y + height) > stage.height)
+				throw new IllegalArgumentException(
+						"Invalid crop bounds: y + height [" + (y + height)
+								+ "] must be <= src.getHeight() ["
+								+ stage.height + "]");
+
+			stage.transform(AffineTransform.getTranslateInstance(-x, -y),
+					width, height);
+		}
+	}
+
+	static final class Resize extends Step {
+		final Method scalingMethod;
+		final Mode resizeMode;
+		final int targetWidth;
+		final int targetHeight;
+
+		Resize(Method scalingMethod, Mode resizeMode, int targetWidth,
+				int targetHeight) {
+			this.scalingMethod = scalingMethod;
+			this.resizeMode = resizeMode;
+			this.targetWidth = targetWidth;
+			this.targetHeight = targetHeight;
+		}
+
+		@Override
+		void plan(Stage stage) {
+			int[] targetDimensions = Scalr.determineTargetDimensions(
+					stage.width, stage.height, resizeMode, targetWidth,
+					targetHeight);
+
+			if (targetDimensions == null)
+				return;
+
+			int newWidth = targetDimensions[0];
+			int newHeight = targetDimensions[1];
+			Object hint = interpolationFor(stage.width, stage.height,
+					newWidth, newHeight);
+
+			if (hint == null || !stage.frames.isEmpty()) {
+				// Barrier: scale the rendered stage like Scalr would.
+				BufferedImage image = stage.render();
+
+				stage.replace(Scalr.resize(image, scalingMethod,
+						Mode.FIT_EXACT, newWidth, newHeight));
+			} else {
+				stage.transform(AffineTransform.getScaleInstance(
+						(double) newWidth / (double) stage.width,
+						(double) newHeight / (double) stage.height),
+						newWidth, newHeight);
+
+				if (rank(hint) > rank(stage.interpolation))
+					stage.interpolation = hint;
+			}
+		}
+
+		/**
+		 * @return the interpolation {@link Scalr} uses to perform this resize
+		 *         as a single Java2D scale or <code>null</code> if the resize
+		 *         cannot be done that way.
+		 */
+		Object interpolationFor(int width, int height, int newWidth,
+				int newHeight) {
+			Method method = scalingMethod;
+
+			if (method == Method.AUTOMATIC)
+				method = Scalr.determineScalingMethod(newWidth, newHeight,
+						(float) height / (float) width);
+
+			switch (method) {
+			case SPEED:
+				return RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+			case BALANCED:
+				return RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+			case QUALITY:
+			case ULTRA_QUALITY:
+				if (newWidth > width || newHeight > height)
+					return RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+
+				return null;
+			default:
+				return null;
+			}
+		}
+
+		static int rank(Object interpolation) {
+			if (interpolation == RenderingHints.VALUE_INTERPOLATION_BICUBIC)
+				return 3;
+			if (interpolation == RenderingHints.VALUE_INTERPOLATION_BILINEAR)
+				return 2;
+			if (interpolation == RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR)
+				return 1;
+
+			return 0;
+		}
+	}
+
+	static final class Rotate extends Step {
+		final Rotation rotation;
+
+		Rotate(Rotation rotation) {
+			this.rotation = rotation;
+		}
+
+		@Override
+		void plan(Stage stage) {
+			boolean quadrant = (rotation == Rotation.CW_90 || rotation == Rotation.CW_270);
+
+			stage.transform(Scalr.createRotationTransform(rotation,
+					stage.width, stage.height), (quadrant ? stage.height
+					: stage.width), (quadrant ? stage.width : stage.height));
+		}
+	}
+
+	static final class Pad extends Step {
+		final int padding;
+		final Color color;
+
+		Pad(int padding, Color color) {
+			this.padding = padding;
+			this.color = color;
+		}
+
+		@Override
+		void plan(Stage stage) {
+			Rectangle inner = new Rectangle(0, 0, stage.width, stage.height);
+
+			stage.transform(
+					AffineTransform.getTranslateInstance(padding, padding),
+					stage.width + padding * 2, stage.height + padding * 2);
+			inner.translate(padding, padding);
+			stage.frames.add(new Frame(new Rectangle(0, 0, stage.width,
+					stage.height), inner, color));
+		}
+	}
+
+	static final class Apply extends Step {
+		final BufferedImageOp[] ops;
+
+		Apply(BufferedImageOp[] ops) {
+			this.ops = ops;
+		}
+
+		@Override
+		void plan(Stage stage) {
+			stage.replace(Scalr.apply(stage.render(), ops));
+		}
+	}
+}
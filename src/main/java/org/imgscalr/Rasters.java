@@ -0,0 +1,130 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Helper methods used to work directly with the <code>int[]</code> pixel data
+ * backing the packed-int image types ({@link BufferedImage#TYPE_INT_RGB},
+ * {@link BufferedImage#TYPE_INT_ARGB} and
+ * {@link BufferedImage#TYPE_INT_ARGB_PRE}).
+ * <p/>
+ * Images are not required to start at the beginning of their
+ * {@link DataBuffer} or to have a scanline stride equal to their width; images
+ * returned from {@link BufferedImage#getSubimage(int, int, int, int)} for
+ * example share the parent's buffer. Every caller must address pixels as
+ * <code>data[offset(image) + (y * stride(image)) + x]</code>.
+ * <p/>
+ * <strong>NOTE</strong>: Pulling the backing array out of a
+ * {@link DataBufferInt} marks the image as "untrackable" for Java2D, meaning it
+ * will no longer be cached in video memory when drawn to the screen. This has
+ * no effect on the off-screen operations imgscalr performs.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Rasters {
+	private Rasters() {
+		// no-op, static helpers only
+	}
+
+	/**
+	 * Used to determine if the given image stores every pixel as a single
+	 * packed <code>int</code> in a single-bank {@link DataBufferInt}, meaning
+	 * it can be processed directly by the helpers in this class.
+	 * 
+	 * @param image
+	 *            The image to check.
+	 * 
+	 * @return <code>true</code> if the image is of type
+	 *         {@link BufferedImage#TYPE_INT_RGB},
+	 *         {@link BufferedImage#TYPE_INT_ARGB} or
+	 *         {@link BufferedImage#TYPE_INT_ARGB_PRE} and is backed by packed
+	 *         <code>int</code> data.
+	 */
+	static boolean isPackedInt(BufferedImage image) {
+		int type = image.getType();
+
+		if (type != BufferedImage.TYPE_INT_RGB
+				&& type != BufferedImage.TYPE_INT_ARGB
+				&& type != BufferedImage.TYPE_INT_ARGB_PRE)
+			return false;
+
+		WritableRaster raster = image.getRaster();
+
+		return (raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+				&& raster.getDataBuffer() instanceof DataBufferInt && raster
+				.getDataBuffer().getNumBanks() == 1);
+	}
+
+	/**
+	 * @return the <code>int[]</code> backing the given packed-int image.
+	 */
+	static int[] data(BufferedImage image) {
+		return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+
+	/**
+	 * @return the index of the top-left pixel of the given packed-int image in
+	 *         the array returned by {@link #data(BufferedImage)}.
+	 */
+	static int offset(BufferedImage image) {
+		WritableRaster raster = image.getRaster();
+		SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster
+				.getSampleModel();
+
+		return raster.getDataBuffer().getOffset()
+				+ model.getOffset(-raster.getSampleModelTranslateX(),
+						-raster.getSampleModelTranslateY());
+	}
+
+	/**
+	 * @return the number of array elements between the start of one row and
+	 *         the start of the next in the given packed-int image.
+	 */
+	static int stride(BufferedImage image) {
+		return ((SinglePixelPackedSampleModel) image.getRaster()
+				.getSampleModel()).getScanlineStride();
+	}
+
+	/**
+	 * Used to copy every pixel of <code>src</code> into <code>dest</code>
+	 * with the top-left corner at <code>destX</code>, <code>destY</code>, one
+	 * row at a time with {@link System#arraycopy(Object, int, Object, int, int)}.
+	 * <p/>
+	 * Both images must be packed-int images of the same type and the region
+	 * must fit inside of <code>dest</code>.
+	 */
+	static void copy(BufferedImage src, BufferedImage dest, int destX,
+			int destY) {
+		int width = src.getWidth();
+		int height = src.getHeight();
+		int[] in = data(src);
+		int[] out = data(dest);
+		int inStride = stride(src);
+		int outStride = stride(dest);
+		int i = offset(src);
+		int o = offset(dest) + (destY * outStride) + destX;
+
+		for (int y = 0; y < height; y++, i += inStride, o += outStride)
+			System.arraycopy(in, i, out, o, width);
+	}
+}
@@ -0,0 +1,223 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.ScalrEvent.Operation;
+
+/**
+ * Collects the details of the operation running on the current thread for a
+ * {@link ScalrEvent}.
+ * <p/>
+ * Every top-level {@link Scalr} operation calls {@link #begin(Operation, BufferedImage)}
+ * on entry and {@link #close(Recorder)} in a <code>finally</code> block, so the
+ * thread-local state never outlives the operation (no leak into pooled server
+ * threads). Operations performed inside of another one (e.g. the
+ * {@link Operation#APPLY} of a resize's optional ops) record into their own
+ * recorder, which is added to the enclosing one when it finishes.
+ * <p/>
+ * The recorder also times the operation's JFR event (see {@link Flight}).
+ * While the {@link ScalrListener#NOOP} listener is installed and no flight
+ * recording is running nothing is recorded:
+ * {@link #begin(Operation, BufferedImage)} returns <code>null</code> and every
+ * other helper returns immediately.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Recorder {
+	private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<Recorder>();
+
+	private final ScalrListener listener;
+	private final Object flight;
+	private final Recorder parent;
+	private final Operation operation;
+	private final int srcWidth;
+	private final int srcHeight;
+	private final int srcType;
+	private final long start;
+
+	private Method method;
+	private int steps;
+	private long convertNanos;
+	private long opsNanos;
+	private long bytesAllocated;
+
+	private Recorder(ScalrListener listener, Object flight, Recorder parent,
+			Operation operation, BufferedImage src) {
+		this.listener = listener;
+		this.flight = flight;
+		this.parent = parent;
+		this.operation = operation;
+		this.srcWidth = src.getWidth();
+		this.srcHeight = src.getHeight();
+		this.srcType = src.getType();
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * Used to start recording an operation on the current thread.
+	 * 
+	 * @return the recorder or <code>null</code> if no listener is installed and
+	 *         no flight recording is running.
+	 */
+	static Recorder begin(Operation operation, BufferedImage src) {
+		ScalrListener listener = Scalr.getListener();
+		Object flight = Flight.begin(operation);
+
+		if (listener == ScalrListener.NOOP && flight == null)
+			return null;
+
+		Recorder recorder = new Recorder(listener, flight, CURRENT.get(),
+				operation, src);
+
+		CURRENT.set(recorder);
+		return recorder;
+	}
+
+	/**
+	 * Used to complete the given recorder's operation successfully, reporting
+	 * it to the listener.
+	 * 
+	 * @return <code>result</code>.
+	 */
+	static BufferedImage finish(Recorder recorder, BufferedImage result) {
+		if (recorder == null)
+			return result;
+
+		long totalNanos = System.nanoTime() - recorder.start;
+		Recorder parent = recorder.parent;
+
+		if (parent != null) {
+			parent.steps += recorder.steps;
+			parent.bytesAllocated += recorder.bytesAllocated;
+
+			if (recorder.operation == Operation.APPLY)
+				parent.opsNanos += totalNanos;
+			else
+				parent.convertNanos += recorder.convertNanos;
+		}
+
+		Flight.end(recorder.flight, recorder.srcWidth, recorder.srcHeight,
+				result, recorder.method);
+
+		if (recorder.listener != ScalrListener.NOOP)
+			recorder.listener.onEvent(new ScalrEvent(recorder.operation,
+					recorder.srcWidth, recorder.srcHeight, recorder.srcType,
+					result, recorder.method, recorder.steps, totalNanos,
+					recorder.convertNanos, recorder.opsNanos,
+					recorder.bytesAllocated));
+
+		return result;
+	}
+
+	/**
+	 * Used to stop recording on the current thread, whether the operation
+	 * finished or failed.
+	 */
+	static void close(Recorder recorder) {
+		if (recorder == null)
+			return;
+
+		if (recorder.parent == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(recorder.parent);
+	}
+
+	/**
+	 * @return the recorder of the operation running on the current thread or
+	 *         <code>null</code> if none is being recorded.
+	 */
+	static Recorder current() {
+		return (Scalr.getListener() == ScalrListener.NOOP
+				&& !Flight.isRecording() ? null : CURRENT.get());
+	}
+
+	/**
+	 * Used to record the scaling method chosen for the current operation.
+	 */
+	static void method(Method method) {
+		Recorder recorder = current();
+
+		if (recorder != null)
+			recorder.method = method;
+	}
+
+	/**
+	 * Used to record an incremental scaling step of the current operation.
+	 */
+	static void step() {
+		Recorder recorder = current();
+
+		if (recorder != null)
+			recorder.steps++;
+	}
+
+	/**
+	 * Used to record the allocation of a new image by the current operation.
+	 * 
+	 * @return <code>image</code>.
+	 */
+	static BufferedImage allocated(BufferedImage image) {
+		Recorder recorder = current();
+
+		if (recorder != null)
+			recorder.bytesAllocated += bytes(image);
+
+		return image;
+	}
+
+	/**
+	 * @return the current time if the current operation is being recorded,
+	 *         otherwise <code>0</code>; pass it to
+	 *         {@link #converted(long, BufferedImage)} when done.
+	 */
+	static long time() {
+		return (current() == null ? 0 : System.nanoTime());
+	}
+
+	/**
+	 * Used to record the conversion of the source into the new image
+	 * <code>result</code> that started at <code>start</code> (see
+	 * {@link #time()}).
+	 * 
+	 * @return <code>result</code>.
+	 */
+	static BufferedImage converted(long start, BufferedImage result) {
+		Recorder recorder = current();
+
+		if (recorder != null && start != 0) {
+			recorder.convertNanos += System.nanoTime() - start;
+			recorder.bytesAllocated += bytes(result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return the size in bytes of the pixel data of the given image.
+	 */
+	static long bytes(BufferedImage image) {
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+
+		return (long) buffer.getSize() * buffer.getNumBanks()
+				* (DataBuffer.getDataTypeSize(buffer.getDataType()) / 8);
+	}
+}
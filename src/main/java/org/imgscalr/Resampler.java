@@ -0,0 +1,669 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.imgscalr.Scalr.Method;
+
+/**
+ * Pure-Java, two-pass separable convolution resampler used to implement the
+ * {@link Method#LANCZOS3}, {@link Method#MITCHELL} and
+ * {@link Method#CATMULL_ROM} scaling methods.
+ * <p/>
+ * Instead of repeatedly halving the image with Java2D like
+ * {@link Scalr#scaleImageIncrementally(BufferedImage, int, int, Method, Object)}
+ * does, the resampler reaches the target size directly: one horizontal pass
+ * (source rows to target width) followed by one vertical pass (to target
+ * height), both using filter weights that are precomputed once per call (see
+ * {@link Contributions}). When down-scaling, the filter is stretched by the
+ * scale factor so every source pixel contributes to the result, which is what
+ * produces the smooth, alias-free output the incremental approach only
+ * approximates.
+ * <p/>
+ * Both passes operate directly on the packed <code>int[]</code> pixel data of
+ * {@link BufferedImage#TYPE_INT_RGB} and {@link BufferedImage#TYPE_INT_ARGB}
+ * images (see {@link Rasters}); the only allocations are the result image and
+ * one intermediate buffer of <code>targetWidth x sourceHeight</code> pixels.
+ * <p/>
+ * Images with an alpha channel are resampled in premultiplied space and
+ * converted back to straight alpha at the end; this avoids the dark fringes
+ * that appear around transparent edges when straight-alpha color values are
+ * averaged with fully transparent (black) neighbors.
+ * <p/>
+ * The output rows are computed independently of each other: any range of
+ * destination rows can be produced from just the source rows under the
+ * vertical filter's support for that range (see
+ * {@link #resampleRows(BufferedImage, BufferedImage, Contributions, Contributions, int, int)}
+ * ). This is what allows the work to be split into bands that are resampled in
+ * parallel (see {@link Scalr#setParallelThreshold(int)}) without changing a
+ * single output pixel. It is also what allows an image that is only available
+ * a strip of rows at a time to be resampled without ever holding all of its
+ * rows in memory (see {@link Rows}).
+ *
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Resampler {
+	/**
+	 * The smallest number of destination rows a parallel band will cover.
+	 */
+	static final int MIN_BAND_HEIGHT = 16;
+
+	/**
+	 * The reconstruction filters supported by the resampler.
+	 */
+	static enum Filter {
+		/**
+		 * Lanczos windowed-sinc filter with 3 lobes. The sharpest of the
+		 * filters, at the cost of slight ringing around very hard edges.
+		 */
+		LANCZOS3(3.0) {
+			@Override
+			double evaluate(double x) {
+				if (x < 0)
+					x = -x;
+
+				if (x >= 3.0)
+					return 0;
+
+				return sinc(x) * sinc(x / 3.0);
+			}
+		},
+		/**
+		 * Mitchell-Netravali cubic (B = 1/3, C = 1/3). Balances blurring and
+		 * ringing; the best general-purpose choice for photographs.
+		 */
+		MITCHELL(2.0) {
+			@Override
+			double evaluate(double x) {
+				return cubic(x, 1.0 / 3.0, 1.0 / 3.0);
+			}
+		},
+		/**
+		 * Catmull-Rom cubic spline (B = 0, C = 1/2). Sharper than
+		 * {@link #MITCHELL} and very close to what most image editors call
+		 * "bicubic".
+		 */
+		CATMULL_ROM(2.0) {
+			@Override
+			double evaluate(double x) {
+				return cubic(x, 0.0, 0.5);
+			}
+		};
+
+		/**
+		 * Radius (in source pixels, before stretching for down-scaling) outside
+		 * of which the filter evaluates to <code>0</code>.
+		 */
+		final double support;
+
+		private Filter(double support) {
+			this.support = support;
+		}
+
+		/**
+		 * @return the weight of a sample at distance <code>x</code> from the
+		 *         center of the filter.
+		 */
+		abstract double evaluate(double x);
+
+		static double sinc(double x) {
+			if (x == 0)
+				return 1.0;
+
+			x *= Math.PI;
+
+			return Math.sin(x) / x;
+		}
+
+		/**
+		 * The Mitchell-Netravali family of cubic filters, parameterized by
+		 * <code>b</code> and <code>c</code>.
+		 */
+		static double cubic(double x, double b, double c) {
+			if (x < 0)
+				x = -x;
+
+			double xx = x * x;
+
+			if (x < 1.0)
+				return ((12 - 9 * b - 6 * c) * xx * x
+						+ (-18 + 12 * b + 6 * c) * xx + (6 - 2 * b)) / 6.0;
+			if (x < 2.0)
+				return ((-b - 6 * c) * xx * x + (6 * b + 30 * c) * xx
+						+ (-12 * b - 48 * c) * x + (8 * b + 24 * c)) / 6.0;
+
+			return 0;
+		}
+	}
+
+	/**
+	 * Precomputed, normalized filter weights for resampling one dimension of
+	 * an image from <code>srcSize</code> to <code>dstSize</code> pixels.
+	 * <p/>
+	 * Destination pixel <code>i</code> is the weighted sum of the
+	 * <code>count[i]</code> source pixels starting at <code>start[i]</code>,
+	 * using the weights at <code>weights[i * stride]</code> onward.
+	 */
+	static final class Contributions {
+		final int[] start;
+		final int[] count;
+		final float[] weights;
+		final int stride;
+
+		Contributions(int srcSize, int dstSize, Filter filter) {
+			double scale = (double) dstSize / (double) srcSize;
+
+			/*
+			 * When down-scaling, stretch the filter so it covers every source
+			 * pixel that maps into a destination pixel; otherwise we would be
+			 * point-sampling and aliasing just like a single BICUBIC draw.
+			 */
+			double filterScale = Math.max(1.0, 1.0 / scale);
+			double support = filter.support * filterScale;
+
+			start = new int[dstSize];
+			count = new int[dstSize];
+			stride = (int) Math.ceil(support * 2) + 2;
+			weights = new float[dstSize * stride];
+
+			double[] tmp = new double[stride];
+
+			for (int i = 0; i < dstSize; i++) {
+				double center = (i + 0.5) / scale;
+				int left = Math.max(0, (int) Math.floor(center - support));
+				int right = Math.min(srcSize,
+						(int) Math.ceil(center + support));
+				double sum = 0;
+
+				for (int j = left; j < right; j++) {
+					double weight = filter.evaluate((j + 0.5 - center)
+							/ filterScale);
+
+					tmp[j - left] = weight;
+					sum += weight;
+				}
+
+				if (sum == 0) {
+					/*
+					 * Can only happen at extreme up-scaling ratios where the
+					 * center lands exactly between taps; fall back to the
+					 * nearest source pixel.
+					 */
+					start[i] = Math.min(srcSize - 1, (int) center);
+					count[i] = 1;
+					weights[i * stride] = 1f;
+				} else {
+					start[i] = left;
+					count[i] = right - left;
+
+					for (int k = 0, n = right - left; k < n; k++)
+						weights[i * stride + k] = (float) (tmp[k] / sum);
+				}
+			}
+		}
+
+		/**
+		 * @return the first source index (inclusive) needed to compute the
+		 *         destination range <code>[from, to)</code>.
+		 */
+		int firstSource(int from, int to) {
+			int first = Integer.MAX_VALUE;
+
+			for (int i = from; i < to; i++)
+				first = Math.min(first, start[i]);
+
+			return first;
+		}
+
+		/**
+		 * @return the last source index (exclusive) needed to compute the
+		 *         destination range <code>[from, to)</code>.
+		 */
+		int lastSource(int from, int to) {
+			int last = 0;
+
+			for (int i = from; i < to; i++)
+				last = Math.max(last, start[i] + count[i]);
+
+			return last;
+		}
+	}
+
+	private Resampler() {
+		// no-op, static helpers only
+	}
+
+	/**
+	 * Used to get the {@link Filter} implementing the given scaling method.
+	 *
+	 * @param scalingMethod
+	 *            The scaling method.
+	 *
+	 * @return the filter used to implement <code>scalingMethod</code> or
+	 *         <code>null</code> if the method is not implemented by this
+	 *         resampler.
+	 */
+	static Filter forMethod(Method scalingMethod) {
+		switch (scalingMethod) {
+		case LANCZOS3:
+			return Filter.LANCZOS3;
+		case MITCHELL:
+			return Filter.MITCHELL;
+		case CATMULL_ROM:
+			return Filter.CATMULL_ROM;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Used to resample <code>src</code> to the given dimensions with the
+	 * given filter.
+	 *
+	 * @param src
+	 *            The image to resample. Images that are not stored as packed
+	 *            <code>int</code>s are first copied into an optimal image type.
+	 * @param dest
+	 *            The packed-int image (or view of one) to write the result
+	 *            into, sized to the target dimensions, or <code>null</code> to
+	 *            create a new image of the most optimal type.
+	 * @param targetWidth
+	 *            The width of the result.
+	 * @param targetHeight
+	 *            The height of the result.
+	 * @param filter
+	 *            The reconstruction filter to use.
+	 *
+	 * @return the resampled result; <code>dest</code> if one was given.
+	 */
+	static BufferedImage resample(BufferedImage src, BufferedImage dest,
+			int targetWidth, int targetHeight, Filter filter) {
+		if (!Rasters.isPackedInt(src))
+			src = Scalr.copyToOptimalImage(src);
+
+		BufferedImage result = (dest == null ? Scalr.createOptimalImage(src,
+				targetWidth, targetHeight) : dest);
+
+		Contributions horizontal = new Contributions(src.getWidth(),
+				targetWidth, filter);
+		Contributions vertical = new Contributions(src.getHeight(),
+				targetHeight, filter);
+
+		if ((long) src.getWidth() * (long) src.getHeight() >= Scalr
+				.getParallelThreshold()) {
+			ForkJoinPool pool = Scalr.getParallelPool();
+
+			pool.invoke(new Band(Checkpoint.current(), src, result,
+					horizontal, vertical, 0, targetHeight, bandHeight(
+							targetHeight, pool.getParallelism())));
+		} else {
+			resampleRows(src, result, horizontal, vertical, 0, targetHeight);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Used to determine the number of destination rows each parallel band
+	 * should cover.
+	 * <p/>
+	 * We aim for a few bands per thread so uneven progress between threads
+	 * evens out, but never go below {@link #MIN_BAND_HEIGHT} rows; every band
+	 * re-runs the horizontal pass over the source rows it shares with its
+	 * neighbors, and tiny bands would spend most of their time on that
+	 * overlap.
+	 */
+	static int bandHeight(int targetHeight, int parallelism) {
+		int bands = Math.max(1, parallelism * 4);
+
+		return Math.max(MIN_BAND_HEIGHT, (targetHeight + bands - 1) / bands);
+	}
+
+	/**
+	 * {@link RecursiveAction} that resamples the destination rows
+	 * <code>[from, to)</code>, splitting the range in half until it is no
+	 * taller than <code>bandHeight</code>.
+	 * <p/>
+	 * Every band delegates to
+	 * {@link Resampler#resampleRows(BufferedImage, BufferedImage, Contributions, Contributions, int, int)}
+	 * which pulls in the source rows under the vertical filter's support
+	 * (overlapping with the neighboring bands), so the result is identical to
+	 * resampling all rows at once.
+	 */
+	static final class Band extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Checkpoint checkpoint;
+		private final BufferedImage src;
+		private final BufferedImage dest;
+		private final Contributions horizontal;
+		private final Contributions vertical;
+		private final int from;
+		private final int to;
+		private final int bandHeight;
+
+		Band(Checkpoint checkpoint, BufferedImage src, BufferedImage dest,
+				Contributions horizontal, Contributions vertical, int from,
+				int to, int bandHeight) {
+			this.checkpoint = checkpoint;
+			this.src = src;
+			this.dest = dest;
+			this.horizontal = horizontal;
+			this.vertical = vertical;
+			this.from = from;
+			this.to = to;
+			this.bandHeight = bandHeight;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= bandHeight) {
+				checkpoint.poll();
+				resampleRows(src, dest, horizontal, vertical, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+
+				invokeAll(new Band(checkpoint, src, dest, horizontal,
+						vertical, from, middle, bandHeight), new Band(
+						checkpoint, src, dest, horizontal, vertical, middle,
+						to, bandHeight));
+			}
+		}
+	}
+
+	/**
+	 * Incremental variant of the resampler for sources that are delivered a
+	 * strip of rows at a time, top to bottom (see {@link ScalrIO}).
+	 * <p/>
+	 * Every pushed strip is run through the horizontal pass straight away and
+	 * appended to a window of horizontally resampled rows; every destination
+	 * row whose vertical filter support is completely inside the window is
+	 * then computed and the rows no later destination row needs are dropped.
+	 * The window never holds more than one strip plus the vertical filter's
+	 * support worth of rows, each only <code>targetWidth</code> pixels wide,
+	 * and the result is identical to resampling the whole image at once.
+	 */
+	static final class Rows {
+		private final Contributions horizontal;
+		private final Contributions vertical;
+		private final BufferedImage dest;
+		private final int srcWidth;
+		private final int srcHeight;
+		private final boolean alpha;
+
+		/**
+		 * The horizontally resampled source rows
+		 * <code>[windowFrom, windowTo)</code>.
+		 */
+		private int[] window = new int[0];
+		private int windowFrom;
+		private int windowTo;
+
+		/**
+		 * The next destination row to compute.
+		 */
+		private int nextRow;
+
+		Rows(int srcWidth, int srcHeight, BufferedImage dest, Filter filter) {
+			this.horizontal = new Contributions(srcWidth, dest.getWidth(),
+					filter);
+			this.vertical = new Contributions(srcHeight, dest.getHeight(),
+					filter);
+			this.dest = dest;
+			this.srcWidth = srcWidth;
+			this.srcHeight = srcHeight;
+			this.alpha = dest.getColorModel().hasAlpha();
+		}
+
+		/**
+		 * Used to append the next strip of source rows.
+		 * 
+		 * @param strip
+		 *            A packed-int image <code>srcWidth</code> pixels wide
+		 *            containing the source rows that follow the last strip
+		 *            pushed (or the first rows of the image).
+		 */
+		void push(BufferedImage strip) {
+			int dstWidth = dest.getWidth();
+			int rows = Math.min(strip.getHeight(), srcHeight - windowTo);
+
+			// Drop the rows no remaining destination row needs.
+			int keepFrom = (nextRow < vertical.start.length ? Math.min(
+					windowTo, vertical.start[nextRow]) : windowTo);
+
+			if (keepFrom > windowFrom) {
+				System.arraycopy(window, (keepFrom - windowFrom) * dstWidth,
+						window, 0, (windowTo - keepFrom) * dstWidth);
+				windowFrom = keepFrom;
+			}
+
+			int used = (windowTo - windowFrom) * dstWidth;
+
+			if (window.length < used + rows * dstWidth)
+				window = Arrays.copyOf(window, used + rows * dstWidth);
+
+			horizontal(Rasters.data(strip), Rasters.offset(strip),
+					Rasters.stride(strip), srcWidth, alpha, alpha
+							&& !strip.isAlphaPremultiplied(), horizontal,
+					dstWidth, 0, rows, window, used);
+			windowTo += rows;
+
+			// Compute every destination row that is now fully covered.
+			int from = nextRow;
+
+			while (nextRow < vertical.start.length
+					&& (windowTo == srcHeight || vertical.start[nextRow]
+							+ vertical.count[nextRow] <= windowTo))
+				nextRow++;
+
+			if (nextRow > from)
+				vertical(window, windowFrom, dstWidth, alpha, alpha
+						&& !dest.isAlphaPremultiplied(), vertical, from,
+						nextRow, Rasters.data(dest), Rasters.offset(dest),
+						Rasters.stride(dest));
+		}
+	}
+
+	/**
+	 * Used to compute the destination rows <code>[dstFrom, dstTo)</code> of
+	 * the resampled image.
+	 * <p/>
+	 * Only the source rows under the vertical filter's support for the given
+	 * range are run through the horizontal pass, so disjoint ranges can be
+	 * computed independently (and concurrently) and produce exactly the same
+	 * pixels as computing the whole image at once.
+	 *
+	 * @param src
+	 *            The packed-int source image.
+	 * @param dest
+	 *            The packed-int destination image, already sized to the
+	 *            target dimensions.
+	 * @param horizontal
+	 *            The weights mapping source columns to destination columns.
+	 * @param vertical
+	 *            The weights mapping source rows to destination rows.
+	 * @param dstFrom
+	 *            The first destination row to compute (inclusive).
+	 * @param dstTo
+	 *            The last destination row to compute (exclusive).
+	 */
+	static void resampleRows(BufferedImage src, BufferedImage dest,
+			Contributions horizontal, Contributions vertical, int dstFrom,
+			int dstTo) {
+		boolean alpha = src.getColorModel().hasAlpha();
+		boolean premultiply = alpha && !src.isAlphaPremultiplied();
+		boolean unpremultiply = alpha && !dest.isAlphaPremultiplied();
+
+		int srcFrom = vertical.firstSource(dstFrom, dstTo);
+		int srcTo = vertical.lastSource(dstFrom, dstTo);
+		int dstWidth = dest.getWidth();
+		int[] intermediate = new int[dstWidth * (srcTo - srcFrom)];
+
+		horizontal(Rasters.data(src), Rasters.offset(src),
+				Rasters.stride(src), src.getWidth(), alpha, premultiply,
+				horizontal, dstWidth, srcFrom, srcTo, intermediate, 0);
+		vertical(intermediate, srcFrom, dstWidth, alpha, unpremultiply,
+				vertical, dstFrom, dstTo, Rasters.data(dest),
+				Rasters.offset(dest), Rasters.stride(dest));
+	}
+
+	/**
+	 * Horizontal pass: resamples source rows <code>[rowFrom, rowTo)</code> to
+	 * <code>dstWidth</code> pixels each, writing them (premultiplied if the
+	 * image has alpha) one after another into <code>out</code> starting at
+	 * <code>outOffset</code>.
+	 */
+	static void horizontal(int[] src, int srcOffset, int srcStride,
+			int srcWidth, boolean alpha, boolean premultiply,
+			Contributions c, int dstWidth, int rowFrom, int rowTo, int[] out,
+			int outOffset) {
+		int[] row = (premultiply ? new int[srcWidth] : null);
+		int[] start = c.start;
+		int[] count = c.count;
+		float[] weights = c.weights;
+		int stride = c.stride;
+
+		for (int y = rowFrom, o = outOffset; y < rowTo; y++) {
+			int[] in = src;
+			int base = srcOffset + (y * srcStride);
+
+			if (premultiply) {
+				for (int x = 0; x < srcWidth; x++)
+					row[x] = premultiply(src[base + x]);
+
+				in = row;
+				base = 0;
+			}
+
+			for (int x = 0; x < dstWidth; x++, o++) {
+				float a = 0, r = 0, g = 0, b = 0;
+				int p = base + start[x];
+				int w = x * stride;
+
+				for (int k = 0, n = count[x]; k < n; k++, p++, w++) {
+					int pixel = in[p];
+					float weight = weights[w];
+
+					a += weight * (pixel >>> 24);
+					r += weight * ((pixel >> 16) & 0xFF);
+					g += weight * ((pixel >> 8) & 0xFF);
+					b += weight * (pixel & 0xFF);
+				}
+
+				out[o] = ((alpha ? clamp(a) : 0xFF) << 24) | (clamp(r) << 16)
+						| (clamp(g) << 8) | clamp(b);
+			}
+		}
+	}
+
+	/**
+	 * Vertical pass: combines the horizontally resampled rows in
+	 * <code>in</code> (whose first row is source row <code>inRowFrom</code>)
+	 * into destination rows <code>[dstFrom, dstTo)</code>.
+	 */
+	static void vertical(int[] in, int inRowFrom, int width, boolean alpha,
+			boolean unpremultiply, Contributions c, int dstFrom, int dstTo,
+			int[] dest, int destOffset, int destStride) {
+		float[] a = new float[width];
+		float[] r = new float[width];
+		float[] g = new float[width];
+		float[] b = new float[width];
+		int[] start = c.start;
+		int[] count = c.count;
+		float[] weights = c.weights;
+		int stride = c.stride;
+
+		for (int y = dstFrom; y < dstTo; y++) {
+			Arrays.fill(a, 0f);
+			Arrays.fill(r, 0f);
+			Arrays.fill(g, 0f);
+			Arrays.fill(b, 0f);
+
+			/*
+			 * Accumulate whole rows at a time (instead of one column at a
+			 * time) so we walk the intermediate buffer sequentially.
+			 */
+			for (int k = 0, n = count[y]; k < n; k++) {
+				float weight = weights[y * stride + k];
+				int p = (start[y] + k - inRowFrom) * width;
+
+				for (int x = 0; x < width; x++, p++) {
+					int pixel = in[p];
+
+					a[x] += weight * (pixel >>> 24);
+					r[x] += weight * ((pixel >> 16) & 0xFF);
+					g[x] += weight * ((pixel >> 8) & 0xFF);
+					b[x] += weight * (pixel & 0xFF);
+				}
+			}
+
+			int o = destOffset + (y * destStride);
+
+			for (int x = 0; x < width; x++, o++) {
+				int pa = (alpha ? clamp(a[x]) : 0xFF);
+				int pr = clamp(r[x]);
+				int pg = clamp(g[x]);
+				int pb = clamp(b[x]);
+
+				if (unpremultiply)
+					dest[o] = unpremultiply(pa, pr, pg, pb);
+				else
+					dest[o] = (pa << 24) | (pr << 16) | (pg << 8) | pb;
+			}
+		}
+	}
+
+	static int clamp(float value) {
+		int v = (int) (value + 0.5f);
+
+		return (v < 0 ? 0 : (v > 255 ? 255 : v));
+	}
+
+	static int premultiply(int pixel) {
+		int a = pixel >>> 24;
+
+		if (a == 0xFF)
+			return pixel;
+		if (a == 0)
+			return 0;
+
+		int r = (((pixel >> 16) & 0xFF) * a + 127) / 255;
+		int g = (((pixel >> 8) & 0xFF) * a + 127) / 255;
+		int b = ((pixel & 0xFF) * a + 127) / 255;
+
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+
+	static int unpremultiply(int a, int r, int g, int b) {
+		if (a == 0xFF)
+			return 0xFF000000 | (r << 16) | (g << 8) | b;
+		if (a == 0)
+			return 0;
+
+		int half = a / 2;
+
+		r = Math.min(255, (r * 255 + half) / a);
+		g = Math.min(255, (g * 255 + half) / a);
+		b = Math.min(255, (b * 255 + half) / a);
+
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+}
@@ -0,0 +1,249 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.imgscalr.Scalr.Rotation;
+
+/**
+ * Implements every {@link Rotation} directly on the <code>int[]</code> pixel
+ * data of packed-int images (see {@link Rasters}) instead of rendering the
+ * image through an {@link java.awt.geom.AffineTransform} with Java2D.
+ * <p/>
+ * Quadrant rotations and flips never create or blend a pixel, they only move
+ * them around, so they are pure index permutations: flips and the 180 degree
+ * rotation reverse rows and/or the order of rows, and the 90 and 270 degree
+ * rotations are transposes (with one of the axes reversed). Transposes read
+ * along rows and write along columns, which thrashes the CPU cache on large
+ * images, so the image is processed in {@link #BLOCK}x{@link #BLOCK} tiles
+ * that fit in cache comfortably.
+ * <p/>
+ * Since no two source pixels are written to the same destination pixel, any
+ * set of source rows can be processed independently; images at or above
+ * {@link Scalr#getParallelThreshold()} pixels are split into bands of
+ * source rows that are rotated in parallel on {@link Scalr#getParallelPool()}.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+final class Rotator {
+	/**
+	 * The width and height of the tiles transposes are processed in (64x64
+	 * pixels, 16KB of source plus 16KB of destination pixels).
+	 */
+	static final int BLOCK = 64;
+
+	private Rotator() {
+		// no-op, static helpers only
+	}
+
+	/**
+	 * Used to determine if the raw pixels of <code>src</code> can be copied
+	 * into <code>dest</code> as-is (or with just the alpha channel set), which
+	 * is what {@link #rotate(BufferedImage, Rotation, BufferedImage, int, int)}
+	 * requires.
+	 * 
+	 * @return <code>true</code> if both images are packed-int images and
+	 *         either of the same type or an opaque
+	 *         (<code>TYPE_INT_RGB</code>) source.
+	 */
+	static boolean isSupported(BufferedImage src, BufferedImage dest) {
+		if (!Rasters.isPackedInt(src) || !Rasters.isPackedInt(dest))
+			return false;
+
+		// An opaque pixel is the same whether premultiplied or not.
+		return (src.getType() == dest.getType() || src.getType() == BufferedImage.TYPE_INT_RGB);
+	}
+
+	/**
+	 * Used to write <code>src</code> rotated as described by
+	 * <code>rotation</code> into <code>dest</code> with the rotated image's
+	 * top-left corner at <code>destX</code>, <code>destY</code>.
+	 * <p/>
+	 * The images must be supported (see
+	 * {@link #isSupported(BufferedImage, BufferedImage)}) and the rotated image
+	 * must fit inside of <code>dest</code>.
+	 */
+	static void rotate(BufferedImage src, Rotation rotation,
+			BufferedImage dest, int destX, int destY) {
+		int width = src.getWidth();
+		int height = src.getHeight();
+		int[] in = Rasters.data(src);
+		int[] out = Rasters.data(dest);
+		int inOffset = Rasters.offset(src);
+		int inStride = Rasters.stride(src);
+		int outStride = Rasters.stride(dest);
+		int outOffset = Rasters.offset(dest) + (destY * outStride) + destX;
+
+		// INT_RGB pixels have undefined top bytes, make them opaque in ARGB.
+		int alpha = (src.getType() == BufferedImage.TYPE_INT_RGB
+				&& dest.getType() != BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0);
+
+		if ((long) width * (long) height >= Scalr.getParallelThreshold()) {
+			ForkJoinPool pool = Scalr.getParallelPool();
+			int bands = Math.max(1, pool.getParallelism() * 4);
+			int bandHeight = Math.max(BLOCK,
+					((height + bands - 1) / bands + BLOCK - 1) / BLOCK * BLOCK);
+
+			pool.invoke(new Band(Checkpoint.current(), rotation, in,
+					inOffset, inStride, width, height, out, outOffset,
+					outStride, alpha, 0, height, bandHeight));
+		} else
+			rotateRows(rotation, in, inOffset, inStride, width, height, out,
+					outOffset, outStride, alpha, 0, height);
+	}
+
+	/**
+	 * {@link RecursiveAction} that rotates the source rows
+	 * <code>[from, to)</code>, splitting the range in half until it is no
+	 * taller than <code>bandHeight</code>.
+	 */
+	static final class Band extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Checkpoint checkpoint;
+		private final Rotation rotation;
+		private final int[] in;
+		private final int inOffset;
+		private final int inStride;
+		private final int width;
+		private final int height;
+		private final int[] out;
+		private final int outOffset;
+		private final int outStride;
+		private final int alpha;
+		private final int from;
+		private final int to;
+		private final int bandHeight;
+
+		Band(Checkpoint checkpoint, Rotation rotation, int[] in,
+				int inOffset, int inStride, int width, int height, int[] out,
+				int outOffset, int outStride, int alpha, int from, int to,
+				int bandHeight) {
+			this.checkpoint = checkpoint;
+			this.rotation = rotation;
+			this.in = in;
+			this.inOffset = inOffset;
+			this.inStride = inStride;
+			this.width = width;
+			this.height = height;
+			this.out = out;
+			this.outOffset = outOffset;
+			this.outStride = outStride;
+			this.alpha = alpha;
+			this.from = from;
+			this.to = to;
+			this.bandHeight = bandHeight;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= bandHeight) {
+				checkpoint.poll();
+				rotateRows(rotation, in, inOffset, inStride, width, height,
+						out, outOffset, outStride, alpha, from, to);
+			} else {
+				// Split on a tile boundary.
+				int middle = from + ((to - from) / 2 + BLOCK - 1) / BLOCK
+						* BLOCK;
+
+				invokeAll(new Band(checkpoint, rotation, in, inOffset,
+						inStride, width, height, out, outOffset, outStride,
+						alpha, from, middle, bandHeight), new Band(checkpoint,
+						rotation, in, inOffset, inStride, width, height, out,
+						outOffset, outStride, alpha, middle, to, bandHeight));
+			}
+		}
+	}
+
+	/**
+	 * Used to move the source rows <code>[from, to)</code> of a
+	 * <code>width</code>x<code>height</code> image to their rotated position.
+	 * <code>outOffset</code> is the index of the rotated image's top-left
+	 * pixel in <code>out</code>.
+	 */
+	static void rotateRows(Rotation rotation, int[] in, int inOffset,
+			int inStride, int width, int height, int[] out, int outOffset,
+			int outStride, int alpha, int from, int to) {
+		switch (rotation) {
+		case FLIP_VERT:
+			for (int y = from; y < to; y++) {
+				int i = inOffset + (y * inStride);
+				int o = outOffset + ((height - 1 - y) * outStride);
+
+				if (alpha == 0)
+					System.arraycopy(in, i, out, o, width);
+				else
+					for (int x = 0; x < width; x++)
+						out[o + x] = in[i + x] | alpha;
+			}
+			break;
+
+		case FLIP_HORZ:
+		case CW_180:
+			for (int y = from; y < to; y++) {
+				int i = inOffset + (y * inStride);
+				int o = outOffset
+						+ ((rotation == Rotation.CW_180 ? height - 1 - y : y) * outStride)
+						+ width - 1;
+
+				for (int x = 0; x < width; x++)
+					out[o - x] = in[i + x] | alpha;
+			}
+			break;
+
+		case CW_90:
+		case CW_270:
+			/*
+			 * Source pixel (x, y) moves to (height - 1 - y, x) for CW_90 and
+			 * to (y, width - 1 - x) for CW_270. Within a tile we walk down a
+			 * source column at a time, which writes one contiguous run of a
+			 * destination row at a time.
+			 */
+			boolean cw = (rotation == Rotation.CW_90);
+
+			for (int ty = from; ty < to; ty += BLOCK) {
+				int tyEnd = Math.min(to, ty + BLOCK);
+
+				for (int tx = 0; tx < width; tx += BLOCK) {
+					int txEnd = Math.min(width, tx + BLOCK);
+
+					for (int x = tx; x < txEnd; x++) {
+						int i = inOffset + (ty * inStride) + x;
+
+						if (cw) {
+							int o = outOffset + (x * outStride)
+									+ (height - 1 - ty);
+
+							for (int y = ty; y < tyEnd; y++, i += inStride, o--)
+								out[o] = in[i] | alpha;
+						} else {
+							int o = outOffset + ((width - 1 - x) * outStride)
+									+ ty;
+
+							for (int y = ty; y < tyEnd; y++, i += inStride, o++)
+								out[o] = in[i] | alpha;
+						}
+					}
+				}
+			}
+			break;
+		}
+	}
+}
@@ -15,6 +15,7 @@
  */
 package org.imgscalr;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
@@ -35,9 +36,17 @@ import java.awt.image.IndexColorModel;
 import java.awt.image.Kernel;
 import java.awt.image.RasterFormatException;
 import java.awt.image.RescaleOp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.imageio.ImageIO;
 
+import org.imgscalr.ScalrEvent.Operation;
+
 /**
  * Class used to implement performant, high-quality and intelligent image
  * scaling and manipulation algorithms in native Java 2D.
@@ -61,6 +70,12 @@ import javax.imageio.ImageIO;
  * {@link RenderingHints#VALUE_INTERPOLATION_BICUBIC} scale operation look much
  * better, especially when using the {@link Method#ULTRA_QUALITY} method.
  * <p/>
+ * As an alternative to incremental scaling, the {@link Method#LANCZOS3},
+ * {@link Method#MITCHELL} and {@link Method#CATMULL_ROM} methods resample the
+ * image directly to the target size using a pure-Java, two-pass separable
+ * convolution. This produces results comparable to
+ * {@link Method#ULTRA_QUALITY} without creating any interim images.
+ * <p/>
  * Only when scaling using the {@link Method#AUTOMATIC} method will this class
  * look at the size of the image before selecting an approach to scaling the
  * image. If {@link Method#QUALITY} is specified, the best-looking algorithm
@@ -184,6 +199,11 @@ import javax.imageio.ImageIO;
  * are <code>static</code>); this class maintains no internal state while
  * performing any of the provided operations and is safe to call simultaneously
  * from multiple threads.
+ * <p/>
+ * The only exceptions are the few global settings (e.g.
+ * {@link #setParallelThreshold(int)}) which are meant to be configured once
+ * on startup; changing them while operations are running is safe, but only
+ * operations started after the change are guaranteed to see the new value.
  * <h3>Logging</h3>
  * This class implements all its debug logging via the
  * {@link #log(int, String, Object...)} method. At this time logging is done
@@ -411,7 +431,41 @@ public class Scalr {
 		 * jagged with some of the other {@link Method}s (even
 		 * {@link Method#QUALITY}).
 		 */
-		ULTRA_QUALITY;
+		ULTRA_QUALITY,
+		/**
+		 * Used to indicate that the image should be resampled directly to the
+		 * target size with a 3-lobe Lanczos filter instead of being scaled
+		 * incrementally with Java2D.
+		 * <p/>
+		 * The resampling is done in pure Java by a two-pass separable
+		 * convolution over the image's pixel data; down-scaling from any size
+		 * takes exactly one horizontal and one vertical pass, so the result is
+		 * on par with {@link Method#ULTRA_QUALITY} (sharper, if anything) for a
+		 * fraction of the CPU time and memory.
+		 * <p/>
+		 * This method is never selected by {@link Method#AUTOMATIC}; it must be
+		 * requested explicitly.
+		 *
+		 * @since 4.3
+		 */
+		LANCZOS3,
+		/**
+		 * Same as {@link Method#LANCZOS3}, but resampling with a
+		 * Mitchell-Netravali cubic filter which is slightly softer and never
+		 * produces the faint "ringing" Lanczos can show next to very hard
+		 * edges. A good choice for photographs.
+		 *
+		 * @since 4.3
+		 */
+		MITCHELL,
+		/**
+		 * Same as {@link Method#LANCZOS3}, but resampling with a Catmull-Rom
+		 * cubic spline; very close to the "bicubic" setting of most image
+		 * editors.
+		 *
+		 * @since 4.3
+		 */
+		CATMULL_ROM;
 	}
 
 	/**
@@ -554,6 +608,290 @@ public class Scalr {
 	 */
 	public static final int THRESHOLD_QUALITY_BALANCED = 800;
 
+	/**
+	 * System property name used to define the default value of the parallel
+	 * resampling threshold (see {@link #setParallelThreshold(int)}).
+	 * <p/>
+	 * Value is "<code>imgscalr.parallelThreshold</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String PARALLEL_THRESHOLD_PROPERTY_NAME = "imgscalr.parallelThreshold";
+
+	/**
+	 * Size of the source image (in total pixels, <code>width x height</code>)
+	 * at or above which the {@link Method#LANCZOS3}, {@link Method#MITCHELL}
+	 * and {@link Method#CATMULL_ROM} methods split their work into horizontal
+	 * bands that are resampled in parallel (and at or above which
+	 * {@link #rotate(BufferedImage, Rotation, BufferedImageOp...)} moves the
+	 * pixels of packed-int images in parallel).
+	 * <p/>
+	 * This value can be changed on startup by setting the
+	 * <code>imgscalr.parallelThreshold</code> system property (see
+	 * {@link #PARALLEL_THRESHOLD_PROPERTY_NAME}) or at runtime with
+	 * {@link #setParallelThreshold(int)}.
+	 * <p/>
+	 * Default value is <code>4000000</code> (a 4 megapixel source).
+	 */
+	private static volatile int parallelThreshold = Integer.getInteger(
+			PARALLEL_THRESHOLD_PROPERTY_NAME, 4000000);
+
+	/**
+	 * The pool parallel resampling work is executed on; <code>null</code>
+	 * means {@link ForkJoinPool#commonPool()}.
+	 */
+	private static volatile ForkJoinPool parallelPool;
+
+	/**
+	 * Used to get the size of the source image (in total pixels) at or above
+	 * which resampling is split into bands and executed in parallel.
+	 * 
+	 * @return the parallel resampling threshold.
+	 * 
+	 * @see #setParallelThreshold(int)
+	 * @since 4.3
+	 */
+	public static int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Used to set the size of the source image (in total pixels,
+	 * <code>width x height</code>) at or above which the
+	 * {@link Method#LANCZOS3}, {@link Method#MITCHELL} and
+	 * {@link Method#CATMULL_ROM} methods split the destination image into
+	 * horizontal bands and resample them in parallel on the
+	 * {@link #getParallelPool()}.
+	 * <p/>
+	 * Each band is computed from the source rows under the filter's support
+	 * for that band (neighboring bands overlap by that amount), so the result
+	 * is pixel-for-pixel identical to resampling on a single thread.
+	 * <p/>
+	 * The other scaling methods are implemented with Java2D, whose
+	 * interpolation results change when the destination is split up, and so
+	 * they always run on the calling thread.
+	 * <p/>
+	 * Rotations of packed-int images (see {@link Rotation}) use the same
+	 * threshold; they only move pixels, so their result never depends on how
+	 * the work is split up either.
+	 * 
+	 * @param pixels
+	 *            The threshold in pixels. <code>0</code> parallelizes every
+	 *            resample, {@link Integer#MAX_VALUE} effectively disables
+	 *            parallel resampling.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>pixels</code> is &lt; 0.
+	 * 
+	 * @since 4.3
+	 */
+	public static void setParallelThreshold(int pixels)
+			throws IllegalArgumentException {
+		if (pixels < 0)
+			throw new IllegalArgumentException("pixels [" + pixels
+					+ "] must be >= 0");
+
+		parallelThreshold = pixels;
+	}
+
+	/**
+	 * Used to get the {@link ForkJoinPool} parallel resampling work is
+	 * executed on.
+	 * 
+	 * @return the pool set with {@link #setParallelPool(ForkJoinPool)} or
+	 *         {@link ForkJoinPool#commonPool()} if none was set.
+	 * 
+	 * @since 4.3
+	 */
+	public static ForkJoinPool getParallelPool() {
+		ForkJoinPool pool = parallelPool;
+
+		return (pool == null ? ForkJoinPool.commonPool() : pool);
+	}
+
+	/**
+	 * Used to set the {@link ForkJoinPool} parallel resampling work is
+	 * executed on.
+	 * <p/>
+	 * In a busy server where image scaling should not compete with other work
+	 * running on {@link ForkJoinPool#commonPool()}, a dedicated pool sized to
+	 * the number of cores imgscalr may use can be set here.
+	 * 
+	 * @param pool
+	 *            The pool to use or <code>null</code> to use
+	 *            {@link ForkJoinPool#commonPool()}.
+	 * 
+	 * @since 4.3
+	 */
+	public static void setParallelPool(ForkJoinPool pool) {
+		parallelPool = pool;
+	}
+
+	/**
+	 * System property name used to define the memory cap (in bytes) of a
+	 * {@link BucketedImagePool} installed as the {@link ImagePool} on startup.
+	 * <p/>
+	 * Value is "<code>imgscalr.poolMaxBytes</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String POOL_MAX_BYTES_PROPERTY_NAME = "imgscalr.poolMaxBytes";
+
+	/**
+	 * The pool interim images are taken from and released to;
+	 * <code>null</code> means interim images are allocated (and flushed) every
+	 * time.
+	 * <p/>
+	 * If the <code>imgscalr.poolMaxBytes</code> system property (see
+	 * {@link #POOL_MAX_BYTES_PROPERTY_NAME}) is set to a value &gt; 0 this is
+	 * initialized to a {@link BucketedImagePool} with that memory cap.
+	 * <p/>
+	 * Default value is <code>null</code>.
+	 */
+	private static volatile ImagePool imagePool = (Long.getLong(
+			POOL_MAX_BYTES_PROPERTY_NAME, 0) > 0 ? new BucketedImagePool(
+			Long.getLong(POOL_MAX_BYTES_PROPERTY_NAME)) : null);
+
+	/**
+	 * Used to get the {@link ImagePool} interim images are taken from.
+	 * 
+	 * @return the current pool or <code>null</code> if none is set.
+	 * 
+	 * @since 4.3
+	 */
+	public static ImagePool getImagePool() {
+		return imagePool;
+	}
+
+	/**
+	 * Used to set the {@link ImagePool} that the interim images created while
+	 * processing an image are taken from and released back to (instead of
+	 * being flushed); e.g. every step of an incremental scale and the
+	 * intermediate results when applying more than one
+	 * {@link BufferedImageOp}.
+	 * <p/>
+	 * Images returned from any {@link Scalr} operation are never taken from
+	 * the pool.
+	 * 
+	 * @param pool
+	 *            The pool to use or <code>null</code> to allocate every interim
+	 *            image.
+	 * 
+	 * @since 4.3
+	 */
+	public static void setImagePool(ImagePool pool) {
+		imagePool = pool;
+	}
+
+	/**
+	 * The listener every operation is reported to (see
+	 * {@link #setListener(ScalrListener)}).
+	 * <p/>
+	 * Default value is {@link ScalrListener#NOOP}.
+	 */
+	private static volatile ScalrListener listener = ScalrListener.NOOP;
+
+	/**
+	 * Used to get the listener every operation is reported to.
+	 * 
+	 * @return the current listener, {@link ScalrListener#NOOP} if none is set.
+	 * 
+	 * @since 4.3
+	 */
+	public static ScalrListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Used to set the listener that receives a {@link ScalrEvent} (source and
+	 * result dimensions and types, scaling method, incremental steps,
+	 * nanosecond timings and bytes allocated) for every operation performed.
+	 * <p/>
+	 * Unlike the {@link #DEBUG} output this involves no string formatting and
+	 * can be changed at runtime; while the {@link ScalrListener#NOOP} listener
+	 * is set no event details are collected at all.
+	 * 
+	 * @param listener
+	 *            The listener to use or <code>null</code> to disable events
+	 *            (equivalent to {@link ScalrListener#NOOP}).
+	 * 
+	 * @since 4.3
+	 */
+	public static void setListener(ScalrListener listener) {
+		Scalr.listener = (listener == null ? ScalrListener.NOOP : listener);
+	}
+
+	/**
+	 * System property name used to define the default value of the
+	 * type-preserving mode (see {@link #setPreserveType(boolean)}).
+	 * <p/>
+	 * Value is "<code>imgscalr.preserveType</code>".
+	 * 
+	 * @since 4.3
+	 */
+	public static final String PRESERVE_TYPE_PROPERTY_NAME = "imgscalr.preserveType";
+
+	/**
+	 * Whether {@link BufferedImage#TYPE_BYTE_GRAY} and indexed images keep
+	 * their compact type through {@link #resize}, {@link #crop},
+	 * {@link #rotate} and {@link #pad} (see {@link #setPreserveType(boolean)}).
+	 * <p/>
+	 * This value can be changed on startup by setting the
+	 * <code>imgscalr.preserveType</code> system property (see
+	 * {@link #PRESERVE_TYPE_PROPERTY_NAME}) to <code>true</code> or at runtime
+	 * with {@link #setPreserveType(boolean)}.
+	 * <p/>
+	 * Default value is <code>false</code>.
+	 */
+	private static volatile boolean preserveType = Boolean
+			.getBoolean(PRESERVE_TYPE_PROPERTY_NAME);
+
+	/**
+	 * Used to determine if the type-preserving mode is enabled.
+	 * 
+	 * @return <code>true</code> if compact image types are preserved.
+	 * 
+	 * @see #setPreserveType(boolean)
+	 * @since 4.3
+	 */
+	public static boolean isPreserveType() {
+		return preserveType;
+	}
+
+	/**
+	 * Used to enable or disable the type-preserving mode.
+	 * <p/>
+	 * By default every result is a {@link BufferedImage#TYPE_INT_RGB} or
+	 * {@link BufferedImage#TYPE_INT_ARGB} image (see
+	 * {@link #createOptimalImage(BufferedImage, int, int)}), which is 4x the
+	 * memory of a {@link BufferedImage#TYPE_BYTE_GRAY} scan and even more of a
+	 * {@link BufferedImage#TYPE_BYTE_BINARY} one. With this mode enabled:
+	 * <ul>
+	 * <li>{@link BufferedImage#TYPE_BYTE_GRAY} sources produce
+	 * {@link BufferedImage#TYPE_BYTE_GRAY} results from every
+	 * {@link #resize}, {@link #crop} and {@link #rotate}, and from
+	 * {@link #pad} when the padding color is a shade of gray.</li>
+	 * <li>{@link BufferedImage#TYPE_BYTE_INDEXED} and
+	 * {@link BufferedImage#TYPE_BYTE_BINARY} sources (e.g. GIFs) produce a
+	 * result with the same palette from every operation that does not create
+	 * new colors: {@link #crop}, {@link #rotate}, a {@link Method#SPEED}
+	 * {@link #resize} and a {@link #pad} with a color in the palette. Any
+	 * other operation produces an RGB or ARGB image as usual, since mapping
+	 * interpolated pixels back onto a palette is slow and lossy.</li>
+	 * </ul>
+	 * {@link BufferedImageOp}s (see {@link #apply(BufferedImage, BufferedImageOp...)})
+	 * are always applied to RGB or ARGB images.
+	 * 
+	 * @param preserve
+	 *            <code>true</code> to keep compact image types,
+	 *            <code>false</code> to always produce RGB or ARGB results.
+	 * 
+	 * @since 4.3
+	 */
+	public static void setPreserveType(boolean preserve) {
+		preserveType = preserve;
+	}
+
 	/**
 	 * Used to apply, in the order given, 1 or more {@link BufferedImageOp}s to
 	 * a given {@link BufferedImage} and return the result.
@@ -611,6 +949,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage apply(BufferedImage src, BufferedImageOp... ops)
 			throws IllegalArgumentException, ImagingOpException {
@@ -623,121 +964,150 @@ public class Scalr {
 		if (ops == null || ops.length == 0)
 			throw new IllegalArgumentException("ops cannot be null or empty");
 
-		int type = src.getType();
-
-		/*
-		 * Ensure the src image is in the best supported image type before we
-		 * continue, otherwise it is possible our calls below to getBounds2D and
-		 * certainly filter(...) may fail if not.
-		 * 
-		 * Java2D makes an attempt at applying most BufferedImageOps using
-		 * hardware acceleration via the ImagingLib internal library.
-		 * 
-		 * Unfortunately may of the BufferedImageOp are written to simply fail
-		 * with an ImagingOpException if the operation cannot be applied with no
-		 * additional information about what went wrong or attempts at
-		 * re-applying it in different ways.
-		 * 
-		 * This is assuming the failing BufferedImageOp even returns a null
-		 * image after failing to apply; some simply return a corrupted/black
-		 * image that result in no exception and it is up to the user to
-		 * discover this.
-		 * 
-		 * In internal testing, EVERY failure I've ever seen was the result of
-		 * the source image being in a poorly-supported BufferedImage Type like
-		 * BGR or ABGR (even though it was loaded with ImageIO).
-		 * 
-		 * To avoid this nasty/stupid surprise with BufferedImageOps, we always
-		 * ensure that the src image starts in an optimally supported format
-		 * before we try and apply the filter.
-		 */
-		if (!(type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB))
-			src = copyToOptimalImage(src);
+		Recorder recorder = Recorder.begin(Operation.APPLY, src);
 
-		if (DEBUG)
-			log(0, "Applying %d BufferedImageOps...", ops.length);
+		try {
+			int type = src.getType();
 
-		boolean hasReassignedSrc = false;
+			/*
+			 * Ensure the src image is in the best supported image type before we
+			 * continue, otherwise it is possible our calls below to getBounds2D and
+			 * certainly filter(...) may fail if not.
+			 * 
+			 * Java2D makes an attempt at applying most BufferedImageOps using
+			 * hardware acceleration via the ImagingLib internal library.
+			 * 
+			 * Unfortunately may of the BufferedImageOp are written to simply fail
+			 * with an ImagingOpException if the operation cannot be applied with no
+			 * additional information about what went wrong or attempts at
+			 * re-applying it in different ways.
+			 * 
+			 * This is assuming the failing BufferedImageOp even returns a null
+			 * image after failing to apply; some simply return a corrupted/black
+			 * image that result in no exception and it is up to the user to
+			 * discover this.
+			 * 
+			 * In internal testing, EVERY failure I've ever seen was the result of
+			 * the source image being in a poorly-supported BufferedImage Type like
+			 * BGR or ABGR (even though it was loaded with ImageIO).
+			 * 
+			 * To avoid this nasty/stupid surprise with BufferedImageOps, we always
+			 * ensure that the src image starts in an optimally supported format
+			 * before we try and apply the filter.
+			 */
+			boolean hasReassignedSrc = false;
 
-		for (int i = 0; i < ops.length; i++) {
-      long subT = -1;
-      if (DEBUG)
-        subT = System.currentTimeMillis();
-			BufferedImageOp op = ops[i];
+			if (!(type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)) {
+				src = copyToOptimalImage(src);
 
-			// Skip null ops instead of throwing an exception.
-			if (op == null)
-				continue;
+				// The copy is our own interim image, safe to release once used.
+				hasReassignedSrc = true;
+			}
 
 			if (DEBUG)
-				log(1, "Applying BufferedImageOp [class=%s, toString=%s]...",
-						op.getClass(), op.toString());
+				log(0, "Applying %d BufferedImageOps...", ops.length);
 
 			/*
-			 * Must use op.getBounds instead of src.getWidth and src.getHeight
-			 * because we are trying to create an image big enough to hold the
-			 * result of this operation (which may be to scale the image
-			 * smaller), in that case the bounds reported by this op and the
-			 * bounds reported by the source image will be different.
+			 * Find the last op we will actually apply; its result is returned to
+			 * the caller so it must be allocated normally while all the results
+			 * before it are interim images we can take from (and release back to)
+			 * the pool.
 			 */
-			Rectangle2D resultBounds = op.getBounds2D(src);
+			int lastOp = ops.length - 1;
 
-			// Watch out for flaky/misbehaving ops that fail to work right.
-			if (resultBounds == null)
-				throw new ImagingOpException(
-						"BufferedImageOp ["
-								+ op.toString()
-								+ "] getBounds2D(src) returned null bounds for the target image; this should not happen and indicates a problem with application of this type of op.");
+			while (lastOp > 0 && ops[lastOp] == null)
+				lastOp--;
 
-			/*
-			 * We must manually create the target image; we cannot rely on the
-			 * null-destination filter() method to create a valid destination
-			 * for us thanks to this JDK bug that has been filed for almost a
-			 * decade:
-			 * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4965606
-			 */
-			BufferedImage dest = createOptimalImage(src,
-					(int) Math.round(resultBounds.getWidth()),
-					(int) Math.round(resultBounds.getHeight()));
+			for (int i = 0; i < ops.length; i++) {
+	      long subT = -1;
+	      if (DEBUG)
+	        subT = System.currentTimeMillis();
+				BufferedImageOp op = ops[i];
 
-			// Perform the operation, update our result to return.
-			BufferedImage result = op.filter(src, dest);
+				// Skip null ops instead of throwing an exception.
+				if (op == null)
+					continue;
 
-			/*
-			 * Flush the 'src' image ONLY IF it is one of our interim temporary
-			 * images being used when applying 2 or more operations back to
-			 * back. We never want to flush the original image passed in.
-			 */
-			if (hasReassignedSrc)
-				src.flush();
+				Checkpoint.check();
 
-			/*
-			 * Incase there are more operations to perform, update what we
-			 * consider the 'src' reference to our last result so on the next
-			 * iteration the next op is applied to this result and not back
-			 * against the original src passed in.
-			 */
-			src = result;
+				if (DEBUG)
+					log(1, "Applying BufferedImageOp [class=%s, toString=%s]...",
+							op.getClass(), op.toString());
 
-			/*
-			 * Keep track of when we re-assign 'src' to an interim temporary
-			 * image, so we know when we can explicitly flush it and clean up
-			 * references on future iterations.
-			 */
-			hasReassignedSrc = true;
+				/*
+				 * Must use op.getBounds instead of src.getWidth and src.getHeight
+				 * because we are trying to create an image big enough to hold the
+				 * result of this operation (which may be to scale the image
+				 * smaller), in that case the bounds reported by this op and the
+				 * bounds reported by the source image will be different.
+				 */
+				Rectangle2D resultBounds = op.getBounds2D(src);
 
-			if (DEBUG)
-				log(1,
-						"Applied BufferedImageOp in %d ms, result [width=%d, height=%d]",
-						System.currentTimeMillis() - subT, result.getWidth(),
-						result.getHeight());
-		}
+				// Watch out for flaky/misbehaving ops that fail to work right.
+				if (resultBounds == null)
+					throw new ImagingOpException(
+							"BufferedImageOp ["
+									+ op.toString()
+									+ "] getBounds2D(src) returned null bounds for the target image; this should not happen and indicates a problem with application of this type of op.");
 
-		if (DEBUG)
-			log(0, "All %d BufferedImageOps applied in %d ms", ops.length,
-					System.currentTimeMillis() - t);
+				/*
+				 * We must manually create the target image; we cannot rely on the
+				 * null-destination filter() method to create a valid destination
+				 * for us thanks to this JDK bug that has been filed for almost a
+				 * decade:
+				 * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4965606
+				 */
+				int destWidth = (int) Math.round(resultBounds.getWidth());
+				int destHeight = (int) Math.round(resultBounds.getHeight());
+				BufferedImage dest = (i == lastOp ? createOptimalImage(src,
+						destWidth, destHeight) : createInterimImage(src, destWidth,
+						destHeight));
 
-		return src;
+				// Perform the operation, update our result to return.
+				Object opEvent = Flight.beginOp();
+				BufferedImage result = op.filter(src, dest);
+
+				Flight.endOp(opEvent, op, src, result);
+
+				/*
+				 * Release the 'src' image ONLY IF it is one of our interim
+				 * temporary images being used when applying 2 or more operations
+				 * back to back. We never want to flush the original image passed
+				 * in.
+				 */
+				if (hasReassignedSrc)
+					releaseInterimImage(src);
+
+				/*
+				 * Incase there are more operations to perform, update what we
+				 * consider the 'src' reference to our last result so on the next
+				 * iteration the next op is applied to this result and not back
+				 * against the original src passed in.
+				 */
+				src = result;
+
+				/*
+				 * Keep track of when we re-assign 'src' to an interim temporary
+				 * image, so we know when we can explicitly flush it and clean up
+				 * references on future iterations.
+				 */
+				hasReassignedSrc = true;
+
+				if (DEBUG)
+					log(1,
+							"Applied BufferedImageOp in %d ms, result [width=%d, height=%d]",
+							System.currentTimeMillis() - subT, result.getWidth(),
+							result.getHeight());
+			}
+
+			if (DEBUG)
+				log(0, "All %d BufferedImageOps applied in %d ms", ops.length,
+						System.currentTimeMillis() - t);
+
+			return Recorder.finish(recorder, src);
+		} finally {
+			Recorder.close(recorder);
+		}
 	}
 
 	/**
@@ -782,6 +1152,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage crop(BufferedImage src, int width, int height,
 			BufferedImageOp... ops) throws IllegalArgumentException,
@@ -836,6 +1209,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage crop(BufferedImage src, int x, int y,
 			int width, int height, BufferedImageOp... ops)
@@ -844,100 +1220,319 @@ public class Scalr {
     if (DEBUG)
       t = System.currentTimeMillis();
 
-		if (src == null)
-			throw new IllegalArgumentException("src cannot be null");
-		if (x < 0 || y < 0 || width < 0 || height < 0)
-			throw new IllegalArgumentException("Invalid crop bounds: x [" + x
-					+ "], y [" + y + "], width [" + width + "] and height ["
-					+ height + "] must all be >= 0");
+		checkCropBounds(src, x, y, width, height);
 
-		int srcWidth = src.getWidth();
-		int srcHeight = src.getHeight();
+		Recorder recorder = Recorder.begin(Operation.CROP, src);
 
-		if ((x + width) > srcWidth)
-			throw new IllegalArgumentException(
-					"Invalid crop bounds: x + width [" + (x + width)
-							+ "] must be <= src.getWidth() [" + srcWidth + "]");
-		if ((y + height) > srcHeight)
-			throw new IllegalArgumentException(
-					"Invalid crop bounds: y + height [" + (y + height)
-							+ "] must be <= src.getHeight() [" + srcHeight
-							+ "]");
+		try {
+			if (DEBUG)
+				log(0,
+						"Cropping Image [width=%d, height=%d] to [x=%d, y=%d, width=%d, height=%d]...",
+						src.getWidth(), src.getHeight(), x, y, width, height);
 
-		if (DEBUG)
-			log(0,
-					"Cropping Image [width=%d, height=%d] to [x=%d, y=%d, width=%d, height=%d]...",
-					srcWidth, srcHeight, x, y, width, height);
+			// Create a target image of an optimal type to render into.
+			BufferedImage result = createResultImage(src, width, height, false);
 
-		// Create a target image of an optimal type to render into.
-		BufferedImage result = createOptimalImage(src, width, height);
-		Graphics g = result.getGraphics();
+			/*
+			 * When the src pixels are already stored exactly like the result's
+			 * we copy the rows of the crop region straight across.
+			 */
+			if (Rasters.isPackedInt(src) && src.getType() == result.getType())
+				Rasters.copy(src.getSubimage(x, y, width, height), result, 0, 0);
+			else {
+				Graphics g = result.getGraphics();
 
-		/*
-		 * Render the region specified by our crop bounds from the src image
-		 * directly into our result image (which is the exact size of the crop
-		 * region).
-		 */
-		g.drawImage(src, 0, 0, width, height, x, y, (x + width), (y + height),
-				null);
-		g.dispose();
+				/*
+				 * Render the region specified by our crop bounds from the src
+				 * image directly into our result image (which is the exact size of
+				 * the crop region).
+				 */
+				g.drawImage(src, 0, 0, width, height, x, y, (x + width),
+						(y + height), null);
+				g.dispose();
+			}
 
-		if (DEBUG)
-			log(0, "Cropped Image in %d ms", System.currentTimeMillis() - t);
+			if (DEBUG)
+				log(0, "Cropped Image in %d ms", System.currentTimeMillis() - t);
 
-		// Apply any optional operations (if specified).
-		if (ops != null && ops.length > 0)
-			result = apply(result, ops);
+			// Apply any optional operations (if specified).
+			if (ops != null && ops.length > 0)
+				result = apply(result, ops);
 
-		return result;
+			return Recorder.finish(recorder, result);
+		} finally {
+			Recorder.close(recorder);
+		}
 	}
 
 	/**
-	 * Used to apply padding around the edges of an image using
-	 * {@link Color#BLACK} to fill the extra padded space and then return the
-	 * result.
-	 * <p/>
-	 * The amount of <code>padding</code> specified is applied to all sides;
-	 * more specifically, a <code>padding</code> of <code>2</code> would add 2
-	 * extra pixels of space (filled by the given <code>color</code>) on the
-	 * top, bottom, left and right sides of the resulting image causing the
-	 * result to be 4 pixels wider and 4 pixels taller than the <code>src</code>
-	 * image.
+	 * Used to crop the given <code>src</code> image from the top-left corner
+	 * of the given <code>x</code> and <code>y</code> coordinates to the given
+	 * <code>width</code> and <code>height</code>, writing the result into the
+	 * given <code>dest</code> image at <code>destX</code>, <code>destY</code>
+	 * instead of a new image.
 	 * <p/>
-	 * <strong>TIP</strong>: This operation leaves the original <code>src</code>
-	 * image unmodified. If the caller is done with the <code>src</code> image
-	 * after getting the result of this operation, remember to call
-	 * {@link BufferedImage#flush()} on the <code>src</code> to free up native
-	 * resources and make it easier for the GC to collect the unused image.
+	 * The pixels of the destination region are replaced (not blended with)
+	 * the cropped pixels. No image is allocated; this makes the method
+	 * suitable for repeatedly rendering into the same image (e.g. a sprite
+	 * sheet).
 	 * 
 	 * @param src
-	 *            The image the padding will be added to.
-	 * @param padding
-	 *            The number of pixels of padding to add to each side in the
-	 *            resulting image. If this value is <code>0</code> then
-	 *            <code>src</code> is returned unmodified.
-	 * @param ops
-	 *            <code>0</code> or more ops to apply to the image. If
-	 *            <code>null</code> or empty then <code>src</code> is return
-	 *            unmodified.
+	 *            The image to crop.
+	 * @param x
+	 *            The x-coordinate of the top-left corner of the bounding box
+	 *            used for cropping.
+	 * @param y
+	 *            The y-coordinate of the top-left corner of the bounding box
+	 *            used for cropping.
+	 * @param width
+	 *            The width of the bounding box used for cropping.
+	 * @param height
+	 *            The height of the bounding box used for cropping.
+	 * @param dest
+	 *            The image the result is written into. It must be of type
+	 *            {@link BufferedImage#TYPE_INT_RGB},
+	 *            {@link BufferedImage#TYPE_INT_ARGB} or
+	 *            {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+	 * @param destX
+	 *            The x-coordinate in <code>dest</code> the result is written
+	 *            to.
+	 * @param destY
+	 *            The y-coordinate in <code>dest</code> the result is written
+	 *            to.
 	 * 
-	 * @return a new {@link BufferedImage} representing <code>src</code> with
-	 *         the given padding applied to it.
+	 * @return <code>dest</code>.
 	 * 
 	 * @throws IllegalArgumentException
-	 *             if <code>src</code> is <code>null</code>.
-	 * @throws IllegalArgumentException
-	 *             if <code>padding</code> is &lt; <code>1</code>.
-	 * @throws ImagingOpException
-	 *             if one of the given {@link BufferedImageOp}s fails to apply.
-	 *             These exceptions bubble up from the inside of most of the
-	 *             {@link BufferedImageOp} implementations and are explicitly
-	 *             defined on the imgscalr API to make it easier for callers to
-	 *             catch the exception (if they are passing along optional ops
-	 *             to be applied). imgscalr takes detailed steps to avoid the
-	 *             most common pitfalls that will cause {@link BufferedImageOp}s
+	 *             if <code>src</code> is <code>null</code>, if any of the
+	 *             crop bounds are invalid (see
+	 *             {@link #crop(BufferedImage, int, int, int, int, BufferedImageOp...)}
+	 *             ) or if <code>dest</code> is invalid (see
+	 *             {@link #checkDestination(BufferedImage, BufferedImage, int, int, int, int)}
+	 *             ).
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage crop(BufferedImage src, int x, int y,
+			int width, int height, BufferedImage dest, int destX, int destY)
+			throws IllegalArgumentException {
+		checkCropBounds(src, x, y, width, height);
+
+		checkDestination(src, dest, destX, destY, width, height);
+
+		Recorder recorder = Recorder.begin(Operation.CROP, src);
+
+		try {
+			if (Rasters.isPackedInt(src) && src.getType() == dest.getType()) {
+				Rasters.copy(src.getSubimage(x, y, width, height), dest, destX,
+						destY);
+				return Recorder.finish(recorder, dest);
+			}
+
+			Graphics2D g = dest.createGraphics();
+
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, destX, destY, destX + width, destY + height, x, y,
+					(x + width), (y + height), null);
+			g.dispose();
+
+			return Recorder.finish(recorder, dest);
+		} finally {
+			Recorder.close(recorder);
+		}
+	}
+
+	/**
+	 * Used to get the given region of the <code>src</code> image without
+	 * copying any pixels when possible.
+	 * <p/>
+	 * If <code>src</code> is of type {@link BufferedImage#TYPE_INT_RGB},
+	 * {@link BufferedImage#TYPE_INT_ARGB} or
+	 * {@link BufferedImage#TYPE_INT_ARGB_PRE} the result is a view created with
+	 * {@link BufferedImage#getSubimage(int, int, int, int)} that shares the
+	 * pixel data of <code>src</code>: nothing is allocated, but any change to
+	 * the pixels of one is visible in the other and <code>src</code> stays
+	 * reachable as long as the view is. Pass the view to {@link #copy(BufferedImage)}
+	 * once an independent image is needed. This is ideal for crop-then-resize
+	 * flows where the cropped region is only read once.
+	 * <p/>
+	 * Any other type of image is cropped with
+	 * {@link #crop(BufferedImage, int, int, int, int, BufferedImageOp...)}, so
+	 * the result is always an image imgscalr handles efficiently.
+	 * 
+	 * @param src
+	 *            The image to crop.
+	 * @param x
+	 *            The x-coordinate of the top-left corner of the bounding box
+	 *            used for cropping.
+	 * @param y
+	 *            The y-coordinate of the top-left corner of the bounding box
+	 *            used for cropping.
+	 * @param width
+	 *            The width of the bounding box used for cropping.
+	 * @param height
+	 *            The height of the bounding box used for cropping.
+	 * 
+	 * @return a view of the region of <code>src</code>, or a new image if
+	 *         <code>src</code> is not of a packed-int type.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>, if any of the
+	 *             crop bounds are invalid (see
+	 *             {@link #crop(BufferedImage, int, int, int, int, BufferedImageOp...)}
+	 *             ) or if <code>width</code> or <code>height</code> is
+	 *             <code>0</code>.
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage cropView(BufferedImage src, int x, int y,
+			int width, int height) throws IllegalArgumentException {
+		checkCropBounds(src, x, y, width, height);
+
+		if (width == 0 || height == 0)
+			throw new IllegalArgumentException("width [" + width
+					+ "] and height [" + height + "] must be > 0");
+
+		if (!Rasters.isPackedInt(src))
+			return crop(src, x, y, width, height);
+
+		if (DEBUG)
+			log(0,
+					"Creating View of Image [width=%d, height=%d] at [x=%d, y=%d, width=%d, height=%d]",
+					src.getWidth(), src.getHeight(), x, y, width, height);
+
+		return src.getSubimage(x, y, width, height);
+	}
+
+	/**
+	 * Used to create an independent copy of the given image, most notably of
+	 * a view returned by
+	 * {@link #cropView(BufferedImage, int, int, int, int)}.
+	 * <p/>
+	 * Packed-int images ({@link BufferedImage#TYPE_INT_RGB},
+	 * {@link BufferedImage#TYPE_INT_ARGB} and
+	 * {@link BufferedImage#TYPE_INT_ARGB_PRE}) are copied row by row into a new
+	 * image of the same type, which is exact. Any other type of image is
+	 * rendered into a new image of an optimal type (RGB or ARGB).
+	 * 
+	 * @param src
+	 *            The image to copy.
+	 * 
+	 * @return a new image, sharing no pixel data with <code>src</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>.
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage copy(BufferedImage src)
+			throws IllegalArgumentException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+
+		if (!Rasters.isPackedInt(src))
+			return copyToOptimalImage(src);
+
+		BufferedImage result = Recorder.allocated(new BufferedImage(src
+				.getWidth(), src.getHeight(), src.getType()));
+
+		Rasters.copy(src, result, 0, 0);
+
+		return result;
+	}
+
+	/**
+	 * Used to validate the bounds of a crop region of the given image.
+	 * 
+	 * @param src
+	 *            The image to crop.
+	 * @param x
+	 *            The x-coordinate of the region.
+	 * @param y
+	 *            The y-coordinate of the region.
+	 * @param width
+	 *            The width of the region.
+	 * @param height
+	 *            The height of the region.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code> or if any of the
+	 *             bounds are negative or outside of <code>src</code>.
+	 * 
+	 * @since 4.3
+	 */
+	protected static void checkCropBounds(BufferedImage src, int x, int y,
+			int width, int height) throws IllegalArgumentException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+		if (x < 0 || y < 0 || width < 0 || height < 0)
+			throw new IllegalArgumentException("Invalid crop bounds: x [" + x
+					+ "], y [" + y + "], width [" + width + "] and height ["
+					+ height + "] must all be >= 0");
+
+		int srcWidth = src.getWidth();
+		int srcHeight = src.getHeight();
+
+		if ((x + width) > srcWidth)
+			throw new IllegalArgumentException(
+					"Invalid crop bounds: x + width [" + (x + width)
+							+ "] must be <= src.getWidth() [" + srcWidth + "]");
+		if ((y + height) > srcHeight)
+			throw new IllegalArgumentException(
+					"Invalid crop bounds: y + height [" + (y + height)
+							+ "] must be <= src.getHeight() [" + srcHeight
+							+ "]");
+	}
+
+	/**
+	 * Used to apply padding around the edges of an image using
+	 * {@link Color#BLACK} to fill the extra padded space and then return the
+	 * result.
+	 * <p/>
+	 * The amount of <code>padding</code> specified is applied to all sides;
+	 * more specifically, a <code>padding</code> of <code>2</code> would add 2
+	 * extra pixels of space (filled by the given <code>color</code>) on the
+	 * top, bottom, left and right sides of the resulting image causing the
+	 * result to be 4 pixels wider and 4 pixels taller than the <code>src</code>
+	 * image.
+	 * <p/>
+	 * <strong>TIP</strong>: This operation leaves the original <code>src</code>
+	 * image unmodified. If the caller is done with the <code>src</code> image
+	 * after getting the result of this operation, remember to call
+	 * {@link BufferedImage#flush()} on the <code>src</code> to free up native
+	 * resources and make it easier for the GC to collect the unused image.
+	 * 
+	 * @param src
+	 *            The image the padding will be added to.
+	 * @param padding
+	 *            The number of pixels of padding to add to each side in the
+	 *            resulting image. If this value is <code>0</code> then
+	 *            <code>src</code> is returned unmodified.
+	 * @param ops
+	 *            <code>0</code> or more ops to apply to the image. If
+	 *            <code>null</code> or empty then <code>src</code> is return
+	 *            unmodified.
+	 * 
+	 * @return a new {@link BufferedImage} representing <code>src</code> with
+	 *         the given padding applied to it.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>padding</code> is &lt; <code>1</code>.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 *             These exceptions bubble up from the inside of most of the
+	 *             {@link BufferedImageOp} implementations and are explicitly
+	 *             defined on the imgscalr API to make it easier for callers to
+	 *             catch the exception (if they are passing along optional ops
+	 *             to be applied). imgscalr takes detailed steps to avoid the
+	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage pad(BufferedImage src, int padding,
 			BufferedImageOp... ops) throws IllegalArgumentException,
@@ -996,6 +1591,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage pad(BufferedImage src, int padding,
 			Color color, BufferedImageOp... ops)
@@ -1012,71 +1610,178 @@ public class Scalr {
 		if (color == null)
 			throw new IllegalArgumentException("color cannot be null");
 
-		int srcWidth = src.getWidth();
-		int srcHeight = src.getHeight();
+		Recorder recorder = Recorder.begin(Operation.PAD, src);
 
-		/*
-		 * Double the padding to account for all sides of the image. More
-		 * specifically, if padding is "1" we add 2 pixels to width and 2 to
-		 * height, so we have 1 new pixel of padding all the way around our
-		 * image.
-		 */
-		int sizeDiff = (padding * 2);
-		int newWidth = srcWidth + sizeDiff;
-		int newHeight = srcHeight + sizeDiff;
+		try {
+			int srcWidth = src.getWidth();
+			int srcHeight = src.getHeight();
 
-		if (DEBUG)
-			log(0,
-					"Padding Image from [originalWidth=%d, originalHeight=%d, padding=%d] to [newWidth=%d, newHeight=%d]...",
-					srcWidth, srcHeight, padding, newWidth, newHeight);
+			/*
+			 * Double the padding to account for all sides of the image. More
+			 * specifically, if padding is "1" we add 2 pixels to width and 2 to
+			 * height, so we have 1 new pixel of padding all the way around our
+			 * image.
+			 */
+			int sizeDiff = (padding * 2);
+			int newWidth = srcWidth + sizeDiff;
+			int newHeight = srcHeight + sizeDiff;
 
-		boolean colorHasAlpha = (color.getAlpha() != 255);
-		boolean imageHasAlpha = (src.getTransparency() != BufferedImage.OPAQUE);
+			if (DEBUG)
+				log(0,
+						"Padding Image from [originalWidth=%d, originalHeight=%d, padding=%d] to [newWidth=%d, newHeight=%d]...",
+						srcWidth, srcHeight, padding, newWidth, newHeight);
 
-		BufferedImage result;
+			boolean colorHasAlpha = (color.getAlpha() != 255);
+			boolean imageHasAlpha = (src.getTransparency() != BufferedImage.OPAQUE);
 
-		/*
-		 * We need to make sure our resulting image that we render into contains
-		 * alpha if either our original image OR the padding color we are using
-		 * contain it.
-		 */
-		if (colorHasAlpha || imageHasAlpha) {
-			if (DEBUG)
-				log(1,
-						"Transparency FOUND in source image or color, using ARGB image type...");
+			BufferedImage result;
+
+			/*
+			 * We need to make sure our resulting image that we render into contains
+			 * alpha if either our original image OR the padding color we are using
+			 * contain it.
+			 */
+			if (isPreservedType(src, false) && canRepresent(src, color)) {
+				if (DEBUG)
+					log(1,
+							"Padding color representable in source image type [%d], preserving it...",
+							src.getType());
+
+				result = createResultImage(src, newWidth, newHeight, false);
+			} else if (colorHasAlpha || imageHasAlpha) {
+				if (DEBUG)
+					log(1,
+							"Transparency FOUND in source image or color, using ARGB image type...");
+
+				result = Recorder.allocated(new BufferedImage(newWidth,
+						newHeight, BufferedImage.TYPE_INT_ARGB));
+			} else {
+				if (DEBUG)
+					log(1,
+							"Transparency NOT FOUND in source image or color, using RGB image type...");
+
+				result = Recorder.allocated(new BufferedImage(newWidth,
+						newHeight, BufferedImage.TYPE_INT_RGB));
+			}
+
+			Graphics2D g = result.createGraphics();
+
+			/*
+			 * A palette color may be translucent; it must replace the pixels of
+			 * the (otherwise black) palette image rather than being blended in.
+			 */
+			if (result.getColorModel() instanceof IndexColorModel)
+				g.setComposite(AlphaComposite.Src);
+
+			// Draw the border of the image in the color specified.
+			g.setColor(color);
+			g.fillRect(0, 0, newWidth, padding);
+			g.fillRect(0, padding, padding, newHeight);
+			g.fillRect(padding, newHeight - padding, newWidth, newHeight);
+			g.fillRect(newWidth - padding, padding, newWidth, newHeight - padding);
+
+			// Draw the image into the center of the new padded image.
+			g.drawImage(src, padding, padding, null);
+			g.dispose();
 
-			result = new BufferedImage(newWidth, newHeight,
-					BufferedImage.TYPE_INT_ARGB);
-		} else {
 			if (DEBUG)
-				log(1,
-						"Transparency NOT FOUND in source image or color, using RGB image type...");
+				log(0, "Padding Applied in %d ms", System.currentTimeMillis() - t);
+
+			// Apply any optional operations (if specified).
+			if (ops != null && ops.length > 0)
+				result = apply(result, ops);
 
-			result = new BufferedImage(newWidth, newHeight,
-					BufferedImage.TYPE_INT_RGB);
+			return Recorder.finish(recorder, result);
+		} finally {
+			Recorder.close(recorder);
 		}
+	}
 
-		Graphics g = result.getGraphics();
+	/**
+	 * Used to apply padding around the edges of the given image using the
+	 * given color, writing the result into the given <code>dest</code> image
+	 * at <code>destX</code>, <code>destY</code> instead of a new image.
+	 * <p/>
+	 * The destination region is <code>src.getWidth() + padding * 2</code> by
+	 * <code>src.getHeight() + padding * 2</code> pixels; its pixels are
+	 * replaced (not blended with) the padding color and the image. No image is
+	 * allocated; this makes the method suitable for repeatedly rendering into
+	 * the same image (e.g. a sprite sheet).
+	 * 
+	 * @param src
+	 *            The image the padding will be added to.
+	 * @param padding
+	 *            The number of pixels of padding to add to each side in the
+	 *            resulting image. If this value is <code>0</code> then
+	 *            <code>src</code> is copied into <code>dest</code> unchanged.
+	 * @param color
+	 *            The color to fill the padded space with.
+	 * @param dest
+	 *            The image the result is written into. It must be of type
+	 *            {@link BufferedImage#TYPE_INT_RGB},
+	 *            {@link BufferedImage#TYPE_INT_ARGB} or
+	 *            {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+	 * @param destX
+	 *            The x-coordinate in <code>dest</code> the result is written
+	 *            to.
+	 * @param destY
+	 *            The y-coordinate in <code>dest</code> the result is written
+	 *            to.
+	 * 
+	 * @return <code>dest</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>, if
+	 *             <code>padding</code> is &lt; <code>0</code>, if
+	 *             <code>color</code> is <code>null</code> or if
+	 *             <code>dest</code> is invalid (see
+	 *             {@link #checkDestination(BufferedImage, BufferedImage, int, int, int, int)}
+	 *             ).
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage pad(BufferedImage src, int padding,
+			Color color, BufferedImage dest, int destX, int destY)
+			throws IllegalArgumentException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+		if (padding < 0)
+			throw new IllegalArgumentException("padding [" + padding
+					+ "] must be >= 0");
+		if (color == null)
+			throw new IllegalArgumentException("color cannot be null");
 
-		// Draw the border of the image in the color specified.
-		g.setColor(color);
-		g.fillRect(0, 0, newWidth, padding);
-		g.fillRect(0, padding, padding, newHeight);
-		g.fillRect(padding, newHeight - padding, newWidth, newHeight);
-		g.fillRect(newWidth - padding, padding, newWidth, newHeight - padding);
+		int srcWidth = src.getWidth();
+		int srcHeight = src.getHeight();
+		int newWidth = srcWidth + (padding * 2);
+		int newHeight = srcHeight + (padding * 2);
 
-		// Draw the image into the center of the new padded image.
-		g.drawImage(src, padding, padding, null);
-		g.dispose();
+		checkDestination(src, dest, destX, destY, newWidth, newHeight);
 
-		if (DEBUG)
-			log(0, "Padding Applied in %d ms", System.currentTimeMillis() - t);
+		Recorder recorder = Recorder.begin(Operation.PAD, src);
 
-		// Apply any optional operations (if specified).
-		if (ops != null && ops.length > 0)
-			result = apply(result, ops);
+		try {
+			Graphics2D g = dest.createGraphics();
 
-		return result;
+			g.setComposite(AlphaComposite.Src);
+
+			// Draw the border (top, bottom, left, right) without any overlap.
+			if (padding > 0) {
+				g.setColor(color);
+				g.fillRect(destX, destY, newWidth, padding);
+				g.fillRect(destX, destY + padding + srcHeight, newWidth, padding);
+				g.fillRect(destX, destY + padding, padding, srcHeight);
+				g.fillRect(destX + padding + srcWidth, destY + padding, padding,
+						srcHeight);
+			}
+
+			g.drawImage(src, destX + padding, destY + padding, null);
+			g.dispose();
+
+			return Recorder.finish(recorder, dest);
+		} finally {
+			Recorder.close(recorder);
+		}
 	}
 
 	/**
@@ -1120,6 +1825,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage resize(BufferedImage src, int targetSize,
 			BufferedImageOp... ops) throws IllegalArgumentException,
@@ -1174,6 +1882,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Method
 	 */
@@ -1238,6 +1949,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Mode
 	 */
@@ -1305,6 +2019,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Method
 	 * @see Mode
@@ -1364,6 +2081,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 */
 	public static BufferedImage resize(BufferedImage src, int targetWidth,
 			int targetHeight, BufferedImageOp... ops)
@@ -1424,6 +2144,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Method
 	 */
@@ -1493,6 +2216,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Mode
 	 */
@@ -1567,6 +2293,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Method
 	 * @see Mode
@@ -1592,168 +2321,446 @@ public class Scalr {
 			throw new IllegalArgumentException(
 					"resizeMode cannot be null. A good default value is Mode.AUTOMATIC.");
 
-		BufferedImage result = null;
+		Recorder recorder = Recorder.begin(Operation.RESIZE, src);
 
-		int currentWidth = src.getWidth();
-		int currentHeight = src.getHeight();
+		try {
+			BufferedImage result = null;
 
-		// <= 1 is a square or landscape-oriented image, > 1 is a portrait.
-		float ratio = ((float) currentHeight / (float) currentWidth);
+			int currentWidth = src.getWidth();
+			int currentHeight = src.getHeight();
 
-		if (DEBUG)
-			log(0,
-					"Resizing Image [size=%dx%d, resizeMode=%s, orientation=%s, ratio(H/W)=%f] to [targetSize=%dx%d]",
-					currentWidth, currentHeight, resizeMode,
-					(ratio <= 1 ? "Landscape/Square" : "Portrait"), ratio,
-					targetWidth, targetHeight);
+			// <= 1 is a square or landscape-oriented image, > 1 is a portrait.
+			float ratio = ((float) currentHeight / (float) currentWidth);
 
-		/*
-		 * First determine if ANY size calculation needs to be done, in the case
-		 * of FIT_EXACT, ignore image proportions and orientation and just use
-		 * what the user sent in, otherwise the proportion of the picture must
-		 * be honored.
-		 * 
-		 * The way that is done is to figure out if the image is in a
-		 * LANDSCAPE/SQUARE or PORTRAIT orientation and depending on its
-		 * orientation, use the primary dimension (width for LANDSCAPE/SQUARE
-		 * and height for PORTRAIT) to recalculate the alternative (height and
-		 * width respectively) value that adheres to the existing ratio.
-		 * 
-		 * This helps make life easier for the caller as they don't need to
-		 * pre-compute proportional dimensions before calling the API, they can
-		 * just specify the dimensions they would like the image to roughly fit
-		 * within and it will do the right thing without mangling the result.
-		 */
-		if (resizeMode == Mode.FIT_EXACT) {
 			if (DEBUG)
-				log(1,
-						"Resize Mode FIT_EXACT used, no width/height checking or re-calculation will be done.");
-		} else if (resizeMode == Mode.BEST_FIT_BOTH) {
-			float requestedHeightScaling = ((float) targetHeight / (float) currentHeight);
-			float requestedWidthScaling = ((float) targetWidth / (float) currentWidth);
-			float actualScaling = Math.min(requestedHeightScaling, requestedWidthScaling);
+				log(0,
+						"Resizing Image [size=%dx%d, resizeMode=%s, orientation=%s, ratio(H/W)=%f] to [targetSize=%dx%d]",
+						currentWidth, currentHeight, resizeMode,
+						(ratio <= 1 ? "Landscape/Square" : "Portrait"), ratio,
+						targetWidth, targetHeight);
 
-			targetHeight = Math.round((float) currentHeight * actualScaling);
-			targetWidth = Math.round((float) currentWidth * actualScaling);
+			/*
+			 * First determine if ANY size calculation needs to be done, in the case
+			 * of FIT_EXACT, ignore image proportions and orientation and just use
+			 * what the user sent in, otherwise the proportion of the picture must
+			 * be honored.
+			 * 
+			 * The way that is done is to figure out if the image is in a
+			 * LANDSCAPE/SQUARE or PORTRAIT orientation and depending on its
+			 * orientation, use the primary dimension (width for LANDSCAPE/SQUARE
+			 * and height for PORTRAIT) to recalculate the alternative (height and
+			 * width respectively) value that adheres to the existing ratio.
+			 * 
+			 * This helps make life easier for the caller as they don't need to
+			 * pre-compute proportional dimensions before calling the API, they can
+			 * just specify the dimensions they would like the image to roughly fit
+			 * within and it will do the right thing without mangling the result.
+			 */
+			int[] targetDimensions = determineTargetDimensions(currentWidth,
+					currentHeight, resizeMode, targetWidth, targetHeight);
 
-			if (targetHeight == currentHeight && targetWidth == currentWidth)
-				return src;
+			// Make sure we need to do any work in the first place.
+			if (targetDimensions == null)
+				return Recorder.finish(recorder, src);
+
+			targetWidth = targetDimensions[0];
+			targetHeight = targetDimensions[1];
+
+			result = scale(src, scalingMethod, targetWidth, targetHeight, null);
 
 			if (DEBUG)
-				log(1, "Auto-Corrected width and height based on scalingRatio %d.", actualScaling);
-		} else {
-			if ((ratio <= 1 && resizeMode == Mode.AUTOMATIC)
-					|| (resizeMode == Mode.FIT_TO_WIDTH)) {
-				// First make sure we need to do any work in the first place
-				if (targetWidth == src.getWidth())
-					return src;
+				log(0, "Resized Image in %d ms", System.currentTimeMillis() - t);
 
-				// Save for detailed logging (this is cheap).
-				int originalTargetHeight = targetHeight;
+			// Apply any optional operations (if specified).
+			if (ops != null && ops.length > 0)
+				result = apply(result, ops);
 
-				/*
-				 * Landscape or Square Orientation: Ignore the given height and
-				 * re-calculate a proportionally correct value based on the
-				 * targetWidth.
-				 */
-				targetHeight = (int)Math.ceil((float) targetWidth * ratio);
+			return Recorder.finish(recorder, result);
+		} finally {
+			Recorder.close(recorder);
+		}
+	}
 
-				if (DEBUG && originalTargetHeight != targetHeight)
-					log(1,
-							"Auto-Corrected targetHeight [from=%d to=%d] to honor image proportions.",
-							originalTargetHeight, targetHeight);
-			} else {
-				// First make sure we need to do any work in the first place
-				if (targetHeight == src.getHeight())
-					return src;
+	/**
+	 * Resize a given image to exactly the dimensions of the given
+	 * <code>dest</code> image (ignoring the image's proportions, like
+	 * {@link Mode#FIT_EXACT}) using the given scaling method, writing the
+	 * result into <code>dest</code> instead of a new image.
+	 * <p/>
+	 * Equivalent to
+	 * {@link #resize(BufferedImage, Method, BufferedImage, int, int, int, int)}
+	 * with a region covering all of <code>dest</code>.
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param scalingMethod
+	 *            The method used for scaling the image; preferring speed to
+	 *            quality or a balance of both.
+	 * @param dest
+	 *            The image the result is written into.
+	 * 
+	 * @return <code>dest</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>, if
+	 *             <code>scalingMethod</code> is <code>null</code> or if
+	 *             <code>dest</code> is invalid (see
+	 *             {@link #checkDestination(BufferedImage, BufferedImage, int, int, int, int)}
+	 *             ).
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage resize(BufferedImage src, Method scalingMethod,
+			BufferedImage dest) throws IllegalArgumentException {
+		if (dest == null)
+			throw new IllegalArgumentException("dest cannot be null");
 
-				// Save for detailed logging (this is cheap).
-				int originalTargetWidth = targetWidth;
+		return resize(src, scalingMethod, dest, 0, 0, dest.getWidth(),
+				dest.getHeight());
+	}
 
-				/*
-				 * Portrait Orientation: Ignore the given width and re-calculate
-				 * a proportionally correct value based on the targetHeight.
-				 */
-				targetWidth = Math.round((float) targetHeight / ratio);
+	/**
+	 * Resize a given image to exactly the given width and height (ignoring the
+	 * image's proportions, like {@link Mode#FIT_EXACT}) using the given
+	 * scaling method, writing the result into the given region of
+	 * <code>dest</code> instead of a new image.
+	 * <p/>
+	 * The pixels of the destination region are replaced (not blended with)
+	 * the scaled pixels. {@link Method#SPEED}, {@link Method#BALANCED}, the
+	 * resampling methods and any scale-up render straight into
+	 * <code>dest</code> without allocating any image; incremental
+	 * {@link Method#QUALITY} and {@link Method#ULTRA_QUALITY} down-scales
+	 * only need their interim images, which can be recycled by setting an
+	 * {@link ImagePool} (see {@link #setImagePool(ImagePool)}). This makes the
+	 * method suitable for repeatedly rendering same-size thumbnails (e.g. a
+	 * sprite sheet or video frame previews).
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param scalingMethod
+	 *            The method used for scaling the image; preferring speed to
+	 *            quality or a balance of both.
+	 * @param dest
+	 *            The image the result is written into. It must be of type
+	 *            {@link BufferedImage#TYPE_INT_RGB},
+	 *            {@link BufferedImage#TYPE_INT_ARGB} or
+	 *            {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+	 * @param x
+	 *            The x-coordinate of the region of <code>dest</code> the
+	 *            result is written to.
+	 * @param y
+	 *            The y-coordinate of the region of <code>dest</code> the
+	 *            result is written to.
+	 * @param width
+	 *            The width of the region (the target width).
+	 * @param height
+	 *            The height of the region (the target height).
+	 * 
+	 * @return <code>dest</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>, if
+	 *             <code>scalingMethod</code> is <code>null</code> or if
+	 *             <code>dest</code> is invalid (see
+	 *             {@link #checkDestination(BufferedImage, BufferedImage, int, int, int, int)}
+	 *             ).
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage resize(BufferedImage src, Method scalingMethod,
+			BufferedImage dest, int x, int y, int width, int height)
+			throws IllegalArgumentException {
+		long t = -1;
+		if (DEBUG)
+			t = System.currentTimeMillis();
 
-				if (DEBUG && originalTargetWidth != targetWidth)
-					log(1,
-							"Auto-Corrected targetWidth [from=%d to=%d] to honor image proportions.",
-							originalTargetWidth, targetWidth);
-			}
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+		if (scalingMethod == null)
+			throw new IllegalArgumentException(
+					"scalingMethod cannot be null. A good default value is Method.AUTOMATIC.");
+
+		checkDestination(src, dest, x, y, width, height);
+
+		Recorder recorder = Recorder.begin(Operation.RESIZE, src);
+
+		try {
+			if (DEBUG)
+				log(0,
+						"Resizing Image [size=%dx%d] into [dest=%dx%d, x=%d, y=%d, width=%d, height=%d]",
+						src.getWidth(), src.getHeight(), dest.getWidth(),
+						dest.getHeight(), x, y, width, height);
+
+			BufferedImage region = (x == 0 && y == 0 && width == dest.getWidth()
+					&& height == dest.getHeight() ? dest : dest.getSubimage(x, y,
+					width, height));
+
+			// Java2D blends into the region, so clear it first.
+			clearRegion(region, width, height);
+			scale(src, scalingMethod, width, height, region);
+
+			if (DEBUG)
+				log(0, "Resized Image in %d ms", System.currentTimeMillis() - t);
+
+			return Recorder.finish(recorder, dest);
+		} finally {
+			Recorder.close(recorder);
 		}
+	}
 
-		// If AUTOMATIC was specified, determine the real scaling method.
-		if (scalingMethod == Scalr.Method.AUTOMATIC)
-			scalingMethod = determineScalingMethod(targetWidth, targetHeight,
-					ratio);
+	/**
+	 * Resize a given image to several target sizes at once (e.g. the
+	 * 1024/512/256/128/64 thumbnails generated for every upload), each size
+	 * treated exactly like
+	 * {@link #resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}
+	 * with <code>targetSize</code> used for both the width and the height.
+	 * <p/>
+	 * See {@link #resizeAll(BufferedImage, Method, Mode, int[], int[], BufferedImageOp...)}
+	 * for how the sizes share their work.
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param scalingMethod
+	 *            The method used for scaling the image; preferring speed to
+	 *            quality or a balance of both.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for every image.
+	 * @param targetSizes
+	 *            The maximum length (in pixels) of every image; the order of
+	 *            the sizes doesn't matter.
+	 * 
+	 * @return a new array holding the scaled images in the order of
+	 *         <code>targetSizes</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>scalingMethod</code> or <code>resizeMode</code> is
+	 *             <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>targetSizes</code> is <code>null</code> or any of
+	 *             the sizes is &lt; 0.
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage[] resizeAll(BufferedImage src,
+			Method scalingMethod, Mode resizeMode, int... targetSizes)
+			throws IllegalArgumentException {
+		if (targetSizes == null)
+			throw new IllegalArgumentException("targetSizes cannot be null");
+
+		return resizeAll(src, scalingMethod, resizeMode, targetSizes,
+				targetSizes);
+	}
 
+	/**
+	 * Resize a given image to several target sizes at once, each size treated
+	 * exactly like
+	 * {@link #resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}
+	 * with <code>targetWidths[i]</code> and <code>targetHeights[i]</code>.
+	 * <p/>
+	 * Calling <code>resize</code> once per size walks the incremental
+	 * {@link Method#QUALITY} or {@link Method#ULTRA_QUALITY} steps from the
+	 * full resolution every time, even though the first (and most expensive)
+	 * steps are the same for every size. This method walks the steps only
+	 * once, from the largest size to the smallest: every size is finished
+	 * from the last step that is still larger than it and the walk continues
+	 * from that step towards the next smaller size. Since each step is a
+	 * fraction of the one before it, generating all the sizes costs little
+	 * more than generating the largest one.
+	 * <p/>
+	 * For sizes with the same proportions (any {@link Mode} but
+	 * {@link Mode#FIT_EXACT}) the images are identical to the ones returned
+	 * by individual <code>resize</code> calls. Sizes scaled with any other
+	 * method (e.g. a {@link Method#SPEED} scale picked by
+	 * {@link Method#AUTOMATIC} for a large size) or scaled up are scaled from
+	 * <code>src</code> directly, as usual. A source of a type Java2D handles
+	 * poorly is converted once (see {@link #copyToOptimalImage(BufferedImage)})
+	 * for all of the sizes.
+	 * <p/>
+	 * The whole call is reported as a single {@link ScalrEvent.Operation#RESIZE}
+	 * whose result is the first image.
+	 * <p/>
+	 * <strong>TIP</strong>: This operation leaves the original <code>src</code>
+	 * image unmodified. If a size doesn't require any scaling (see
+	 * {@link #resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)})
+	 * and no <code>ops</code> are given, <code>src</code> itself is returned
+	 * for that size.
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param scalingMethod
+	 *            The method used for scaling the image; preferring speed to
+	 *            quality or a balance of both.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for every image.
+	 * @param targetWidths
+	 *            The target width of every image.
+	 * @param targetHeights
+	 *            The target height of every image, in the same order as
+	 *            <code>targetWidths</code>.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that are applied to every scaled image.
+	 * 
+	 * @return a new array holding the scaled images in the order of
+	 *         <code>targetWidths</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>scalingMethod</code> or <code>resizeMode</code> is
+	 *             <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             if <code>targetWidths</code> or <code>targetHeights</code> is
+	 *             <code>null</code>, if their lengths differ or if any of the
+	 *             widths or heights is &lt; 0.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 *             These exceptions bubble up from the inside of most of the
+	 *             {@link BufferedImageOp} implementations and are explicitly
+	 *             defined on the imgscalr API to make it easier for callers to
+	 *             catch the exception (if they are passing along optional ops
+	 *             to be applied). imgscalr takes detailed steps to avoid the
+	 *             most common pitfalls that will cause {@link BufferedImageOp}s
+	 *             to fail, even when using straight forward JDK-image
+	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage[] resizeAll(BufferedImage src,
+			Method scalingMethod, Mode resizeMode, int[] targetWidths,
+			int[] targetHeights, BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		long t = -1;
 		if (DEBUG)
-			log(1, "Using Scaling Method: %s", scalingMethod);
+			t = System.currentTimeMillis();
+
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+		if (scalingMethod == null)
+			throw new IllegalArgumentException(
+					"scalingMethod cannot be null. A good default value is Method.AUTOMATIC.");
+		if (resizeMode == null)
+			throw new IllegalArgumentException(
+					"resizeMode cannot be null. A good default value is Mode.AUTOMATIC.");
+		if (targetWidths == null)
+			throw new IllegalArgumentException("targetWidths cannot be null");
+		if (targetHeights == null)
+			throw new IllegalArgumentException("targetHeights cannot be null");
+		if (targetWidths.length != targetHeights.length)
+			throw new IllegalArgumentException("targetWidths.length ["
+					+ targetWidths.length + "] must be equal to targetHeights.length ["
+					+ targetHeights.length + "]");
+
+		for (int i = 0; i < targetWidths.length; i++) {
+			if (targetWidths[i] < 0)
+				throw new IllegalArgumentException("targetWidths[" + i
+						+ "] must be >= 0");
+			if (targetHeights[i] < 0)
+				throw new IllegalArgumentException("targetHeights[" + i
+						+ "] must be >= 0");
+		}
+
+		int count = targetWidths.length;
+		BufferedImage[] results = new BufferedImage[count];
+
+		if (count == 0)
+			return results;
+
+		Recorder recorder = Recorder.begin(Operation.RESIZE, src);
+
+		try {
+			int currentWidth = src.getWidth();
+			int currentHeight = src.getHeight();
+			float ratio = ((float) currentHeight / (float) currentWidth);
+			int[][] dimensions = new int[count][];
+			Method[] methods = new Method[count];
+			int[] laddered = new int[2];
+
+			if (DEBUG)
+				log(0,
+						"Resizing Image [size=%dx%d, resizeMode=%s] to [%d sizes]",
+						currentWidth, currentHeight, resizeMode, count);
 
-		// Now we scale the image
-		if (scalingMethod == Scalr.Method.SPEED) {
-			result = scaleImage(src, targetWidth, targetHeight,
-					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-		} else if (scalingMethod == Scalr.Method.BALANCED) {
-			result = scaleImage(src, targetWidth, targetHeight,
-					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-		} else if (scalingMethod == Scalr.Method.QUALITY
-				|| scalingMethod == Scalr.Method.ULTRA_QUALITY) {
 			/*
-			 * If we are scaling up (in either width or height - since we know
-			 * the image will stay proportional we just check if either are
-			 * being scaled up), directly using a single BICUBIC will give us
-			 * better results then using Chris Campbell's incremental scaling
-			 * operation (and take a lot less time).
-			 * 
-			 * If we are scaling down, we must use the incremental scaling
-			 * algorithm for the best result.
+			 * Work out the real dimensions and method of every size first, so
+			 * we know how many sizes each incremental ladder (QUALITY steps by
+			 * 1/2, ULTRA_QUALITY by 1/7) has to serve.
 			 */
-			if (targetWidth > currentWidth || targetHeight > currentHeight) {
-				if (DEBUG)
-					log(1,
-							"QUALITY scale-up, a single BICUBIC scale operation will be used...");
+			for (int i = 0; i < count; i++) {
+				dimensions[i] = determineTargetDimensions(currentWidth,
+						currentHeight, resizeMode, targetWidths[i],
+						targetHeights[i]);
 
-				/*
-				 * BILINEAR and BICUBIC look similar the smaller the scale jump
-				 * upwards is, if the scale is larger BICUBIC looks sharper and
-				 * less fuzzy. But most importantly we have to use BICUBIC to
-				 * match the contract of the QUALITY rendering scalingMethod.
-				 * This note is just here for anyone reading the code and
-				 * wondering how they can speed their own calls up.
-				 */
-				result = scaleImage(src, targetWidth, targetHeight,
-						RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-			} else {
+				if (dimensions[i] == null)
+					continue;
+
+				methods[i] = (scalingMethod == Method.AUTOMATIC ? determineScalingMethod(
+						dimensions[i][0], dimensions[i][1], ratio)
+						: scalingMethod);
+
+				if (isLaddered(methods[i], currentWidth, currentHeight,
+						dimensions[i]))
+					laddered[methods[i] == Method.QUALITY ? 0 : 1]++;
+			}
+
+			/*
+			 * Convert a poorly supported source once instead of once per size
+			 * (scale() leaves an already converted source alone).
+			 */
+			BufferedImage source = src;
+
+			if ((laddered[0] + laddered[1]) > 1 && Converter.isSupported(src)
+					&& !isPreservedType(src, true)) {
 				if (DEBUG)
-					log(1,
-							"QUALITY scale-down, incremental scaling will be used...");
+					log(1, "Converting Source Image of Type [%d]...",
+							src.getType());
 
-				/*
-				 * Originally we wanted to use BILINEAR interpolation here
-				 * because it takes 1/3rd the time that the BICUBIC
-				 * interpolation does, however, when scaling large images down
-				 * to most sizes bigger than a thumbnail we witnessed noticeable
-				 * "softening" in the resultant image with BILINEAR that would
-				 * be unexpectedly annoying to a user expecting a "QUALITY"
-				 * scale of their original image. Instead BICUBIC was chosen to
-				 * honor the contract of a QUALITY scale of the original image.
-				 */
-				result = scaleImageIncrementally(src, targetWidth,
-						targetHeight, scalingMethod,
-						RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+				source = Recorder.converted(Recorder.time(),
+						Converter.convert(src));
 			}
-		}
 
-		if (DEBUG)
-			log(0, "Resized Image in %d ms", System.currentTimeMillis() - t);
+			// Walk each ladder that serves more than one size only once.
+			if (laddered[0] > 1)
+				scaleLadder(source, Method.QUALITY, dimensions, methods,
+						results);
+			if (laddered[1] > 1)
+				scaleLadder(source, Method.ULTRA_QUALITY, dimensions, methods,
+						results);
+
+			// Scale every remaining size on its own.
+			for (int i = 0; i < count; i++) {
+				if (dimensions[i] == null)
+					results[i] = src;
+				else if (results[i] == null)
+					results[i] = scale(source, methods[i], dimensions[i][0],
+							dimensions[i][1], null);
+			}
 
-		// Apply any optional operations (if specified).
-		if (ops != null && ops.length > 0)
-			result = apply(result, ops);
+			if (source != src)
+				source.flush();
 
-		return result;
+			if (DEBUG)
+				log(0, "Resized Image to %d sizes in %d ms", count,
+						System.currentTimeMillis() - t);
+
+			// Apply any optional operations (if specified).
+			if (ops != null && ops.length > 0)
+				for (int i = 0; i < count; i++)
+					results[i] = apply(results[i], ops);
+
+			Recorder.finish(recorder, results[0]);
+
+			return results;
+		} finally {
+			Recorder.close(recorder);
+		}
 	}
 
 	/**
@@ -1792,6 +2799,9 @@ public class Scalr {
 	 *             most common pitfalls that will cause {@link BufferedImageOp}s
 	 *             to fail, even when using straight forward JDK-image
 	 *             operations.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
 	 * 
 	 * @see Rotation
 	 */
@@ -1810,112 +2820,283 @@ public class Scalr {
 		if (DEBUG)
 			log(0, "Rotating Image [%s]...", rotation);
 
-		/*
-		 * Setup the default width/height values from our image.
-		 * 
-		 * In the case of a 90 or 270 (-90) degree rotation, these two values
-		 * flip-flop and we will correct those cases down below in the switch
-		 * statement.
-		 */
-		int newWidth = src.getWidth();
-		int newHeight = src.getHeight();
+		Recorder recorder = Recorder.begin(Operation.ROTATE, src);
+
+		try {
+			/*
+			 * Setup the default width/height values from our image.
+			 * 
+			 * In the case of a 90 or 270 (-90) degree rotation, these two values
+			 * flip-flop and we correct those cases right below.
+			 */
+			int newWidth = src.getWidth();
+			int newHeight = src.getHeight();
+
+			/*
+			 * A 90 or -90 degree rotation will cause the height and width to
+			 * flip-flop from the original image to the rotated one.
+			 */
+			if (rotation == Rotation.CW_90 || rotation == Rotation.CW_270) {
+				newWidth = src.getHeight();
+				newHeight = src.getWidth();
+			}
+
+			// Create our target image we will render the rotated result to.
+			BufferedImage result = createResultImage(src, newWidth, newHeight,
+					false);
+
+			/*
+			 * Rotations and flips only move pixels around, so when both images
+			 * store their pixels as packed ints we move them directly (see
+			 * Rotator) instead of rendering the source through Java2D.
+			 */
+			if (Rotator.isSupported(src, result))
+				Rotator.rotate(src, rotation, result, 0, 0);
+			else {
+				/*
+				 * We create a transform per operation request as (oddly enough) it ends
+				 * up being faster for the VM to create, use and destroy these instances
+				 * than it is to re-use a single AffineTransform per-thread via the
+				 * AffineTransform.setTo(...) methods which was my first choice (less
+				 * object creation); after benchmarking this explicit case and looking
+				 * at just how much code gets run inside of setTo() I opted for a new AT
+				 * for every rotation.
+				 * 
+				 * Besides the performance win, trying to safely reuse AffineTransforms
+				 * via setTo(...) would have required ThreadLocal instances to avoid
+				 * race conditions where two or more resize threads are manipulating the
+				 * same transform before applying it.
+				 * 
+				 * Misusing ThreadLocals are one of the #1 reasons for memory leaks in
+				 * server applications and since we have no nice way to hook into the
+				 * init/destroy Servlet cycle or any other initialization cycle for this
+				 * library to automatically call ThreadLocal.remove() to avoid the
+				 * memory leak, it would have made using this library *safely* on the
+				 * server side much harder.
+				 * 
+				 * So we opt for creating individual transforms per rotation op and let
+				 * the VM clean them up in a GC. I only clarify all this reasoning here
+				 * for anyone else reading this code and being tempted to reuse the AT
+				 * instances of performance gains; there aren't any AND you get a lot of
+				 * pain along with it.
+				 */
+				AffineTransform tx = createRotationTransform(rotation, src.getWidth(),
+						src.getHeight());
+
+				Graphics2D g2d = (Graphics2D) result.createGraphics();
+
+				/*
+				 * Render the resultant image to our new rotatedImage buffer, applying
+				 * the AffineTransform that we calculated above during rendering so the
+				 * pixels from the old position are transposed to the new positions in
+				 * the resulting image correctly.
+				 */
+				g2d.drawImage(src, tx, null);
+				g2d.dispose();
+			}
+
+			if (DEBUG)
+				log(0, "Rotation Applied in %d ms, result [width=%d, height=%d]",
+						System.currentTimeMillis() - t, result.getWidth(),
+						result.getHeight());
+
+			// Apply any optional operations (if specified).
+			if (ops != null && ops.length > 0)
+				result = apply(result, ops);
+
+			return Recorder.finish(recorder, result);
+		} finally {
+			Recorder.close(recorder);
+		}
+	}
+
+	/**
+	 * Used to apply a {@link Rotation} to the given image, writing the result
+	 * into the given <code>dest</code> image at <code>destX</code>,
+	 * <code>destY</code> instead of a new image.
+	 * <p/>
+	 * The pixels of the destination region are replaced (not blended with)
+	 * the rotated pixels. No image is allocated; this makes the method
+	 * suitable for repeatedly rendering into the same image.
+	 * 
+	 * @param src
+	 *            The image that will be rotated.
+	 * @param rotation
+	 *            The rotation that will be applied to the image.
+	 * @param dest
+	 *            The image the result is written into; the destination region
+	 *            is the size of the rotated image. It must be of type
+	 *            {@link BufferedImage#TYPE_INT_RGB},
+	 *            {@link BufferedImage#TYPE_INT_ARGB} or
+	 *            {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+	 * @param destX
+	 *            The x-coordinate in <code>dest</code> the result is written
+	 *            to.
+	 * @param destY
+	 *            The y-coordinate in <code>dest</code> the result is written
+	 *            to.
+	 * 
+	 * @return <code>dest</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>src</code> is <code>null</code>, if
+	 *             <code>rotation</code> is <code>null</code> or if
+	 *             <code>dest</code> is invalid (see
+	 *             {@link #checkDestination(BufferedImage, BufferedImage, int, int, int, int)}
+	 *             ).
+	 * 
+	 * @since 4.3
+	 */
+	public static BufferedImage rotate(BufferedImage src, Rotation rotation,
+			BufferedImage dest, int destX, int destY)
+			throws IllegalArgumentException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+		if (rotation == null)
+			throw new IllegalArgumentException("rotation cannot be null");
+
+		boolean quadrant = (rotation == Rotation.CW_90 || rotation == Rotation.CW_270);
+		int newWidth = (quadrant ? src.getHeight() : src.getWidth());
+		int newHeight = (quadrant ? src.getWidth() : src.getHeight());
+
+		checkDestination(src, dest, destX, destY, newWidth, newHeight);
+
+		Recorder recorder = Recorder.begin(Operation.ROTATE, src);
+
+		try {
+			if (Rotator.isSupported(src, dest)) {
+				Rotator.rotate(src, rotation, dest, destX, destY);
+				return Recorder.finish(recorder, dest);
+			}
+
+			AffineTransform tx = createRotationTransform(rotation, src.getWidth(),
+					src.getHeight());
+
+			tx.preConcatenate(AffineTransform.getTranslateInstance(destX, destY));
+
+			Graphics2D g = dest.createGraphics();
+
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(src, tx, null);
+			g.dispose();
+
+			return Recorder.finish(recorder, dest);
+		} finally {
+			Recorder.close(recorder);
+		}
+	}
+
+	/**
+	 * Used to validate a caller-supplied destination image and the region of
+	 * it an operation will write its result to.
+	 * 
+	 * @param src
+	 *            The source image of the operation.
+	 * @param dest
+	 *            The destination image.
+	 * @param x
+	 *            The x-coordinate of the region.
+	 * @param y
+	 *            The y-coordinate of the region.
+	 * @param width
+	 *            The width of the region.
+	 * @param height
+	 *            The height of the region.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>dest</code> is <code>null</code>, if it is
+	 *             <code>src</code> or shares its pixel data (e.g. a view
+	 *             returned by
+	 *             {@link #cropView(BufferedImage, int, int, int, int)}), if
+	 *             it is not of type
+	 *             {@link BufferedImage#TYPE_INT_RGB},
+	 *             {@link BufferedImage#TYPE_INT_ARGB} or
+	 *             {@link BufferedImage#TYPE_INT_ARGB_PRE} or if the region
+	 *             does not fit inside of it.
+	 * 
+	 * @since 4.3
+	 */
+	protected static void checkDestination(BufferedImage src,
+			BufferedImage dest, int x, int y, int width, int height)
+			throws IllegalArgumentException {
+		if (dest == null)
+			throw new IllegalArgumentException("dest cannot be null");
+		if (dest == src)
+			throw new IllegalArgumentException("dest cannot be src");
 
 		/*
-		 * We create a transform per operation request as (oddly enough) it ends
-		 * up being faster for the VM to create, use and destroy these instances
-		 * than it is to re-use a single AffineTransform per-thread via the
-		 * AffineTransform.setTo(...) methods which was my first choice (less
-		 * object creation); after benchmarking this explicit case and looking
-		 * at just how much code gets run inside of setTo() I opted for a new AT
-		 * for every rotation.
-		 * 
-		 * Besides the performance win, trying to safely reuse AffineTransforms
-		 * via setTo(...) would have required ThreadLocal instances to avoid
-		 * race conditions where two or more resize threads are manipulating the
-		 * same transform before applying it.
-		 * 
-		 * Misusing ThreadLocals are one of the #1 reasons for memory leaks in
-		 * server applications and since we have no nice way to hook into the
-		 * init/destroy Servlet cycle or any other initialization cycle for this
-		 * library to automatically call ThreadLocal.remove() to avoid the
-		 * memory leak, it would have made using this library *safely* on the
-		 * server side much harder.
-		 * 
-		 * So we opt for creating individual transforms per rotation op and let
-		 * the VM clean them up in a GC. I only clarify all this reasoning here
-		 * for anyone else reading this code and being tempted to reuse the AT
-		 * instances of performance gains; there aren't any AND you get a lot of
-		 * pain along with it.
+		 * A view of src (e.g. from getSubimage or cropView) shares its pixel
+		 * data; the operation would read pixels it has already overwritten.
 		 */
+		if (src != null
+				&& dest.getRaster().getDataBuffer() == src.getRaster()
+						.getDataBuffer())
+			throw new IllegalArgumentException(
+					"dest cannot share its pixel data with src");
+		if (!Rasters.isPackedInt(dest))
+			throw new IllegalArgumentException("dest type [" + dest.getType()
+					+ "] must be TYPE_INT_RGB, TYPE_INT_ARGB or TYPE_INT_ARGB_PRE");
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("width [" + width
+					+ "] and height [" + height + "] must be > 0");
+		if (x < 0 || y < 0 || (x + width) > dest.getWidth()
+				|| (y + height) > dest.getHeight())
+			throw new IllegalArgumentException("Invalid destination region: x ["
+					+ x + "], y [" + y + "], width [" + width + "] and height ["
+					+ height + "] must be inside of dest [" + dest.getWidth()
+					+ "x" + dest.getHeight() + "]");
+	}
+
+	/**
+	 * Used to create the transform that renders an image of the given size
+	 * rotated (or flipped) as described by <code>rotation</code> with its
+	 * top-left corner at <code>0,0</code>.
+	 * 
+	 * @param rotation
+	 *            The rotation.
+	 * @param width
+	 *            The width of the image before rotation.
+	 * @param height
+	 *            The height of the image before rotation.
+	 * 
+	 * @return a new transform.
+	 * 
+	 * @since 4.3
+	 */
+	protected static AffineTransform createRotationTransform(
+			Rotation rotation, int width, int height) {
 		AffineTransform tx = new AffineTransform();
 
 		switch (rotation) {
 		case CW_90:
-			/*
-			 * A 90 or -90 degree rotation will cause the height and width to
-			 * flip-flop from the original image to the rotated one.
-			 */
-			newWidth = src.getHeight();
-			newHeight = src.getWidth();
-
-			// Reminder: newWidth == result.getHeight() at this point
-			tx.translate(newWidth, 0);
+			// Reminder: height == the rotated image's width
+			tx.translate(height, 0);
 			tx.quadrantRotate(1);
-
 			break;
 
 		case CW_270:
-			/*
-			 * A 90 or -90 degree rotation will cause the height and width to
-			 * flip-flop from the original image to the rotated one.
-			 */
-			newWidth = src.getHeight();
-			newHeight = src.getWidth();
-
-			// Reminder: newHeight == result.getWidth() at this point
-			tx.translate(0, newHeight);
+			// Reminder: width == the rotated image's height
+			tx.translate(0, width);
 			tx.quadrantRotate(3);
 			break;
 
 		case CW_180:
-			tx.translate(newWidth, newHeight);
+			tx.translate(width, height);
 			tx.quadrantRotate(2);
 			break;
 
 		case FLIP_HORZ:
-			tx.translate(newWidth, 0);
+			tx.translate(width, 0);
 			tx.scale(-1.0, 1.0);
 			break;
 
 		case FLIP_VERT:
-			tx.translate(0, newHeight);
+			tx.translate(0, height);
 			tx.scale(1.0, -1.0);
 			break;
 		}
 
-		// Create our target image we will render the rotated result to.
-		BufferedImage result = createOptimalImage(src, newWidth, newHeight);
-		Graphics2D g2d = (Graphics2D) result.createGraphics();
-
-		/*
-		 * Render the resultant image to our new rotatedImage buffer, applying
-		 * the AffineTransform that we calculated above during rendering so the
-		 * pixels from the old position are transposed to the new positions in
-		 * the resulting image correctly.
-		 */
-		g2d.drawImage(src, tx, null);
-		g2d.dispose();
-
-		if (DEBUG)
-			log(0, "Rotation Applied in %d ms, result [width=%d, height=%d]",
-					System.currentTimeMillis() - t, result.getWidth(),
-					result.getHeight());
-
-		// Apply any optional operations (if specified).
-		if (ops != null && ops.length > 0)
-			result = apply(result, ops);
-
-		return result;
+		return tx;
 	}
 
 	/**
@@ -2037,11 +3218,123 @@ public class Scalr {
 			throw new IllegalArgumentException("width [" + width
 					+ "] and height [" + height + "] must be > 0");
 
-		return new BufferedImage(
+		return Recorder.allocated(new BufferedImage(
 				width,
 				height,
 				(src.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB
-						: BufferedImage.TYPE_INT_ARGB));
+						: BufferedImage.TYPE_INT_ARGB)));
+	}
+
+	/**
+	 * Used to create the image an operation renders its result into: an image
+	 * of the same compact type as <code>src</code> if the type-preserving mode
+	 * is enabled and the type can hold the result (see
+	 * {@link #isPreservedType(BufferedImage, boolean)}), otherwise an image
+	 * created with {@link #createOptimalImage(BufferedImage, int, int)}.
+	 * 
+	 * @param src
+	 *            The source image of the operation.
+	 * @param width
+	 *            The width of the newly created resulting image.
+	 * @param height
+	 *            The height of the newly created resulting image.
+	 * @param interpolated
+	 *            <code>true</code> if the operation blends pixels (and so can
+	 *            create colors that are not in <code>src</code>).
+	 * 
+	 * @return a new image to render the result into.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>width</code> or <code>height</code> are &lt; 0.
+	 * 
+	 * @see #setPreserveType(boolean)
+	 * @since 4.3
+	 */
+	protected static BufferedImage createResultImage(BufferedImage src,
+			int width, int height, boolean interpolated)
+			throws IllegalArgumentException {
+		if (!isPreservedType(src, interpolated))
+			return createOptimalImage(src, width, height);
+
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("width [" + width
+					+ "] and height [" + height + "] must be > 0");
+
+		if (src.getType() == BufferedImage.TYPE_BYTE_GRAY)
+			return Recorder.allocated(new BufferedImage(width, height,
+					BufferedImage.TYPE_BYTE_GRAY));
+
+		return Recorder.allocated(new BufferedImage(width, height, src
+				.getType(), (IndexColorModel) src.getColorModel()));
+	}
+
+	/**
+	 * Used to determine if the type of <code>src</code> is kept by an
+	 * operation in the type-preserving mode (see
+	 * {@link #setPreserveType(boolean)}).
+	 * 
+	 * @param src
+	 *            The source image of the operation.
+	 * @param interpolated
+	 *            <code>true</code> if the operation blends pixels (and so can
+	 *            create colors that are not in <code>src</code>).
+	 * 
+	 * @return <code>true</code> if the mode is enabled and <code>src</code> is
+	 *         a {@link BufferedImage#TYPE_BYTE_GRAY} image, or a
+	 *         {@link BufferedImage#TYPE_BYTE_INDEXED} or
+	 *         {@link BufferedImage#TYPE_BYTE_BINARY} image and the operation
+	 *         is not <code>interpolated</code>.
+	 * 
+	 * @since 4.3
+	 */
+	protected static boolean isPreservedType(BufferedImage src,
+			boolean interpolated) {
+		if (!preserveType)
+			return false;
+
+		switch (src.getType()) {
+		case BufferedImage.TYPE_BYTE_GRAY:
+			return true;
+
+		case BufferedImage.TYPE_BYTE_INDEXED:
+		case BufferedImage.TYPE_BYTE_BINARY:
+			return (!interpolated && src.getColorModel() instanceof IndexColorModel);
+
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Used to determine if the given color can be stored exactly in an image
+	 * of the same compact type as <code>src</code> (see
+	 * {@link #isPreservedType(BufferedImage, boolean)}).
+	 * 
+	 * @param src
+	 *            A {@link BufferedImage#TYPE_BYTE_GRAY} or indexed image.
+	 * @param color
+	 *            The color to check.
+	 * 
+	 * @return <code>true</code> if <code>color</code> is an opaque shade of
+	 *         gray for a {@link BufferedImage#TYPE_BYTE_GRAY} image or a color
+	 *         in the palette of an indexed image.
+	 * 
+	 * @since 4.3
+	 */
+	protected static boolean canRepresent(BufferedImage src, Color color) {
+		int argb = color.getRGB();
+
+		if (src.getType() == BufferedImage.TYPE_BYTE_GRAY)
+			return (color.getAlpha() == 255 && color.getRed() == color.getGreen() && color
+					.getGreen() == color.getBlue());
+
+		IndexColorModel model = (IndexColorModel) src.getColorModel();
+
+		for (int i = 0, size = model.getMapSize(); i < size; i++)
+			if (model.getRGB(i) == argb)
+				return true;
+
+		return false;
 	}
 
 	/**
@@ -2061,6 +3354,11 @@ public class Scalr {
 	 * the results can be anything from exceptions bubbling up from the depths
 	 * of Java2D to images being completely corrupted and just returned as solid
 	 * black.
+	 * <p/>
+	 * {@link BufferedImage#TYPE_3BYTE_BGR}, {@link BufferedImage#TYPE_4BYTE_ABGR}
+	 * and {@link BufferedImage#TYPE_BYTE_GRAY} images (what <code>ImageIO</code>
+	 * decodes most JPEGs and PNGs to) are converted by reading and writing the
+	 * pixel data directly instead of rendering them with Java2D.
 	 * 
 	 * @param src
 	 *            The image to copy (if necessary) into an optimally typed
@@ -2078,63 +3376,458 @@ public class Scalr {
 		if (src == null)
 			throw new IllegalArgumentException("src cannot be null");
 
-		// Calculate the type depending on the presence of alpha.
-		int type = (src.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB
-				: BufferedImage.TYPE_INT_ARGB);
-		BufferedImage result = new BufferedImage(src.getWidth(),
-				src.getHeight(), type);
+		/*
+		 * The byte-interleaved types ImageIO decodes to (JPEG, PNG) can end up
+		 * on Java2D's slow generic loops, so convert those directly.
+		 */
+		long start = Recorder.time();
+
+		if (Converter.isSupported(src))
+			return Recorder.converted(start, Converter.convert(src));
+
+		// Calculate the type depending on the presence of alpha.
+		int type = (src.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB
+				: BufferedImage.TYPE_INT_ARGB);
+		BufferedImage result = new BufferedImage(src.getWidth(),
+				src.getHeight(), type);
+
+		// Render the src image into our new optimal source.
+		Graphics g = result.getGraphics();
+		g.drawImage(src, 0, 0, null);
+		g.dispose();
+
+		return Recorder.converted(start, result);
+	}
+
+	/**
+	 * Used to get a view of the top-left <code>width</code>x<code>height</code>
+	 * region of the given interim image, cleared to transparent black so it
+	 * can be rendered into as if it was a newly created image.
+	 * 
+	 * @param image
+	 *            The interim image to reuse.
+	 * @param width
+	 *            The width of the region.
+	 * @param height
+	 *            The height of the region.
+	 * 
+	 * @return a view (sharing the same pixel data) of the cleared region.
+	 * 
+	 * @since 4.3
+	 */
+	protected static BufferedImage clearRegion(BufferedImage image, int width,
+			int height) {
+		BufferedImage region = image.getSubimage(0, 0, width, height);
+
+		/*
+		 * Opaque regions are always completely overwritten by the next
+		 * drawImage call, only regions with an alpha channel need clearing.
+		 */
+		if (region.getTransparency() != Transparency.OPAQUE) {
+			Graphics2D g = region.createGraphics();
+
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, width, height);
+			g.dispose();
+		}
+
+		return region;
+	}
+
+	/**
+	 * Used to create an interim image that imgscalr renders a partial result
+	 * into and discards (via {@link #releaseInterimImage(BufferedImage)}) once
+	 * it has been used to create the next result.
+	 * <p/>
+	 * If an {@link ImagePool} is set (see {@link #setImagePool(ImagePool)})
+	 * the image is acquired from the pool, otherwise this is identical to
+	 * {@link #createOptimalImage(BufferedImage, int, int)}. Never use this
+	 * method for an image that is returned to the caller.
+	 * 
+	 * @param src
+	 *            The source image that will be analyzed to determine the most
+	 *            optimal image type it can be rendered into.
+	 * @param width
+	 *            The width of the newly created interim image.
+	 * @param height
+	 *            The height of the newly created interim image.
+	 * 
+	 * @return a cleared image of the most optimal type for <code>src</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>width</code> or <code>height</code> are &lt; 0.
+	 * 
+	 * @since 4.3
+	 */
+	protected static BufferedImage createInterimImage(BufferedImage src,
+			int width, int height) throws IllegalArgumentException {
+		return createInterimImage(src, width, height, false);
+	}
+
+	/**
+	 * Used to create an interim image exactly like
+	 * {@link #createInterimImage(BufferedImage, int, int)}, optionally storing
+	 * translucent pixels premultiplied by their alpha.
+	 * <p/>
+	 * Java2D interpolates (bilinear or bicubic) in premultiplied space, so
+	 * when scaling from and into {@link BufferedImage#TYPE_INT_ARGB} images it
+	 * premultiplies every source pixel it reads and divides every pixel it
+	 * writes by its alpha again. Rendering a chain of scales through
+	 * {@link BufferedImage#TYPE_INT_ARGB_PRE} interim images skips those
+	 * conversions (Java2D has much faster loops for it) and the color
+	 * precision lost in every division, which shows up as dark fringes
+	 * around the edges of transparent areas after several steps.
+	 * 
+	 * @param src
+	 *            The source image that will be analyzed to determine the most
+	 *            optimal image type it can be rendered into.
+	 * @param width
+	 *            The width of the newly created interim image.
+	 * @param height
+	 *            The height of the newly created interim image.
+	 * @param premultiplied
+	 *            <code>true</code> to create a
+	 *            {@link BufferedImage#TYPE_INT_ARGB_PRE} image if
+	 *            <code>src</code> is not opaque, <code>false</code> to create a
+	 *            {@link BufferedImage#TYPE_INT_ARGB} one.
+	 * 
+	 * @return a cleared image of the most optimal type for <code>src</code>.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>width</code> or <code>height</code> are &lt; 0.
+	 * 
+	 * @since 4.3
+	 */
+	protected static BufferedImage createInterimImage(BufferedImage src,
+			int width, int height, boolean premultiplied)
+			throws IllegalArgumentException {
+		ImagePool pool = imagePool;
+		boolean opaque = (src.getTransparency() == Transparency.OPAQUE);
+
+		// Pools only hold packed-int images.
+		if (isPreservedType(src, true))
+			return createResultImage(src, width, height, true);
+		if (pool == null && (opaque || !premultiplied))
+			return createOptimalImage(src, width, height);
+
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("width [" + width
+					+ "] and height [" + height + "] must be > 0");
+
+		int type = (opaque ? BufferedImage.TYPE_INT_RGB
+				: (premultiplied ? BufferedImage.TYPE_INT_ARGB_PRE
+						: BufferedImage.TYPE_INT_ARGB));
+
+		return (pool == null ? Recorder.allocated(new BufferedImage(width,
+				height, type)) : pool.acquire(width, height, type));
+	}
+
+	/**
+	 * Used to discard an interim image created by imgscalr once it is no
+	 * longer needed: the image is released back to the {@link ImagePool} if
+	 * one is set, otherwise it is flushed.
+	 * 
+	 * @param image
+	 *            The interim image to discard. This must never be an image
+	 *            supplied by (or returned to) the caller.
+	 * 
+	 * @since 4.3
+	 */
+	protected static void releaseInterimImage(BufferedImage image) {
+		ImagePool pool = imagePool;
+
+		if (pool == null)
+			image.flush();
+		else
+			pool.release(image);
+	}
+
+	/**
+	 * Used to determine the scaling {@link Method} that is best suited for
+	 * scaling the image to the targeted dimensions.
+	 * <p/>
+	 * This method is intended to be used to select a specific scaling
+	 * {@link Method} when a {@link Method#AUTOMATIC} method is specified. This
+	 * method utilizes the {@link Scalr#THRESHOLD_QUALITY_BALANCED} and
+	 * {@link Scalr#THRESHOLD_BALANCED_SPEED} thresholds when selecting which
+	 * method should be used by comparing the primary dimension (width or
+	 * height) against the threshold and seeing where the image falls. The
+	 * primary dimension is determined by looking at the orientation of the
+	 * image: landscape or square images use their width and portrait-oriented
+	 * images use their height.
+	 * 
+	 * @param targetWidth
+	 *            The target width for the scaled image.
+	 * @param targetHeight
+	 *            The target height for the scaled image.
+	 * @param ratio
+	 *            A height/width ratio used to determine the orientation of the
+	 *            image so the primary dimension (width or height) can be
+	 *            selected to test if it is greater than or less than a
+	 *            particular threshold.
+	 * 
+	 * @return the fastest {@link Method} suited for scaling the image to the
+	 *         specified dimensions while maintaining a good-looking result.
+	 */
+	protected static Method determineScalingMethod(int targetWidth,
+			int targetHeight, float ratio) {
+		// Get the primary dimension based on the orientation of the image
+		int length = (ratio <= 1 ? targetWidth : targetHeight);
+
+		// Default to speed
+		Method result = Method.SPEED;
+
+		// Figure out which scalingMethod should be used
+		if (length <= Scalr.THRESHOLD_QUALITY_BALANCED)
+			result = Method.QUALITY;
+		else if (length <= Scalr.THRESHOLD_BALANCED_SPEED)
+			result = Method.BALANCED;
+
+		if (DEBUG)
+			log(2, "AUTOMATIC scaling method selected: %s", result.name());
+
+		return result;
+	}
+
+	/**
+	 * Used to determine the dimensions an image of the given size is scaled
+	 * to when a resize to <code>targetWidth</code>x<code>targetHeight</code>
+	 * with the given {@link Mode} is requested; honoring the image's
+	 * proportions unless {@link Mode#FIT_EXACT} is used.
+	 * 
+	 * @param currentWidth
+	 *            The width of the image that will be scaled.
+	 * @param currentHeight
+	 *            The height of the image that will be scaled.
+	 * @param resizeMode
+	 *            The mode used to calculate the target dimensions.
+	 * @param targetWidth
+	 *            The requested width.
+	 * @param targetHeight
+	 *            The requested height.
+	 * 
+	 * @return a 2-element array containing the target width and height or
+	 *         <code>null</code> if the image already has the requested
+	 *         dimensions and no scaling needs to be done.
+	 * 
+	 * @since 4.3
+	 */
+	protected static int[] determineTargetDimensions(int currentWidth,
+			int currentHeight, Mode resizeMode, int targetWidth,
+			int targetHeight) {
+		// <= 1 is a square or landscape-oriented image, > 1 is a portrait.
+		float ratio = ((float) currentHeight / (float) currentWidth);
+
+		if (resizeMode == Mode.FIT_EXACT) {
+			if (DEBUG)
+				log(1,
+						"Resize Mode FIT_EXACT used, no width/height checking or re-calculation will be done.");
+		} else if (resizeMode == Mode.BEST_FIT_BOTH) {
+			float requestedHeightScaling = ((float) targetHeight / (float) currentHeight);
+			float requestedWidthScaling = ((float) targetWidth / (float) currentWidth);
+			float actualScaling = Math.min(requestedHeightScaling, requestedWidthScaling);
+
+			targetHeight = Math.round((float) currentHeight * actualScaling);
+			targetWidth = Math.round((float) currentWidth * actualScaling);
+
+			if (targetHeight == currentHeight && targetWidth == currentWidth)
+				return null;
+
+			if (DEBUG)
+				log(1, "Auto-Corrected width and height based on scalingRatio %d.", actualScaling);
+		} else {
+			if ((ratio <= 1 && resizeMode == Mode.AUTOMATIC)
+					|| (resizeMode == Mode.FIT_TO_WIDTH)) {
+				// First make sure we need to do any work in the first place
+				if (targetWidth == currentWidth)
+					return null;
+
+				// Save for detailed logging (this is cheap).
+				int originalTargetHeight = targetHeight;
+
+				/*
+				 * Landscape or Square Orientation: Ignore the given height and
+				 * re-calculate a proportionally correct value based on the
+				 * targetWidth.
+				 */
+				targetHeight = (int)Math.ceil((float) targetWidth * ratio);
+
+				if (DEBUG && originalTargetHeight != targetHeight)
+					log(1,
+							"Auto-Corrected targetHeight [from=%d to=%d] to honor image proportions.",
+							originalTargetHeight, targetHeight);
+			} else {
+				// First make sure we need to do any work in the first place
+				if (targetHeight == currentHeight)
+					return null;
+
+				// Save for detailed logging (this is cheap).
+				int originalTargetWidth = targetWidth;
 
-		// Render the src image into our new optimal source.
-		Graphics g = result.getGraphics();
-		g.drawImage(src, 0, 0, null);
-		g.dispose();
+				/*
+				 * Portrait Orientation: Ignore the given width and re-calculate
+				 * a proportionally correct value based on the targetHeight.
+				 */
+				targetWidth = Math.round((float) targetHeight / ratio);
 
-		return result;
+				if (DEBUG && originalTargetWidth != targetWidth)
+					log(1,
+							"Auto-Corrected targetWidth [from=%d to=%d] to honor image proportions.",
+							originalTargetWidth, targetWidth);
+			}
+		}
+
+		return new int[] { targetWidth, targetHeight };
 	}
 
 	/**
-	 * Used to determine the scaling {@link Method} that is best suited for
-	 * scaling the image to the targeted dimensions.
-	 * <p/>
-	 * This method is intended to be used to select a specific scaling
-	 * {@link Method} when a {@link Method#AUTOMATIC} method is specified. This
-	 * method utilizes the {@link Scalr#THRESHOLD_QUALITY_BALANCED} and
-	 * {@link Scalr#THRESHOLD_BALANCED_SPEED} thresholds when selecting which
-	 * method should be used by comparing the primary dimension (width or
-	 * height) against the threshold and seeing where the image falls. The
-	 * primary dimension is determined by looking at the orientation of the
-	 * image: landscape or square images use their width and portrait-oriented
-	 * images use their height.
+	 * Used to scale the given image to the given dimensions with the given
+	 * {@link Method}, optionally rendering the result into an existing image.
 	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param scalingMethod
+	 *            The method used for scaling the image.
 	 * @param targetWidth
 	 *            The target width for the scaled image.
 	 * @param targetHeight
 	 *            The target height for the scaled image.
-	 * @param ratio
-	 *            A height/width ratio used to determine the orientation of the
-	 *            image so the primary dimension (width or height) can be
-	 *            selected to test if it is greater than or less than a
-	 *            particular threshold.
+	 * @param dest
+	 *            The image the result is rendered into (its dimensions must
+	 *            be the target dimensions) or <code>null</code> to render into
+	 *            a new image of the most optimal type.
 	 * 
-	 * @return the fastest {@link Method} suited for scaling the image to the
-	 *         specified dimensions while maintaining a good-looking result.
+	 * @return the scaled image; <code>dest</code> if one was given.
+	 * 
+	 * @since 4.3
 	 */
-	protected static Method determineScalingMethod(int targetWidth,
-			int targetHeight, float ratio) {
-		// Get the primary dimension based on the orientation of the image
-		int length = (ratio <= 1 ? targetWidth : targetHeight);
-
-		// Default to speed
-		Method result = Method.SPEED;
+	protected static BufferedImage scale(BufferedImage src,
+			Method scalingMethod, int targetWidth, int targetHeight,
+			BufferedImage dest) {
+		BufferedImage result;
+		int currentWidth = src.getWidth();
+		int currentHeight = src.getHeight();
+		float ratio = ((float) currentHeight / (float) currentWidth);
 
-		// Figure out which scalingMethod should be used
-		if (length <= Scalr.THRESHOLD_QUALITY_BALANCED)
-			result = Method.QUALITY;
-		else if (length <= Scalr.THRESHOLD_BALANCED_SPEED)
-			result = Method.BALANCED;
+		// If AUTOMATIC was specified, determine the real scaling method.
+		if (scalingMethod == Scalr.Method.AUTOMATIC)
+			scalingMethod = determineScalingMethod(targetWidth, targetHeight,
+					ratio);
 
 		if (DEBUG)
-			log(2, "AUTOMATIC scaling method selected: %s", result.name());
+			log(1, "Using Scaling Method: %s", scalingMethod);
+
+		Recorder.method(scalingMethod);
+		Checkpoint.check();
+
+		/*
+		 * Java2D converts sources of the byte-interleaved types ImageIO
+		 * decodes to on the fly while scaling, often on its slow generic
+		 * loops. When the scale is going to read every source pixel (anything
+		 * but a SPEED or BALANCED down-scale, which only sample the source)
+		 * converting the source up front with a tight loop is much cheaper.
+		 */
+		boolean java2d = (scalingMethod == Method.SPEED
+				|| scalingMethod == Method.BALANCED
+				|| scalingMethod == Method.QUALITY || scalingMethod == Method.ULTRA_QUALITY);
+		BufferedImage original = src;
+
+		if (Converter.isSupported(src)
+				&& !(java2d && isPreservedType(src, true))
+				&& ((scalingMethod != Method.SPEED && scalingMethod != Method.BALANCED) || ((long) targetWidth
+						* (long) targetHeight >= (long) currentWidth
+						* (long) currentHeight))) {
+			if (DEBUG)
+				log(1, "Converting Source Image of Type [%d]...", src.getType());
+
+			src = Recorder.converted(Recorder.time(), Converter.convert(src));
+		}
+
+		// Now we scale the image
+		if (scalingMethod == Scalr.Method.SPEED) {
+			result = scaleImage(src, (dest == null ? createResultImage(src,
+					targetWidth, targetHeight, false) : dest),
+					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		} else if (scalingMethod == Scalr.Method.BALANCED) {
+			result = scaleImage(src, (dest == null ? createResultImage(src,
+					targetWidth, targetHeight, true) : dest),
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		} else if (scalingMethod == Scalr.Method.QUALITY
+				|| scalingMethod == Scalr.Method.ULTRA_QUALITY) {
+			/*
+			 * If we are scaling up (in either width or height - since we know
+			 * the image will stay proportional we just check if either are
+			 * being scaled up), directly using a single BICUBIC will give us
+			 * better results then using Chris Campbell's incremental scaling
+			 * operation (and take a lot less time).
+			 * 
+			 * If we are scaling down, we must use the incremental scaling
+			 * algorithm for the best result.
+			 */
+			if (targetWidth > currentWidth || targetHeight > currentHeight) {
+				if (DEBUG)
+					log(1,
+							"QUALITY scale-up, a single BICUBIC scale operation will be used...");
+
+				/*
+				 * BILINEAR and BICUBIC look similar the smaller the scale jump
+				 * upwards is, if the scale is larger BICUBIC looks sharper and
+				 * less fuzzy. But most importantly we have to use BICUBIC to
+				 * match the contract of the QUALITY rendering scalingMethod.
+				 * This note is just here for anyone reading the code and
+				 * wondering how they can speed their own calls up.
+				 */
+				result = scaleImage(src, (dest == null ? createResultImage(
+						src, targetWidth, targetHeight, true) : dest),
+						RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+			} else {
+				if (DEBUG)
+					log(1,
+							"QUALITY scale-down, incremental scaling will be used...");
+
+				/*
+				 * Originally we wanted to use BILINEAR interpolation here
+				 * because it takes 1/3rd the time that the BICUBIC
+				 * interpolation does, however, when scaling large images down
+				 * to most sizes bigger than a thumbnail we witnessed noticeable
+				 * "softening" in the resultant image with BILINEAR that would
+				 * be unexpectedly annoying to a user expecting a "QUALITY"
+				 * scale of their original image. Instead BICUBIC was chosen to
+				 * honor the contract of a QUALITY scale of the original image.
+				 */
+				result = scaleImageIncrementally(src, targetWidth,
+						targetHeight, scalingMethod,
+						RenderingHints.VALUE_INTERPOLATION_BICUBIC, dest);
+			}
+		} else {
+			if (DEBUG)
+				log(1,
+						"%s resampling, a single two-pass convolution will be used...",
+						scalingMethod);
+
+			/*
+			 * The remaining methods are implemented by the pure-Java
+			 * resampler, which reaches the target size in a single horizontal
+			 * and vertical pass regardless of the scaling ratio (so there is no
+			 * need to distinguish scaling up from scaling down).
+			 */
+			result = Resampler.resample(src, dest,
+					targetWidth, targetHeight, Resampler.forMethod(scalingMethod));
+
+			/*
+			 * The resampler only works on packed-int images; copy its result
+			 * back into the compact type when preserving it.
+			 */
+			if (dest == null && isPreservedType(original, true)) {
+				BufferedImage compact = createResultImage(original,
+						targetWidth, targetHeight, true);
+				Graphics g = compact.getGraphics();
+
+				g.drawImage(result, 0, 0, null);
+				g.dispose();
+				result = compact;
+			}
+		}
 
 		return result;
 	}
@@ -2164,19 +3857,44 @@ public class Scalr {
 	protected static BufferedImage scaleImage(BufferedImage src,
 			int targetWidth, int targetHeight, Object interpolationHintValue) {
 		// Setup the rendering resources to match the source image's
-		BufferedImage result = createOptimalImage(src, targetWidth,
-				targetHeight);
+		BufferedImage result = createResultImage(src, targetWidth,
+				targetHeight, true);
+
+		// Return the scaled image to the caller.
+		return scaleImage(src, result, interpolationHintValue);
+	}
+
+	/**
+	 * Used to scale the given image to fill the given <code>result</code>
+	 * image using Java 2D.
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param result
+	 *            The image the scaled result will be rendered into; the
+	 *            image's dimensions are the target dimensions.
+	 * @param interpolationHintValue
+	 *            The {@link RenderingHints} interpolation value used to
+	 *            indicate the method that {@link Graphics2D} should use when
+	 *            scaling the image.
+	 * 
+	 * @return <code>result</code>.
+	 * 
+	 * @since 4.3
+	 */
+	protected static BufferedImage scaleImage(BufferedImage src,
+			BufferedImage result, Object interpolationHintValue) {
 		Graphics2D resultGraphics = result.createGraphics();
 
 		// Scale the image to the new buffer using the specified rendering hint.
 		resultGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
 				interpolationHintValue);
-		resultGraphics.drawImage(src, 0, 0, targetWidth, targetHeight, null);
+		resultGraphics.drawImage(src, 0, 0, result.getWidth(),
+				result.getHeight(), null);
 
 		// Just to be clean, explicitly dispose our temporary graphics object
 		resultGraphics.dispose();
 
-		// Return the scaled image to the caller.
 		return result;
 	}
 
@@ -2191,6 +3909,13 @@ public class Scalr {
 	 * added for clarity and the hard-coding of using BICUBIC interpolation as
 	 * well as the explicit "flush()" operation on the interim BufferedImage
 	 * instances to avoid resource leaking.
+	 * <p/>
+	 * Since every step is smaller than the one before it, the interim steps
+	 * are rendered back and forth between just two buffers (the first two
+	 * steps' images); every later step is written into the top-left
+	 * sub-region of the buffer the previous step was <em>not</em> read from.
+	 * Only the last step allocates an image of the exact target size, so peak
+	 * memory is two interim images regardless of the number of steps.
 	 * 
 	 * @param src
 	 *            The image that will be scaled.
@@ -2212,7 +3937,43 @@ public class Scalr {
 	protected static BufferedImage scaleImageIncrementally(BufferedImage src,
 			int targetWidth, int targetHeight, Method scalingMethod,
 			Object interpolationHintValue) {
+		return scaleImageIncrementally(src, targetWidth, targetHeight,
+				scalingMethod, interpolationHintValue, null);
+	}
+
+	/**
+	 * Used to scale the given image incrementally (see
+	 * {@link #scaleImageIncrementally(BufferedImage, int, int, Method, Object)}
+	 * ), rendering the last step into the given image.
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param targetWidth
+	 *            The target width for the scaled image.
+	 * @param targetHeight
+	 *            The target height for the scaled image.
+	 * @param scalingMethod
+	 *            The scaling method specified by the user (or calculated by
+	 *            imgscalr) to use for this incremental scaling operation.
+	 * @param interpolationHintValue
+	 *            The {@link RenderingHints} interpolation value used to
+	 *            indicate the method that {@link Graphics2D} should use when
+	 *            scaling the image.
+	 * @param dest
+	 *            The image the last step is rendered into (its dimensions
+	 *            must be the target dimensions) or <code>null</code> to render
+	 *            it into a new image of the most optimal type.
+	 * 
+	 * @return an image scaled to the given dimensions using the given rendering
+	 *         hint; <code>dest</code> if one was given.
+	 * 
+	 * @since 4.3
+	 */
+	protected static BufferedImage scaleImageIncrementally(BufferedImage src,
+			int targetWidth, int targetHeight, Method scalingMethod,
+			Object interpolationHintValue, BufferedImage dest) {
 		boolean hasReassignedSrc = false;
+		boolean lastStep = false;
 		int incrementCount = 0;
 		int currentWidth = src.getWidth();
 		int currentHeight = src.getHeight();
@@ -2249,99 +4010,153 @@ public class Scalr {
 		 */
 		int fraction = (scalingMethod == Method.ULTRA_QUALITY ? 7 : 2);
 
-		do {
-			int prevCurrentWidth = currentWidth;
-			int prevCurrentHeight = currentHeight;
+		/*
+		 * The two interim buffers the steps ping-pong between; 'next' is the
+		 * index of the one the next interim step is rendered into. Translucent
+		 * images are kept premultiplied between steps and only converted back
+		 * to straight alpha by the last step (see createInterimImage).
+		 */
+		BufferedImage[] buffers = new BufferedImage[2];
+		int next = 0;
 
-			/*
-			 * If the current width is bigger than our target, cut it in half
-			 * and sample again.
-			 */
-			if (currentWidth > targetWidth) {
-				currentWidth -= (currentWidth / fraction);
+		/*
+		 * Release the buffers however the scale ends; a cancelled step or a
+		 * failing render must not lose them to the pool.
+		 */
+		try {
+			do {
+				int prevCurrentWidth = currentWidth;
+				int prevCurrentHeight = currentHeight;
+
+				Checkpoint.check();
 
 				/*
-				 * If we cut the width too far it means we are on our last
-				 * iteration. Just set it to the target width and finish up.
+				 * If the current width is bigger than our target, cut it in half
+				 * and sample again.
 				 */
-				if (currentWidth < targetWidth)
-					currentWidth = targetWidth;
-			}
-
-			/*
-			 * If the current height is bigger than our target, cut it in half
-			 * and sample again.
-			 */
+				if (currentWidth > targetWidth) {
+					currentWidth -= (currentWidth / fraction);
 
-			if (currentHeight > targetHeight) {
-				currentHeight -= (currentHeight / fraction);
+					/*
+					 * If we cut the width too far it means we are on our last
+					 * iteration. Just set it to the target width and finish up.
+					 */
+					if (currentWidth < targetWidth)
+						currentWidth = targetWidth;
+				}
 
 				/*
-				 * If we cut the height too far it means we are on our last
-				 * iteration. Just set it to the target height and finish up.
+				 * If the current height is bigger than our target, cut it in half
+				 * and sample again.
 				 */
 
-				if (currentHeight < targetHeight)
-					currentHeight = targetHeight;
-			}
+				if (currentHeight > targetHeight) {
+					currentHeight -= (currentHeight / fraction);
 
-			/*
-			 * Stop when we cannot incrementally step down anymore.
-			 * 
-			 * This used to use a || condition, but that would cause problems
-			 * when using FIT_EXACT such that sometimes the width OR height
-			 * would not change between iterations, but the other dimension
-			 * would (e.g. resizing 500x500 to 500x250).
-			 * 
-			 * Now changing this to an && condition requires that both
-			 * dimensions do not change between a resize iteration before we
-			 * consider ourselves done.
-			 */
-			if (prevCurrentWidth == currentWidth
-					&& prevCurrentHeight == currentHeight)
-				break;
+					/*
+					 * If we cut the height too far it means we are on our last
+					 * iteration. Just set it to the target height and finish up.
+					 */
 
-			if (DEBUG)
-				log(2, "Scaling from [%d x %d] to [%d x %d]", prevCurrentWidth,
+					if (currentHeight < targetHeight)
+						currentHeight = targetHeight;
+				}
+
+				/*
+				 * Stop when we cannot incrementally step down anymore.
+				 * 
+				 * This used to use a || condition, but that would cause problems
+				 * when using FIT_EXACT such that sometimes the width OR height
+				 * would not change between iterations, but the other dimension
+				 * would (e.g. resizing 500x500 to 500x250).
+				 * 
+				 * Now changing this to an && condition requires that both
+				 * dimensions do not change between a resize iteration before we
+				 * consider ourselves done.
+				 */
+				if (prevCurrentWidth == currentWidth
+						&& prevCurrentHeight == currentHeight)
+					break;
+
+				if (DEBUG)
+					log(2, "Scaling from [%d x %d] to [%d x %d]", prevCurrentWidth,
+							prevCurrentHeight, currentWidth, currentHeight);
+
+				/*
+				 * The step that leaves no dimension above its target is the last
+				 * one; its result is handed back to the caller and must be a
+				 * normal allocation. Every other step renders into an interim
+				 * image that can come from the pool.
+				 */
+				lastStep = (currentWidth <= targetWidth && currentHeight <= targetHeight);
+
+				BufferedImage incrementalImage;
+				Object stepEvent = Flight.beginStep();
+
+				if (lastStep) {
+					// Render the final scaled image.
+					incrementalImage = (dest == null ? scaleImage(src,
+							currentWidth, currentHeight, interpolationHintValue)
+							: scaleImage(src, dest, interpolationHintValue));
+				} else {
+					/*
+					 * Render the interim image into the next buffer; the first two
+					 * steps create the buffers, every later step is smaller and
+					 * reuses the top-left region of the buffer we are not reading
+					 * from.
+					 */
+					if (buffers[next] == null) {
+						buffers[next] = createInterimImage(src, currentWidth,
+								currentHeight, true);
+						incrementalImage = buffers[next];
+					} else
+						incrementalImage = clearRegion(buffers[next], currentWidth,
+								currentHeight);
+
+					incrementalImage = scaleImage(src, incrementalImage,
+							interpolationHintValue);
+					next ^= 1;
+				}
+
+				Flight.endStep(stepEvent, incrementCount + 1, prevCurrentWidth,
 						prevCurrentHeight, currentWidth, currentHeight);
 
-			// Render the incremental scaled image.
-			BufferedImage incrementalImage = scaleImage(src, currentWidth,
-					currentHeight, interpolationHintValue);
+				/*
+				 * Now treat our incremental partially scaled image as the src image
+				 * and cycle through our loop again to do another incremental
+				 * scaling of it (if necessary).
+				 */
+				src = incrementalImage;
+
+				/*
+				 * Keep track of us re-assigning the original caller-supplied source
+				 * image with one of our interim BufferedImages.
+				 */
+				hasReassignedSrc = true;
 
-			/*
-			 * Before re-assigning our interim (partially scaled)
-			 * incrementalImage to be the new src image before we iterate around
-			 * again to process it down further, we want to flush() the previous
-			 * src image IF (and only IF) it was one of our own temporary
-			 * BufferedImages created during this incremental down-sampling
-			 * cycle. If it wasn't one of ours, then it was the original
-			 * caller-supplied BufferedImage in which case we don't want to
-			 * flush() it and just leave it alone.
-			 */
-			if (hasReassignedSrc)
-				src.flush();
+				// Track how many times we go through this cycle to scale the image.
+				incrementCount++;
+				Recorder.step();
+			} while (currentWidth != targetWidth || currentHeight != targetHeight);
 
-			/*
-			 * Now treat our incremental partially scaled image as the src image
-			 * and cycle through our loop again to do another incremental
-			 * scaling of it (if necessary).
-			 */
-			src = incrementalImage;
+			if (DEBUG)
+				log(2, "Incrementally Scaled Image in %d steps.", incrementCount);
 
 			/*
-			 * Keep track of us re-assigning the original caller-supplied source
-			 * image with one of our interim BufferedImages so we know when to
-			 * explicitly flush the interim "src" on the next cycle through.
+			 * If the loop stopped early (a dimension that cannot be stepped down
+			 * any further) the last result is a region of one of our interim
+			 * buffers; it must never be handed back to the caller, so copy it out
+			 * before releasing the buffers.
 			 */
-			hasReassignedSrc = true;
-
-			// Track how many times we go through this cycle to scale the image.
-			incrementCount++;
-		} while (currentWidth != targetWidth || currentHeight != targetHeight);
-
-		if (DEBUG)
-			log(2, "Incrementally Scaled Image in %d steps.", incrementCount);
+			if (dest != null && src != dest)
+				src = scaleImage(src, dest, interpolationHintValue);
+			else if (hasReassignedSrc && !lastStep)
+				src = copyToOptimalImage(src);
+		} finally {
+			for (BufferedImage buffer : buffers)
+				if (buffer != null)
+					releaseInterimImage(buffer);
+		}
 
 		/*
 		 * Once the loop has exited, the src image argument is now our scaled
@@ -2349,4 +4164,160 @@ public class Scalr {
 		 */
 		return src;
 	}
+
+	/**
+	 * Used to determine if a size of a
+	 * {@link #resizeAll(BufferedImage, Method, Mode, int[], int[], BufferedImageOp...)}
+	 * call is scaled down incrementally and so can be finished from a step of
+	 * a shared ladder (see
+	 * {@link #scaleLadder(BufferedImage, Method, int[][], Method[], BufferedImage[])}
+	 * ).
+	 * 
+	 * @param scalingMethod
+	 *            The (determined) method of the size.
+	 * @param currentWidth
+	 *            The width of the source image.
+	 * @param currentHeight
+	 *            The height of the source image.
+	 * @param dimensions
+	 *            The target dimensions of the size.
+	 * 
+	 * @return <code>true</code> if the size is a {@link Method#QUALITY} or
+	 *         {@link Method#ULTRA_QUALITY} down-scale.
+	 * 
+	 * @since 4.3
+	 */
+	protected static boolean isLaddered(Method scalingMethod,
+			int currentWidth, int currentHeight, int[] dimensions) {
+		return ((scalingMethod == Method.QUALITY || scalingMethod == Method.ULTRA_QUALITY)
+				&& dimensions[0] <= currentWidth && dimensions[1] <= currentHeight);
+	}
+
+	/**
+	 * Used to scale the given image to every size of the given method (see
+	 * {@link #isLaddered(Method, int, int, int[])}) while walking the
+	 * incremental steps of
+	 * {@link #scaleImageIncrementally(BufferedImage, int, int, Method, Object)}
+	 * only once.
+	 * <p/>
+	 * The sizes are visited from the largest to the smallest. The ladder takes
+	 * every step that stays at or above the current size in both dimensions
+	 * (the same steps an individual incremental scale to that size takes);
+	 * the size is then finished from the last step with an ordinary
+	 * incremental scale (normally a single step) and the walk continues from
+	 * the same step towards the next size. Only the current step is kept
+	 * around, each one is released as soon as the next one is rendered.
+	 * 
+	 * @param src
+	 *            The image that will be scaled.
+	 * @param scalingMethod
+	 *            {@link Method#QUALITY} or {@link Method#ULTRA_QUALITY}.
+	 * @param dimensions
+	 *            The target dimensions of every size, <code>null</code> for
+	 *            sizes that need no scaling.
+	 * @param methods
+	 *            The (determined) method of every size.
+	 * @param results
+	 *            The array every scaled size is stored into; sizes the
+	 *            ladder cannot serve are left <code>null</code>.
+	 * 
+	 * @since 4.3
+	 */
+	protected static void scaleLadder(BufferedImage src, Method scalingMethod,
+			int[][] dimensions, Method[] methods, BufferedImage[] results) {
+		int currentWidth = src.getWidth();
+		int currentHeight = src.getHeight();
+		int fraction = (scalingMethod == Method.ULTRA_QUALITY ? 7 : 2);
+		List<Integer> sizes = new ArrayList<Integer>();
+
+		for (int i = 0; i < dimensions.length; i++)
+			if (dimensions[i] != null
+					&& methods[i] == scalingMethod
+					&& isLaddered(methods[i], currentWidth, currentHeight,
+							dimensions[i]))
+				sizes.add(Integer.valueOf(i));
+
+		final int[][] targets = dimensions;
+
+		// Largest size first.
+		Collections.sort(sizes, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				long areaA = (long) targets[a.intValue()][0]
+						* targets[a.intValue()][1];
+				long areaB = (long) targets[b.intValue()][0]
+						* targets[b.intValue()][1];
+
+				return (areaA > areaB ? -1 : (areaA == areaB ? 0 : 1));
+			}
+		});
+
+		if (DEBUG)
+			log(1, "%s ladder serving %d sizes...", scalingMethod, sizes.size());
+
+		BufferedImage step = src;
+		int stepCount = 0;
+
+		try {
+			for (Integer size : sizes) {
+				int index = size.intValue();
+				int targetWidth = dimensions[index][0];
+				int targetHeight = dimensions[index][1];
+
+				/*
+				 * FIT_EXACT sizes of different proportions can need a larger
+				 * width or height than a step taken for a larger size; leave
+				 * those to be scaled from the source on their own.
+				 */
+				if (currentWidth < targetWidth || currentHeight < targetHeight)
+					continue;
+
+				/*
+				 * Climb down while the next step leaves both dimensions at or
+				 * above this size without reaching it; the step that reaches
+				 * (or would cross) it belongs to this size alone.
+				 */
+				while (true) {
+					int nextWidth = (currentWidth > targetWidth ? currentWidth
+							- (currentWidth / fraction) : currentWidth);
+					int nextHeight = (currentHeight > targetHeight ? currentHeight
+							- (currentHeight / fraction) : currentHeight);
+
+					if (nextWidth < targetWidth || nextHeight < targetHeight
+							|| (nextWidth == targetWidth && nextHeight == targetHeight)
+							|| (nextWidth == currentWidth && nextHeight == currentHeight))
+						break;
+
+					Checkpoint.check();
+
+					if (DEBUG)
+						log(2, "Ladder step from [%d x %d] to [%d x %d]",
+								currentWidth, currentHeight, nextWidth,
+								nextHeight);
+
+					Object stepEvent = Flight.beginStep();
+					BufferedImage next = scaleImage(step, createInterimImage(
+							step, nextWidth, nextHeight, true),
+							RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+
+					Flight.endStep(stepEvent, ++stepCount, currentWidth,
+							currentHeight, nextWidth, nextHeight);
+					Recorder.step();
+
+					if (step != src)
+						releaseInterimImage(step);
+
+					step = next;
+					currentWidth = nextWidth;
+					currentHeight = nextHeight;
+				}
+
+				results[index] = scaleImageIncrementally(step, targetWidth,
+						targetHeight, scalingMethod,
+						RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+			}
+		} finally {
+			if (step != src)
+				releaseInterimImage(step);
+		}
+	}
 }
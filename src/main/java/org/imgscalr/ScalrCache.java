@@ -0,0 +1,909 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.ConvolveOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.DirectColorModel;
+import java.awt.image.ImagingOpException;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Kernel;
+import java.awt.image.Raster;
+import java.awt.image.RescaleOp;
+import java.awt.image.SampleModel;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+
+/**
+ * An optional, content-addressed cache in front of the {@link Scalr} resize,
+ * crop and rotate operations, for servers that see the same request over and
+ * over again (retries, CDN misses, several replicas rendering the same
+ * thumbnail).
+ * <p/>
+ * Every result is keyed on a 64-bit hash of the source's pixel data (and
+ * geometry, type and palette) plus a canonical encoding of the operation and
+ * its arguments, so two different {@link BufferedImage} instances decoded
+ * from the same file share their results. Hashing is a single linear pass
+ * over the source, a fraction of the cost of any scale.
+ * <p/>
+ * Optional ops are part of the key too. The {@link Scalr} <code>OP_*</code>
+ * constants and any {@link ConvolveOp}s and {@link RescaleOp}s without
+ * rendering hints are encoded by value;
+ * calls with any other op (which can't be compared) bypass the cache and
+ * always run the operation.
+ * <p/>
+ * Every image handed out is the caller's own: results are copied when they
+ * are stored and again for every hit. Operations that return the source
+ * itself (nothing to do) are not cached.
+ * <h3>Tiers</h3>
+ * Results are kept in memory up to <code>maxBytes</code>, evicting the least
+ * recently used ones first (weighted by their pixel data; a result bigger
+ * than the cap on its own is never retained).
+ * <p/>
+ * If a directory is given, packed-int results (see
+ * {@link BufferedImage#TYPE_INT_RGB}, {@link BufferedImage#TYPE_INT_ARGB} and
+ * {@link BufferedImage#TYPE_INT_ARGB_PRE}) are also written through to one
+ * file per result, up to <code>maxDiskBytes</code> (least recently used files
+ * are deleted first). A memory miss is served by memory-mapping the file and
+ * copying its pixels straight into a new image. The files are named after
+ * the key, so the directory can be shared by replicas and survives restarts:
+ * files found in it are indexed (oldest first) when the cache is created.
+ * Files are written to a temporary file and renamed, readers never see a
+ * partial result.
+ * <p/>
+ * This class is thread-safe. Lookups and bookkeeping hold the cache's lock,
+ * operations and disk I/O run concurrently; two threads missing the same key
+ * at the same time both run the operation.
+ * <p/>
+ * <strong>NOTE</strong>: The 64-bit source hash is not cryptographic. Two
+ * different sources colliding (and so sharing results) is astronomically
+ * unlikely for accidental data, but don't share a cache between sources
+ * supplied by mutually untrusted parties.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class ScalrCache {
+	/**
+	 * Magic number at the start of every cache file ("ISC1").
+	 */
+	protected static final int MAGIC = 0x49534331;
+
+	/**
+	 * The suffix of every cache file.
+	 */
+	protected static final String SUFFIX = ".img";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * <code>sun.misc.Unsafe</code> and its <code>invokeCleaner</code> method
+	 * (Java 9 and later), <code>null</code> if not available.
+	 */
+	private static final Object UNSAFE;
+	private static final java.lang.reflect.Method UNSAFE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		java.lang.reflect.Method cleaner = null;
+
+		try {
+			Class<?> type = Class.forName("sun.misc.Unsafe");
+			Field field = type.getDeclaredField("theUnsafe");
+
+			field.setAccessible(true);
+			cleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+			unsafe = field.get(null);
+		} catch (Exception e) {
+			cleaner = null;
+		}
+
+		UNSAFE = unsafe;
+		UNSAFE_CLEANER = cleaner;
+	}
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	protected final long maxBytes;
+	protected final File directory;
+	protected final long maxDiskBytes;
+
+	/**
+	 * The results retained in memory, least recently used first.
+	 */
+	protected final LinkedHashMap<Key, BufferedImage> memory = new LinkedHashMap<Key, BufferedImage>(
+			16, 0.75f, true);
+
+	/**
+	 * The size of every cache file by name, least recently used first.
+	 */
+	protected final LinkedHashMap<String, Long> files = new LinkedHashMap<String, Long>(
+			16, 0.75f, true);
+
+	protected long retainedBytes;
+	protected long diskBytes;
+	protected long hitCount;
+	protected long diskHitCount;
+	protected long missCount;
+
+	/**
+	 * Creates a new memory-only cache that will retain at most
+	 * <code>maxBytes</code> of results.
+	 * 
+	 * @param maxBytes
+	 *            The memory cap of the cache in bytes.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>maxBytes</code> is &lt; 0.
+	 */
+	public ScalrCache(long maxBytes) throws IllegalArgumentException {
+		this(maxBytes, null, 0);
+	}
+
+	/**
+	 * Creates a new cache that will retain at most <code>maxBytes</code> of
+	 * results in memory and at most <code>maxDiskBytes</code> in files in the
+	 * given directory.
+	 * 
+	 * @param maxBytes
+	 *            The memory cap of the cache in bytes.
+	 * @param directory
+	 *            The directory the cache files are kept in (created if it
+	 *            doesn't exist) or <code>null</code> for a memory-only cache.
+	 * @param maxDiskBytes
+	 *            The disk cap of the cache in bytes.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>maxBytes</code> or <code>maxDiskBytes</code> is
+	 *             &lt; 0.
+	 * @throws IllegalArgumentException
+	 *             if <code>directory</code> is not a directory and can't be
+	 *             created.
+	 */
+	public ScalrCache(long maxBytes, File directory, long maxDiskBytes)
+			throws IllegalArgumentException {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes [" + maxBytes
+					+ "] must be >= 0");
+		if (maxDiskBytes < 0)
+			throw new IllegalArgumentException("maxDiskBytes [" + maxDiskBytes
+					+ "] must be >= 0");
+		if (directory != null && !directory.isDirectory()
+				&& !directory.mkdirs())
+			throw new IllegalArgumentException("directory [" + directory
+					+ "] is not a directory and could not be created");
+
+		this.maxBytes = maxBytes;
+		this.directory = directory;
+		this.maxDiskBytes = maxDiskBytes;
+
+		if (directory != null)
+			index();
+	}
+
+	/**
+	 * Cached version of
+	 * {@link Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}.
+	 * 
+	 * @return a new image, the caller's own, or <code>src</code> if no
+	 *         scaling was needed and no <code>ops</code> were given.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             for the same reasons the {@link Scalr} operation does.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 */
+	public BufferedImage resize(final BufferedImage src,
+			final Method scalingMethod, final Mode resizeMode,
+			final int targetWidth, final int targetHeight,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return get(src, "resize:" + scalingMethod + ':' + resizeMode + ':'
+				+ targetWidth + 'x' + targetHeight, ops, new Operation() {
+			public BufferedImage run() {
+				return Scalr.resize(src, scalingMethod, resizeMode,
+						targetWidth, targetHeight, ops);
+			}
+		});
+	}
+
+	/**
+	 * Cached version of
+	 * {@link Scalr#resize(BufferedImage, Method, int, BufferedImageOp...)}.
+	 * 
+	 * @return a new image, the caller's own, or <code>src</code> if no
+	 *         scaling was needed and no <code>ops</code> were given.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             for the same reasons the {@link Scalr} operation does.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 */
+	public BufferedImage resize(BufferedImage src, Method scalingMethod,
+			int targetSize, BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return resize(src, scalingMethod, Mode.AUTOMATIC, targetSize,
+				targetSize, ops);
+	}
+
+	/**
+	 * Cached version of
+	 * {@link Scalr#crop(BufferedImage, int, int, int, int, BufferedImageOp...)}.
+	 * 
+	 * @return a new image, the caller's own.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             for the same reasons the {@link Scalr} operation does.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 */
+	public BufferedImage crop(final BufferedImage src, final int x,
+			final int y, final int width, final int height,
+			final BufferedImageOp... ops) throws IllegalArgumentException,
+			ImagingOpException {
+		return get(src, "crop:" + x + ',' + y + ':' + width + 'x' + height,
+				ops, new Operation() {
+					public BufferedImage run() {
+						return Scalr.crop(src, x, y, width, height, ops);
+					}
+				});
+	}
+
+	/**
+	 * Cached version of
+	 * {@link Scalr#rotate(BufferedImage, Rotation, BufferedImageOp...)}.
+	 * 
+	 * @return a new image, the caller's own.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             for the same reasons the {@link Scalr} operation does.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 */
+	public BufferedImage rotate(final BufferedImage src,
+			final Rotation rotation, final BufferedImageOp... ops)
+			throws IllegalArgumentException, ImagingOpException {
+		return get(src, "rotate:" + rotation, ops, new Operation() {
+			public BufferedImage run() {
+				return Scalr.rotate(src, rotation, ops);
+			}
+		});
+	}
+
+	/**
+	 * @return the number of bytes worth of results retained in memory.
+	 */
+	public synchronized long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	/**
+	 * @return the number of bytes worth of cache files in the directory.
+	 */
+	public synchronized long getDiskBytes() {
+		return diskBytes;
+	}
+
+	/**
+	 * @return the number of calls served from memory.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of calls served from a cache file.
+	 */
+	public synchronized long getDiskHitCount() {
+		return diskHitCount;
+	}
+
+	/**
+	 * @return the number of cacheable calls that had to run the operation.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Drops every result retained in memory; cache files are kept.
+	 */
+	public synchronized void clear() {
+		memory.clear();
+		retainedBytes = 0;
+	}
+
+	/**
+	 * An operation run on a cache miss.
+	 */
+	protected interface Operation {
+		public BufferedImage run();
+	}
+
+	/**
+	 * The key of a cached result: the hash of the source and the canonical
+	 * encoding of the operation.
+	 */
+	protected static final class Key {
+		protected final long hash;
+		protected final String operation;
+
+		protected Key(long hash, String operation) {
+			this.hash = hash;
+			this.operation = operation;
+		}
+
+		/**
+		 * @return the name of the cache file of this key.
+		 */
+		protected String getFileName() {
+			byte[] bytes = operation.getBytes(UTF_8);
+
+			return Long.toHexString(hash) + '-'
+					+ Long.toHexString(hash(FNV_OFFSET, bytes)) + SUFFIX;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (hash ^ (hash >>> 32)) * 31 + operation.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+
+			return (hash == other.hash && operation.equals(other.operation));
+		}
+	}
+
+	/**
+	 * Used to look the result of an operation up in both tiers, running and
+	 * storing it on a miss.
+	 * 
+	 * @param src
+	 *            The source image of the operation.
+	 * @param operation
+	 *            The canonical encoding of the operation and its arguments
+	 *            (but <code>ops</code>).
+	 * @param ops
+	 *            The optional ops of the operation.
+	 * @param task
+	 *            Runs the operation.
+	 * 
+	 * @return the result, the caller's own.
+	 */
+	protected BufferedImage get(BufferedImage src, String operation,
+			BufferedImageOp[] ops, Operation task)
+			throws IllegalArgumentException, ImagingOpException {
+		if (src == null)
+			throw new IllegalArgumentException("src cannot be null");
+
+		String encodedOps = encode(ops);
+
+		// Ops we can't compare can't be part of a key.
+		if (encodedOps == null)
+			return task.run();
+
+		/*
+		 * The type-preserving mode changes the type of some results, so it
+		 * is part of every key.
+		 */
+		Key key = new Key(hash(src), operation + encodedOps
+				+ (Scalr.isPreserveType() ? ":preserve" : ""));
+		BufferedImage cached;
+		String name = null;
+
+		synchronized (this) {
+			cached = memory.get(key);
+
+			if (cached != null)
+				hitCount++;
+			else if (directory != null) {
+				name = key.getFileName();
+
+				// get (not containsKey) marks the file as recently used.
+				if (files.get(name) == null)
+					name = null;
+			}
+		}
+
+		if (cached != null)
+			return copy(cached);
+
+		if (name != null) {
+			cached = read(key, name);
+
+			if (cached != null) {
+				synchronized (this) {
+					diskHitCount++;
+				}
+
+				retain(key, copy(cached));
+				return cached;
+			}
+		}
+
+		synchronized (this) {
+			missCount++;
+		}
+
+		BufferedImage result = task.run();
+
+		// Nothing was done, don't cache the source itself.
+		if (result == src)
+			return result;
+
+		BufferedImage stored = copy(result);
+
+		retain(key, stored);
+
+		if (directory != null)
+			write(key, stored);
+
+		return result;
+	}
+
+	/**
+	 * Used to retain a result in memory, evicting the least recently used
+	 * results until the cache fits its cap again.
+	 */
+	protected synchronized void retain(Key key, BufferedImage image) {
+		long bytes = Recorder.bytes(image);
+
+		if (bytes > maxBytes)
+			return;
+
+		BufferedImage previous = memory.put(key, image);
+
+		if (previous != null)
+			retainedBytes -= Recorder.bytes(previous);
+
+		retainedBytes += bytes;
+
+		for (Iterator<BufferedImage> i = memory.values().iterator(); retainedBytes > maxBytes;) {
+			BufferedImage evicted = i.next();
+
+			i.remove();
+			retainedBytes -= Recorder.bytes(evicted);
+		}
+	}
+
+	/**
+	 * Used to index the cache files already in the directory, oldest first.
+	 */
+	protected void index() {
+		File[] existing = directory.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().endsWith(SUFFIX);
+			}
+		});
+
+		if (existing == null)
+			return;
+
+		Arrays.sort(existing, new Comparator<File>() {
+			public int compare(File a, File b) {
+				long modifiedA = a.lastModified();
+				long modifiedB = b.lastModified();
+
+				return (modifiedA < modifiedB ? -1
+						: (modifiedA == modifiedB ? 0 : 1));
+			}
+		});
+
+		for (File file : existing)
+			indexed(file.getName(), file.length());
+	}
+
+	/**
+	 * Used to add a cache file to the index, deleting the least recently used
+	 * files until the directory fits its cap again.
+	 */
+	protected synchronized void indexed(String name, long bytes) {
+		Long previous = files.put(name, Long.valueOf(bytes));
+
+		if (previous != null)
+			diskBytes -= previous.longValue();
+
+		diskBytes += bytes;
+
+		for (Iterator<Map.Entry<String, Long>> i = files.entrySet()
+				.iterator(); diskBytes > maxDiskBytes;) {
+			Map.Entry<String, Long> evicted = i.next();
+
+			i.remove();
+			diskBytes -= evicted.getValue().longValue();
+			new File(directory, evicted.getKey()).delete();
+		}
+	}
+
+	/**
+	 * Used to drop a cache file that can't be read from the index.
+	 */
+	protected synchronized void unindexed(String name) {
+		Long previous = files.remove(name);
+
+		if (previous != null)
+			diskBytes -= previous.longValue();
+	}
+
+	/**
+	 * Used to write a packed-int result to its cache file (via a temporary
+	 * file, renamed once complete). Any other image, and any I/O failure, is
+	 * silently skipped; the cache file is only an optimization.
+	 */
+	protected void write(Key key, BufferedImage image) {
+		if (!Rasters.isPackedInt(image))
+			return;
+
+		byte[] operation = key.operation.getBytes(UTF_8);
+		int width = image.getWidth();
+		int height = image.getHeight();
+		long bytes = 24L + operation.length + 4L * width * height;
+
+		if (bytes > maxDiskBytes)
+			return;
+
+		String name = key.getFileName();
+		File file = new File(directory, name);
+		File temp = null;
+
+		try {
+			temp = File.createTempFile("scalr", ".tmp", directory);
+
+			RandomAccessFile out = new RandomAccessFile(temp, "rw");
+
+			try {
+				FileChannel channel = out.getChannel();
+				ByteBuffer header = ByteBuffer.allocate(24 + operation.length);
+
+				header.putInt(MAGIC).putInt(image.getType()).putInt(width)
+						.putInt(height).putLong(key.hash).put(operation);
+				// Through Buffer, JDK 9+ covariant overrides break Java 8.
+				((Buffer) header).flip();
+				channel.write(header);
+
+				ByteBuffer row = ByteBuffer.allocate(4 * width);
+				int[] data = Rasters.data(image);
+				int stride = Rasters.stride(image);
+
+				for (int y = 0, i = Rasters.offset(image); y < height; y++, i += stride) {
+					((Buffer) row).clear();
+					row.asIntBuffer().put(data, i, width);
+					channel.write(row);
+				}
+			} finally {
+				out.close();
+			}
+
+			if (!temp.renameTo(file)) {
+				// Windows won't rename over an existing file.
+				file.delete();
+
+				if (!temp.renameTo(file))
+					return;
+			}
+
+			temp = null;
+			indexed(name, bytes);
+		} catch (IOException e) {
+			// Caching is best-effort; the caller already has the result.
+		} finally {
+			if (temp != null)
+				temp.delete();
+		}
+	}
+
+	/**
+	 * Used to read a result from its memory-mapped cache file.
+	 * 
+	 * @return the result or <code>null</code> if the file is gone or doesn't
+	 *         belong to the key.
+	 */
+	protected BufferedImage read(Key key, String name) {
+		File file = new File(directory, name);
+		byte[] operation = key.operation.getBytes(UTF_8);
+
+		try {
+			RandomAccessFile in = new RandomAccessFile(file, "r");
+
+			FileChannel channel = in.getChannel();
+			MappedByteBuffer buffer = null;
+
+			try {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+						channel.size());
+
+				if (buffer.remaining() < 24 + operation.length
+						|| buffer.getInt() != MAGIC)
+					throw new IOException("not a cache file");
+
+				int type = buffer.getInt();
+				int width = buffer.getInt();
+				int height = buffer.getInt();
+				byte[] stored = new byte[operation.length];
+
+				if (buffer.getLong() != key.hash
+						|| !Arrays.equals(operation, stored(buffer, stored))
+						|| buffer.remaining() != 4L * width * height)
+					throw new IOException("cache file of another key");
+
+				BufferedImage image = new BufferedImage(width, height, type);
+
+				buffer.asIntBuffer().get(Rasters.data(image), 0,
+						width * height);
+
+				return image;
+			} finally {
+				in.close();
+
+				if (buffer != null)
+					unmap(buffer);
+			}
+		} catch (IOException e) {
+			unindexed(name);
+		} catch (RuntimeException e) {
+			// e.g. an invalid type or size in a corrupt file.
+			unindexed(name);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Used to release the mapping of a cache file right away instead of
+	 * whenever the GC collects the buffer; until then the file can't be
+	 * deleted or replaced on Windows, which would defeat eviction. There is
+	 * no public API for this, so it is best-effort: <code>Unsafe</code>'s
+	 * <code>invokeCleaner</code> on Java 9 and later, the buffer's own
+	 * <code>cleaner()</code> on Java 8. The buffer must not be used again.
+	 */
+	protected static void unmap(MappedByteBuffer buffer) {
+		try {
+			if (UNSAFE_CLEANER != null) {
+				UNSAFE_CLEANER.invoke(UNSAFE, buffer);
+				return;
+			}
+
+			java.lang.reflect.Method cleaner = buffer.getClass().getMethod(
+					"cleaner");
+
+			cleaner.setAccessible(true);
+
+			Object instance = cleaner.invoke(buffer);
+
+			if (instance != null)
+				instance.getClass().getMethod("clean").invoke(instance);
+		} catch (Exception e) {
+			// Left for the GC to unmap.
+		}
+	}
+
+	private static byte[] stored(ByteBuffer buffer, byte[] stored) {
+		buffer.get(stored);
+		return stored;
+	}
+
+	/**
+	 * Used to copy an image into a new image of the same type that shares no
+	 * pixel data with it.
+	 */
+	protected static BufferedImage copy(BufferedImage image) {
+		if (Rasters.isPackedInt(image)) {
+			BufferedImage result = new BufferedImage(image.getWidth(),
+					image.getHeight(), image.getType());
+
+			Rasters.copy(image, result, 0, 0);
+			return result;
+		}
+
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int type = image.getType();
+		ColorModel model = image.getColorModel();
+		BufferedImage result;
+
+		// Keep the layout (and so the hash) of the standard types.
+		if (model instanceof IndexColorModel
+				&& (type == BufferedImage.TYPE_BYTE_INDEXED || type == BufferedImage.TYPE_BYTE_BINARY))
+			result = new BufferedImage(width, height, type,
+					(IndexColorModel) model);
+		else if (type != BufferedImage.TYPE_CUSTOM)
+			result = new BufferedImage(width, height, type);
+		else
+			result = new BufferedImage(model,
+					model.createCompatibleWritableRaster(width, height),
+					model.isAlphaPremultiplied(), null);
+
+		result.getRaster().setRect(image.getRaster());
+
+		return result;
+	}
+
+	/**
+	 * Used to hash the pixel data of an image, along with everything else
+	 * that determines how it is interpreted (dimensions, type, layout and
+	 * palette).
+	 * 
+	 * @return the 64-bit FNV-1a hash of the image.
+	 */
+	protected static long hash(BufferedImage image) {
+		Raster raster = image.getRaster();
+		long hash = FNV_OFFSET;
+
+		hash = hash(hash, image.getType());
+		hash = hash(hash, image.getWidth());
+		hash = hash(hash, image.getHeight());
+
+		ColorModel model = image.getColorModel();
+
+		if (model instanceof IndexColorModel) {
+			IndexColorModel palette = (IndexColorModel) model;
+			int[] rgbs = new int[palette.getMapSize()];
+
+			palette.getRGBs(rgbs);
+			hash = hash(hash, rgbs, 0, rgbs.length);
+		} else if (model instanceof DirectColorModel)
+			hash = hash(hash, ((DirectColorModel) model).getMasks(), 0, 4);
+
+		// Packed-int images: only the rows of the image itself.
+		if (Rasters.isPackedInt(image)) {
+			int[] data = Rasters.data(image);
+			int width = image.getWidth();
+			int stride = Rasters.stride(image);
+
+			for (int y = 0, i = Rasters.offset(image), height = image
+					.getHeight(); y < height; y++, i += stride)
+				hash = hash(hash, data, i, width);
+
+			return hash;
+		}
+
+		/*
+		 * Anything else: the whole buffer, plus where the image sits in it
+		 * (sub-images share their parent's buffer).
+		 */
+		DataBuffer buffer = raster.getDataBuffer();
+
+		hash = hash(hash, raster.getSampleModelTranslateX());
+		hash = hash(hash, raster.getSampleModelTranslateY());
+		SampleModel layout = raster.getSampleModel();
+
+		hash = hash(hash, layout.getClass().getName().hashCode());
+
+		if (layout instanceof ComponentSampleModel) {
+			ComponentSampleModel component = (ComponentSampleModel) layout;
+			int[] offsets = component.getBandOffsets();
+
+			hash = hash(hash, component.getScanlineStride());
+			hash = hash(hash, component.getPixelStride());
+			hash = hash(hash, offsets, 0, offsets.length);
+		}
+
+		for (int bank = 0; bank < buffer.getNumBanks(); bank++) {
+			if (buffer instanceof DataBufferByte)
+				hash = hash(hash, ((DataBufferByte) buffer).getData(bank));
+			else if (buffer instanceof DataBufferInt) {
+				int[] data = ((DataBufferInt) buffer).getData(bank);
+
+				hash = hash(hash, data, 0, data.length);
+			} else if (buffer instanceof DataBufferUShort) {
+				short[] data = ((DataBufferUShort) buffer).getData(bank);
+
+				for (short value : data)
+					hash = hash(hash, value);
+			} else if (buffer instanceof DataBufferShort) {
+				short[] data = ((DataBufferShort) buffer).getData(bank);
+
+				for (short value : data)
+					hash = hash(hash, value);
+			} else {
+				for (int i = 0, size = buffer.getSize(); i < size; i++)
+					hash = hash(hash, buffer.getElem(bank, i));
+			}
+		}
+
+		return hash;
+	}
+
+	private static long hash(long hash, int value) {
+		return (hash ^ value) * FNV_PRIME;
+	}
+
+	private static long hash(long hash, int[] data, int offset, int length) {
+		for (int i = offset, end = offset + length; i < end; i++)
+			hash = (hash ^ data[i]) * FNV_PRIME;
+
+		return hash;
+	}
+
+	private static long hash(long hash, byte[] data) {
+		for (byte value : data)
+			hash = (hash ^ (value & 0xFF)) * FNV_PRIME;
+
+		return hash;
+	}
+
+	/**
+	 * Used to encode the given ops canonically (by value).
+	 * 
+	 * @return the encoding or <code>null</code> if one of the ops can't be
+	 *         encoded.
+	 */
+	protected static String encode(BufferedImageOp[] ops) {
+		if (ops == null || ops.length == 0)
+			return "";
+
+		StringBuilder builder = new StringBuilder();
+
+		for (BufferedImageOp op : ops) {
+			builder.append('|');
+
+			if (op == Scalr.OP_GRAYSCALE)
+				builder.append("grayscale");
+			else if (op == null || op.getRenderingHints() != null)
+				return null;
+			else if (op instanceof ConvolveOp) {
+				ConvolveOp convolve = (ConvolveOp) op;
+				Kernel kernel = convolve.getKernel();
+
+				builder.append("convolve:").append(kernel.getWidth())
+						.append('x').append(kernel.getHeight()).append(':')
+						.append(convolve.getEdgeCondition()).append(':')
+						.append(Arrays.toString(kernel.getKernelData(null)));
+			} else if (op instanceof RescaleOp) {
+				RescaleOp rescale = (RescaleOp) op;
+
+				builder.append("rescale:")
+						.append(Arrays.toString(rescale.getScaleFactors(null)))
+						.append(':')
+						.append(Arrays.toString(rescale.getOffsets(null)));
+			} else
+				return null;
+		}
+
+		return builder.toString();
+	}
+}
@@ -0,0 +1,217 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+
+import org.imgscalr.Scalr.Method;
+
+/**
+ * Immutable description of a completed {@link Scalr} operation delivered to a
+ * {@link ScalrListener}.
+ * <p/>
+ * All timings are in nanoseconds (measured with {@link System#nanoTime()}).
+ * The total time of an operation is split into phases:
+ * <ul>
+ * <li>{@link #getConvertNanos()}: converting the source from a poorly
+ * supported image type into an optimal one.</li>
+ * <li>{@link #getOpsNanos()}: applying the optional {@link java.awt.image.BufferedImageOp}s
+ * passed to the operation.</li>
+ * <li>{@link #getRenderNanos()}: everything else, i.e. the scaling, cropping,
+ * padding or rotation itself.</li>
+ * </ul>
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public final class ScalrEvent {
+	/**
+	 * The operations events are reported for.
+	 */
+	public static enum Operation {
+		/**
+		 * {@link Scalr#resize} (including the overloads writing into a
+		 * caller-supplied image).
+		 */
+		RESIZE,
+		/**
+		 * {@link Scalr#crop}.
+		 */
+		CROP,
+		/**
+		 * {@link Scalr#pad}.
+		 */
+		PAD,
+		/**
+		 * {@link Scalr#rotate}.
+		 */
+		ROTATE,
+		/**
+		 * {@link Scalr#apply(BufferedImage, java.awt.image.BufferedImageOp...)}.
+		 */
+		APPLY;
+	}
+
+	private final Operation operation;
+	private final int srcWidth;
+	private final int srcHeight;
+	private final int srcType;
+	private final int resultWidth;
+	private final int resultHeight;
+	private final int resultType;
+	private final Method method;
+	private final int steps;
+	private final long totalNanos;
+	private final long convertNanos;
+	private final long opsNanos;
+	private final long bytesAllocated;
+
+	ScalrEvent(Operation operation, int srcWidth, int srcHeight, int srcType,
+			BufferedImage result, Method method, int steps, long totalNanos,
+			long convertNanos, long opsNanos, long bytesAllocated) {
+		this.operation = operation;
+		this.srcWidth = srcWidth;
+		this.srcHeight = srcHeight;
+		this.srcType = srcType;
+		this.resultWidth = result.getWidth();
+		this.resultHeight = result.getHeight();
+		this.resultType = result.getType();
+		this.method = method;
+		this.steps = steps;
+		this.totalNanos = totalNanos;
+		this.convertNanos = convertNanos;
+		this.opsNanos = opsNanos;
+		this.bytesAllocated = bytesAllocated;
+	}
+
+	/**
+	 * @return the operation that was performed.
+	 */
+	public Operation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return the width of the source image.
+	 */
+	public int getSrcWidth() {
+		return srcWidth;
+	}
+
+	/**
+	 * @return the height of the source image.
+	 */
+	public int getSrcHeight() {
+		return srcHeight;
+	}
+
+	/**
+	 * @return the type of the source image (see {@link BufferedImage#getType()}).
+	 */
+	public int getSrcType() {
+		return srcType;
+	}
+
+	/**
+	 * @return the width of the result image.
+	 */
+	public int getResultWidth() {
+		return resultWidth;
+	}
+
+	/**
+	 * @return the height of the result image.
+	 */
+	public int getResultHeight() {
+		return resultHeight;
+	}
+
+	/**
+	 * @return the type of the result image (see {@link BufferedImage#getType()}).
+	 */
+	public int getResultType() {
+		return resultType;
+	}
+
+	/**
+	 * @return the scaling method actually used (never
+	 *         {@link Method#AUTOMATIC}, which is resolved by
+	 *         {@link Scalr#determineScalingMethod(int, int, float)}) or
+	 *         <code>null</code> if the operation did not scale the image.
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return the number of incremental scaling steps performed by a
+	 *         {@link Method#QUALITY} or {@link Method#ULTRA_QUALITY}
+	 *         down-scale, otherwise <code>0</code>.
+	 */
+	public int getSteps() {
+		return steps;
+	}
+
+	/**
+	 * @return the total time the operation took.
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * @return the time spent converting the source into an optimal image
+	 *         type.
+	 */
+	public long getConvertNanos() {
+		return convertNanos;
+	}
+
+	/**
+	 * @return the time spent applying the optional ops.
+	 */
+	public long getOpsNanos() {
+		return opsNanos;
+	}
+
+	/**
+	 * @return the time spent on the operation itself (the total time minus
+	 *         the conversion and ops time).
+	 */
+	public long getRenderNanos() {
+		return totalNanos - convertNanos - opsNanos;
+	}
+
+	/**
+	 * @return the size (in bytes) of the pixel data of every image newly
+	 *         allocated by the operation, including the result and any
+	 *         interim images not taken from an {@link ImagePool}.
+	 */
+	public long getBytesAllocated() {
+		return bytesAllocated;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "@" + hashCode() + " [operation="
+				+ operation + ", src=" + srcWidth + "x" + srcHeight + " (type "
+				+ srcType + "), result=" + resultWidth + "x" + resultHeight
+				+ " (type " + resultType + "), method=" + method + ", steps="
+				+ steps + ", totalNanos=" + totalNanos + ", convertNanos="
+				+ convertNanos + ", opsNanos=" + opsNanos
+				+ ", bytesAllocated=" + bytesAllocated + "]";
+	}
+}
@@ -0,0 +1,494 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImagingOpException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+
+/**
+ * Class used to resize images straight from their encoded form (e.g. an
+ * uploaded JPEG) without ever decoding the full-resolution image into a
+ * {@link BufferedImage}.
+ * <p/>
+ * Every operation in {@link Scalr} requires the fully decoded source image;
+ * for a 50 megapixel photo that is 200MB of heap before any scaling starts,
+ * which is what usually runs a busy image-processing server out of memory.
+ * The methods in this class instead read the image through an
+ * {@link ImageReader} a strip of rows at a time (using
+ * {@link ImageReadParam#setSourceRegion(Rectangle)}) and feed every strip
+ * straight into the same two-pass convolution resampler that implements
+ * {@link Method#LANCZOS3}, {@link Method#MITCHELL} and
+ * {@link Method#CATMULL_ROM}. Only the result, one decoded strip and a window
+ * of (already horizontally scaled) rows are ever held in memory, so memory
+ * use is proportional to the output size instead of the source size.
+ * <h3>Scaling Methods</h3>
+ * The Java2D-based methods cannot be applied to a strip at a time, so they
+ * are mapped to the closest resampling filter: {@link Method#SPEED} and
+ * {@link Method#BALANCED} use {@link Method#CATMULL_ROM} while
+ * {@link Method#AUTOMATIC}, {@link Method#QUALITY} and
+ * {@link Method#ULTRA_QUALITY} use {@link Method#LANCZOS3}. The result of
+ * resizing with one of the resampling methods is identical to decoding the
+ * image with {@link ImageIO} and passing it to
+ * {@link Scalr#resize(BufferedImage, Method, Mode, int, int, BufferedImageOp...)}
+ * .
+ * <h3>Performance</h3>
+ * Most {@link ImageReader}s (including the JDK's JPEG and PNG readers) decode
+ * every image from the top, so reading a strip means decoding (and throwing
+ * away) all of the rows above it again. The strip height is therefore a
+ * trade-off between memory and CPU; by default every strip holds about
+ * {@link #DEFAULT_STRIP_PIXELS} pixels, and the <code>stripHeight</code>
+ * argument can be used to pick a different value.
+ * <h3>Subsampled Decoding</h3>
+ * When generating thumbnails, most of the source pixels never make it into
+ * the result. The <code>resizeSubsampled</code> methods use
+ * {@link ImageReadParam#setSourceSubsampling(int, int, int, int)} to only
+ * decode every <em>n</em>th pixel of every <em>n</em>th row, picking the
+ * largest <em>n</em> that still leaves the decoded image at least twice the
+ * target size, and then finish the resize with the requested {@link Method}
+ * (any of them, including the Java2D-based ones) on that much smaller image.
+ * Decode time and heap use drop with the square of <em>n</em>. Since
+ * subsampling skips pixels rather than averaging them, the 2x margin is left
+ * for the final scale to smooth out the aliasing this introduces; the result
+ * is close to, but not identical to, resizing the fully decoded image.
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public class ScalrIO {
+	/**
+	 * The number of source pixels a strip holds by default (4 megapixels,
+	 * 16MB once converted to packed <code>int</code>s).
+	 */
+	public static final int DEFAULT_STRIP_PIXELS = 4 * 1024 * 1024;
+
+	/**
+	 * Resize the image in the given stream to the given width and height
+	 * (honoring the image's proportions as described by the given
+	 * {@link Mode}) without decoding the full-resolution image.
+	 * <p/>
+	 * The stream is not closed by this method.
+	 * 
+	 * @param stream
+	 *            The stream containing the encoded image; the first image in
+	 *            the stream is resized.
+	 * @param scalingMethod
+	 *            The method used for scaling the image; see the class
+	 *            description for how the Java2D-based methods are mapped.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for the image.
+	 * @param targetWidth
+	 *            The target width of the image.
+	 * @param targetHeight
+	 *            The target height of the image.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that can be applied to the final result
+	 *            before returning the image.
+	 * 
+	 * @return a new image scaled to the given target size.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>stream</code> is <code>null</code>, if
+	 *             <code>scalingMethod</code> is <code>null</code>, if
+	 *             <code>resizeMode</code> is <code>null</code>, if
+	 *             <code>targetWidth</code> is &lt; 0 or if
+	 *             <code>targetHeight</code> is &lt; 0.
+	 * @throws IIOException
+	 *             if no registered {@link ImageReader} can decode the stream.
+	 * @throws IOException
+	 *             if an error occurs while reading the image.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
+	 */
+	public static BufferedImage resize(ImageInputStream stream,
+			Method scalingMethod, Mode resizeMode, int targetWidth,
+			int targetHeight, BufferedImageOp... ops)
+			throws IllegalArgumentException, IOException, ImagingOpException {
+		if (stream == null)
+			throw new IllegalArgumentException("stream cannot be null");
+
+		ImageReader reader = getReader(stream);
+
+		try {
+			reader.setInput(stream, true, true);
+
+			return resize(reader, 0, scalingMethod, resizeMode, targetWidth,
+					targetHeight, -1, ops);
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	/**
+	 * Resize the image at <code>imageIndex</code> of the given reader's input
+	 * to the given width and height (honoring the image's proportions as
+	 * described by the given {@link Mode}) without decoding the
+	 * full-resolution image.
+	 * 
+	 * @param reader
+	 *            The reader, with its input already set, used to decode the
+	 *            image a strip at a time.
+	 * @param imageIndex
+	 *            The index of the image to resize.
+	 * @param scalingMethod
+	 *            The method used for scaling the image; see the class
+	 *            description for how the Java2D-based methods are mapped.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for the image.
+	 * @param targetWidth
+	 *            The target width of the image.
+	 * @param targetHeight
+	 *            The target height of the image.
+	 * @param stripHeight
+	 *            The number of source rows read at a time or <code>-1</code>
+	 *            to read strips of about {@link #DEFAULT_STRIP_PIXELS} pixels.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that can be applied to the final result
+	 *            before returning the image.
+	 * 
+	 * @return a new image scaled to the given target size.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>reader</code> is <code>null</code>, if
+	 *             <code>scalingMethod</code> is <code>null</code>, if
+	 *             <code>resizeMode</code> is <code>null</code>, if
+	 *             <code>targetWidth</code> is &lt; 0, if
+	 *             <code>targetHeight</code> is &lt; 0 or if
+	 *             <code>stripHeight</code> is <code>0</code> or &lt; -1.
+	 * @throws IOException
+	 *             if an error occurs while reading the image.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
+	 */
+	public static BufferedImage resize(ImageReader reader, int imageIndex,
+			Method scalingMethod, Mode resizeMode, int targetWidth,
+			int targetHeight, int stripHeight, BufferedImageOp... ops)
+			throws IllegalArgumentException, IOException, ImagingOpException {
+		if (reader == null)
+			throw new IllegalArgumentException("reader cannot be null");
+		if (targetWidth < 0)
+			throw new IllegalArgumentException("targetWidth must be >= 0");
+		if (targetHeight < 0)
+			throw new IllegalArgumentException("targetHeight must be >= 0");
+		if (scalingMethod == null)
+			throw new IllegalArgumentException(
+					"scalingMethod cannot be null. A good default value is Method.AUTOMATIC.");
+		if (resizeMode == null)
+			throw new IllegalArgumentException(
+					"resizeMode cannot be null. A good default value is Mode.AUTOMATIC.");
+		if (stripHeight == 0 || stripHeight < -1)
+			throw new IllegalArgumentException("stripHeight [" + stripHeight
+					+ "] must be > 0 or -1");
+
+		int width = reader.getWidth(imageIndex);
+		int height = reader.getHeight(imageIndex);
+		int[] targetDimensions = Scalr.determineTargetDimensions(width,
+				height, resizeMode, targetWidth, targetHeight);
+		BufferedImage result;
+
+		if (targetDimensions == null) {
+			// Nothing to scale, the image is already the requested size.
+			result = reader.read(imageIndex);
+		} else {
+			if (stripHeight == -1)
+				stripHeight = Math.max(1, DEFAULT_STRIP_PIXELS / width);
+
+			result = resample(reader, imageIndex, width, height,
+					targetDimensions[0], targetDimensions[1],
+					filterFor(scalingMethod), stripHeight);
+		}
+
+		// Apply any optional operations (if specified).
+		if (ops != null && ops.length > 0)
+			result = Scalr.apply(result, ops);
+
+		return result;
+	}
+
+	/**
+	 * Resize the image in the given stream to the given width and height
+	 * (honoring the image's proportions as described by the given
+	 * {@link Mode}), decoding only as many of the source pixels as needed to
+	 * produce a result of the given {@link Method}'s quality (see
+	 * "Subsampled Decoding" in the class description).
+	 * <p/>
+	 * The stream is not closed by this method.
+	 * 
+	 * @param stream
+	 *            The stream containing the encoded image; the first image in
+	 *            the stream is resized.
+	 * @param scalingMethod
+	 *            The method used to scale the subsampled image to the target
+	 *            size.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for the image.
+	 * @param targetWidth
+	 *            The target width of the image.
+	 * @param targetHeight
+	 *            The target height of the image.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that can be applied to the final result
+	 *            before returning the image.
+	 * 
+	 * @return a new image scaled to the given target size.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>stream</code> is <code>null</code>, if
+	 *             <code>scalingMethod</code> is <code>null</code>, if
+	 *             <code>resizeMode</code> is <code>null</code>, if
+	 *             <code>targetWidth</code> is &lt; 0 or if
+	 *             <code>targetHeight</code> is &lt; 0.
+	 * @throws IIOException
+	 *             if no registered {@link ImageReader} can decode the stream.
+	 * @throws IOException
+	 *             if an error occurs while reading the image.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
+	 */
+	public static BufferedImage resizeSubsampled(ImageInputStream stream,
+			Method scalingMethod, Mode resizeMode, int targetWidth,
+			int targetHeight, BufferedImageOp... ops)
+			throws IllegalArgumentException, IOException, ImagingOpException {
+		if (stream == null)
+			throw new IllegalArgumentException("stream cannot be null");
+
+		ImageReader reader = getReader(stream);
+
+		try {
+			reader.setInput(stream, true, true);
+
+			return resizeSubsampled(reader, 0, scalingMethod, resizeMode,
+					targetWidth, targetHeight, ops);
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	/**
+	 * Resize the image at <code>imageIndex</code> of the given reader's input
+	 * to the given width and height (honoring the image's proportions as
+	 * described by the given {@link Mode}), decoding only as many of the
+	 * source pixels as needed to produce a result of the given
+	 * {@link Method}'s quality (see "Subsampled Decoding" in the class
+	 * description).
+	 * 
+	 * @param reader
+	 *            The reader, with its input already set, used to decode the
+	 *            image.
+	 * @param imageIndex
+	 *            The index of the image to resize.
+	 * @param scalingMethod
+	 *            The method used to scale the subsampled image to the target
+	 *            size.
+	 * @param resizeMode
+	 *            Used to indicate how imgscalr should calculate the final
+	 *            target size for the image.
+	 * @param targetWidth
+	 *            The target width of the image.
+	 * @param targetHeight
+	 *            The target height of the image.
+	 * @param ops
+	 *            <code>0</code> or more optional image operations (e.g.
+	 *            sharpen, blur, etc.) that can be applied to the final result
+	 *            before returning the image.
+	 * 
+	 * @return a new image scaled to the given target size.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if <code>reader</code> is <code>null</code>, if
+	 *             <code>scalingMethod</code> is <code>null</code>, if
+	 *             <code>resizeMode</code> is <code>null</code>, if
+	 *             <code>targetWidth</code> is &lt; 0 or if
+	 *             <code>targetHeight</code> is &lt; 0.
+	 * @throws IOException
+	 *             if an error occurs while reading the image.
+	 * @throws ImagingOpException
+	 *             if one of the given {@link BufferedImageOp}s fails to apply.
+	 * @throws CancellationException
+	 *             if the operation runs as an {@link AsyncScalr} task that
+	 *             has been cancelled or has run past its timeout.
+	 */
+	public static BufferedImage resizeSubsampled(ImageReader reader,
+			int imageIndex, Method scalingMethod, Mode resizeMode,
+			int targetWidth, int targetHeight, BufferedImageOp... ops)
+			throws IllegalArgumentException, IOException, ImagingOpException {
+		if (reader == null)
+			throw new IllegalArgumentException("reader cannot be null");
+		if (targetWidth < 0)
+			throw new IllegalArgumentException("targetWidth must be >= 0");
+		if (targetHeight < 0)
+			throw new IllegalArgumentException("targetHeight must be >= 0");
+		if (scalingMethod == null)
+			throw new IllegalArgumentException(
+					"scalingMethod cannot be null. A good default value is Method.AUTOMATIC.");
+		if (resizeMode == null)
+			throw new IllegalArgumentException(
+					"resizeMode cannot be null. A good default value is Mode.AUTOMATIC.");
+
+		int width = reader.getWidth(imageIndex);
+		int height = reader.getHeight(imageIndex);
+		int[] targetDimensions = Scalr.determineTargetDimensions(width,
+				height, resizeMode, targetWidth, targetHeight);
+
+		if (targetDimensions == null) {
+			// Nothing to scale, the image is already the requested size.
+			BufferedImage result = reader.read(imageIndex);
+
+			if (ops != null && ops.length > 0)
+				result = Scalr.apply(result, ops);
+
+			return result;
+		}
+
+		int factor = subsamplingFactor(width, height, targetDimensions[0],
+				targetDimensions[1]);
+		ImageReadParam param = reader.getDefaultReadParam();
+
+		param.setSourceSubsampling(factor, factor, 0, 0);
+
+		BufferedImage subsampled = reader.read(imageIndex, param);
+
+		/*
+		 * The target dimensions were already calculated from the original
+		 * image's proportions (which subsampling rounds slightly), so the
+		 * subsampled image is scaled to exactly those dimensions.
+		 */
+		try {
+			return Scalr.resize(subsampled, scalingMethod, Mode.FIT_EXACT,
+					targetDimensions[0], targetDimensions[1], ops);
+		} finally {
+			subsampled.flush();
+		}
+	}
+
+	/**
+	 * Used to determine the largest subsampling factor (the same in both
+	 * dimensions, to keep the image's proportions) that still leaves the
+	 * decoded image at least twice as big as the target in both dimensions.
+	 * 
+	 * @return the factor, <code>1</code> if the image should not be
+	 *         subsampled.
+	 */
+	static int subsamplingFactor(int width, int height, int targetWidth,
+			int targetHeight) {
+		int factor = Math.min(width / Math.max(1, targetWidth * 2), height
+				/ Math.max(1, targetHeight * 2));
+
+		return Math.max(1, factor);
+	}
+
+	/**
+	 * Used to get the first {@link ImageReader} able to decode the given
+	 * stream.
+	 * 
+	 * @throws IIOException
+	 *             if no registered {@link ImageReader} can decode the stream.
+	 */
+	static ImageReader getReader(ImageInputStream stream) throws IIOException {
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+
+		if (!readers.hasNext())
+			throw new IIOException(
+					"No ImageReader was found that is able to decode the given stream.");
+
+		return readers.next();
+	}
+
+	/**
+	 * Used to get the resampling filter used to implement the given method;
+	 * see the class description for how the Java2D-based methods are mapped.
+	 */
+	static Resampler.Filter filterFor(Method scalingMethod) {
+		Resampler.Filter filter = Resampler.forMethod(scalingMethod);
+
+		if (filter == null)
+			filter = (scalingMethod == Method.SPEED
+					|| scalingMethod == Method.BALANCED ? Resampler.Filter.CATMULL_ROM
+					: Resampler.Filter.LANCZOS3);
+
+		return filter;
+	}
+
+	/**
+	 * Used to read the image strip by strip, feeding every strip into a
+	 * {@link Resampler.Rows} that produces the result.
+	 */
+	static BufferedImage resample(ImageReader reader, int imageIndex,
+			int width, int height, int targetWidth, int targetHeight,
+			Resampler.Filter filter, int stripHeight) throws IOException {
+		ImageReadParam param = reader.getDefaultReadParam();
+		Resampler.Rows rows = null;
+		BufferedImage result = null;
+
+		for (int y = 0; y < height; y += stripHeight) {
+			Checkpoint.check();
+			param.setSourceRegion(new Rectangle(0, y, width, Math.min(
+					stripHeight, height - y)));
+
+			BufferedImage strip = reader.read(imageIndex, param);
+
+			if (!Rasters.isPackedInt(strip)) {
+				BufferedImage copy = Scalr.copyToOptimalImage(strip);
+
+				strip.flush();
+				strip = copy;
+			}
+
+			/*
+			 * We only know if the image has an alpha channel (and therefore
+			 * the type of the result) once we have seen the decoded pixels.
+			 */
+			if (rows == null) {
+				result = Scalr.createOptimalImage(strip, targetWidth,
+						targetHeight);
+				rows = new Resampler.Rows(width, height, result, filter);
+			}
+
+			rows.push(strip);
+			strip.flush();
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,60 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+/**
+ * Receives a structured {@link ScalrEvent} for every image operation
+ * {@link Scalr} performs, meant for feeding production metrics (histograms of
+ * timings, allocation rates, chosen scaling methods, etc.) without parsing
+ * the {@link Scalr#DEBUG} log output.
+ * <p/>
+ * Install a listener with {@link Scalr#setListener(ScalrListener)}. By default
+ * the {@link #NOOP} listener is installed, in which case no event is created
+ * and no timing information is collected at all.
+ * <h3>Implementation Requirements</h3>
+ * <ul>
+ * <li>Implementations must be thread-safe; events are delivered on the thread
+ * that performed the operation, right before the operation returns.</li>
+ * <li>Implementations should be fast and must not throw; the time spent in
+ * {@link #onEvent(ScalrEvent)} is added to the caller's operation.</li>
+ * </ul>
+ * 
+ * @author Riyad Kalla (software@thebuzzmedia.com)
+ * @since 4.3
+ */
+public interface ScalrListener {
+	/**
+	 * Listener that ignores every event; installing it disables event
+	 * collection.
+	 */
+	public static final ScalrListener NOOP = new ScalrListener() {
+		public void onEvent(ScalrEvent event) {
+			// no-op
+		}
+	};
+
+	/**
+	 * Used to notify the listener that an operation completed successfully.
+	 * Operations that other operations perform internally (e.g. the
+	 * {@link ScalrEvent.Operation#APPLY} of the optional ops passed to a
+	 * resize) are reported on their own, before the operation containing
+	 * them.
+	 * 
+	 * @param event
+	 *            The details of the operation.
+	 */
+	public void onEvent(ScalrEvent event);
+}
@@ -20,8 +20,13 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ ScalrApplyTest.class, ScalrCropTest.class, ScalrPadTest.class,
-		ScalrResizeTest.class, ScalrRotateTest.class })
+@SuiteClasses({ ScalrApplyTest.class, ScalrCacheTest.class,
+		ScalrCancelTest.class, ScalrConvertTest.class, ScalrCropTest.class,
+		ScalrFlightTest.class, ScalrImagePoolTest.class, ScalrIOTest.class,
+		ScalrListenerTest.class, ScalrPadTest.class, ScalrParallelTest.class,
+		ScalrPipelineTest.class, ScalrPreserveTypeTest.class,
+		ScalrPyramidTest.class, ScalrResampleTest.class, ScalrResizeTest.class,
+		ScalrRotateTest.class })
 public class AllTests {
 	// no-op
 }
@@ -0,0 +1,325 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.imgscalr.AsyncScalr.RejectionPolicy;
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncScalrQueueTest extends AbstractScalrTest {
+	private CountDownLatch release = new CountDownLatch(1);
+
+	@After
+	public void shutdown() throws InterruptedException {
+		release.countDown();
+		AsyncScalr.setMemoryBudget(Long.MAX_VALUE);
+
+		if (AsyncScalr.service != null) {
+			AsyncScalr.service.shutdown();
+			AsyncScalr.service.awaitTermination(10, TimeUnit.SECONDS);
+			AsyncScalr.service = null;
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreateServiceEX() {
+		AsyncScalr.createService(new AsyncScalr.DefaultThreadFactory(), 0,
+				RejectionPolicy.BLOCK);
+	}
+
+	@Test
+	public void testFailFast() throws Exception {
+		fill(RejectionPolicy.FAIL_FAST);
+
+		Assert.assertEquals(1, AsyncScalr.getQueueDepth());
+		Assert.assertEquals(AsyncScalr.THREAD_COUNT,
+				AsyncScalr.getActiveCount());
+
+		try {
+			AsyncScalr.submit("test", task(null));
+			Assert.fail();
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+
+		Assert.assertEquals(1, AsyncScalr.getRejectedCount());
+	}
+
+	@Test
+	public void testCallerRuns() throws Exception {
+		fill(RejectionPolicy.CALLER_RUNS);
+
+		final Thread caller = Thread.currentThread();
+		Future<BufferedImage> future = AsyncScalr.submit("test",
+				new Callable<BufferedImage>() {
+					public BufferedImage call() throws Exception {
+						Assert.assertSame(caller, Thread.currentThread());
+						return src;
+					}
+				});
+
+		// Ran on this thread, so it is already done.
+		Assert.assertTrue(future.isDone());
+		Assert.assertSame(src, future.get());
+		Assert.assertEquals(1, AsyncScalr.getRejectedCount());
+	}
+
+	@Test
+	public void testBlock() throws Exception {
+		fill(RejectionPolicy.BLOCK);
+
+		final Future<?>[] result = new Future<?>[1];
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				result[0] = AsyncScalr.submit("test", task(null));
+			}
+		};
+
+		producer.start();
+		producer.join(200);
+
+		// The producer is stuck until the queue has room again.
+		Assert.assertTrue(producer.isAlive());
+
+		release.countDown();
+		producer.join(10000);
+
+		Assert.assertFalse(producer.isAlive());
+		Assert.assertSame(src, result[0].get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1, AsyncScalr.getRejectedCount());
+		Assert.assertTrue(AsyncScalr.getMaxWaitNanos() > 0);
+		Assert.assertTrue(AsyncScalr.getAverageWaitNanos() > 0);
+	}
+
+	@Test
+	public void testEstimateResize() {
+		BufferedImage image = new BufferedImage(1000, 800,
+				BufferedImage.TYPE_INT_RGB);
+
+		// Source, result and the 500x400 and 250x200 interim steps.
+		Assert.assertEquals(4L * (1000 * 800 + 100 * 80 + 500 * 400 + 250 * 200),
+				AsyncScalr.estimateResizeBytes(image, Method.QUALITY,
+						Mode.FIT_EXACT, 100, 80));
+
+		// A SPEED scale just samples the source into the result.
+		Assert.assertEquals(4L * (1000 * 800 + 100 * 80),
+				AsyncScalr.estimateResizeBytes(image, Method.SPEED,
+						Mode.FIT_EXACT, 100, 80));
+
+		// Any ops render into one more result-sized image.
+		Assert.assertEquals(4L * (1000 * 800 + 100 * 80 * 2),
+				AsyncScalr.estimateResizeBytes(image, Method.SPEED,
+						Mode.FIT_EXACT, 100, 80, Scalr.OP_GRAYSCALE));
+
+		Assert.assertEquals(0, AsyncScalr.estimateResizeBytes(null,
+				Method.SPEED, Mode.FIT_EXACT, 100, 80));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMemoryBudgetEX() {
+		AsyncScalr.setMemoryBudget(0);
+	}
+
+	@Test
+	public void testBudgetFailFast() throws Exception {
+		AsyncScalr.service = AsyncScalr.createService(
+				new AsyncScalr.ServerThreadFactory(), 100,
+				RejectionPolicy.FAIL_FAST);
+		AsyncScalr.resetStatistics();
+		AsyncScalr.setMemoryBudget(1000);
+
+		Future<BufferedImage> first = AsyncScalr.submit("test", 600, task(null));
+
+		Assert.assertEquals(600, AsyncScalr.getBytesInFlight());
+
+		try {
+			AsyncScalr.submit("test", 600, task(null));
+			Assert.fail();
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+
+		// Still fits.
+		Future<BufferedImage> second = AsyncScalr.submit("test", 400, task(null));
+
+		Assert.assertEquals(1000, AsyncScalr.getBytesInFlight());
+		Assert.assertEquals(1, AsyncScalr.getBudgetWaitCount());
+		Assert.assertEquals(0, AsyncScalr.getRejectedCount());
+
+		release.countDown();
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(0, AsyncScalr.getBytesInFlight());
+	}
+
+	@Test
+	public void testBudgetBlock() throws Exception {
+		AsyncScalr.service = AsyncScalr.createService(
+				new AsyncScalr.ServerThreadFactory(), 100, RejectionPolicy.BLOCK);
+		AsyncScalr.setMemoryBudget(1000);
+
+		// Bigger than the whole budget, but nothing else is in flight.
+		final Future<BufferedImage> first = AsyncScalr.submit("test", 5000,
+				task(null));
+		final Future<?>[] result = new Future<?>[1];
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				result[0] = AsyncScalr.submit("test", 10, task(null));
+			}
+		};
+
+		producer.start();
+		producer.join(200);
+
+		// The producer waits for the first operation to give its memory back.
+		Assert.assertTrue(producer.isAlive());
+		Assert.assertEquals(5000, AsyncScalr.getBytesInFlight());
+
+		release.countDown();
+		producer.join(10000);
+
+		Assert.assertFalse(producer.isAlive());
+		Assert.assertSame(src, first.get(10, TimeUnit.SECONDS));
+		Assert.assertSame(src, result[0].get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(0, AsyncScalr.getBytesInFlight());
+	}
+
+	@Test
+	public void testBudgetCancel() throws Exception {
+		AsyncScalr.service = AsyncScalr.createService(
+				new AsyncScalr.ServerThreadFactory(), 100, RejectionPolicy.BLOCK);
+
+		CountDownLatch started = new CountDownLatch(AsyncScalr.THREAD_COUNT);
+
+		for (int i = 0; i < AsyncScalr.THREAD_COUNT; i++)
+			AsyncScalr.submit("test", task(started));
+
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		Future<BufferedImage> queued = AsyncScalr.submit("test", 100,
+				task(null));
+
+		Assert.assertEquals(100, AsyncScalr.getBytesInFlight());
+
+		// Cancelling a queued operation gives its memory back right away.
+		queued.cancel(false);
+		Assert.assertEquals(0, AsyncScalr.getBytesInFlight());
+	}
+
+	@Test
+	public void testBudgetWaitCountedOnce() throws Exception {
+		AsyncScalr.service = AsyncScalr.createService(
+				new AsyncScalr.ServerThreadFactory(), 100, RejectionPolicy.BLOCK);
+		AsyncScalr.resetStatistics();
+		AsyncScalr.setMemoryBudget(1000);
+
+		AsyncScalr.submit("test", 600, task(null));
+
+		Future<BufferedImage> second = AsyncScalr.submit("test", 300,
+				task(null));
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				AsyncScalr.submit("test", 500, task(null));
+			}
+		};
+
+		producer.start();
+		producer.join(200);
+		Assert.assertTrue(producer.isAlive());
+
+		// Wakes the producer up, but 500 bytes still don't fit.
+		second.cancel(false);
+		producer.join(200);
+		Assert.assertTrue(producer.isAlive());
+		Assert.assertEquals(1, AsyncScalr.getBudgetWaitCount());
+
+		release.countDown();
+		producer.join(10000);
+		Assert.assertFalse(producer.isAlive());
+		Assert.assertEquals(1, AsyncScalr.getBudgetWaitCount());
+	}
+
+	@Test
+	public void testBudgetShutdownNow() throws Exception {
+		AsyncScalr.service = AsyncScalr.createService(
+				new AsyncScalr.ServerThreadFactory(), 100, RejectionPolicy.BLOCK);
+
+		CountDownLatch started = new CountDownLatch(AsyncScalr.THREAD_COUNT);
+
+		for (int i = 0; i < AsyncScalr.THREAD_COUNT; i++)
+			AsyncScalr.submit("test", task(started));
+
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		Future<BufferedImage> queued = AsyncScalr.submit("test", 100,
+				task(null));
+
+		AsyncScalr.submit("test", 200, task(null));
+		Assert.assertEquals(300, AsyncScalr.getBytesInFlight());
+
+		// Drained operations never run; they are cancelled instead.
+		AsyncScalr.service.shutdownNow();
+		Assert.assertTrue(AsyncScalr.service.awaitTermination(10,
+				TimeUnit.SECONDS));
+		Assert.assertTrue(queued.isCancelled());
+		Assert.assertEquals(0, AsyncScalr.getBytesInFlight());
+	}
+
+	/**
+	 * Installs a service with a queue of 1 and occupies every thread plus the
+	 * queue with tasks waiting on {@link #release}.
+	 */
+	private void fill(RejectionPolicy policy) throws InterruptedException {
+		AsyncScalr.service = AsyncScalr.createService(
+				new AsyncScalr.ServerThreadFactory(), 1, policy);
+		AsyncScalr.resetStatistics();
+
+		CountDownLatch started = new CountDownLatch(AsyncScalr.THREAD_COUNT);
+
+		for (int i = 0; i < AsyncScalr.THREAD_COUNT; i++)
+			AsyncScalr.submit("test", task(started));
+
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+		AsyncScalr.submit("test", task(null));
+	}
+
+	private Callable<BufferedImage> task(final CountDownLatch started) {
+		return new Callable<BufferedImage>() {
+			public BufferedImage call() throws Exception {
+				if (started != null)
+					started.countDown();
+
+				release.await();
+				return src;
+			}
+		};
+	}
+}
@@ -0,0 +1,206 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.imgscalr.AsyncScalr.Priority;
+import org.imgscalr.AsyncScalr.Submitter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncScalrScheduleTest extends AbstractScalrTest {
+	@After
+	public void reset() throws InterruptedException {
+		AsyncScalr.setWeight("a", 1);
+		AsyncScalr.setWeight("b", 1);
+
+		if (AsyncScalr.service != null) {
+			AsyncScalr.service.shutdown();
+			AsyncScalr.service.awaitTermination(10, TimeUnit.SECONDS);
+			AsyncScalr.service = null;
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetWeightEX() {
+		AsyncScalr.setWeight("a", 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSubmitterEX() {
+		new Submitter(null, "a");
+	}
+
+	@Test
+	public void testSubmitter() throws Exception {
+		Submitter batch = new Submitter(Priority.BATCH, "backfill");
+		AsyncScalr.Task task = (AsyncScalr.Task) batch.resize(src, 50);
+
+		Assert.assertEquals(Priority.BATCH, task.getPriority());
+		Assert.assertEquals("backfill", task.getKey());
+		Assert.assertNotNull(task.get(10, TimeUnit.SECONDS));
+
+		// Nothing sticks to the submitting thread.
+		task = (AsyncScalr.Task) AsyncScalr.resize(src, 50);
+
+		Assert.assertEquals(Priority.NORMAL, task.getPriority());
+		Assert.assertNull(task.getKey());
+		Assert.assertNotNull(task.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testPriority() {
+		FairQueue queue = new FairQueue(10);
+		Runnable batch = task(Priority.BATCH, null, 1);
+		Runnable normal = new Runnable() {
+			public void run() {
+			}
+		};
+		Runnable interactive = task(Priority.INTERACTIVE, null, 1);
+
+		queue.offer(batch);
+		queue.offer(normal);
+		queue.offer(interactive);
+
+		Assert.assertSame(interactive, queue.poll());
+		Assert.assertSame(normal, queue.poll());
+		Assert.assertSame(batch, queue.poll());
+		Assert.assertNull(queue.poll());
+	}
+
+	@Test
+	public void testFairness() {
+		Assert.assertEquals("ababababab", drain(1));
+	}
+
+	@Test
+	public void testWeights() {
+		AsyncScalr.setWeight("a", 2);
+		Assert.assertEquals("aabaabaaba", drain(1));
+
+		// Cheaper tasks of b run more often for the same credit.
+		AsyncScalr.setWeight("a", 1);
+		Assert.assertEquals("abbabbabba", drain(2));
+	}
+
+	@Test
+	public void testCapacity() throws Exception {
+		FairQueue queue = new FairQueue(2);
+		Runnable first = task(Priority.NORMAL, "a", 1);
+		Runnable second = task(Priority.NORMAL, "b", 1);
+
+		Assert.assertTrue(queue.offer(first));
+		Assert.assertTrue(queue.offer(second));
+		Assert.assertFalse(queue.offer(task(Priority.NORMAL, "a", 1)));
+		Assert.assertFalse(queue.offer(task(Priority.NORMAL, "a", 1), 10,
+				TimeUnit.MILLISECONDS));
+		Assert.assertEquals(0, queue.remainingCapacity());
+
+		Assert.assertTrue(queue.remove(first));
+		Assert.assertFalse(queue.remove(first));
+		Assert.assertEquals(1, queue.size());
+
+		List<Runnable> drained = new ArrayList<Runnable>();
+
+		Assert.assertEquals(1, queue.drainTo(drained));
+		Assert.assertSame(second, drained.get(0));
+		Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testInteractiveFirst() throws Exception {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0,
+				TimeUnit.MILLISECONDS, new FairQueue(100));
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<String> order = Collections
+				.synchronizedList(new ArrayList<String>());
+
+		try {
+			AsyncScalr.submit(executor, "test", 0, new Callable<BufferedImage>() {
+				public BufferedImage call() throws Exception {
+					release.await();
+					return src;
+				}
+			});
+
+			Submitter batch = new Submitter(Priority.BATCH, "backfill");
+			Submitter preview = new Submitter(Priority.INTERACTIVE, "preview");
+
+			for (int i = 0; i < 20; i++)
+				AsyncScalr.submit(executor, batch, "test", 1,
+						record(order, "batch"));
+
+			AsyncScalr.submit(executor, preview, "test", 1,
+					record(order, "preview"));
+		} finally {
+			release.countDown();
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		Assert.assertEquals(21, order.size());
+		Assert.assertEquals("preview", order.get(0));
+	}
+
+	/**
+	 * Queues 10 tasks of cost {@link FairQueue#QUANTUM} for key a and 10 of
+	 * cost {@link FairQueue#QUANTUM} / <code>divisor</code> for key b and
+	 * returns the keys of the first 10 tasks taken.
+	 */
+	private String drain(int divisor) {
+		FairQueue queue = new FairQueue(100);
+
+		for (int i = 0; i < 10; i++) {
+			queue.offer(task(Priority.NORMAL, "a", FairQueue.QUANTUM));
+			queue.offer(task(Priority.NORMAL, "b", FairQueue.QUANTUM / divisor));
+		}
+
+		StringBuilder keys = new StringBuilder();
+
+		for (int i = 0; i < 10; i++)
+			keys.append(((AsyncScalr.Task) queue.poll()).getKey());
+
+		return keys.toString();
+	}
+
+	private AsyncScalr.Task task(Priority priority, String key, long bytes) {
+		return new AsyncScalr.Task(priority, key, bytes,
+				new Callable<BufferedImage>() {
+					public BufferedImage call() {
+						return src;
+					}
+				});
+	}
+
+	private Callable<BufferedImage> record(final List<String> order,
+			final String name) {
+		return new Callable<BufferedImage>() {
+			public BufferedImage call() {
+				order.add(name);
+				return src;
+			}
+		};
+	}
+}
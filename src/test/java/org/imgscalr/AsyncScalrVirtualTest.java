@@ -0,0 +1,119 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncScalrVirtualTest extends AbstractScalrTest {
+	@After
+	public void shutdown() throws InterruptedException {
+		if (AsyncScalr.service != null) {
+			AsyncScalr.service.shutdown();
+			AsyncScalr.service.awaitTermination(10, TimeUnit.SECONDS);
+			AsyncScalr.service = null;
+		}
+	}
+
+	@Test
+	public void testVirtualService() throws Exception {
+		AsyncScalr.service = AsyncScalr.createVirtualService();
+
+		Thread thread = AsyncScalr.execute(new Callable<Thread>() {
+			public Thread call() {
+				return Thread.currentThread();
+			}
+		}).get(10, TimeUnit.SECONDS);
+
+		boolean virtual;
+
+		try {
+			virtual = (Boolean) Thread.class.getMethod("isVirtual").invoke(
+					thread);
+		} catch (NoSuchMethodException e) {
+			virtual = false;
+		}
+
+		// Falls back to daemon platform threads without virtual threads.
+		Assert.assertTrue(virtual || thread.isDaemon());
+
+		BufferedImage result = AsyncScalr.resize(src, 100).get(10,
+				TimeUnit.SECONDS);
+
+		Assert.assertEquals(100, Math.max(result.getWidth(),
+				result.getHeight()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testComputeEX() throws Exception {
+		AsyncScalr.compute(null);
+	}
+
+	@Test
+	public void testCompute() throws Exception {
+		AsyncScalr.service = AsyncScalr.createVirtualService();
+
+		final int tasks = AsyncScalr.CPU_PERMITS + 2;
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger peak = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+
+		for (int i = 0; i < tasks; i++) {
+			futures.add(AsyncScalr.execute(new Callable<Integer>() {
+				public Integer call() throws Exception {
+					return AsyncScalr.compute(new Callable<Integer>() {
+						public Integer call() throws Exception {
+							int now = running.incrementAndGet();
+
+							for (;;) {
+								int max = peak.get();
+
+								if (now <= max || peak.compareAndSet(max, now))
+									break;
+							}
+
+							release.await();
+							running.decrementAndGet();
+							return now;
+						}
+					});
+				}
+			}));
+		}
+
+		// Give every task the chance to pile up on the permits.
+		Thread.sleep(200);
+		Assert.assertEquals(AsyncScalr.CPU_PERMITS, running.get());
+
+		release.countDown();
+
+		for (Future<Integer> future : futures)
+			future.get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(AsyncScalr.CPU_PERMITS, peak.get());
+	}
+}
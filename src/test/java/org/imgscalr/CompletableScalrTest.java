@@ -0,0 +1,195 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.imgscalr.AsyncScalr.Priority;
+import org.imgscalr.AsyncScalr.Submitter;
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompletableScalrTest extends AbstractScalrTest {
+	private final AtomicInteger executed = new AtomicInteger();
+
+	private final Executor executor = new Executor() {
+		public void execute(Runnable command) {
+			executed.incrementAndGet();
+			new Thread(command).start();
+		}
+	};
+
+	@After
+	public void shutdown() throws InterruptedException {
+		if (AsyncScalr.service != null) {
+			AsyncScalr.service.shutdown();
+			AsyncScalr.service.awaitTermination(10, TimeUnit.SECONDS);
+			AsyncScalr.service = null;
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSupplyEX() {
+		CompletableScalr.resize(null, src, 100);
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		CompletableFuture<BufferedImage> future = CompletableScalr.crop(
+				executor, src, 0, 0, src.getWidth() + 1, 10);
+
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	@Test
+	public void testExecutor() throws Exception {
+		BufferedImage result = CompletableScalr.resize(executor, src,
+				Method.SPEED, Mode.FIT_EXACT, 40, 30).get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(1, executed.get());
+		Assert.assertEquals(40, result.getWidth());
+		Assert.assertEquals(30, result.getHeight());
+	}
+
+	@Test
+	public void testDefaultExecutor() throws Exception {
+		BufferedImage result = CompletableScalr.rotate(src, Rotation.CW_90)
+				.get(10, TimeUnit.SECONDS);
+
+		Assert.assertNotNull(AsyncScalr.service);
+		Assert.assertEquals(src.getHeight(), result.getWidth());
+		Assert.assertEquals(src.getWidth(), result.getHeight());
+	}
+
+	@Test
+	public void testThen() throws Exception {
+		CompletableFuture<BufferedImage> decoded = new CompletableFuture<BufferedImage>();
+		Pipeline pipeline = new Pipeline()
+				.resize(Method.SPEED, Mode.FIT_EXACT, 100, 80)
+				.crop(10, 10, 50, 40).pad(2, Color.RED);
+		CompletableFuture<BufferedImage> chain = CompletableScalr.then(
+				decoded, pipeline, executor);
+
+		// Nothing runs until the image is available.
+		Assert.assertFalse(chain.isDone());
+		Assert.assertEquals(0, executed.get());
+
+		decoded.complete(src);
+
+		BufferedImage result = chain.get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(1, executed.get());
+		assertEquals(pipeline.run(src), result);
+	}
+
+	@Test
+	public void testQueuedDeadline() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		ExecutorService single = Executors.newSingleThreadExecutor();
+
+		try {
+			// Keep the only thread busy past the deadline.
+			single.execute(new Runnable() {
+				public void run() {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+
+			Submitter submitter = new Submitter(Priority.NORMAL, null)
+					.withTimeout(50, TimeUnit.MILLISECONDS);
+			CompletableFuture<BufferedImage> future = CompletableScalr.run(
+					single, submitter, new Pipeline().resize(Method.SPEED,
+							Mode.FIT_TO_WIDTH, 100, 100), src);
+
+			Thread.sleep(200);
+			release.countDown();
+
+			try {
+				future.get(2, TimeUnit.SECONDS);
+				Assert.fail();
+			} catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof CancellationException);
+			} catch (CancellationException e) {
+				// expected
+			}
+
+			Assert.assertTrue(future.isCompletedExceptionally());
+		} finally {
+			single.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCallerCheckpointRestored() throws Exception {
+		Executor direct = new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+
+		Checkpoint checkpoint = Checkpoint.current();
+		Submitter submitter = new Submitter(Priority.NORMAL, null)
+				.withTimeout(1, TimeUnit.MINUTES);
+		Pipeline pipeline = new Pipeline().resize(Method.SPEED,
+				Mode.FIT_TO_WIDTH, 100, 100);
+		BufferedImage result = CompletableScalr.run(direct, submitter,
+				pipeline, src).get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(100, result.getWidth());
+		Assert.assertSame(checkpoint, Checkpoint.current());
+	}
+
+	@Test
+	public void testThenFailure() throws Exception {
+		CompletableFuture<BufferedImage> decoded = new CompletableFuture<BufferedImage>();
+		CompletableFuture<BufferedImage> chain = CompletableScalr.then(
+				decoded, new Pipeline().rotate(Rotation.FLIP_HORZ), executor);
+
+		decoded.completeExceptionally(new IllegalStateException());
+
+		try {
+			chain.get(10, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+
+		Assert.assertEquals(0, executed.get());
+	}
+}
@@ -0,0 +1,189 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScalrCacheTest extends AbstractScalrTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testCacheEX() {
+		try {
+			new ScalrCache(-1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new ScalrCache(0, folder.getRoot(), -1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new ScalrCache(0).resize(null, Method.QUALITY, 64);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new ScalrCache(0).crop(src, 0, 0, 0, 10);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testMemoryHit() {
+		ScalrCache cache = new ScalrCache(Long.MAX_VALUE);
+		BufferedImage first = cache.resize(src, Method.QUALITY, 120);
+		BufferedImage second = cache.resize(src, Method.QUALITY, 120);
+
+		assertEquals(Scalr.resize(src, Method.QUALITY, 120), first);
+		assertEquals(first, second);
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.getHitCount());
+
+		// Keyed on content, not on the instance.
+		cache.rotate(ScalrCache.copy(src), Rotation.CW_90);
+		assertEquals(Scalr.rotate(src, Rotation.CW_90),
+				cache.rotate(src, Rotation.CW_90));
+		Assert.assertEquals(2, cache.getHitCount());
+
+		// Different arguments or ops are different results.
+		cache.resize(src, Method.QUALITY, Mode.FIT_EXACT, 120, 120);
+		cache.resize(src, Method.QUALITY, 120, Scalr.OP_ANTIALIAS);
+		cache.crop(src, 10, 10, 120, 90);
+		Assert.assertEquals(5, cache.getMissCount());
+
+		// Ops that can't be encoded bypass the cache.
+		ColorConvertOp op = new ColorConvertOp(
+				ColorSpace.getInstance(ColorSpace.CS_GRAY), null);
+
+		cache.resize(src, Method.QUALITY, 120, op);
+		cache.resize(src, Method.QUALITY, 120, op);
+		Assert.assertEquals(5, cache.getMissCount());
+		Assert.assertEquals(2, cache.getHitCount());
+
+		// Nothing to do, nothing cached.
+		Assert.assertSame(src, cache.resize(src, Method.QUALITY,
+				src.getWidth()));
+		Assert.assertSame(src, cache.resize(src, Method.QUALITY,
+				src.getWidth()));
+		Assert.assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void testEviction() {
+		// Room for two 100x75 results.
+		ScalrCache cache = new ScalrCache(2 * 100 * 75 * 4);
+
+		cache.resize(src, Method.SPEED, 100);
+		cache.resize(src, Method.BALANCED, 100);
+		cache.resize(src, Method.QUALITY, 100);
+		Assert.assertEquals(2 * 100 * 75 * 4, cache.getRetainedBytes());
+
+		// The oldest was evicted, the newest are still there.
+		cache.resize(src, Method.QUALITY, 100);
+		cache.resize(src, Method.BALANCED, 100);
+		cache.resize(src, Method.SPEED, 100);
+		Assert.assertEquals(2, cache.getHitCount());
+		Assert.assertEquals(4, cache.getMissCount());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.getRetainedBytes());
+	}
+
+	@Test
+	public void testDiskTier() throws IOException {
+		File directory = folder.newFolder("cache");
+		ScalrCache cache = new ScalrCache(Long.MAX_VALUE, directory,
+				Long.MAX_VALUE);
+		BufferedImage expected = cache.resize(src, Method.QUALITY, 120);
+
+		Assert.assertEquals(1, directory.list().length);
+		Assert.assertTrue(cache.getDiskBytes() > 120 * 90 * 4);
+
+		// A new cache (e.g. another replica) finds the file.
+		cache = new ScalrCache(0, directory, Long.MAX_VALUE);
+		assertEquals(expected, cache.resize(src, Method.QUALITY, 120));
+		Assert.assertEquals(1, cache.getDiskHitCount());
+		Assert.assertEquals(0, cache.getMissCount());
+
+		// Corrupt files are dropped and the result recomputed.
+		FileOutputStream out = new FileOutputStream(new File(directory,
+				directory.list()[0]));
+
+		out.write(new byte[] { 1, 2, 3 });
+		out.close();
+
+		assertEquals(expected, cache.resize(src, Method.QUALITY, 120));
+		Assert.assertEquals(1, cache.getDiskHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+
+		// Least recently used files are deleted to fit the cap.
+		cache = new ScalrCache(0, directory, 2 * 120 * 90 * 4);
+		cache.resize(src, Method.SPEED, 120);
+		cache.resize(src, Method.BALANCED, 120);
+		Assert.assertEquals(1, directory.list().length);
+		Assert.assertTrue(cache.getDiskBytes() <= 2 * 120 * 90 * 4);
+	}
+
+	@Test
+	public void testDiskLeastRecentlyUsed() throws IOException {
+		File directory = folder.newFolder("lru");
+
+		// Room for two 120x90 files, memory for none.
+		ScalrCache cache = new ScalrCache(0, directory, 2 * (120 * 90 * 4 + 64));
+
+		cache.resize(src, Method.SPEED, 120);
+		cache.resize(src, Method.BALANCED, 120);
+
+		// Reading the older file makes it the most recently used one.
+		cache.resize(src, Method.SPEED, 120);
+		Assert.assertEquals(1, cache.getDiskHitCount());
+
+		cache.resize(src, Method.QUALITY, 120);
+		Assert.assertEquals(2, directory.list().length);
+
+		cache.resize(src, Method.SPEED, 120);
+		Assert.assertEquals(2, cache.getDiskHitCount());
+
+		cache.resize(src, Method.BALANCED, 120);
+		Assert.assertEquals(2, cache.getDiskHitCount());
+	}
+}
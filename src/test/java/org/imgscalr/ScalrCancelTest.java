@@ -0,0 +1,167 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.imgscalr.AsyncScalr.Priority;
+import org.imgscalr.AsyncScalr.Submitter;
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Rotation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrCancelTest extends AbstractScalrTest {
+	private final Submitter submitter = new Submitter(Priority.NORMAL, null);
+
+	/**
+	 * Runs tasks on the submitting thread, so it can be interrupted first.
+	 */
+	private final Executor direct = new Executor() {
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+
+	@After
+	public void reset() throws InterruptedException {
+		// Clear any interrupt left over by a failed assertion.
+		Thread.interrupted();
+
+		if (AsyncScalr.service != null) {
+			AsyncScalr.service.shutdown();
+			AsyncScalr.service.awaitTermination(10, TimeUnit.SECONDS);
+			AsyncScalr.service = null;
+		}
+	}
+
+	@Test
+	public void testWithTimeoutEX() {
+		try {
+			submitter.withTimeout(-1, TimeUnit.MILLISECONDS);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			submitter.withTimeout(1, null);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		Future<BufferedImage> future = submitter.withTimeout(0,
+				TimeUnit.MILLISECONDS).resize(src, Method.ULTRA_QUALITY, 50);
+
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof CancellationException);
+		}
+
+		// The timeout does not stick to the thread that ran the task.
+		BufferedImage result = AsyncScalr.resize(src, Method.ULTRA_QUALITY,
+				50).get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(50, Math.max(result.getWidth(), result.getHeight()));
+	}
+
+	@Test
+	public void testTimeoutNotReached() throws Exception {
+		Assert.assertNotNull(submitter.withTimeout(1, TimeUnit.HOURS)
+				.apply(src, Scalr.OP_GRAYSCALE).get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testInterruptOps() throws Exception {
+		Thread.currentThread().interrupt();
+
+		try {
+			submit(new Callable<BufferedImage>() {
+				public BufferedImage call() {
+					return Scalr.apply(src, Scalr.OP_GRAYSCALE);
+				}
+			});
+			Assert.fail();
+		} catch (CancellationException e) {
+			// expected
+		}
+
+		// The interrupt is left for the caller to see.
+		Assert.assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	public void testInterruptBands() throws Exception {
+		final BufferedImage image = new BufferedImage(400, 300,
+				BufferedImage.TYPE_INT_RGB);
+		int threshold = Scalr.getParallelThreshold();
+
+		Scalr.setParallelThreshold(0);
+
+		try {
+			// Interrupted after the task's own check, between the bands.
+			submit(new Callable<BufferedImage>() {
+				public BufferedImage call() {
+					Thread.currentThread().interrupt();
+					return Scalr.rotate(image, Rotation.CW_90);
+				}
+			});
+			Assert.fail();
+		} catch (CancellationException e) {
+			// expected
+		} finally {
+			Scalr.setParallelThreshold(threshold);
+		}
+
+		Assert.assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	public void testInterruptSynchronous() {
+		Thread.currentThread().interrupt();
+
+		// A direct call never observes the caller's interrupt flag.
+		Assert.assertNotNull(Scalr.apply(src, Scalr.OP_GRAYSCALE));
+		Assert.assertNotNull(Scalr.resize(src, Method.ULTRA_QUALITY, 50));
+		Assert.assertTrue(Thread.interrupted());
+	}
+
+	/**
+	 * Runs the given task as an {@link AsyncScalr} task on the calling thread
+	 * and returns its result, rethrowing the exception it failed with.
+	 */
+	private BufferedImage submit(Callable<BufferedImage> task)
+			throws Exception {
+		try {
+			return AsyncScalr.submit(direct, submitter, "test", 0, task).get();
+		} catch (ExecutionException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+}
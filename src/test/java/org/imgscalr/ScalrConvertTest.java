@@ -0,0 +1,119 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.imgscalr.Scalr.Method;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrConvertTest extends AbstractScalrTest {
+	@Test
+	public void testConvertBGR() {
+		BufferedImage bgr = random(157, 93, BufferedImage.TYPE_3BYTE_BGR);
+		BufferedImage result = Scalr.copyToOptimalImage(bgr);
+
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB, result.getType());
+		assertEquals(render(bgr, BufferedImage.TYPE_INT_RGB), result);
+	}
+
+	@Test
+	public void testConvertABGR() {
+		BufferedImage abgr = random(157, 93, BufferedImage.TYPE_4BYTE_ABGR);
+		BufferedImage result = Scalr.copyToOptimalImage(abgr);
+
+		Assert.assertEquals(BufferedImage.TYPE_INT_ARGB, result.getType());
+
+		// Translucent pixels are copied exactly (not via premultiplied alpha).
+		for (int y = 0; y < abgr.getHeight(); y++)
+			for (int x = 0; x < abgr.getWidth(); x++)
+				Assert.assertEquals(abgr.getRGB(x, y), result.getRGB(x, y));
+	}
+
+	@Test
+	public void testConvertGray() {
+		BufferedImage gray = random(157, 93, BufferedImage.TYPE_BYTE_GRAY);
+		BufferedImage result = Scalr.copyToOptimalImage(gray);
+
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB, result.getType());
+		assertEquals(render(gray, BufferedImage.TYPE_INT_RGB), result);
+	}
+
+	@Test
+	public void testConvertView() {
+		BufferedImage bgr = random(157, 93, BufferedImage.TYPE_3BYTE_BGR);
+		BufferedImage view = bgr.getSubimage(11, 7, 100, 50);
+
+		assertEquals(render(view, BufferedImage.TYPE_INT_RGB),
+				Scalr.copyToOptimalImage(view));
+	}
+
+	@Test
+	public void testConvertParallel() {
+		BufferedImage bgr = random(301, 403, BufferedImage.TYPE_3BYTE_BGR);
+		BufferedImage expected = Scalr.copyToOptimalImage(bgr);
+		int threshold = Scalr.getParallelThreshold();
+		ForkJoinPool pool = new ForkJoinPool(3);
+
+		Scalr.setParallelThreshold(0);
+		Scalr.setParallelPool(pool);
+
+		try {
+			assertEquals(expected, Scalr.copyToOptimalImage(bgr));
+		} finally {
+			Scalr.setParallelThreshold(threshold);
+			Scalr.setParallelPool(null);
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testResizeConverted() {
+		BufferedImage bgr = random(320, 240, BufferedImage.TYPE_3BYTE_BGR);
+		BufferedImage rgb = render(bgr, BufferedImage.TYPE_INT_RGB);
+
+		for (Method method : new Method[] { Method.QUALITY, Method.LANCZOS3 })
+			assertEquals(Scalr.resize(rgb, method, 100),
+					Scalr.resize(bgr, method, 100));
+	}
+
+	private static BufferedImage random(int width, int height, int type) {
+		Random random = new Random(width * 31 + type);
+		BufferedImage image = new BufferedImage(width, height, type);
+		byte[] pixels = new byte[width * height
+				* image.getRaster().getNumBands()];
+
+		random.nextBytes(pixels);
+		image.getRaster().setDataElements(0, 0, width, height, pixels);
+
+		return image;
+	}
+
+	private static BufferedImage render(BufferedImage src, int type) {
+		BufferedImage result = new BufferedImage(src.getWidth(),
+				src.getHeight(), type);
+		Graphics g = result.getGraphics();
+
+		g.drawImage(src, 0, 0, null);
+		g.dispose();
+
+		return result;
+	}
+}
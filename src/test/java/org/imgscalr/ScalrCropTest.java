@@ -15,6 +15,7 @@
  */
 package org.imgscalr;
 
+import java.awt.image.BufferedImage;
 import static org.imgscalr.Scalr.crop;
 
 import org.junit.Assert;
@@ -61,4 +62,82 @@ public class ScalrCropTest extends AbstractScalrTest {
 		assertEquals(load("time-square-crop-xywh-ops.png"),
 				crop(src, 100, 100, 320, 240, Scalr.OP_GRAYSCALE));
 	}
+
+	@Test
+	public void testCropIntoDest() {
+		BufferedImage dest = new BufferedImage(400, 300,
+				BufferedImage.TYPE_INT_ARGB);
+
+		dest.setRGB(9, 20, 0xFF00FF00);
+		Assert.assertSame(dest,
+				Scalr.crop(src, 100, 100, 320, 240, dest, 10, 20));
+		assertEquals(crop(src, 100, 100, 320, 240),
+				dest.getSubimage(10, 20, 320, 240));
+		Assert.assertEquals(0xFF00FF00, dest.getRGB(9, 20));
+
+		try {
+			Scalr.crop(src, 100, 100, 320, 240, dest, 81, 0);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			Scalr.crop(src, 0, 0, 10, 10, new BufferedImage(10, 10,
+					BufferedImage.TYPE_3BYTE_BGR), 0, 0);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testCropView() {
+		BufferedImage image = Scalr.copy(src);
+		BufferedImage view = Scalr.cropView(image, 100, 100, 320, 240);
+
+		Assert.assertEquals(image.getType(), view.getType());
+		assertEquals(crop(image, 100, 100, 320, 240), view);
+
+		// The view shares its pixels with the source...
+		image.setRGB(100, 100, 0xFF00FF00);
+		Assert.assertEquals(0xFF00FF00, view.getRGB(0, 0));
+
+		// ...a copy of it does not.
+		BufferedImage copy = Scalr.copy(view);
+
+		assertEquals(view, copy);
+		image.setRGB(100, 100, 0xFF0000FF);
+		Assert.assertEquals(0xFF00FF00, copy.getRGB(0, 0));
+
+		try {
+			Scalr.cropView(image, 0, 0, 0, 10);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			Scalr.cropView(image, 0, 0, 3200, 2400);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testCropViewCopiesOtherTypes() {
+		BufferedImage bgr = new BufferedImage(40, 30,
+				BufferedImage.TYPE_3BYTE_BGR);
+
+		bgr.setRGB(5, 5, 0xFF123456);
+
+		BufferedImage view = Scalr.cropView(bgr, 5, 5, 10, 10);
+
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB, view.getType());
+		Assert.assertEquals(0xFF123456, view.getRGB(0, 0));
+
+		bgr.setRGB(5, 5, 0xFF000000);
+		Assert.assertEquals(0xFF123456, view.getRGB(0, 0));
+	}
 }
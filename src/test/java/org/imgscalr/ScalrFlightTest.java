@@ -0,0 +1,129 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class ScalrFlightTest extends AbstractScalrTest {
+	@Test
+	public void testEvents() throws Exception {
+		Assume.assumeTrue(Flight.AVAILABLE);
+
+		Recording recording = new Recording();
+		File file = File.createTempFile("imgscalr", ".jfr");
+
+		recording.enable("org.imgscalr.Resize");
+		recording.enable("org.imgscalr.IncrementalStep");
+		recording.enable("org.imgscalr.Crop");
+		recording.enable("org.imgscalr.Pad");
+		recording.enable("org.imgscalr.Rotate");
+		recording.enable("org.imgscalr.Apply");
+		recording.enable("org.imgscalr.ApplyOp");
+		recording.enable("org.imgscalr.AsyncTask");
+		recording.start();
+
+		try {
+			Scalr.resize(src, Method.QUALITY, Mode.FIT_EXACT, 100, 80,
+					Scalr.OP_GRAYSCALE, Scalr.OP_ANTIALIAS);
+			Scalr.crop(src, 10, 10);
+			Scalr.pad(src, 2, Color.RED);
+			Scalr.rotate(src, Rotation.CW_90);
+			AsyncScalr.resize(src, 50).get();
+		} finally {
+			AsyncScalr.getService().shutdown();
+			recording.stop();
+		}
+
+		recording.dump(file.toPath());
+		recording.close();
+
+		Map<String, RecordedEvent> last = new HashMap<String, RecordedEvent>();
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+
+		try {
+			for (RecordedEvent event : RecordingFile.readAllEvents(file
+					.toPath())) {
+				String name = event.getEventType().getName();
+				Integer count = counts.get(name);
+
+				counts.put(name, (count == null ? 1 : count + 1));
+
+				// Keep the first event of every type.
+				if (!last.containsKey(name))
+					last.put(name, event);
+			}
+		} finally {
+			file.delete();
+		}
+
+		// The sync resize and the async one.
+		Assert.assertEquals(Integer.valueOf(2),
+				counts.get("org.imgscalr.Resize"));
+		Assert.assertEquals(Integer.valueOf(1), counts.get("org.imgscalr.Crop"));
+		Assert.assertEquals(Integer.valueOf(1), counts.get("org.imgscalr.Pad"));
+		Assert.assertEquals(Integer.valueOf(1),
+				counts.get("org.imgscalr.Rotate"));
+		Assert.assertEquals(Integer.valueOf(1), counts.get("org.imgscalr.Apply"));
+		Assert.assertEquals(Integer.valueOf(2),
+				counts.get("org.imgscalr.ApplyOp"));
+		Assert.assertEquals(Integer.valueOf(1),
+				counts.get("org.imgscalr.AsyncTask"));
+		Assert.assertTrue(counts.get("org.imgscalr.IncrementalStep") > 1);
+
+		RecordedEvent resize = last.get("org.imgscalr.Resize");
+
+		Assert.assertEquals(src.getWidth(), resize.getInt("srcWidth"));
+		Assert.assertEquals(src.getHeight(), resize.getInt("srcHeight"));
+		Assert.assertEquals(100, resize.getInt("resultWidth"));
+		Assert.assertEquals(80, resize.getInt("resultHeight"));
+		Assert.assertEquals("QUALITY", resize.getString("method"));
+
+		RecordedEvent step = last.get("org.imgscalr.IncrementalStep");
+
+		Assert.assertEquals(1, step.getInt("step"));
+		Assert.assertEquals(src.getWidth(), step.getInt("srcWidth"));
+
+		RecordedEvent task = last.get("org.imgscalr.AsyncTask");
+
+		Assert.assertEquals("resize", task.getString("operation"));
+		Assert.assertTrue(task.getLong("queueTime") >= 0);
+
+		Assert.assertEquals(Scalr.OP_GRAYSCALE.getClass().getName(), last.get(
+				"org.imgscalr.ApplyOp").getString("op"));
+	}
+
+	@Test
+	public void testNotRecording() {
+		Assume.assumeTrue(Flight.AVAILABLE);
+		Assert.assertFalse(Flight.isRecording());
+		Assert.assertNull(Flight.begin(ScalrEvent.Operation.RESIZE));
+		Assert.assertNull(Flight.beginStep());
+	}
+}
@@ -0,0 +1,173 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrIOTest extends AbstractScalrTest {
+	@Test
+	public void testResizeEX() throws IOException {
+		try {
+			ScalrIO.resize((ImageInputStream) null, Method.AUTOMATIC,
+					Mode.AUTOMATIC, 100, 100);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			ScalrIO.resize(reader(encode(src, "png")), 0, Method.AUTOMATIC,
+					Mode.AUTOMATIC, 100, 100, 0);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			ScalrIO.resize(
+					ImageIO.createImageInputStream(new ByteArrayInputStream(
+							new byte[16])), Method.AUTOMATIC, Mode.AUTOMATIC,
+					100, 100);
+			Assert.assertTrue(false);
+		} catch (IOException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testResizeStream() throws IOException {
+		byte[] png = encode(src, "png");
+		BufferedImage expected = Scalr.resize(decode(png), Method.LANCZOS3,
+				Mode.AUTOMATIC, 320, 240);
+
+		assertEquals(expected, ScalrIO.resize(
+				ImageIO.createImageInputStream(new ByteArrayInputStream(png)),
+				Method.LANCZOS3, Mode.AUTOMATIC, 320, 240));
+	}
+
+	@Test
+	public void testResizeStrips() throws IOException {
+		BufferedImage argb = new BufferedImage(src.getWidth(),
+				src.getHeight(), BufferedImage.TYPE_INT_ARGB);
+
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+				argb.setRGB(x, y, (src.getRGB(x, y) & 0x00FFFFFF)
+						| ((y * 255 / src.getHeight()) << 24));
+
+		byte[][] images = { encode(src, "png"), encode(argb, "png"),
+				encode(src, "jpg") };
+		Method[] methods = { Method.LANCZOS3, Method.CATMULL_ROM };
+		int[][] sizes = { { 97, 61 }, { 31, 400 }, { 1200, 900 } };
+		int[] strips = { 13, 100000 };
+
+		for (byte[] image : images) {
+			BufferedImage decoded = decode(image);
+
+			for (Method method : methods) {
+				for (int[] size : sizes) {
+					BufferedImage expected = Scalr.resize(decoded, method,
+							Mode.FIT_EXACT, size[0], size[1]);
+
+					for (int strip : strips)
+						assertEquals(expected, ScalrIO.resize(reader(image), 0,
+								method, Mode.FIT_EXACT, size[0], size[1],
+								strip));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testResizeNoScaling() throws IOException {
+		byte[] png = encode(src, "png");
+
+		assertEquals(src, ScalrIO.resize(reader(png), 0, Method.AUTOMATIC,
+				Mode.FIT_TO_WIDTH, src.getWidth(), 1, -1));
+	}
+
+	@Test
+	public void testSubsamplingFactor() {
+		Assert.assertEquals(1, ScalrIO.subsamplingFactor(800, 600, 400, 300));
+		Assert.assertEquals(1, ScalrIO.subsamplingFactor(800, 600, 1600, 1200));
+		Assert.assertEquals(4, ScalrIO.subsamplingFactor(800, 600, 100, 75));
+		Assert.assertEquals(20, ScalrIO.subsamplingFactor(6000, 4000, 150, 100));
+
+		// The tighter dimension decides (FIT_EXACT).
+		Assert.assertEquals(2, ScalrIO.subsamplingFactor(6000, 4000, 150, 1000));
+	}
+
+	@Test
+	public void testResizeSubsampled() throws IOException {
+		Method[] methods = { Method.SPEED, Method.QUALITY, Method.LANCZOS3 };
+		byte[][] images = { encode(src, "png"), encode(src, "jpg") };
+
+		for (byte[] image : images) {
+			BufferedImage decoded = decode(image);
+
+			for (Method method : methods) {
+				BufferedImage expected = Scalr.resize(decoded, method, 100);
+				BufferedImage result = ScalrIO.resizeSubsampled(
+						ImageIO.createImageInputStream(new ByteArrayInputStream(
+								image)), method, Mode.AUTOMATIC, 100, 100);
+
+				Assert.assertEquals(expected.getWidth(), result.getWidth());
+				Assert.assertEquals(expected.getHeight(), result.getHeight());
+
+				// Subsampling aliases a little on this very detailed image.
+				Assert.assertTrue(method.name(),
+						ScalrResampleTest.meanDifference(expected, result) < 16);
+			}
+		}
+	}
+
+	private static byte[] encode(BufferedImage image, String format)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		ImageIO.write(image, format, out);
+
+		return out.toByteArray();
+	}
+
+	private static BufferedImage decode(byte[] image) throws IOException {
+		return ImageIO.read(new ByteArrayInputStream(image));
+	}
+
+	private static ImageReader reader(byte[] image) throws IOException {
+		ImageInputStream stream = ImageIO
+				.createImageInputStream(new ByteArrayInputStream(image));
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+		ImageReader reader = readers.next();
+
+		reader.setInput(stream);
+
+		return reader;
+	}
+}
@@ -0,0 +1,190 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.imgscalr.AsyncScalr.Priority;
+import org.imgscalr.AsyncScalr.Submitter;
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrImagePoolTest extends AbstractScalrTest {
+	@After
+	public void restore() {
+		Scalr.setImagePool(null);
+	}
+
+	@Test
+	public void testMaxBytesEX() {
+		try {
+			new BucketedImagePool(-1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testAcquire() {
+		BucketedImagePool pool = new BucketedImagePool(1024 * 1024);
+		int[] types = { BufferedImage.TYPE_INT_RGB,
+				BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE };
+
+		for (int type : types) {
+			BufferedImage image = pool.acquire(31, 17, type);
+
+			Assert.assertEquals(31, image.getWidth());
+			Assert.assertEquals(17, image.getHeight());
+			Assert.assertEquals(type, image.getType());
+
+			image.setRGB(5, 5, 0xFFFF0000);
+			pool.release(image);
+		}
+
+		// Recycled buffers must come back cleared.
+		BufferedImage image = pool.acquire(17, 31,
+				BufferedImage.TYPE_INT_ARGB);
+
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+				Assert.assertEquals(0, image.getRGB(x, y));
+
+		Assert.assertEquals(3, pool.getHitCount());
+	}
+
+	@Test
+	public void testReuse() {
+		BucketedImagePool pool = new BucketedImagePool(1024 * 1024);
+
+		pool.release(pool.acquire(100, 100, BufferedImage.TYPE_INT_RGB));
+		pool.acquire(90, 90, BufferedImage.TYPE_INT_ARGB);
+		Assert.assertEquals(1, pool.getHitCount());
+		Assert.assertEquals(1, pool.getMissCount());
+		Assert.assertEquals(0, pool.getRetainedBytes());
+
+		// Too small to back the request, must allocate.
+		pool.release(pool.acquire(10, 10, BufferedImage.TYPE_INT_RGB));
+		pool.acquire(100, 100, BufferedImage.TYPE_INT_RGB);
+		Assert.assertEquals(1, pool.getHitCount());
+		Assert.assertEquals(400, pool.getRetainedBytes());
+	}
+
+	@Test
+	public void testEviction() {
+		BucketedImagePool pool = new BucketedImagePool(100 * 100 * 4 * 2);
+
+		for (int i = 0; i < 5; i++)
+			pool.release(new BufferedImage(100, 100,
+					BufferedImage.TYPE_INT_RGB));
+
+		Assert.assertEquals(100 * 100 * 4 * 2, pool.getRetainedBytes());
+
+		// Bigger than the cap on its own, never retained.
+		pool.release(new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB));
+		Assert.assertEquals(100 * 100 * 4 * 2, pool.getRetainedBytes());
+
+		pool.clear();
+		Assert.assertEquals(0, pool.getRetainedBytes());
+	}
+
+	@Test
+	public void testResizeIdenticalWithPool() {
+		Method[] methods = { Method.QUALITY, Method.ULTRA_QUALITY };
+		BucketedImagePool pool = new BucketedImagePool(64 * 1024 * 1024);
+
+		for (Method method : methods) {
+			BufferedImage expected = Scalr.resize(src, method, Mode.FIT_EXACT,
+					97, 61);
+
+			Scalr.setImagePool(pool);
+			BufferedImage result = Scalr.resize(src, method, Mode.FIT_EXACT,
+					97, 61);
+			Scalr.setImagePool(null);
+
+			assertEquals(expected, result);
+		}
+
+		Assert.assertTrue(pool.getRetainedBytes() > 0);
+	}
+
+	@Test
+	public void testCancelReleasesBuffers() throws Exception {
+		final AtomicInteger outstanding = new AtomicInteger();
+		final BucketedImagePool pool = new BucketedImagePool(64 * 1024 * 1024);
+
+		Scalr.setImagePool(new ImagePool() {
+			public BufferedImage acquire(int width, int height, int type) {
+				// Cancel the scale once both step buffers are out.
+				if (outstanding.incrementAndGet() == 2)
+					Thread.currentThread().interrupt();
+
+				return pool.acquire(width, height, type);
+			}
+
+			public void release(BufferedImage image) {
+				outstanding.decrementAndGet();
+				pool.release(image);
+			}
+		});
+
+		Executor direct = new Executor() {
+			public void execute(Runnable command) {
+				command.run();
+			}
+		};
+
+		try {
+			AsyncScalr.submit(direct, new Submitter(Priority.NORMAL, null),
+					"resize", 0, new Callable<BufferedImage>() {
+						public BufferedImage call() {
+							return Scalr.resize(src, Method.ULTRA_QUALITY,
+									Mode.FIT_EXACT, 50, 50);
+						}
+					}).get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof CancellationException);
+		} finally {
+			Thread.interrupted();
+		}
+
+		Assert.assertEquals(0, outstanding.get());
+	}
+
+	@Test
+	public void testApplyIdenticalWithPool() {
+		BufferedImage expected = Scalr.apply(src, Scalr.OP_ANTIALIAS,
+				Scalr.OP_BRIGHTER, Scalr.OP_DARKER);
+
+		BucketedImagePool pool = new BucketedImagePool(64 * 1024 * 1024);
+		Scalr.setImagePool(pool);
+		BufferedImage result = Scalr.apply(src, Scalr.OP_ANTIALIAS,
+				Scalr.OP_BRIGHTER, Scalr.OP_DARKER);
+		Scalr.setImagePool(null);
+
+		assertEquals(expected, result);
+		Assert.assertTrue(pool.getRetainedBytes() > 0);
+	}
+}
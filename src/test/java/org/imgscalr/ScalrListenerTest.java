@@ -0,0 +1,183 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorModel;
+import java.awt.image.ImagingOpException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.ScalrEvent.Operation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScalrListenerTest extends AbstractScalrTest {
+	private final List<ScalrEvent> events = new ArrayList<ScalrEvent>();
+
+	@Before
+	public void install() {
+		Scalr.setListener(new ScalrListener() {
+			public void onEvent(ScalrEvent event) {
+				events.add(event);
+			}
+		});
+	}
+
+	@After
+	public void uninstall() {
+		Scalr.setListener(null);
+	}
+
+	@Test
+	public void testDefault() {
+		Scalr.setListener(null);
+		Assert.assertSame(ScalrListener.NOOP, Scalr.getListener());
+
+		Scalr.resize(src, 100);
+		Assert.assertTrue(events.isEmpty());
+	}
+
+	@Test
+	public void testResize() {
+		BufferedImage result = Scalr.resize(src, Method.QUALITY,
+				Mode.FIT_EXACT, 100, 80);
+
+		Assert.assertEquals(1, events.size());
+
+		ScalrEvent event = events.get(0);
+
+		Assert.assertEquals(Operation.RESIZE, event.getOperation());
+		Assert.assertEquals(src.getWidth(), event.getSrcWidth());
+		Assert.assertEquals(src.getHeight(), event.getSrcHeight());
+		Assert.assertEquals(src.getType(), event.getSrcType());
+		Assert.assertEquals(100, event.getResultWidth());
+		Assert.assertEquals(80, event.getResultHeight());
+		Assert.assertEquals(result.getType(), event.getResultType());
+		Assert.assertEquals(Method.QUALITY, event.getMethod());
+		Assert.assertTrue(event.getSteps() > 1);
+		Assert.assertTrue(event.getTotalNanos() > 0);
+		Assert.assertEquals(0, event.getOpsNanos());
+		Assert.assertTrue(event.getRenderNanos() > 0);
+		Assert.assertEquals(event.getTotalNanos(), event.getConvertNanos()
+				+ event.getRenderNanos());
+
+		// At least the result and the first (largest) interim step.
+		Assert.assertTrue(event.getBytesAllocated() >= Recorder.bytes(result)
+				+ (src.getWidth() / 2) * (src.getHeight() / 2) * 4);
+	}
+
+	@Test
+	public void testAutomaticMethod() {
+		Scalr.resize(src, Method.AUTOMATIC, 100);
+		Assert.assertEquals(1, events.size());
+		Assert.assertNotNull(events.get(0).getMethod());
+		Assert.assertNotSame(Method.AUTOMATIC, events.get(0).getMethod());
+	}
+
+	@Test
+	public void testNestedOps() {
+		Scalr.resize(src, Method.SPEED, 100, Scalr.OP_GRAYSCALE);
+
+		Assert.assertEquals(2, events.size());
+
+		ScalrEvent apply = events.get(0);
+		ScalrEvent resize = events.get(1);
+
+		Assert.assertEquals(Operation.APPLY, apply.getOperation());
+		Assert.assertNull(apply.getMethod());
+		Assert.assertEquals(Operation.RESIZE, resize.getOperation());
+		Assert.assertEquals(Method.SPEED, resize.getMethod());
+		Assert.assertEquals(0, resize.getSteps());
+		Assert.assertEquals(apply.getTotalNanos(), resize.getOpsNanos());
+		Assert.assertTrue(resize.getTotalNanos() >= resize.getOpsNanos());
+		Assert.assertTrue(resize.getBytesAllocated() > apply
+				.getBytesAllocated());
+	}
+
+	@Test
+	public void testConvert() {
+		BufferedImage bgr = new BufferedImage(300, 200,
+				BufferedImage.TYPE_3BYTE_BGR);
+
+		Scalr.resize(bgr, Method.LANCZOS3, 100);
+
+		ScalrEvent event = events.get(0);
+
+		Assert.assertEquals(BufferedImage.TYPE_3BYTE_BGR, event.getSrcType());
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB, event.getResultType());
+		Assert.assertTrue(event.getConvertNanos() > 0);
+		Assert.assertEquals(300 * 200 * 4 + 100 * 67 * 4,
+				event.getBytesAllocated());
+	}
+
+	@Test
+	public void testFailure() {
+		try {
+			Scalr.crop(src, 0, 0, src.getWidth() + 1, 10);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		// Fails inside of the operation, after recording started.
+		try {
+			Scalr.resize(src, Method.SPEED, 100, new NullBoundsOp());
+			Assert.assertTrue(false);
+		} catch (ImagingOpException e) {
+			Assert.assertTrue(true);
+		}
+
+		Assert.assertNull(Recorder.current());
+
+		events.clear();
+		Scalr.crop(src, 0, 0, 10, 10);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(Operation.CROP, events.get(0).getOperation());
+		Assert.assertNull(Recorder.current());
+	}
+
+	private static class NullBoundsOp implements BufferedImageOp {
+		public BufferedImage filter(BufferedImage src, BufferedImage dest) {
+			return dest;
+		}
+
+		public Rectangle2D getBounds2D(BufferedImage src) {
+			return null;
+		}
+
+		public BufferedImage createCompatibleDestImage(BufferedImage src,
+				ColorModel destCM) {
+			return null;
+		}
+
+		public Point2D getPoint2D(Point2D srcPt, Point2D dstPt) {
+			return srcPt;
+		}
+
+		public RenderingHints getRenderingHints() {
+			return null;
+		}
+	}
+}
@@ -16,6 +16,7 @@
 package org.imgscalr;
 
 import java.awt.Color;
+import java.awt.image.BufferedImage;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -64,4 +65,23 @@ public class ScalrPadTest extends AbstractScalrTest {
 		assertEquals(load("time-square-pad-8-alpha-ops.png"),
 				Scalr.pad(src, pad, alpha, Scalr.OP_GRAYSCALE));
 	}
+
+	@Test
+	public void testPadIntoDest() {
+		BufferedImage expected = Scalr.pad(src, pad, Color.RED);
+		BufferedImage dest = new BufferedImage(expected.getWidth() + 10,
+				expected.getHeight() + 10, BufferedImage.TYPE_INT_RGB);
+
+		Assert.assertSame(dest, Scalr.pad(src, pad, Color.RED, dest, 5, 5));
+		assertEquals(expected, dest.getSubimage(5, 5, expected.getWidth(),
+				expected.getHeight()));
+		Assert.assertEquals(0xFF000000, dest.getRGB(4, 4));
+
+		try {
+			Scalr.pad(src, pad, Color.RED, dest, 11, 0);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
 }
@@ -0,0 +1,86 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrParallelTest extends AbstractScalrTest {
+	private static final Method[] METHODS = { Method.LANCZOS3,
+			Method.MITCHELL, Method.CATMULL_ROM };
+
+	private final int threshold = Scalr.getParallelThreshold();
+
+	@After
+	public void restore() {
+		Scalr.setParallelThreshold(threshold);
+		Scalr.setParallelPool(null);
+	}
+
+	@Test
+	public void testParallelThresholdEX() {
+		try {
+			Scalr.setParallelThreshold(-1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testParallelPool() {
+		ForkJoinPool pool = new ForkJoinPool(3);
+
+		Scalr.setParallelPool(pool);
+		Assert.assertSame(pool, Scalr.getParallelPool());
+
+		Scalr.setParallelPool(null);
+		Assert.assertSame(ForkJoinPool.commonPool(), Scalr.getParallelPool());
+
+		pool.shutdown();
+	}
+
+	@Test
+	public void testParallelIdenticalToSingleThreaded() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		int[][] sizes = { { 320, 240 }, { 97, 413 }, { 1000, 1001 },
+				{ 640, 3 } };
+
+		for (Method method : METHODS) {
+			for (int[] size : sizes) {
+				Scalr.setParallelThreshold(Integer.MAX_VALUE);
+				BufferedImage expected = Scalr.resize(src, method,
+						Mode.FIT_EXACT, size[0], size[1]);
+
+				Scalr.setParallelThreshold(0);
+				Scalr.setParallelPool(pool);
+				BufferedImage result = Scalr.resize(src, method,
+						Mode.FIT_EXACT, size[0], size[1]);
+				Scalr.setParallelPool(null);
+
+				assertEquals(expected, result);
+			}
+		}
+
+		pool.shutdown();
+	}
+}
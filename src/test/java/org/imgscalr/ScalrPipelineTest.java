@@ -0,0 +1,207 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.imgscalr.Scalr.Rotation;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrPipelineTest extends AbstractScalrTest {
+	@Test
+	public void testPipelineEX() {
+		try {
+			new Pipeline().crop(-1, 0, 10, 10);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new Pipeline().pad(0, Color.RED);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new Pipeline().resize(Method.SPEED, null, 10, 10);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new Pipeline().run(null);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new Pipeline().resize(Method.SPEED, Mode.FIT_EXACT, 100, 100)
+					.crop(50, 50, 51, 10).run(src);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testCropRotatePad() {
+		for (Rotation rotation : Rotation.values()) {
+			BufferedImage expected = Scalr.pad(Scalr.rotate(
+					Scalr.crop(src, 100, 50, 320, 240), rotation), 8,
+					Color.RED);
+			BufferedImage result = new Pipeline().crop(100, 50, 320, 240)
+					.rotate(rotation).pad(8, Color.RED).run(src);
+
+			assertEquals(expected, result);
+		}
+	}
+
+	@Test
+	public void testPadRotateCropPad() {
+		BufferedImage expected = Scalr.pad(Scalr.crop(Scalr.rotate(
+				Scalr.pad(src, 10, Color.GREEN), Rotation.CW_90), 5, 5, 300,
+				200), 3, Color.BLUE);
+		BufferedImage result = new Pipeline().pad(10, Color.GREEN)
+				.rotate(Rotation.CW_90).crop(5, 5, 300, 200)
+				.pad(3, Color.BLUE).run(src);
+
+		assertEquals(expected, result);
+	}
+
+	@Test
+	public void testTranslucentPad() {
+		Color translucent = new Color(0, 0, 255, 128);
+		BufferedImage result = new Pipeline().pad(10, Color.GREEN)
+				.crop(5, 5, 300, 200).pad(3, translucent).run(src);
+		int w = result.getWidth();
+		int h = result.getHeight();
+
+		Assert.assertEquals(BufferedImage.TYPE_INT_ARGB, result.getType());
+		Assert.assertEquals(306, w);
+		Assert.assertEquals(206, h);
+
+		int[][] border = { { 0, 0 }, { w - 1, 0 }, { 0, h - 1 },
+				{ w - 1, h - 1 }, { w / 2, 2 }, { 2, h / 2 } };
+
+		for (int[] p : border)
+			Assert.assertEquals(translucent.getRGB(),
+					result.getRGB(p[0], p[1]));
+
+		// The cropped green border and then the image.
+		Assert.assertEquals(Color.GREEN.getRGB(), result.getRGB(3, 3));
+		Assert.assertEquals(src.getRGB(0, 0), result.getRGB(8, 8));
+	}
+
+	@Test
+	public void testFusedResize() {
+		BufferedImage expected = Scalr.rotate(Scalr.crop(
+				Scalr.resize(src, Method.SPEED, Mode.FIT_EXACT, 400, 300), 20,
+				10, 200, 150), Rotation.CW_270);
+		BufferedImage result = new Pipeline()
+				.resize(Method.SPEED, Mode.FIT_EXACT, 400, 300)
+				.crop(20, 10, 200, 150).rotate(Rotation.CW_270).run(src);
+
+		assertEquals(expected, result);
+
+		// Bilinear samples across the crop edge when fused, so only similar.
+		expected = Scalr.resize(Scalr.crop(src, 10, 10, 200, 150),
+				Method.BALANCED, Mode.FIT_EXACT, 300, 225);
+		result = new Pipeline().crop(10, 10, 200, 150)
+				.resize(Method.BALANCED, Mode.FIT_EXACT, 300, 225).run(src);
+
+		Assert.assertEquals(300, result.getWidth());
+		Assert.assertEquals(225, result.getHeight());
+		Assert.assertTrue(ScalrResampleTest.meanDifference(expected, result) < 1);
+	}
+
+	@Test
+	public void testBarrierResize() {
+		Method[] methods = { Method.QUALITY, Method.ULTRA_QUALITY,
+				Method.LANCZOS3 };
+
+		for (Method method : methods) {
+			BufferedImage expected = Scalr.pad(Scalr.resize(
+					Scalr.crop(src, 100, 100, 500, 400), method, 150), 4,
+					Color.WHITE);
+			BufferedImage result = new Pipeline().crop(100, 100, 500, 400)
+					.resize(method, Mode.AUTOMATIC, 150, 150)
+					.pad(4, Color.WHITE).run(src);
+
+			assertEquals(expected, result);
+		}
+
+		// Resizing after a pad scales the padding too.
+		BufferedImage expected = Scalr.resize(Scalr.pad(src, 20, Color.RED),
+				Method.SPEED, Mode.FIT_EXACT, 100, 100);
+		BufferedImage result = new Pipeline().pad(20, Color.RED)
+				.resize(Method.SPEED, Mode.FIT_EXACT, 100, 100).run(src);
+
+		assertEquals(expected, result);
+	}
+
+	@Test
+	public void testApply() {
+		BufferedImage expected = Scalr.apply(
+				Scalr.rotate(Scalr.apply(Scalr.crop(src, 0, 0, 300, 300),
+						Scalr.OP_ANTIALIAS), Rotation.FLIP_HORZ),
+				Scalr.OP_BRIGHTER, Scalr.OP_DARKER);
+		BufferedImage result = new Pipeline().crop(0, 0, 300, 300)
+				.apply(Scalr.OP_ANTIALIAS).rotate(Rotation.FLIP_HORZ)
+				.apply(Scalr.OP_BRIGHTER).apply(Scalr.OP_DARKER).run(src);
+
+		assertEquals(expected, result);
+	}
+
+	@Test
+	public void testLeadingCropIsView() {
+		// A crop at the origin leaves an identity transform behind.
+		int[][] origins = { { 0, 0 }, { 10, 20 } };
+
+		for (int[] origin : origins) {
+			Pipeline.Stage stage = new Pipeline.Stage(src);
+
+			new Pipeline.Crop(origin[0], origin[1], 100, 50).plan(stage);
+
+			BufferedImage view = stage.render();
+
+			Assert.assertEquals(100, view.getWidth());
+			Assert.assertEquals(50, view.getHeight());
+			Assert.assertSame(src.getRaster().getDataBuffer(), view
+					.getRaster().getDataBuffer());
+			Assert.assertEquals(src.getRGB(origin[0] + 5, origin[1] + 5),
+					view.getRGB(5, 5));
+		}
+	}
+
+	@Test
+	public void testResultNeverSharesSource() {
+		BufferedImage result = new Pipeline().crop(0, 0, 10, 10).run(src);
+		int before = src.getRGB(0, 0);
+
+		result.setRGB(0, 0, ~before);
+		Assert.assertEquals(before, src.getRGB(0, 0));
+
+		Assert.assertNotSame(src, new Pipeline().run(src));
+	}
+}
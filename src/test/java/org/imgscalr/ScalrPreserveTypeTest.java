@@ -0,0 +1,158 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.util.Random;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Rotation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrPreserveTypeTest extends AbstractScalrTest {
+	@After
+	public void reset() {
+		Scalr.setPreserveType(false);
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		BufferedImage gray = gray(64, 48);
+
+		Assert.assertFalse(Scalr.isPreserveType());
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB,
+				Scalr.resize(gray, Method.SPEED, 32).getType());
+	}
+
+	@Test
+	public void testGray() {
+		BufferedImage gray = gray(64, 48);
+		BufferedImage[] expected = {
+				Scalr.crop(gray, 5, 7, 30, 20),
+				Scalr.rotate(gray, Rotation.CW_90),
+				Scalr.resize(gray, Method.SPEED, 32),
+				Scalr.pad(gray, 3, Color.GRAY) };
+
+		Scalr.setPreserveType(true);
+
+		BufferedImage[] results = {
+				Scalr.crop(gray, 5, 7, 30, 20),
+				Scalr.rotate(gray, Rotation.CW_90),
+				Scalr.resize(gray, Method.SPEED, 32),
+				Scalr.pad(gray, 3, Color.GRAY) };
+
+		// Pixels are moved, not blended: identical to the RGB results.
+		for (int i = 0; i < results.length; i++) {
+			Assert.assertEquals(BufferedImage.TYPE_BYTE_GRAY,
+					results[i].getType());
+			assertSameGray(expected[i], results[i], 0);
+		}
+
+		for (Method method : new Method[] { Method.BALANCED, Method.QUALITY,
+				Method.LANCZOS3 }) {
+			BufferedImage result = Scalr.resize(gray, method, 20);
+
+			Assert.assertEquals(BufferedImage.TYPE_BYTE_GRAY, result.getType());
+			Scalr.setPreserveType(false);
+			assertSameGray(Scalr.resize(gray, method, 20), result, 1);
+			Scalr.setPreserveType(true);
+		}
+
+		// A color that is not a shade of gray needs an RGB image.
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB,
+				Scalr.pad(gray, 3, Color.RED).getType());
+	}
+
+	@Test
+	public void testIndexed() {
+		BufferedImage indexed = indexed(64, 48);
+		IndexColorModel palette = (IndexColorModel) indexed.getColorModel();
+		BufferedImage[] expected = {
+				Scalr.crop(indexed, 5, 7, 30, 20),
+				Scalr.rotate(indexed, Rotation.FLIP_HORZ),
+				Scalr.resize(indexed, Method.SPEED, 32),
+				Scalr.pad(indexed, 3, new Color(palette.getRGB(2), true)) };
+
+		Scalr.setPreserveType(true);
+
+		BufferedImage[] results = {
+				Scalr.crop(indexed, 5, 7, 30, 20),
+				Scalr.rotate(indexed, Rotation.FLIP_HORZ),
+				Scalr.resize(indexed, Method.SPEED, 32),
+				Scalr.pad(indexed, 3, new Color(palette.getRGB(2), true)) };
+
+		for (int i = 0; i < results.length; i++) {
+			Assert.assertEquals(BufferedImage.TYPE_BYTE_INDEXED,
+					results[i].getType());
+			Assert.assertSame(palette, results[i].getColorModel());
+			assertEquals(expected[i], results[i]);
+		}
+
+		// Interpolation and colors outside of the palette need RGB images.
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB,
+				Scalr.resize(indexed, Method.BALANCED, 32).getType());
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB,
+				Scalr.pad(indexed, 3, new Color(1, 2, 3)).getType());
+	}
+
+	private static void assertSameGray(BufferedImage rgb, BufferedImage gray,
+			int tolerance) {
+		Assert.assertEquals(rgb.getWidth(), gray.getWidth());
+		Assert.assertEquals(rgb.getHeight(), gray.getHeight());
+
+		for (int y = 0; y < gray.getHeight(); y++)
+			for (int x = 0; x < gray.getWidth(); x++)
+				Assert.assertEquals(rgb.getRGB(x, y) & 0xFF, gray.getRaster()
+						.getSample(x, y, 0), tolerance);
+	}
+
+	private static BufferedImage gray(int width, int height) {
+		Random random = new Random(width);
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_BYTE_GRAY);
+
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				image.getRaster().setSample(x, y, 0, random.nextInt(256));
+
+		return image;
+	}
+
+	private static BufferedImage indexed(int width, int height) {
+		Random random = new Random(width);
+		byte[] r = new byte[16];
+		byte[] g = new byte[16];
+		byte[] b = new byte[16];
+
+		random.nextBytes(r);
+		random.nextBytes(g);
+		random.nextBytes(b);
+
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_BYTE_INDEXED, new IndexColorModel(8, 16, r,
+						g, b));
+
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				image.getRaster().setSample(x, y, 0, random.nextInt(16));
+
+		return image;
+	}
+}
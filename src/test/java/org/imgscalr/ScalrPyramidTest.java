@@ -0,0 +1,139 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.image.BufferedImage;
+
+import junit.framework.Assert;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.junit.Test;
+
+public class ScalrPyramidTest extends AbstractScalrTest {
+	@Test
+	public void testPyramidEX() {
+		try {
+			new ImagePyramid(null);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			new ImagePyramid(src, -1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		ImagePyramid pyramid = new ImagePyramid(src);
+
+		try {
+			pyramid.resize(Method.QUALITY, -1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			pyramid.resize(null, 64);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			pyramid.resize(Method.QUALITY, null, 64, 64);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testLevels() {
+		ImagePyramid pyramid = new ImagePyramid(new BufferedImage(801, 600,
+				BufferedImage.TYPE_INT_RGB));
+
+		// 801x600, 401x300, 201x150, ... 1x1
+		Assert.assertEquals(11, pyramid.getLevelCount());
+		Assert.assertEquals(0, pyramid.selectLevel(900, 100));
+		Assert.assertEquals(0, pyramid.selectLevel(402, 300));
+		Assert.assertEquals(1, pyramid.selectLevel(401, 300));
+		Assert.assertEquals(2, pyramid.selectLevel(150, 150));
+		Assert.assertEquals(10, pyramid.selectLevel(1, 1));
+
+		BufferedImage level = pyramid.getLevel(3);
+
+		Assert.assertEquals(101, level.getWidth());
+		Assert.assertEquals(75, level.getHeight());
+		Assert.assertSame(level, pyramid.getLevel(3));
+		Assert.assertEquals(1, pyramid.getMissCount());
+		Assert.assertEquals(1, pyramid.getHitCount());
+	}
+
+	@Test
+	public void testResize() {
+		ImagePyramid pyramid = new ImagePyramid(src);
+
+		for (int size : new int[] { 320, 64, 500, 900, 17 }) {
+			assertEquals(Scalr.resize(src, Method.QUALITY, size),
+					pyramid.resize(Method.QUALITY, size));
+
+			BufferedImage expected = Scalr.resize(src, Method.AUTOMATIC,
+					Mode.FIT_TO_HEIGHT, size, size);
+			BufferedImage result = pyramid.resize(Method.AUTOMATIC,
+					Mode.FIT_TO_HEIGHT, size, size);
+
+			Assert.assertEquals(expected.getWidth(), result.getWidth());
+			Assert.assertEquals(expected.getHeight(), result.getHeight());
+		}
+
+		// Results never share a level, even at a level's exact size.
+		BufferedImage result = pyramid.resize(Method.QUALITY, Mode.FIT_EXACT,
+				400, 300);
+
+		Assert.assertNotSame(pyramid.getLevel(1), result);
+		assertEquals(pyramid.getLevel(1), result);
+		Assert.assertSame(src, pyramid.resize(Method.QUALITY, src.getWidth()));
+	}
+
+	@Test
+	public void testEviction() {
+		// Room for the 400x300 level or the two levels below it, not both.
+		ImagePyramid pyramid = new ImagePyramid(src, 400 * 300 * 4);
+
+		pyramid.resize(Method.QUALITY, 100);
+		Assert.assertNull(pyramid.levels[1]);
+		Assert.assertNotNull(pyramid.levels[3]);
+		Assert.assertTrue(pyramid.getRetainedBytes() <= 400 * 300 * 4);
+
+		pyramid.resize(Method.QUALITY, 400);
+		Assert.assertNotNull(pyramid.levels[1]);
+		Assert.assertNull(pyramid.levels[2]);
+		Assert.assertNull(pyramid.levels[3]);
+		Assert.assertEquals(400 * 300 * 4, pyramid.getRetainedBytes());
+
+		// Levels bigger than the cap are never retained.
+		pyramid = new ImagePyramid(src, 0);
+		pyramid.resize(Method.QUALITY, 100);
+		Assert.assertEquals(0, pyramid.getRetainedBytes());
+
+		pyramid.clear();
+		Assert.assertEquals(0, pyramid.getRetainedBytes());
+	}
+}
@@ -0,0 +1,151 @@
+/**   
+ * Copyright 2011 Riyad Kalla
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.imgscalr;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalrResampleTest extends AbstractScalrTest {
+	private static final Method[] METHODS = { Method.LANCZOS3,
+			Method.MITCHELL, Method.CATMULL_ROM };
+
+	@Test
+	public void testResampleDimensions() {
+		for (Method method : METHODS) {
+			BufferedImage down = Scalr.resize(src, method, 320);
+			BufferedImage exact = Scalr.resize(src, method, Mode.FIT_EXACT,
+					97, 413);
+			BufferedImage up = Scalr.resize(src, method, Mode.FIT_EXACT,
+					src.getWidth() * 2, src.getHeight() + 1);
+
+			Assert.assertEquals(320, down.getWidth());
+			Assert.assertEquals(97, exact.getWidth());
+			Assert.assertEquals(413, exact.getHeight());
+			Assert.assertEquals(src.getWidth() * 2, up.getWidth());
+			Assert.assertEquals(src.getHeight() + 1, up.getHeight());
+		}
+	}
+
+	@Test
+	public void testResampleSolidColor() {
+		int[] colors = { 0xFF336699, 0x80FF0000 };
+
+		for (int color : colors) {
+			BufferedImage solid = new BufferedImage(301, 199,
+					BufferedImage.TYPE_INT_ARGB);
+
+			for (int y = 0; y < solid.getHeight(); y++)
+				for (int x = 0; x < solid.getWidth(); x++)
+					solid.setRGB(x, y, color);
+
+			for (Method method : METHODS) {
+				BufferedImage result = Scalr.resize(solid, method,
+						Mode.FIT_EXACT, 57, 33);
+
+				for (int y = 0; y < result.getHeight(); y++)
+					for (int x = 0; x < result.getWidth(); x++)
+						assertSimilar(color, result.getRGB(x, y), 1);
+			}
+		}
+	}
+
+	@Test
+	public void testResampleNoDarkHalo() {
+		// Opaque red stripe on a fully transparent (black) background.
+		BufferedImage image = new BufferedImage(400, 400,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.RED);
+		g.fillRect(150, 0, 100, 400);
+		g.dispose();
+
+		for (Method method : METHODS) {
+			BufferedImage result = Scalr.resize(image, method, 50);
+
+			for (int x = 0; x < result.getWidth(); x++) {
+				int pixel = result.getRGB(x, 25);
+
+				// Any visible pixel must still be pure red.
+				if ((pixel >>> 24) > 0)
+					assertSimilar(0xFF0000, pixel & 0xFFFFFF, 1);
+			}
+		}
+	}
+
+	@Test
+	public void testResampleComparableToUltraQuality() {
+		BufferedImage expected = Scalr.resize(src, Method.ULTRA_QUALITY,
+				Mode.FIT_EXACT, 240, 160);
+
+		for (Method method : METHODS) {
+			BufferedImage result = Scalr.resize(src, method, Mode.FIT_EXACT,
+					240, 160);
+
+			Assert.assertTrue(method + " differs too much from ULTRA_QUALITY",
+					meanDifference(expected, result) < 8);
+		}
+	}
+
+	@Test
+	public void testResampleNonIntSource() {
+		BufferedImage bgr = new BufferedImage(src.getWidth(),
+				src.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D g = bgr.createGraphics();
+		g.drawImage(src, 0, 0, null);
+		g.dispose();
+
+		BufferedImage expected = Scalr.resize(src, Method.LANCZOS3, 200);
+		BufferedImage result = Scalr.resize(bgr, Method.LANCZOS3, 200);
+
+		Assert.assertEquals(BufferedImage.TYPE_INT_RGB, result.getType());
+		assertEquals(expected, result);
+	}
+
+	protected static void assertSimilar(int expected, int actual,
+			int tolerance) {
+		for (int shift = 0; shift < 32; shift += 8) {
+			int e = (expected >>> shift) & 0xFF;
+			int a = (actual >>> shift) & 0xFF;
+
+			Assert.assertTrue("expected [" + Integer.toHexString(expected)
+					+ "] but was [" + Integer.toHexString(actual) + "]",
+					Math.abs(e - a) <= tolerance);
+		}
+	}
+
+	protected static double meanDifference(BufferedImage a, BufferedImage b) {
+		long total = 0;
+
+		for (int y = 0; y < a.getHeight(); y++) {
+			for (int x = 0; x < a.getWidth(); x++) {
+				int p = a.getRGB(x, y);
+				int q = b.getRGB(x, y);
+
+				for (int shift = 0; shift < 24; shift += 8)
+					total += Math.abs(((p >>> shift) & 0xFF)
+							- ((q >>> shift) & 0xFF));
+			}
+		}
+
+		return (double) total / (a.getWidth() * a.getHeight() * 3);
+	}
+}
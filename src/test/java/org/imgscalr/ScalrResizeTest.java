@@ -15,6 +15,8 @@
  */
 package org.imgscalr;
 
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 
 import junit.framework.Assert;
@@ -200,6 +202,65 @@ public class ScalrResizeTest extends AbstractScalrTest {
 
     }
 
+	@Test
+	public void testResizeIncrementalPingPong() {
+		BufferedImage translucent = new BufferedImage(src.getWidth(),
+				src.getHeight(), BufferedImage.TYPE_INT_ARGB);
+
+		for (int y = 0; y < src.getHeight(); y++)
+			for (int x = 0; x < src.getWidth(); x++)
+				translucent.setRGB(x, y, (src.getRGB(x, y) & 0x00FFFFFF)
+						| ((x * 255 / src.getWidth()) << 24));
+
+		BufferedImage[] images = { src, translucent };
+		Method[] methods = { Method.QUALITY, Method.ULTRA_QUALITY };
+
+		for (BufferedImage image : images) {
+			for (Method method : methods) {
+				assertEquals(
+						scaleIncrementally(image, 97, 61, method),
+						Scalr.resize(image, method, Mode.FIT_EXACT, 97, 61));
+				assertEquals(
+						scaleIncrementally(image, 31, 200, method),
+						Scalr.resize(image, method, Mode.FIT_EXACT, 31, 200));
+			}
+		}
+	}
+
+	/*
+	 * Reference incremental scale that allocates a new image for every step;
+	 * translucent interim steps are premultiplied.
+	 */
+	private static BufferedImage scaleIncrementally(BufferedImage src,
+			int targetWidth, int targetHeight, Method method) {
+		int fraction = (method == Method.ULTRA_QUALITY ? 7 : 2);
+		int w = src.getWidth();
+		int h = src.getHeight();
+
+		while (w != targetWidth || h != targetHeight) {
+			int prevW = w;
+			int prevH = h;
+
+			if (w > targetWidth)
+				w = Math.max(targetWidth, w - (w / fraction));
+			if (h > targetHeight)
+				h = Math.max(targetHeight, h - (h / fraction));
+			if (prevW == w && prevH == h)
+				break;
+
+			if ((w <= targetWidth && h <= targetHeight)
+					|| src.getTransparency() == Transparency.OPAQUE)
+				src = Scalr.scaleImage(src, w, h,
+						RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+			else
+				src = Scalr.scaleImage(src, new BufferedImage(w, h,
+						BufferedImage.TYPE_INT_ARGB_PRE),
+						RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		}
+
+		return src;
+	}
+
     // resize to (w,h) using AUTO and FIT_BOTH modes, then compare auto (w,h) and fitBoth (w,h)
     private void testResizeAutoVsBoth (BufferedImage i, int targetWidth, int targetHeight, int autoWidth, int autoHeight, int fitBothWidth, int fitBothHeight) {
         BufferedImage auto = Scalr.resize(i, Mode.AUTOMATIC, targetWidth, targetHeight);
@@ -211,4 +272,130 @@ public class ScalrResizeTest extends AbstractScalrTest {
         Assert.assertEquals(fitBothWidth, fitBoth.getWidth());
         Assert.assertEquals(fitBothHeight, fitBoth.getHeight());
     }
+
+	@Test
+	public void testResizeIntoDest() {
+		Method[] methods = { Method.SPEED, Method.BALANCED, Method.QUALITY,
+				Method.ULTRA_QUALITY, Method.LANCZOS3 };
+		int[] types = { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB };
+		int[][] sizes = { { 97, 61 }, { 1000, 700 } };
+
+		for (int type : types) {
+			BufferedImage dest = new BufferedImage(1100, 800, type);
+
+			for (Method method : methods) {
+				for (int[] size : sizes) {
+					// Garbage that must be replaced.
+					for (int y = 0; y < dest.getHeight(); y += 3)
+						dest.setRGB(y % dest.getWidth(), y, 0x80FF00FF);
+
+					BufferedImage expected = Scalr.resize(src, method,
+							Mode.FIT_EXACT, size[0], size[1]);
+
+					Assert.assertSame(dest, Scalr.resize(src, method, dest, 5,
+							9, size[0], size[1]));
+					assertEquals(expected, dest.getSubimage(5, 9, size[0],
+							size[1]));
+				}
+			}
+		}
+
+		BufferedImage dest = new BufferedImage(80, 60,
+				BufferedImage.TYPE_INT_RGB);
+
+		assertEquals(Scalr.resize(src, Method.QUALITY, Mode.FIT_EXACT, 80, 60),
+				Scalr.resize(src, Method.QUALITY, dest));
+
+		try {
+			Scalr.resize(src, Method.SPEED, dest, 0, 0, 81, 60);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			Scalr.resize(src, Method.SPEED, src);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		// A view of the source shares its pixels.
+		BufferedImage packed = Scalr.copy(src);
+
+		try {
+			Scalr.resize(packed, Method.SPEED,
+					Scalr.cropView(packed, 0, 0, 80, 60));
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testResizeAllEX() {
+		try {
+			Scalr.resizeAll(null, Method.QUALITY, Mode.AUTOMATIC, 64);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			Scalr.resizeAll(src, Method.QUALITY, Mode.AUTOMATIC, 64, -1);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			Scalr.resizeAll(src, Method.QUALITY, Mode.AUTOMATIC, (int[]) null);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			Scalr.resizeAll(src, Method.QUALITY, Mode.FIT_EXACT, new int[] {
+					64, 32 }, new int[] { 64 });
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		Assert.assertEquals(0, Scalr.resizeAll(src, Method.QUALITY,
+				Mode.AUTOMATIC).length);
+	}
+
+	@Test
+	public void testResizeAll() {
+		int[] sizes = { 64, 320, 128, 240, 32 };
+
+		for (Method method : new Method[] { Method.AUTOMATIC, Method.QUALITY,
+				Method.ULTRA_QUALITY }) {
+			BufferedImage[] results = Scalr.resizeAll(src, method,
+					Mode.AUTOMATIC, sizes);
+
+			Assert.assertEquals(sizes.length, results.length);
+
+			for (int i = 0; i < sizes.length; i++)
+				assertEquals(Scalr.resize(src, method, sizes[i]), results[i]);
+		}
+	}
+
+	@Test
+	public void testResizeAllFitExact() {
+		int[] widths = { 300, 200, src.getWidth(), 40, 900 };
+		int[] heights = { 100, 150, src.getHeight(), 40, 40 };
+		BufferedImage[] results = Scalr.resizeAll(src, Method.ULTRA_QUALITY,
+				Mode.FIT_EXACT, widths, heights, Scalr.OP_GRAYSCALE);
+
+		for (int i = 0; i < widths.length; i++) {
+			Assert.assertEquals(widths[i], results[i].getWidth());
+			Assert.assertEquals(heights[i], results[i].getHeight());
+		}
+
+		Assert.assertSame(src, Scalr.resizeAll(src, Method.QUALITY,
+				Mode.AUTOMATIC, src.getWidth(), 64)[0]);
+	}
 }
@@ -15,6 +15,10 @@
  */
 package org.imgscalr;
 
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.imgscalr.Scalr.Rotation;
 import org.junit.Assert;
 import org.junit.Test;
@@ -66,4 +70,116 @@ public class ScalrRotateTest extends AbstractScalrTest {
 				Scalr.rotate(load("time-square.png"), Rotation.FLIP_HORZ,
 						Scalr.OP_GRAYSCALE));
 	}
+
+	@Test
+	public void testRotateIntoDest() {
+		BufferedImage dest = new BufferedImage(1000, 1000,
+				BufferedImage.TYPE_INT_ARGB);
+
+		for (Rotation rotation : Rotation.values()) {
+			BufferedImage expected = Scalr.rotate(src, rotation);
+
+			Assert.assertSame(dest,
+					Scalr.rotate(src, rotation, dest, 7, 3));
+			assertEquals(expected, dest.getSubimage(7, 3,
+					expected.getWidth(), expected.getHeight()));
+		}
+
+		try {
+			Scalr.rotate(src, Rotation.CW_90, dest, 0, 201);
+			Assert.assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+	@Test
+	public void testRotateRaster() {
+		BufferedImage rgb = random(131, 77, BufferedImage.TYPE_INT_RGB);
+		BufferedImage argb = random(131, 77, BufferedImage.TYPE_INT_ARGB);
+
+		for (Rotation rotation : Rotation.values()) {
+			assertEquals(render(rgb, rotation), Scalr.rotate(rgb, rotation));
+			assertEquals(render(argb, rotation), Scalr.rotate(argb, rotation));
+
+			// Sub-image views have a raster offset and a larger stride.
+			BufferedImage view = argb.getSubimage(5, 9, 100, 60);
+
+			assertEquals(render(view, rotation), Scalr.rotate(view, rotation));
+		}
+	}
+
+	@Test
+	public void testRotateRasterParallel() {
+		BufferedImage argb = random(301, 203, BufferedImage.TYPE_INT_ARGB);
+		int threshold = Scalr.getParallelThreshold();
+		ForkJoinPool pool = new ForkJoinPool(3);
+
+		try {
+			for (Rotation rotation : Rotation.values()) {
+				BufferedImage expected = Scalr.rotate(argb, rotation);
+
+				Scalr.setParallelThreshold(0);
+				Scalr.setParallelPool(pool);
+
+				try {
+					assertEquals(expected, Scalr.rotate(argb, rotation));
+				} finally {
+					Scalr.setParallelThreshold(threshold);
+					Scalr.setParallelPool(null);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static BufferedImage random(int width, int height, int type) {
+		Random random = new Random(width * 31 + type);
+		BufferedImage image = new BufferedImage(width, height, type);
+
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				image.setRGB(x, y, random.nextInt());
+
+		return image;
+	}
+
+	/*
+	 * Java2D premultiplies translucent pixels on the way, so the expected
+	 * result is built one pixel at a time instead.
+	 */
+	private static BufferedImage render(BufferedImage src, Rotation rotation) {
+		int width = src.getWidth();
+		int height = src.getHeight();
+		boolean quadrant = (rotation == Rotation.CW_90 || rotation == Rotation.CW_270);
+		BufferedImage result = new BufferedImage(quadrant ? height : width,
+				quadrant ? width : height, src.getType());
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int argb = src.getRGB(x, y);
+
+				switch (rotation) {
+				case CW_90:
+					result.setRGB(height - 1 - y, x, argb);
+					break;
+				case CW_180:
+					result.setRGB(width - 1 - x, height - 1 - y, argb);
+					break;
+				case CW_270:
+					result.setRGB(y, width - 1 - x, argb);
+					break;
+				case FLIP_HORZ:
+					result.setRGB(width - 1 - x, y, argb);
+					break;
+				case FLIP_VERT:
+					result.setRGB(x, height - 1 - y, argb);
+					break;
+				}
+			}
+		}
+
+		return result;
+	}
 }